@@ -0,0 +1,97 @@
+package com.erkang.benchmark;
+
+import com.erkang.common.utils.DesensitizeUtil;
+import com.erkang.config.AIModelProperties;
+import com.erkang.domain.enums.ScreeningCategory;
+import com.erkang.integration.ai.AIModelGateway;
+import com.erkang.integration.ai.StubAIModelClient;
+import com.erkang.service.AIContextService;
+import com.erkang.service.AIResponseCache;
+import com.erkang.service.AIService;
+import com.erkang.service.ScreeningService;
+import com.erkang.service.TokenCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI输入脱敏、输出合规、随访红旗检测与个人信息脱敏基准测试
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class ComplianceBenchmark {
+
+    @Param({"64", "2048"})
+    private int length;
+
+    private ScreeningService screeningService;
+    private AIModelGateway gateway;
+    private AIService aiService;
+    private String question;
+    private String emergencyQuestion;
+    private String answer;
+    private String symptoms;
+
+    @Setup
+    public void setUp() {
+        screeningService = new ScreeningService();
+        gateway = new AIModelGateway(new StubAIModelClient(), new AIModelProperties(), new SimpleMeterRegistry());
+        aiService = new AIService(null, null, null, screeningService,
+                new AIResponseCache(false, 0, 0), new AIContextService(null, null, new TokenCounter()),
+                gateway, new SimpleMeterRegistry());
+        question = repeat("患者张三，电话13812345678，身份证110101199003071234，最近耳朵痛，", length);
+        emergencyQuestion = repeat("耳朵痛了三天，", length) + "今天突然呼吸困难";
+        answer = repeat("建议使用滴耳液，每次2滴，每日3次，必要时口服布洛芬200mg。", length);
+        symptoms = repeat("术后第三天，耳道少量分泌物，偶有耳鸣，无发热。", length) + "轻微眩晕";
+    }
+
+    @TearDown
+    public void tearDown() {
+        gateway.shutdown();
+    }
+
+    @Benchmark
+    public String sanitizeInput() {
+        return aiService.sanitizeInput(question);
+    }
+
+    @Benchmark
+    public String ensureCompliance() {
+        return aiService.ensureCompliance(answer, question);
+    }
+
+    @Benchmark
+    public String ensureComplianceEmergency() {
+        return aiService.ensureCompliance(answer, emergencyQuestion);
+    }
+
+    /**
+     * FollowupService 提交随访记录时的红旗征象检测路径
+     */
+    @Benchmark
+    public String followupRedFlag() {
+        return screeningService.findFirstKeyword(ScreeningCategory.RED_FLAG, symptoms);
+    }
+
+    @Benchmark
+    public String desensitize() {
+        return DesensitizeUtil.desensitizePhone("13812345678")
+                + DesensitizeUtil.desensitizeIdCard("110101199003071234")
+                + DesensitizeUtil.desensitizeName("欧阳娜娜")
+                + DesensitizeUtil.desensitizeEmail("zhangsan@example.com")
+                + DesensitizeUtil.desensitizeAddress("北京市东城区东单北大街1号");
+    }
+
+    private static String repeat(String unit, int length) {
+        StringBuilder sb = new StringBuilder(length + unit.length());
+        while (sb.length() < length) {
+            sb.append(unit);
+        }
+        return sb.toString();
+    }
+}
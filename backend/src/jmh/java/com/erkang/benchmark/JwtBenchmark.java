@@ -0,0 +1,83 @@
+package com.erkang.benchmark;
+
+import com.erkang.security.JwtAuthFilter;
+import com.erkang.security.JwtTokenProvider;
+import com.erkang.service.AuthService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 签发、解析与认证过滤器基准测试
+ * 过滤器使用不访问 Redis 的黑名单桩，只衡量本进程内的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final List<String> ROLES = List.of("DOCTOR_PRIMARY", "DOCTOR_EXPERT");
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtAuthFilter jwtAuthFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "secret",
+                "erkang-cloud-jwt-secret-key-2024-graduation-project-benchmark");
+        ReflectionTestUtils.setField(jwtTokenProvider, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "refreshExpiration", 604800000L);
+        token = jwtTokenProvider.generateToken(10086L, "doctor_zhang", ROLES);
+
+        RedisTemplate<String, Object> noBlacklist = new RedisTemplate<>() {
+            @Override
+            public Boolean hasKey(String key) {
+                return false;
+            }
+        };
+        jwtAuthFilter = new JwtAuthFilter(jwtTokenProvider,
+                new AuthService(null, jwtTokenProvider, noBlacklist, null, null, null));
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtTokenProvider.generateToken(10086L, "doctor_zhang", ROLES);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    /**
+     * 与过滤器相同的解析路径：校验后分别读取用户ID、用户名与角色
+     */
+    @Benchmark
+    public Object parse() {
+        jwtTokenProvider.validateToken(token);
+        Long userId = jwtTokenProvider.getUserIdFromToken(token);
+        String username = jwtTokenProvider.getUsernameFromToken(token);
+        List<String> roles = jwtTokenProvider.getRolesFromToken(token);
+        return userId + username + roles.size();
+    }
+
+    @Benchmark
+    public int authFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/consultations/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtAuthFilter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
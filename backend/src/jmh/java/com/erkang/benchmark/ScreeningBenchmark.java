@@ -0,0 +1,105 @@
+package com.erkang.benchmark;
+
+import com.erkang.domain.enums.ScreeningCategory;
+import com.erkang.service.ScreeningService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 文本筛查基准测试
+ * 对比逐条 contains/replaceAll 的原实现与单次扫描的筛查引擎
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScreeningBenchmark {
+
+    private static final List<String> RED_FLAG_KEYWORDS = List.of(
+        "剧烈疼痛", "高烧", "出血", "呼吸困难", "吞咽困难",
+        "听力急剧下降", "面瘫", "眩晕", "恶心呕吐", "意识模糊",
+        "severe pain", "high fever", "bleeding", "difficulty breathing"
+    );
+
+    private static final Pattern PHONE_PATTERN = Pattern.compile("1[3-9]\\d{9}");
+    private static final Pattern ID_CARD_PATTERN = Pattern.compile("\\d{17}[\\dXx]");
+    private static final Pattern NAME_PATTERN = Pattern.compile("(?:姓名|患者|病人)[：:]*([\\u4e00-\\u9fa5]{2,4})");
+
+    @Param({"64", "2048"})
+    private int length;
+
+    private ScreeningService screeningService;
+    private String symptoms;
+    private String question;
+    private String answer;
+
+    @Setup
+    public void setUp() {
+        screeningService = new ScreeningService();
+        symptoms = repeat("术后第三天，耳道少量分泌物，偶有耳鸣，无发热。", length) + "轻微眩晕";
+        question = repeat("患者张三，电话13812345678，最近耳朵痛，", length);
+        answer = repeat("建议使用滴耳液，每次2滴，每日3次，必要时口服布洛芬200mg。", length);
+    }
+
+    @Benchmark
+    public boolean redFlagLegacy() {
+        String lower = symptoms.toLowerCase();
+        for (String keyword : RED_FLAG_KEYWORDS) {
+            if (lower.contains(keyword.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean redFlagEngine() {
+        return screeningService.containsKeyword(ScreeningCategory.RED_FLAG, symptoms);
+    }
+
+    @Benchmark
+    public String sanitizeLegacy() {
+        String result = ID_CARD_PATTERN.matcher(question).replaceAll("[身份证号已隐藏]");
+        result = PHONE_PATTERN.matcher(result).replaceAll("[手机号已隐藏]");
+        Matcher nameMatcher = NAME_PATTERN.matcher(result);
+        while (nameMatcher.find()) {
+            String name = nameMatcher.group(1);
+            result = result.replace(name, name.charAt(0) + "*".repeat(name.length() - 1));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String sanitizeEngine() {
+        return screeningService.sanitize(question);
+    }
+
+    @Benchmark
+    public String dosageLegacy() {
+        String result = answer;
+        result = result.replaceAll("每次\\d+[片粒支ml毫升]", "每次[剂量请遵医嘱]");
+        result = result.replaceAll("每日\\d+次", "每日[次数请遵医嘱]");
+        result = result.replaceAll("\\d+mg", "[剂量请遵医嘱]");
+        result = result.replaceAll("\\d+毫克", "[剂量请遵医嘱]");
+        return result;
+    }
+
+    @Benchmark
+    public String dosageEngine() {
+        return screeningService.filterDosage(answer);
+    }
+
+    private static String repeat(String unit, int length) {
+        StringBuilder sb = new StringBuilder(length + unit.length());
+        while (sb.length() < length) {
+            sb.append(unit);
+        }
+        return sb.toString();
+    }
+}
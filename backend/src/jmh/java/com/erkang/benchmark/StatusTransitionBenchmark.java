@@ -0,0 +1,71 @@
+package com.erkang.benchmark;
+
+import com.erkang.domain.enums.ConsultationStatus;
+import com.erkang.domain.enums.PrescriptionStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 问诊与处方状态流转校验基准测试
+ * 每次调用遍历全部 (当前状态, 目标状态) 组合，并按状态码解析
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class StatusTransitionBenchmark {
+
+    private ConsultationStatus[] consultationStatuses;
+    private PrescriptionStatus[] prescriptionStatuses;
+    private String[] prescriptionCodes;
+
+    @Setup
+    public void setUp() {
+        consultationStatuses = ConsultationStatus.values();
+        prescriptionStatuses = PrescriptionStatus.values();
+        prescriptionCodes = new String[prescriptionStatuses.length];
+        for (int i = 0; i < prescriptionStatuses.length; i++) {
+            prescriptionCodes[i] = prescriptionStatuses[i].getCode();
+        }
+    }
+
+    @Benchmark
+    public int consultationTransitions() {
+        int allowed = 0;
+        for (ConsultationStatus from : consultationStatuses) {
+            for (ConsultationStatus to : consultationStatuses) {
+                if (from.canTransitionTo(to)) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    public int prescriptionTransitions() {
+        int allowed = 0;
+        for (PrescriptionStatus from : prescriptionStatuses) {
+            for (PrescriptionStatus to : prescriptionStatuses) {
+                if (from.canTransitionTo(to)) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    public int prescriptionFromCode() {
+        int found = 0;
+        for (String code : prescriptionCodes) {
+            if (PrescriptionStatus.fromCode(code) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,50 @@
+package com.erkang.benchmark;
+
+import com.erkang.websocket.WSMessage;
+import com.erkang.websocket.WSMessageType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket 消息序列化基准测试
+ * ObjectMapper 与应用内一致：注册 JavaTimeModule，时间按 ISO 字符串输出
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class WSMessageBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> chat;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        chat = Map.of(
+                "consultationId", 20240001L,
+                "senderId", 10086L,
+                "senderName", "张医生",
+                "content", "请把耳道分泌物的照片上传一下，我看一下恢复情况。",
+                "contentType", "TEXT");
+    }
+
+    @Benchmark
+    public String chatMessage() throws Exception {
+        return objectMapper.writeValueAsString(WSMessage.of(WSMessageType.CHAT_MESSAGE, chat));
+    }
+
+    @Benchmark
+    public String pong() throws Exception {
+        return objectMapper.writeValueAsString(WSMessage.of(WSMessageType.PONG, null));
+    }
+}
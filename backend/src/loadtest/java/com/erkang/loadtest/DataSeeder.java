@@ -0,0 +1,220 @@
+package com.erkang.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 按规模系数批量生成压测数据
+ * 数据全部由行号推导（无随机数），相同规模下每次生成的数据一致；时间相对生成时刻分布在最近一年内
+ */
+final class DataSeeder {
+
+    static final String PASSWORD = "Load@2024";
+
+    static final long DOCTOR_USER_BASE = 10_000;
+    static final long PHARMACIST_USER_BASE = 50_000;
+    static final long PATIENT_USER_BASE = 1_000_000;
+
+    private static final int HOSPITALS = 10;
+    private static final int DEPARTMENTS_PER_HOSPITAL = 8;
+    private static final int CHUNK = 500_000;
+    // DATABASE_TO_LOWER 下 SYSTEM_RANGE 的大写列名无法引用，统一起别名 r(x)
+    private static final String YEAR_AGO = "DATEADD('SECOND', -MOD(X * 7919, 31536000), CURRENT_TIMESTAMP)";
+
+    private DataSeeder() {
+    }
+
+    /**
+     * 生成的数据规模，供场景选取用户与问诊
+     */
+    record Seed(int patients, int doctors, int pharmacists, int consultations, int prescriptions, int auditLogs) {
+
+        long patientUserId(int index) {
+            return PATIENT_USER_BASE + index + 1;
+        }
+
+        long doctorUserId(int index) {
+            return DOCTOR_USER_BASE + index + 1;
+        }
+
+        /** doctor_profile.id 与医生序号一致，预约接口按档案ID选择医生 */
+        long doctorProfileId(int index) {
+            return index + 1;
+        }
+
+        long pharmacistUserId(int index) {
+            return PHARMACIST_USER_BASE + index + 1;
+        }
+
+        /** 分配给该医生的一条问诊，优先取已结束的（与 seedConsultations 的取模规则一致） */
+        long consultationOf(int doctorIndex, int round) {
+            long perDoctor = Math.max(1, consultations / doctors);
+            for (int i = 0; i < 20; i++) {
+                long id = (round + i) % perDoctor * doctors + doctorIndex;
+                if (id >= 1 && id % 20 >= 3) {
+                    return id;
+                }
+            }
+            return (round % perDoctor) * doctors + doctorIndex + (doctorIndex == 0 ? doctors : 0);
+        }
+
+        long patientOfConsultation(long consultationId) {
+            return PATIENT_USER_BASE + (consultationId * 31) % patients + 1;
+        }
+    }
+
+    static Seed seed(Connection connection, LoadTestConfig config) throws SQLException {
+        Seed seed = new Seed(
+                config.scaled(100_000, 200),
+                config.scaled(1_000, 20),
+                config.scaled(50, 3),
+                config.scaled(1_000_000, 2_000),
+                config.scaled(200_000, 400),
+                config.scaled(10_000_000, 20_000));
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        try (Statement statement = connection.createStatement()) {
+            seedOrganizations(statement);
+            seedUsers(connection, statement, seed, hash);
+            seedConsultations(statement, seed);
+            seedPrescriptions(statement, seed);
+            seedAuditLogs(statement, seed);
+            for (String table : new String[]{"sys_user", "sys_user_role", "patient_profile", "doctor_profile",
+                    "org_hospital", "org_department", "consultation", "prescription", "prescription_item",
+                    "pharmacy_review", "audit_log"}) {
+                restartIdentity(statement, table);
+            }
+        }
+        return seed;
+    }
+
+    private static void seedOrganizations(Statement statement) throws SQLException {
+        statement.execute("INSERT INTO org_hospital (id, name, level, status) "
+                + "SELECT X, CONCAT('耳康合作医院', X), '三级甲等', 1 FROM SYSTEM_RANGE(1, " + HOSPITALS + ") r(x)");
+        statement.execute("INSERT INTO org_department (id, hospital_id, name, sort_order, status) "
+                + "SELECT X, MOD(X - 1, " + HOSPITALS + ") + 1, "
+                + "CASE MOD(X, 4) WHEN 0 THEN '耳科' WHEN 1 THEN '鼻科' WHEN 2 THEN '咽喉科' ELSE '头颈外科' END, X, 1 "
+                + "FROM SYSTEM_RANGE(1, " + HOSPITALS * DEPARTMENTS_PER_HOSPITAL + ") r(x)");
+    }
+
+    private static void seedUsers(Connection connection, Statement statement, Seed seed, String hash)
+            throws SQLException {
+        insertUsers(connection, "doctor_", DOCTOR_USER_BASE, seed.doctors(), "医生", hash);
+        insertUsers(connection, "pharmacist_", PHARMACIST_USER_BASE, seed.pharmacists(), "药师", hash);
+        insertUsers(connection, "patient_", PATIENT_USER_BASE, seed.patients(), "患者", hash);
+        try (PreparedStatement admin = connection.prepareStatement(
+                "UPDATE sys_user SET password = ? WHERE username = 'admin'")) {
+            admin.setString(1, hash);
+            admin.executeUpdate();
+        }
+
+        // 每5名医生中1名为专家
+        statement.execute("INSERT INTO sys_user_role (user_id, role_id) SELECT " + DOCTOR_USER_BASE + " + X, "
+                + "(SELECT id FROM sys_role WHERE role_code = CASE WHEN MOD(X, 5) = 0 THEN 'DOCTOR_EXPERT' "
+                + "ELSE 'DOCTOR_PRIMARY' END) FROM SYSTEM_RANGE(1, " + seed.doctors() + ") r(x)");
+        statement.execute("INSERT INTO sys_user_role (user_id, role_id) SELECT " + PHARMACIST_USER_BASE + " + X, "
+                + "(SELECT id FROM sys_role WHERE role_code = 'PHARMACIST') FROM SYSTEM_RANGE(1, "
+                + seed.pharmacists() + ") r(x)");
+        statement.execute("INSERT INTO sys_user_role (user_id, role_id) SELECT " + PATIENT_USER_BASE + " + X, "
+                + "(SELECT id FROM sys_role WHERE role_code = 'PATIENT') FROM SYSTEM_RANGE(1, "
+                + seed.patients() + ") r(x)");
+
+        statement.execute("INSERT INTO doctor_profile (id, user_id, hospital_id, department_id, title, specialty, "
+                + "consultation_fee, is_expert, status) SELECT X, " + DOCTOR_USER_BASE + " + X, "
+                + "MOD(X - 1, " + HOSPITALS + ") + 1, MOD(X - 1, " + HOSPITALS * DEPARTMENTS_PER_HOSPITAL + ") + 1, "
+                + "CASE WHEN MOD(X, 5) = 0 THEN '主任医师' ELSE '主治医师' END, '耳鼻喉常见病', "
+                + "CASE WHEN MOD(X, 5) = 0 THEN 80 ELSE 30 END, CASE WHEN MOD(X, 5) = 0 THEN 1 ELSE 0 END, 1 "
+                + "FROM SYSTEM_RANGE(1, " + seed.doctors() + ") r(x)");
+        statement.execute("INSERT INTO patient_profile (user_id, gender, birth_date, address) SELECT "
+                + PATIENT_USER_BASE + " + X, MOD(X, 2), DATEADD('DAY', -MOD(X * 37, 25000) - 3650, CURRENT_DATE), "
+                + "CONCAT('示例市示例区', MOD(X, 500), '号') FROM SYSTEM_RANGE(1, " + seed.patients() + ") r(x)");
+    }
+
+    private static void insertUsers(Connection connection, String prefix, long base, int count, String name,
+                                    String hash) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO sys_user "
+                + "(id, username, password, phone, real_name, status, created_at) SELECT ? + X, CONCAT(?, X), ?, "
+                + "CONCAT('139', LPAD(CAST(MOD(? + X, 100000000) AS VARCHAR), 8, '0')), CONCAT(?, X), 1, "
+                + YEAR_AGO + " FROM SYSTEM_RANGE(1, ?) r(x)")) {
+            insert.setLong(1, base);
+            insert.setString(2, prefix);
+            insert.setString(3, hash);
+            insert.setLong(4, base);
+            insert.setString(5, name);
+            insert.setInt(6, count);
+            insert.executeUpdate();
+        }
+    }
+
+    private static void seedConsultations(Statement statement, Seed seed) throws SQLException {
+        // 5% 待接诊、5% 进行中、5% 已取消，其余已结束
+        for (long from = 1; from <= seed.consultations(); from += CHUNK) {
+            long to = Math.min(seed.consultations(), from + CHUNK - 1);
+            statement.execute("INSERT INTO consultation (id, patient_id, doctor_id, consultation_no, "
+                    + "consultation_type, status, status_updated_at, start_time, end_time, duration, rtc_room_id, "
+                    + "symptoms, created_at, updated_at) SELECT X, "
+                    + PATIENT_USER_BASE + " + MOD(X * 31, " + seed.patients() + ") + 1, "
+                    + DOCTOR_USER_BASE + " + MOD(X, " + seed.doctors() + ") + 1, "
+                    + "CONCAT('C', LPAD(CAST(X AS VARCHAR), 12, '0')), "
+                    + "CASE MOD(X, 3) WHEN 0 THEN 'TEXT' ELSE 'VIDEO' END, "
+                    + "CASE MOD(X, 20) WHEN 0 THEN 'WAITING' WHEN 1 THEN 'IN_PROGRESS' WHEN 2 THEN 'CANCELED' "
+                    + "ELSE 'FINISHED' END, " + YEAR_AGO + ", " + YEAR_AGO + ", "
+                    + "DATEADD('MINUTE', 15, " + YEAR_AGO + "), 15, CONCAT('room', X), '耳鸣伴听力下降一周', "
+                    + YEAR_AGO + ", " + YEAR_AGO + " FROM SYSTEM_RANGE(" + from + ", " + to + ") r(x)");
+        }
+    }
+
+    private static void seedPrescriptions(Statement statement, Seed seed) throws SQLException {
+        // 处方挂在已结束的问诊上（编号模20余3~19），患者与医生按问诊的取模规则推导
+        String consultationId = "(MOD(X - 1, " + seed.consultations() / 20 + ") * 20 + 3 + MOD(X, 17))";
+        statement.execute("INSERT INTO prescription (id, consultation_id, patient_id, doctor_id, prescription_no, "
+                + "diagnosis, status, submitted_at, created_at, updated_at) SELECT X, " + consultationId + ", "
+                + PATIENT_USER_BASE + " + MOD(" + consultationId + " * 31, " + seed.patients() + ") + 1, "
+                + DOCTOR_USER_BASE + " + MOD(" + consultationId + ", " + seed.doctors() + ") + 1, "
+                + "CONCAT('RX', LPAD(CAST(X AS VARCHAR), 12, '0')), '慢性中耳炎', "
+                + "CASE MOD(X, 10) WHEN 0 THEN 'PENDING_REVIEW' WHEN 1 THEN 'REJECTED' ELSE 'APPROVED' END, "
+                + YEAR_AGO + ", " + YEAR_AGO + ", " + YEAR_AGO + " "
+                + "FROM SYSTEM_RANGE(1, " + seed.prescriptions() + ") r(x)");
+        statement.execute("INSERT INTO prescription_item (prescription_id, drug_name, drug_spec, dosage, frequency, "
+                + "duration, quantity, unit, sort_order) SELECT (X + 1) / 2, "
+                + "CASE MOD(X, 2) WHEN 0 THEN '氧氟沙星滴耳液' ELSE '阿莫西林胶囊' END, "
+                + "CASE MOD(X, 2) WHEN 0 THEN '5ml' ELSE '0.5g*24粒' END, '遵医嘱', '每日3次', '7天', 1, "
+                + "CASE MOD(X, 2) WHEN 0 THEN '支' ELSE '盒' END, MOD(X, 2) "
+                + "FROM SYSTEM_RANGE(1, " + seed.prescriptions() * 2L + ") r(x)");
+        statement.execute("INSERT INTO pharmacy_review (prescription_id, reviewer_id, review_status, risk_level, "
+                + "reviewed_at, created_at) SELECT id, " + PHARMACIST_USER_BASE + " + MOD(id, "
+                + seed.pharmacists() + ") + 1, status, 'LOW', submitted_at, submitted_at FROM prescription "
+                + "WHERE status IN ('APPROVED', 'REJECTED')");
+    }
+
+    private static void seedAuditLogs(Statement statement, Seed seed) throws SQLException {
+        for (long from = 1; from <= seed.auditLogs(); from += CHUNK) {
+            long to = Math.min(seed.auditLogs(), from + CHUNK - 1);
+            statement.execute("INSERT INTO audit_log (id, user_id, username, user_role, action, module, "
+                    + "target_type, target_id, request_method, request_url, response_code, ip_address, "
+                    + "duration_ms, created_at) SELECT X, "
+                    + "CASE MOD(X, 3) WHEN 0 THEN " + DOCTOR_USER_BASE + " + MOD(X, " + seed.doctors() + ") + 1 "
+                    + "ELSE " + PATIENT_USER_BASE + " + MOD(X, " + seed.patients() + ") + 1 END, "
+                    + "CASE MOD(X, 3) WHEN 0 THEN CONCAT('doctor_', MOD(X, " + seed.doctors() + ") + 1) "
+                    + "ELSE CONCAT('patient_', MOD(X, " + seed.patients() + ") + 1) END, "
+                    + "CASE MOD(X, 3) WHEN 0 THEN 'DOCTOR_PRIMARY' ELSE 'PATIENT' END, "
+                    + "CASE MOD(X, 5) WHEN 0 THEN 'LOGIN' WHEN 1 THEN 'CREATE_CONSULTATION' "
+                    + "WHEN 2 THEN 'START_CONSULTATION' WHEN 3 THEN 'VIEW_MEDICAL_RECORD' ELSE 'SUBMIT_PRESCRIPTION' END, "
+                    + "CASE MOD(X, 5) WHEN 0 THEN 'AUTH' WHEN 3 THEN 'MEDICAL_RECORD' WHEN 4 THEN 'PRESCRIPTION' "
+                    + "ELSE 'CONSULTATION' END, 'Consultation', MOD(X, " + seed.consultations() + ") + 1, 'POST', "
+                    + "'/api/consultations', 200, CONCAT('10.0.', MOD(X, 255), '.', MOD(X, 253)), MOD(X, 500), "
+                    + YEAR_AGO + " FROM SYSTEM_RANGE(" + from + ", " + to + ") r(x)");
+        }
+    }
+
+    private static void restartIdentity(Statement statement, String table) throws SQLException {
+        try (var rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            long next = rs.getLong(1);
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.erkang.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.concurrent.Executors;
+
+/**
+ * 基于本地目录的 S3 协议子集（MinIO 替身）
+ * 支持桶的 HEAD/PUT/?location 与对象的 PUT/GET/HEAD/DELETE，不校验签名
+ */
+final class FileSystemObjectStore implements AutoCloseable {
+
+    private static final String LOCATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<LocationConstraint xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">us-east-1</LocationConstraint>";
+    private static final String NO_SUCH_KEY = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message></Error>";
+
+    private final Path root;
+    private final HttpServer server;
+
+    FileSystemObjectStore(Path root) throws IOException {
+        this.root = Files.createDirectories(root);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "load-object-store");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+            String[] parts = path.substring(1).split("/", 2);
+            Path bucket = resolve(root, parts[0]);
+            String method = exchange.getRequestMethod();
+            if (parts.length == 1 || parts[1].isEmpty()) {
+                handleBucket(exchange, bucket, method);
+            } else {
+                handleObject(exchange, resolve(bucket, parts[1]), method);
+            }
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange, Path bucket, String method) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        if ("GET".equals(method) && query != null && query.startsWith("location")) {
+            send(exchange, 200, "application/xml", LOCATION.getBytes(StandardCharsets.UTF_8));
+        } else if ("HEAD".equals(method)) {
+            exchange.sendResponseHeaders(Files.isDirectory(bucket) ? 200 : 404, -1);
+        } else if ("PUT".equals(method)) {
+            Files.createDirectories(bucket);
+            exchange.sendResponseHeaders(200, -1);
+        } else {
+            exchange.sendResponseHeaders(501, -1);
+        }
+    }
+
+    private void handleObject(HttpExchange exchange, Path object, String method) throws IOException {
+        switch (method) {
+            case "PUT" -> {
+                Files.createDirectories(object.getParent());
+                Path temp = Files.createTempFile(object.getParent(), ".upload", null);
+                try (InputStream in = exchange.getRequestBody()) {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(temp, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                exchange.getResponseHeaders().set("ETag", etag(object));
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "GET", "HEAD" -> {
+                if (!Files.isRegularFile(object)) {
+                    send(exchange, 404, "application/xml",
+                            "HEAD".equals(method) ? null : NO_SUCH_KEY.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                exchange.getResponseHeaders().set("ETag", etag(object));
+                exchange.getResponseHeaders().set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME
+                        .format(Files.getLastModifiedTime(object).toInstant().atOffset(ZoneOffset.UTC)));
+                if ("HEAD".equals(method)) {
+                    exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(Files.size(object)));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    send(exchange, 200, "application/octet-stream", Files.readAllBytes(object));
+                }
+            }
+            case "DELETE" -> {
+                try {
+                    Files.delete(object);
+                } catch (NoSuchFileException ignored) {
+                    // S3 删除不存在的对象同样返回成功
+                }
+                exchange.sendResponseHeaders(204, -1);
+            }
+            default -> exchange.sendResponseHeaders(501, -1);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Path resolve(Path parent, String name) throws IOException {
+        Path resolved = parent.resolve(name).normalize();
+        if (!resolved.startsWith(parent)) {
+            throw new IOException("非法对象路径: " + name);
+        }
+        return resolved;
+    }
+
+    private static String etag(Path object) throws IOException {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            return "\"" + HexFormat.of().formatHex(md5.digest(Files.readAllBytes(object))) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,182 @@
+package com.erkang.loadtest;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内 Redis 替身
+ * 只实现业务用到的字符串与键命令（令牌黑名单等），其余命令直接抛出异常，避免静默返回错误结果
+ */
+final class InMemoryRedisConnectionFactory implements RedisConnectionFactory {
+
+    private final Map<ByteBuffer, Entry> store = new ConcurrentHashMap<>();
+
+    private record Entry(byte[] value, long expiresAt) {
+
+        boolean expired(long now) {
+            return expiresAt > 0 && expiresAt <= now;
+        }
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        boolean[] closed = {false};
+        return (RedisConnection) Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+                new Class<?>[]{RedisConnection.class},
+                (proxy, method, args) -> invoke(proxy, method, args, closed));
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        throw new UnsupportedOperationException("cluster");
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return false;
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        throw new UnsupportedOperationException("sentinel");
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return null;
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args, boolean[] closed) {
+        String name = method.getName();
+        if (name.endsWith("Commands") && method.getParameterCount() == 0) {
+            return proxy;
+        }
+        long now = System.currentTimeMillis();
+        switch (name) {
+            case "close" -> {
+                closed[0] = true;
+                return null;
+            }
+            case "isClosed" -> {
+                return closed[0];
+            }
+            case "isPipelined", "isQueueing" -> {
+                return false;
+            }
+            case "getNativeConnection" -> {
+                return store;
+            }
+            case "ping" -> {
+                return "PONG";
+            }
+            case "get" -> {
+                Entry entry = live(args[0], now);
+                return entry == null ? null : entry.value();
+            }
+            case "set" -> {
+                long expiresAt = args.length > 2 ? expiresAt((Expiration) args[2], now) : 0;
+                if (args.length > 3 && args[3] == RedisStringCommands.SetOption.SET_IF_ABSENT) {
+                    return putIfAbsent(args[0], args[1], expiresAt, now);
+                }
+                store.put(key(args[0]), new Entry((byte[]) args[1], expiresAt));
+                return true;
+            }
+            case "setNX" -> {
+                return putIfAbsent(args[0], args[1], 0, now);
+            }
+            case "setEx" -> {
+                store.put(key(args[0]), new Entry((byte[]) args[2], now + (Long) args[1] * 1000));
+                return true;
+            }
+            case "pSetEx" -> {
+                store.put(key(args[0]), new Entry((byte[]) args[2], now + (Long) args[1]));
+                return true;
+            }
+            case "exists" -> {
+                if (args[0] instanceof byte[]) {
+                    return live(args[0], now) != null;
+                }
+                long count = 0;
+                for (byte[] key : (byte[][]) args[0]) {
+                    count += live(key, now) != null ? 1 : 0;
+                }
+                return count;
+            }
+            case "del", "unlink" -> {
+                long count = 0;
+                for (byte[] key : (byte[][]) args[0]) {
+                    count += store.remove(key(key)) != null ? 1 : 0;
+                }
+                return count;
+            }
+            case "expire", "pExpire" -> {
+                long millis = name.equals("expire") ? (Long) args[1] * 1000 : (Long) args[1];
+                Entry entry = live(args[0], now);
+                if (entry == null) {
+                    return false;
+                }
+                store.put(key(args[0]), new Entry(entry.value(), now + millis));
+                return true;
+            }
+            case "incr" -> {
+                Entry updated = store.compute(key(args[0]), (k, old) -> {
+                    long value = old == null || old.expired(now)
+                            ? 0 : Long.parseLong(new String(old.value(), StandardCharsets.UTF_8));
+                    return new Entry(String.valueOf(value + 1).getBytes(StandardCharsets.UTF_8),
+                            old == null ? 0 : old.expiresAt());
+                });
+                return Long.parseLong(new String(updated.value(), StandardCharsets.UTF_8));
+            }
+            case "publish" -> {
+                // 单节点压测没有订阅者
+                return 0L;
+            }
+            default -> throw new UnsupportedOperationException("压测 Redis 替身不支持命令: " + name);
+        }
+    }
+
+    private boolean putIfAbsent(Object key, Object value, long expiresAt, long now) {
+        boolean[] inserted = {false};
+        store.compute(key(key), (k, old) -> {
+            if (old != null && !old.expired(now)) {
+                return old;
+            }
+            inserted[0] = true;
+            return new Entry((byte[]) value, expiresAt);
+        });
+        return inserted[0];
+    }
+
+    private Entry live(Object key, long now) {
+        Entry entry = store.get(key(key));
+        if (entry != null && entry.expired(now)) {
+            store.remove(key(key), entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private static long expiresAt(Expiration expiration, long now) {
+        if (expiration == null || expiration.isPersistent() || expiration.isKeepTtl()) {
+            return 0;
+        }
+        return now + expiration.getConverted(TimeUnit.MILLISECONDS);
+    }
+
+    private static ByteBuffer key(Object key) {
+        return ByteBuffer.wrap((byte[]) key);
+    }
+}
@@ -0,0 +1,86 @@
+package com.erkang.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按步骤汇总调用耗时与错误数
+ * 预热阶段关闭记录，正式阶段保留全部样本以计算精确分位数
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> steps = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    void start() {
+        steps.clear();
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+    }
+
+    void record(String step, long nanos, String error) {
+        if (recording) {
+            steps.computeIfAbsent(step, k -> new Samples()).add(nanos, error);
+        }
+    }
+
+    /**
+     * 当前阶段各步骤的统计结果
+     */
+    Map<String, StepResult> results(double seconds) {
+        Map<String, StepResult> results = new LinkedHashMap<>();
+        steps.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> results.put(e.getKey(), e.getValue().result(seconds)));
+        return results;
+    }
+
+    /**
+     * 单个步骤的统计结果，耗时单位为毫秒
+     */
+    record StepResult(long ops, long errors, double throughput, double p50Ms, double p99Ms, double maxMs,
+                      String lastError) {
+
+        double errorRate() {
+            return ops == 0 ? 0 : (double) errors / ops;
+        }
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+        private String lastError;
+
+        synchronized void add(long value, String error) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (error != null) {
+                errors++;
+                lastError = error;
+            }
+        }
+
+        synchronized StepResult result(double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new StepResult(size, errors, size / seconds, percentile(sorted, 0.50),
+                    percentile(sorted, 0.99), size == 0 ? 0 : sorted[size - 1] / 1e6, lastError);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
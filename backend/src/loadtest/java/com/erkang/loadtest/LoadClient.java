@@ -0,0 +1,135 @@
+package com.erkang.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 压测 HTTP 客户端
+ * 每次调用按步骤名记录耗时；非2xx或 Result.code 非0 计为错误
+ */
+final class LoadClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+    private static final String BOUNDARY = "----erkang-load-boundary";
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+
+    LoadClient(String baseUrl, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    /**
+     * 登录并返回访问令牌（不计时）
+     */
+    String login(String username, String password) {
+        JsonNode data = call(null, "POST", "/api/auth/login", null, json(Map.of("username", username,
+                "password", password)));
+        return data.path("accessToken").asText();
+    }
+
+    JsonNode get(String step, String token, String path) {
+        return call(step, "GET", path, token, null);
+    }
+
+    JsonNode post(String step, String token, String path, Object body) {
+        return call(step, "POST", path, token, body == null ? null : json(body));
+    }
+
+    JsonNode upload(String step, String token, String path, String fileName, byte[] content) {
+        byte[] head = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"" + fileName
+                + "\"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[head.length + content.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        HttpRequest request = request(path, token)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return send(step, request);
+    }
+
+    private JsonNode call(String step, String method, String path, String token, byte[] body) {
+        HttpRequest.Builder builder = request(path, token);
+        if (body != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        builder.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        return send(step, builder.build());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode send(String step, HttpRequest request) {
+        long start = System.nanoTime();
+        JsonNode data = null;
+        String error = null;
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                error = "HTTP " + response.statusCode();
+            } else if (response.headers().firstValue("Content-Type").orElse("").contains("json")) {
+                JsonNode result = MAPPER.readTree(response.body());
+                if (result.path("code").asInt() != 0) {
+                    error = result.path("code").asText() + " " + result.path("message").asText();
+                } else {
+                    data = result.path("data");
+                }
+            } else {
+                data = MAPPER.nullNode();
+            }
+        } catch (IOException e) {
+            error = e.getClass().getSimpleName() + " " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        }
+        long nanos = System.nanoTime() - start;
+        if (step != null) {
+            recorder.record(step, nanos, error);
+        }
+        if (error != null) {
+            throw new StepFailedException(request.method() + " " + request.uri().getPath() + ": " + error);
+        }
+        return data;
+    }
+
+    private static byte[] json(Object body) {
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 步骤失败，中止本轮场景（已计入错误数）
+     */
+    static final class StepFailedException extends RuntimeException {
+
+        StepFailedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
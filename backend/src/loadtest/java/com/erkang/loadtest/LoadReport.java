@@ -0,0 +1,88 @@
+package com.erkang.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测结果：控制台表格、JSON 结果文件与基线对比
+ */
+final class LoadReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final LoadTestConfig config;
+    private final Map<String, LatencyRecorder.StepResult> steps = new LinkedHashMap<>();
+
+    LoadReport(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    void add(Map<String, LatencyRecorder.StepResult> results) {
+        steps.putAll(results);
+    }
+
+    String table() {
+        StringBuilder sb = new StringBuilder(String.format("%-26s %9s %7s %10s %9s %9s %9s%n",
+                "step", "ops", "errors", "ops/s", "p50(ms)", "p99(ms)", "max(ms)"));
+        steps.forEach((name, r) -> {
+            sb.append(String.format("%-26s %9d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                    name, r.ops(), r.errors(), r.throughput(), r.p50Ms(), r.p99Ms(), r.maxMs()));
+            if (r.lastError() != null) {
+                sb.append("    last error: ").append(r.lastError()).append('\n');
+            }
+        });
+        return sb.toString();
+    }
+
+    void write(Path file) throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("config", config);
+        root.put("steps", steps);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        MAPPER.writeValue(file.toFile(), root);
+    }
+
+    /**
+     * 与基线逐步骤对比：p99 上升或吞吐下降超过容差、错误率超过上限均视为退化
+     */
+    List<String> regressions(Path baselineFile) throws IOException {
+        List<String> regressions = new ArrayList<>();
+        steps.forEach((name, r) -> {
+            if (r.errorRate() > config.maxErrorRate()) {
+                regressions.add(String.format("%s: error rate %.2f%% > %.2f%%",
+                        name, r.errorRate() * 100, config.maxErrorRate() * 100));
+            }
+        });
+        if (baselineFile == null) {
+            return regressions;
+        }
+        JsonNode baseline = MAPPER.readTree(baselineFile.toFile()).path("steps");
+        steps.forEach((name, r) -> {
+            JsonNode base = baseline.path(name);
+            if (base.isMissingNode()) {
+                return;
+            }
+            double p99 = base.path("p99Ms").asDouble();
+            double throughput = base.path("throughput").asDouble();
+            if (p99 > 0 && r.p99Ms() > p99 * (1 + config.tolerance())) {
+                regressions.add(String.format("%s: p99 %.2fms > baseline %.2fms", name, r.p99Ms(), p99));
+            }
+            if (throughput > 0 && r.throughput() < throughput * (1 - config.tolerance())) {
+                regressions.add(String.format("%s: throughput %.1f/s < baseline %.1f/s",
+                        name, r.throughput(), throughput));
+            }
+        });
+        return regressions;
+    }
+}
@@ -0,0 +1,42 @@
+package com.erkang.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 压测参数，均来自系统属性（由 load-test 构建配置传入）
+ *
+ * @param scale           数据规模系数，1.0 对应 10万患者、100万问诊、1000万审计日志
+ * @param concurrency     每个场景的并发虚拟用户数
+ * @param warmupSeconds   每个场景正式计时前的预热时长
+ * @param durationSeconds 每个场景的计时时长
+ * @param scenarios       要执行的场景，空表示全部
+ * @param resultFile      JSON 结果文件
+ * @param baselineFile    对比基线结果文件，空表示不对比
+ * @param tolerance       相对基线允许的退化比例
+ * @param maxErrorRate    允许的错误率上限
+ * @param seed            请求序列随机种子，相同种子与规模下请求序列一致
+ */
+public record LoadTestConfig(double scale, int concurrency, int warmupSeconds, int durationSeconds,
+                             List<String> scenarios, String resultFile, String baselineFile,
+                             double tolerance, double maxErrorRate, long seed) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        String scenarios = System.getProperty("load.scenarios", "");
+        return new LoadTestConfig(
+                Double.parseDouble(System.getProperty("load.scale", "1.0")),
+                Integer.getInteger("load.concurrency", 16),
+                Integer.getInteger("load.warmup-seconds", 5),
+                Integer.getInteger("load.duration-seconds", 30),
+                scenarios.isBlank() ? List.of() : Arrays.stream(scenarios.split(",")).map(String::trim).toList(),
+                System.getProperty("load.result", "target/load-result.json"),
+                System.getProperty("load.baseline", ""),
+                Double.parseDouble(System.getProperty("load.tolerance", "0.2")),
+                Double.parseDouble(System.getProperty("load.max-error-rate", "0.01")),
+                Long.getLong("load.seed", 20240101L));
+    }
+
+    public int scaled(int fullScale, int minimum) {
+        return Math.max(minimum, (int) Math.round(fullScale * scale));
+    }
+}
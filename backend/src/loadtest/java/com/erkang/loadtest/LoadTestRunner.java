@@ -0,0 +1,203 @@
+package com.erkang.loadtest;
+
+import com.erkang.ErkangCloudApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * 离线压测入口
+ * 内嵌 H2（MySQL 模式）、进程内 Redis 与本地目录对象存储替代外部依赖，按规模系数造数后
+ * 依次执行各场景，输出每个步骤的吞吐与 p50/p99，并可与基线结果对比，退化时以非0状态退出
+ *
+ * 运行：mvn -Pload-test test-compile exec:exec [-Dload.scale=0.1 -Dload.scenarios=login,stats]
+ */
+public final class LoadTestRunner {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:erkang_load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final String BUCKET = "erkang-files";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) {
+        int exitCode;
+        try {
+            exitCode = run(LoadTestConfig.fromSystemProperties());
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 2;
+        }
+        // 应用内的定时任务等非守护线程不会随上下文关闭立即结束，显式退出
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestConfig config) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        long start = System.currentTimeMillis();
+        // 持有一个连接保证内存库在应用启动前后始终存在
+        try (Connection keepAlive = DriverManager.getConnection(JDBC_URL, "sa", "")) {
+            SchemaLoader.load(keepAlive);
+            DataSeeder.Seed seed = DataSeeder.seed(keepAlive, config);
+            System.out.printf("seeded %s in %ds%n", seed, (System.currentTimeMillis() - start) / 1000);
+
+            Path objects = Files.createTempDirectory("erkang-load-objects");
+            Files.createDirectories(objects.resolve(BUCKET));
+            try (FileSystemObjectStore objectStore = new FileSystemObjectStore(objects);
+                 ConfigurableApplicationContext context = start(config, objectStore)) {
+                String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                return run(config, seed, baseUrl);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestConfig config, FileSystemObjectStore objectStore) {
+        InMemoryRedisConnectionFactory redis = new InMemoryRedisConnectionFactory();
+        // 以命令行参数传入，优先级高于 application.yml
+        return new SpringApplicationBuilder(ErkangCloudApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("redisConnectionFactory", redis))
+                .run("--server.port=0",
+                        "--management.server.port=-1",
+                        "--management.health.redis.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=" + JDBC_URL,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=" + (config.concurrency() + 4),
+                        "--minio.endpoint=" + objectStore.endpoint(),
+                        "--minio.bucket=" + BUCKET,
+                        "--jfr.enabled=false",
+                        // 单节点固定节点号，内存 Redis 不支持租约续期脚本
+                        "--id.node-id=0",
+                        // 单节点无需订阅作废通知
+                        "--auth.cache.broadcast=false",
+                        // 本地目录对象存储不支持列出分片上传
+                        "--storage.multipart.cleanup-interval-ms=0",
+                        "--logging.level.root=warn",
+                        "--logging.level.com.erkang=warn",
+                        // 超预算告警由 erkang.sql.budget.exceeded 指标体现，压测输出只保留结果
+                        "--logging.level.com.erkang.metrics.SqlBudgetFilter=error");
+    }
+
+    private static int run(LoadTestConfig config, DataSeeder.Seed seed, String baseUrl) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        LoadClient client = new LoadClient(baseUrl, recorder);
+        Scenarios.Accounts accounts = login(client, seed, config.concurrency());
+
+        LoadReport report = new LoadReport(config);
+        Map<String, Scenarios.Scenario> scenarios = Scenarios.all();
+        int index = 0;
+        for (Map.Entry<String, Scenarios.Scenario> entry : scenarios.entrySet()) {
+            index++;
+            if (!config.scenarios().isEmpty() && !config.scenarios().contains(entry.getKey())) {
+                continue;
+            }
+            long seedBase = config.seed() + index * 1000L;
+            recorder.stop();
+            drive(config.concurrency(), config.warmupSeconds(), thread -> new Scenarios.VirtualUser(
+                    client, seed, accounts, new SplittableRandom(seedBase - thread - 1)), entry.getValue());
+            recorder.start();
+            long measured = System.nanoTime();
+            drive(config.concurrency(), config.durationSeconds(), thread -> new Scenarios.VirtualUser(
+                    client, seed, accounts, new SplittableRandom(seedBase + thread)), entry.getValue());
+            recorder.stop();
+            report.add(recorder.results((System.nanoTime() - measured) / 1e9));
+            System.out.println("finished scenario " + entry.getKey());
+        }
+
+        System.out.print(report.table());
+        Path result = Path.of(config.resultFile());
+        report.write(result);
+        System.out.println("result written to " + result.toAbsolutePath());
+
+        List<String> regressions = report.regressions(
+                config.baselineFile().isBlank() ? null : Path.of(config.baselineFile()));
+        regressions.forEach(r -> System.out.println("REGRESSION " + r));
+        return regressions.isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * 压测前登录账号池（不计时），登录本身由 login 场景测量
+     */
+    private static Scenarios.Accounts login(LoadClient client, DataSeeder.Seed seed, int threads) throws Exception {
+        // 先单线程登录一次：jjwt 0.12.3 首次并发加载 ServiceLoader 实现时会抛 NoSuchElementException
+        String admin = client.login("admin", DataSeeder.PASSWORD);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Scenarios.Account>> patients = new ArrayList<>();
+            for (int i = 0; i < Math.min(seed.patients(), 200); i++) {
+                int index = i;
+                patients.add(executor.submit(() -> new Scenarios.Account(index, seed.patientUserId(index),
+                        client.login("patient_" + (index + 1), DataSeeder.PASSWORD))));
+            }
+            List<Future<Scenarios.Account>> doctors = new ArrayList<>();
+            for (int i = 0; i < Math.min(seed.doctors(), 50); i++) {
+                int index = i;
+                doctors.add(executor.submit(() -> new Scenarios.Account(index, seed.doctorUserId(index),
+                        client.login("doctor_" + (index + 1), DataSeeder.PASSWORD))));
+            }
+            List<Future<Scenarios.Account>> pharmacists = new ArrayList<>();
+            for (int i = 0; i < seed.pharmacists(); i++) {
+                int index = i;
+                pharmacists.add(executor.submit(() -> new Scenarios.Account(index, seed.pharmacistUserId(index),
+                        client.login("pharmacist_" + (index + 1), DataSeeder.PASSWORD))));
+            }
+            return new Scenarios.Accounts(join(patients), join(doctors), join(pharmacists), admin);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void drive(int threads, int seconds, IntFunction<Scenarios.VirtualUser> users,
+                              Scenarios.Scenario scenario) throws Exception {
+        if (seconds <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Scenarios.VirtualUser user = users.apply(t);
+                futures.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            scenario.run(user);
+                        } catch (LoadClient.StepFailedException ignored) {
+                            // 已计入错误数，继续下一轮
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static <T> List<T> join(List<Future<T>> futures) throws Exception {
+        List<T> values = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            values.add(future.get());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,131 @@
+package com.erkang.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 压测场景脚本
+ * 每个场景是一个虚拟用户的一轮操作，只对场景关注的步骤计时，准备数据的调用不计时
+ */
+final class Scenarios {
+
+    private static final byte[] ATTACHMENT = new byte[32 * 1024];
+
+    private Scenarios() {
+    }
+
+    /**
+     * 一轮场景操作
+     */
+    @FunctionalInterface
+    interface Scenario {
+        void run(VirtualUser user);
+    }
+
+    /**
+     * 已登录的账号
+     */
+    record Account(int index, long userId, String token) {
+    }
+
+    /**
+     * 压测开始前登录好的账号池
+     */
+    record Accounts(List<Account> patients, List<Account> doctors, List<Account> pharmacists, String admin) {
+    }
+
+    /**
+     * 虚拟用户：独立的随机序列，共享客户端与账号池
+     */
+    record VirtualUser(LoadClient client, DataSeeder.Seed seed, Accounts accounts, SplittableRandom random) {
+
+        Account pick(List<Account> pool) {
+            return pool.get(random.nextInt(pool.size()));
+        }
+    }
+
+    static Map<String, Scenario> all() {
+        Map<String, Scenario> scenarios = new LinkedHashMap<>();
+        scenarios.put("login", Scenarios::login);
+        scenarios.put("doctor-list", Scenarios::doctorList);
+        scenarios.put("booking", Scenarios::booking);
+        scenarios.put("consultation-start", Scenarios::consultationStart);
+        scenarios.put("prescription", Scenarios::prescription);
+        scenarios.put("stats", Scenarios::stats);
+        scenarios.put("audit-export", Scenarios::auditExport);
+        scenarios.put("file-upload", Scenarios::fileUpload);
+        return scenarios;
+    }
+
+    private static void login(VirtualUser user) {
+        int index = user.random().nextInt(user.seed().patients());
+        user.client().post("login", null, "/api/auth/login",
+                Map.of("username", "patient_" + (index + 1), "password", DataSeeder.PASSWORD));
+    }
+
+    private static void doctorList(VirtualUser user) {
+        int pages = Math.max(1, user.seed().doctors() / 10);
+        user.client().get("doctor.list", user.pick(user.accounts().patients()).token(),
+                "/api/doctors?current=" + (user.random().nextInt(pages) + 1) + "&size=10");
+    }
+
+    private static void booking(VirtualUser user) {
+        book(user, "consultation.book", user.pick(user.accounts().patients()),
+                user.seed().doctorProfileId(user.random().nextInt(user.seed().doctors())));
+    }
+
+    private static void consultationStart(VirtualUser user) {
+        Account doctor = user.pick(user.accounts().doctors());
+        long consultationId = book(user, null, user.pick(user.accounts().patients()),
+                user.seed().doctorProfileId(doctor.index()));
+        user.client().post("consultation.start", doctor.token(),
+                "/api/consultation/" + consultationId + "/start", null);
+    }
+
+    private static void prescription(VirtualUser user) {
+        Account doctor = user.pick(user.accounts().doctors());
+        long consultationId = user.seed().consultationOf(doctor.index(), user.random().nextInt(1 << 16));
+        long patientId = user.seed().patientOfConsultation(consultationId);
+        JsonNode prescription = user.client().post("prescription.create", doctor.token(),
+                "/api/prescriptions?consultationId=" + consultationId + "&patientId=" + patientId, null);
+        String path = "/api/prescriptions/" + prescription.path("id").asLong();
+        user.client().post("prescription.addItem", doctor.token(), path + "/items", Map.of(
+                "drugName", "氧氟沙星滴耳液", "specification", "5ml", "dosage", "每次3滴",
+                "frequency", "每日2次", "quantity", 1, "unit", "支"));
+        user.client().post("prescription.submit", doctor.token(), path + "/submit", null);
+        user.client().post("prescription.review", user.pick(user.accounts().pharmacists()).token(),
+                "/api/pharmacy-reviews/approve?prescriptionId=" + prescription.path("id").asLong(), null);
+    }
+
+    private static void stats(VirtualUser user) {
+        LocalDate end = LocalDate.now();
+        String range = "?startDate=" + end.minusDays(30) + "&endDate=" + end;
+        String admin = user.accounts().admin();
+        user.client().get("stats.overview", admin, "/api/stats/overview" + range);
+        user.client().get("stats.consultationTrend", admin, "/api/stats/consultation-trend" + range);
+        user.client().get("stats.departments", admin, "/api/stats/departments" + range);
+        user.client().get("stats.doctorRanking", admin, "/api/stats/doctor-ranking" + range);
+    }
+
+    private static void auditExport(VirtualUser user) {
+        LocalDate day = LocalDate.now().minusDays(1 + user.random().nextInt(364));
+        user.client().get("audit.export", user.accounts().admin(),
+                "/api/audit-logs/export?startDate=" + day + "&endDate=" + day);
+    }
+
+    private static void fileUpload(VirtualUser user) {
+        user.client().upload("file.upload", user.pick(user.accounts().patients()).token(),
+                "/api/files/upload?category=attachment", "audiogram.pdf", ATTACHMENT);
+    }
+
+    private static long book(VirtualUser user, String step, Account patient, long doctorProfileId) {
+        JsonNode consultation = user.client().post(step, patient.token(), "/api/consultations",
+                Map.of("doctorId", doctorProfileId, "symptoms", "耳鸣伴听力下降"));
+        return consultation.path("id").asLong();
+    }
+}
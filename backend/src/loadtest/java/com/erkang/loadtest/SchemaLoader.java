@@ -0,0 +1,73 @@
+package com.erkang.loadtest;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按版本顺序执行 db/V*.sql 迁移脚本建表
+ * H2 的索引名在整个库内唯一，而 MySQL 只要求表内唯一，建表时为索引名加上表名前缀
+ */
+final class SchemaLoader {
+
+    private static final Pattern VERSION = Pattern.compile("V(\\d+)__");
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+            "CREATE TABLE IF NOT EXISTS (\\w+)\\s*\\((.*?)\\)\\s*ENGINE", Pattern.DOTALL);
+    private static final Pattern INDEX_NAME = Pattern.compile("\\b(INDEX|KEY)\\s+(\\w+)\\s*\\(");
+
+    private SchemaLoader() {
+    }
+
+    static void load(Connection connection) throws IOException, SQLException {
+        Resource[] migrations = new PathMatchingResourcePatternResolver().getResources("classpath:db/V*__*.sql");
+        Arrays.sort(migrations, Comparator.comparingInt(SchemaLoader::version));
+        try (Statement statement = connection.createStatement()) {
+            for (Resource migration : migrations) {
+                String sql = prefixIndexNames(migration.getContentAsString(StandardCharsets.UTF_8));
+                for (String part : sql.split(";\\s*(\\r?\\n|$)")) {
+                    String trimmed = stripComments(part);
+                    if (!trimmed.isEmpty()) {
+                        statement.execute(trimmed);
+                    }
+                }
+            }
+        }
+    }
+
+    static String prefixIndexNames(String sql) {
+        Matcher table = CREATE_TABLE.matcher(sql);
+        StringBuilder out = new StringBuilder();
+        while (table.find()) {
+            String name = table.group(1);
+            String body = INDEX_NAME.matcher(table.group(2)).replaceAll("$1 " + name + "_$2 (");
+            table.appendReplacement(out, Matcher.quoteReplacement(
+                    "CREATE TABLE IF NOT EXISTS " + name + " (" + body + ") ENGINE"));
+        }
+        table.appendTail(out);
+        return out.toString();
+    }
+
+    private static String stripComments(String sql) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : sql.split("\\r?\\n")) {
+            if (!line.trim().startsWith("--")) {
+                sb.append(line).append('\n');
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    private static int version(Resource resource) {
+        Matcher matcher = VERSION.matcher(String.valueOf(resource.getFilename()));
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : Integer.MAX_VALUE;
+    }
+}
@@ -71,6 +71,11 @@ public enum ErrorCode {
     FILE_NOT_FOUND(8002, "文件不存在"),
     FILE_ACCESS_DENIED(8003, "无权访问该文件"),
     
+    // AI模块 8500-8999
+    AI_TASK_NOT_FOUND(8501, "AI任务不存在"),
+    AI_TASK_TYPE_INVALID(8502, "不支持的AI任务类型"),
+    AI_TASK_LIMIT_EXCEEDED(8503, "进行中的AI任务过多，请稍后再试"),
+    
     // 系统错误 9000-9999
     SYSTEM_BUSY(9001, "系统繁忙，请稍后重试"),
     EXTERNAL_SERVICE_ERROR(9002, "外部服务调用失败");
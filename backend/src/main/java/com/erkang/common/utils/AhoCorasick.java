@@ -0,0 +1,252 @@
+package com.erkang.common.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Aho-Corasick 多关键词匹配自动机
+ * 构建后不可变，可被多线程共享；一次线性扫描即可找出文本中全部关键词命中，匹配过程不分配对象
+ */
+public final class AhoCorasick {
+
+    /**
+     * 命中回调，返回 false 时停止扫描
+     */
+    @FunctionalInterface
+    public interface HitHandler {
+        boolean onHit(int keywordIndex, int start, int end);
+    }
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] keywords;
+    private final boolean ignoreCase;
+
+    // 每个状态的出边（按字符排序，二分查找）
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    // 每个状态上结束的关键词下标（已合并失败链上的输出）
+    private final int[][] outputs;
+    // 根状态出边字符位图，停留在根状态时快速跳过无关字符
+    private final long[] rootChars;
+
+    private AhoCorasick(String[] keywords, boolean ignoreCase, char[][] edgeChars, int[][] edgeTargets,
+                        int[] fail, int[][] outputs) {
+        this.keywords = keywords;
+        this.ignoreCase = ignoreCase;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.rootChars = new long[1 << 10];
+        for (char c : edgeChars[0]) {
+            rootChars[c >>> 6] |= 1L << c;
+        }
+    }
+
+    /**
+     * 构建自动机
+     * @param keywords 关键词列表（空串与null会被忽略）
+     * @param ignoreCase 是否忽略大小写
+     */
+    public static AhoCorasick build(List<String> keywords, boolean ignoreCase) {
+        String[] words = keywords.toArray(new String[0]);
+
+        // 1. 构建字典树
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<List<Integer>> outs = new ArrayList<>();
+        chars.add(new StringBuilder());
+        targets.add(new ArrayList<>());
+        outs.add(new ArrayList<>());
+
+        for (int k = 0; k < words.length; k++) {
+            String word = words[k];
+            if (word == null || word.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = normalize(word.charAt(i), ignoreCase);
+                int idx = chars.get(state).indexOf(String.valueOf(c));
+                if (idx >= 0) {
+                    state = targets.get(state).get(idx);
+                } else {
+                    int next = chars.size();
+                    chars.add(new StringBuilder());
+                    targets.add(new ArrayList<>());
+                    outs.add(new ArrayList<>());
+                    chars.get(state).append(c);
+                    targets.get(state).add(next);
+                    state = next;
+                }
+            }
+            outs.get(state).add(k);
+        }
+
+        int size = chars.size();
+        char[][] edgeChars = new char[size][];
+        int[][] edgeTargets = new int[size][];
+        for (int s = 0; s < size; s++) {
+            char[] cs = chars.get(s).toString().toCharArray();
+            int[] ts = targets.get(s).stream().mapToInt(Integer::intValue).toArray();
+            sortEdges(cs, ts);
+            edgeChars[s] = cs;
+            edgeTargets[s] = ts;
+        }
+
+        // 2. 广度优先计算失败指针并合并输出
+        int[] fail = new int[size];
+        int[][] outputs = new int[size][];
+        outputs[0] = toArray(outs.get(0));
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int t : edgeTargets[0]) {
+            fail[t] = 0;
+            queue.add(t);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            int[] own = toArray(outs.get(s));
+            int[] inherited = outputs[fail[s]] != null ? outputs[fail[s]] : EMPTY;
+            outputs[s] = concat(own, inherited);
+            for (int e = 0; e < edgeChars[s].length; e++) {
+                char c = edgeChars[s][e];
+                int t = edgeTargets[s][e];
+                int f = fail[s];
+                int target;
+                while ((target = step(edgeChars, edgeTargets, f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[t] = target >= 0 && target != t ? target : 0;
+                queue.add(t);
+            }
+        }
+        for (int s = 0; s < size; s++) {
+            if (outputs[s] == null) {
+                outputs[s] = EMPTY;
+            }
+        }
+        return new AhoCorasick(words, ignoreCase, edgeChars, edgeTargets, fail, outputs);
+    }
+
+    /**
+     * 扫描文本，按结束位置顺序回调全部命中
+     */
+    public void scan(CharSequence text, HitHandler handler) {
+        if (text == null) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = normalize(text.charAt(i), ignoreCase);
+            if (state == 0 && (rootChars[c >>> 6] & (1L << c)) == 0) {
+                continue;
+            }
+            state = next(state, c);
+            int[] out = outputs[state];
+            for (int o : out) {
+                if (!handler.onHit(o, i + 1 - keywords[o].length(), i + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 返回文本中最先命中（按结束位置）的关键词下标，没有命中返回 -1
+     */
+    public int findFirst(CharSequence text) {
+        return findFirst(text, null);
+    }
+
+    /**
+     * 返回文本中最先命中且满足条件的关键词下标，没有命中返回 -1
+     */
+    public int findFirst(CharSequence text, IntPredicate accept) {
+        if (text == null) {
+            return -1;
+        }
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = normalize(text.charAt(i), ignoreCase);
+            if (state == 0 && (rootChars[c >>> 6] & (1L << c)) == 0) {
+                continue;
+            }
+            state = next(state, c);
+            for (int o : outputs[state]) {
+                if (accept == null || accept.test(o)) {
+                    return o;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public String keyword(int index) {
+        return keywords[index];
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    private int next(int state, char c) {
+        int target;
+        while ((target = step(edgeChars, edgeTargets, state, c)) < 0 && state != 0) {
+            state = fail[state];
+        }
+        return Math.max(target, 0);
+    }
+
+    private static int step(char[][] edgeChars, int[][] edgeTargets, int state, char c) {
+        int idx = Arrays.binarySearch(edgeChars[state], c);
+        return idx >= 0 ? edgeTargets[state][idx] : -1;
+    }
+
+    private static char normalize(char c, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return c;
+        }
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static void sortEdges(char[] cs, int[] ts) {
+        // 出边数量很少，插入排序即可
+        for (int i = 1; i < cs.length; i++) {
+            char c = cs[i];
+            int t = ts[i];
+            int j = i - 1;
+            while (j >= 0 && cs[j] > c) {
+                cs[j + 1] = cs[j];
+                ts[j + 1] = ts[j];
+                j--;
+            }
+            cs[j + 1] = c;
+            ts[j + 1] = t;
+        }
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.isEmpty() ? EMPTY : list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package com.erkang.common.utils;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花算法ID生成器
+ * 64位：1位符号 + 41位毫秒时间戳（自 2024-01-01 起）+ 10位节点号 + 12位序列号。
+ * 时间戳与序列号合并在一个 long 中以 CAS 推进，无锁；同一毫秒内序列号用尽时借用下一毫秒。
+ * 时钟回拨时沿用已发出的最大时间继续递增，发出的时间领先时钟超过容忍值时拒绝发号
+ */
+public final class Snowflake {
+
+    /** 时间戳起点 2024-01-01T00:00:00Z */
+    public static final long EPOCH = 1704067200000L;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private final int nodeId;
+    private final long maxLeadMs;
+    private final LongSupplier clock;
+    // (相对时间戳 << SEQUENCE_BITS) | 序列号，即最近发出的ID去掉节点号
+    private final AtomicLong state;
+
+    /**
+     * @param nodeId      节点号 0-1023
+     * @param maxLeadMs   发出的时间允许领先时钟的幅度（时钟回拨容忍值）
+     * @param issuedUntil 该节点号此前已发出的最大时间（毫秒），新ID的时间晚于它
+     * @param clock       毫秒时钟
+     */
+    public Snowflake(int nodeId, long maxLeadMs, long issuedUntil, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号超出范围: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.maxLeadMs = maxLeadMs;
+        this.clock = clock;
+        // 序列号置满，下一个ID至少从 issuedUntil 的下一毫秒开始
+        this.state = new AtomicLong((Math.max(issuedUntil - EPOCH, 0) << SEQUENCE_BITS) | SEQUENCE_MASK);
+    }
+
+    /**
+     * 下一个ID，单调递增
+     */
+    public long nextId() {
+        while (true) {
+            long now = clock.getAsLong() - EPOCH;
+            long last = state.get();
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            long lead = (next >>> SEQUENCE_BITS) - now;
+            if (lead > maxLeadMs) {
+                throw new BusinessException(ErrorCode.INTERNAL_ERROR, "系统时钟回拨超出容忍范围");
+            }
+            if (state.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT
+                        | (long) nodeId << SEQUENCE_BITS
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 已发出的最大时间（毫秒）
+     */
+    public long issuedUntil() {
+        return (state.get() >>> SEQUENCE_BITS) + EPOCH;
+    }
+
+    /**
+     * ID中的时间（毫秒）
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    /**
+     * ID中的节点号
+     */
+    public static int nodeIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
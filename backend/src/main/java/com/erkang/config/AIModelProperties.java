@@ -0,0 +1,87 @@
+package com.erkang.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * AI模型调用配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.model")
+public class AIModelProperties {
+
+    /** 模型客户端实现：stub（内置模拟回答）或 http（OpenAI兼容接口） */
+    private String provider = "stub";
+
+    /** 单次调用的截止时间（含对冲请求），超时返回兜底回答 */
+    private long deadlineMs = 8000;
+
+    /** 模型服务不可用时返回的兜底回答 */
+    private String safeAnswer = "AI助手暂时无法回答您的问题，请稍后再试。" +
+            "如症状明显或持续加重，请及时到医院耳鼻喉科就诊；如遇紧急情况请立即拨打120。";
+
+    /** HTTP客户端配置 */
+    private Http http = new Http();
+
+    /** 熔断配置 */
+    private Breaker breaker = new Breaker();
+
+    /** 对冲请求配置 */
+    private Hedge hedge = new Hedge();
+
+    /** 批量推理配置 */
+    private Batch batch = new Batch();
+
+    @Data
+    public static class Http {
+        /** Chat Completions 接口地址 */
+        private String endpoint = "http://localhost:8000/v1/chat/completions";
+        /** 批量推理接口地址，未配置时不启用批量 */
+        private String batchEndpoint;
+        private String apiKey;
+        private String model = "erkang-health";
+        private long connectTimeoutMs = 2000;
+        /** 同时占用的连接数上限，超出的调用在连接池外等待 */
+        private int maxConnections = 32;
+    }
+
+    @Data
+    public static class Breaker {
+        /** 统计的最近调用次数 */
+        private int windowSize = 20;
+        /** 窗口内至少多少次调用才计算失败率 */
+        private int minimumCalls = 10;
+        /** 失败率阈值（0-1），达到后熔断 */
+        private double failureRateThreshold = 0.5;
+        /** 熔断持续时间，之后放行一次探测调用 */
+        private long openMs = 30000;
+    }
+
+    @Data
+    public static class Hedge {
+        private boolean enabled = true;
+        /** 对冲延迟取最近调用耗时的分位数 */
+        private double percentile = 0.95;
+        /** 样本不足时使用的对冲延迟 */
+        private long initialDelayMs = 2000;
+        /** 对冲延迟下限，避免模型正常时也成倍放大请求 */
+        private long minDelayMs = 200;
+        /** 计算分位数所需的最少样本数 */
+        private int minSamples = 20;
+        /** 保留的最近耗时样本数 */
+        private int sampleSize = 200;
+    }
+
+    @Data
+    public static class Batch {
+        private boolean enabled = true;
+        /** 单批最多合并的请求数 */
+        private int maxBatchSize = 8;
+        /** 首个请求进入后最多等待的时间，到时未满也发出 */
+        private long maxWaitMs = 5;
+        /** 同时进行的批量调用数上限 */
+        private int maxConcurrentBatches = 4;
+    }
+}
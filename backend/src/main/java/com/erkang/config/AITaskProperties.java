@@ -0,0 +1,61 @@
+package com.erkang.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AI异步任务配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.task")
+public class AITaskProperties {
+
+    /** 单个用户同时排队/执行的任务上限 */
+    private int maxConcurrentPerUser = 3;
+
+    /** 最大执行次数（含首次） */
+    private int maxAttempts = 3;
+
+    /** 重试退避初始间隔，按指数递增 */
+    private long backoffMs = 1000;
+
+    /** 重试退避最大间隔 */
+    private long maxBackoffMs = 10000;
+
+    /** 任务整体超时（含排队与重试），超时后标记为失败 */
+    private long timeoutMs = 60000;
+
+    /** 任务不在本实例执行时，订阅方轮询数据库状态的间隔 */
+    private long subscribePollMs = 1000;
+
+    /** 默认线程池配置 */
+    private Pool defaultPool = new Pool();
+
+    /** 按任务类型覆盖的线程池配置 */
+    private Map<String, Pool> pools = new HashMap<>();
+
+    public Pool poolFor(String taskType) {
+        return pools.getOrDefault(taskType, defaultPool);
+    }
+
+    /**
+     * 重试前的等待时间
+     * @param attempt 已执行次数（从1开始）
+     */
+    public long backoffFor(int attempt) {
+        long delay = backoffMs << Math.min(attempt - 1, 20);
+        return Math.min(delay, maxBackoffMs);
+    }
+
+    @Data
+    public static class Pool {
+        private int corePoolSize = 2;
+        private int maxPoolSize = 4;
+        private int queueCapacity = 50;
+    }
+}
@@ -0,0 +1,42 @@
+package com.erkang.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池配置
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${ai.stream.core-pool-size:4}")
+    private int streamCorePoolSize;
+
+    @Value("${ai.stream.max-pool-size:16}")
+    private int streamMaxPoolSize;
+
+    @Value("${ai.stream.queue-capacity:200}")
+    private int streamQueueCapacity;
+
+    /**
+     * AI流式问答线程池
+     * 队列满时直接拒绝，由调用方返回系统繁忙，避免占满请求线程
+     */
+    @Bean(name = "aiStreamExecutor")
+    public ThreadPoolTaskExecutor aiStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamCorePoolSize);
+        executor.setMaxPoolSize(streamMaxPoolSize);
+        executor.setQueueCapacity(streamQueueCapacity);
+        executor.setThreadNamePrefix("ai-stream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
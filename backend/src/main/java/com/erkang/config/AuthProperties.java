@@ -0,0 +1,63 @@
+package com.erkang.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录认证配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class AuthProperties {
+
+    /** BCrypt 成本因子，登录成功时低于该成本的密码哈希会按此成本重新生成 */
+    private int bcryptStrength = 10;
+
+    /** 密码哈希线程池 */
+    private Hash hash = new Hash();
+
+    /** 最后登录信息写回 */
+    private LastLogin lastLogin = new LastLogin();
+
+    /** 角色权限缓存 */
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Hash {
+        /** 线程数，0 表示与CPU核数相同 */
+        private int threads = 0;
+
+        /** 排队上限，超出时直接返回系统繁忙 */
+        private int queueCapacity = 64;
+
+        /** 单次哈希的等待上限（含排队） */
+        private long timeoutMs = 5000;
+
+        public int resolvedThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Data
+    public static class LastLogin {
+        /** 批量写回间隔 */
+        private long flushIntervalMs = 5000;
+
+        /** 单条UPDATE语句包含的用户数上限 */
+        private int maxBatchSize = 500;
+    }
+
+    @Data
+    public static class Cache {
+        /** 缓存的用户角色条数上限，超出时整体清空 */
+        private int maxUsers = 100000;
+
+        /** 是否通过 Redis 频道向其他节点广播作废通知 */
+        private boolean broadcast = true;
+
+        /** 作废通知频道 */
+        private String channel = "erkang:auth:invalidate";
+    }
+}
@@ -0,0 +1,29 @@
+package com.erkang.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 业务编号生成配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "id")
+public class IdProperties {
+
+    /** 固定节点号（0-1023），小于0时通过 Redis 租约分配 */
+    private int nodeId = -1;
+
+    /** 节点号租约键前缀 */
+    private String leaseKeyPrefix = "erkang:id:node:";
+
+    /** 租约有效期，节点失联超过该时长后节点号可被其他实例取得 */
+    private long leaseTtlMs = 30000;
+
+    /** 续期间隔，应明显小于租约有效期 */
+    private long renewIntervalMs = 10000;
+
+    /** 时钟回拨容忍值，回拨期间沿用已发出的最大时间继续发号，超出时拒绝 */
+    private long maxClockBackwardMs = 5000;
+}
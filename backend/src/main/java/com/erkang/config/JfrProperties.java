@@ -0,0 +1,41 @@
+package com.erkang.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 飞行记录（JFR）配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jfr")
+public class JfrProperties {
+
+    /** 是否保持持续记录并在慢请求时转储 */
+    private boolean enabled = false;
+
+    /** JDK 内置事件配置，default 为低开销的持续记录配置 */
+    private String settings = "default";
+
+    /** 持续记录保留的时长 */
+    private long maxAgeMs = 600000;
+
+    /** 持续记录保留的数据量 */
+    private long maxSizeBytes = 64L * 1024 * 1024;
+
+    /** SQL、Redis、对象存储与WebSocket事件的记录阈值，更快的调用不写入记录 */
+    private long eventThresholdMs = 5;
+
+    /** 慢请求阈值，超过时转储最近的记录 */
+    private long slowRequestMs = 3000;
+
+    /** 两次转储的最小间隔，避免持续慢请求时频繁落盘 */
+    private long minDumpIntervalMs = 60000;
+
+    /** 转储文件目录 */
+    private String dumpDir = "logs/jfr";
+
+    /** 保留的转储文件数，超出删除最早的 */
+    private int maxDumps = 20;
+}
@@ -1,12 +1,20 @@
 package com.erkang.config;
 
+import com.erkang.metrics.jfr.RedisCommandEvents;
+import com.erkang.security.PermissionCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Redis 配置
  */
@@ -15,7 +23,13 @@ public class RedisConfig {
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
-        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        RedisTemplate<String, Object> template = new RedisTemplate<>() {
+            @Override
+            protected RedisConnection preProcessConnection(RedisConnection connection, boolean existingConnection) {
+                // 每条命令记录 JFR 事件（事件未开启时不包装）
+                return RedisCommandEvents.wrap(connection);
+            }
+        };
         template.setConnectionFactory(factory);
         
         // Key 使用 String 序列化
@@ -30,4 +44,20 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * 订阅其他节点的角色权限缓存作废通知
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "auth.cache", name = "broadcast", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer permissionCacheListener(RedisConnectionFactory factory,
+                                                                 PermissionCache permissionCache,
+                                                                 AuthProperties authProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(
+                (message, pattern) -> permissionCache.onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(authProperties.getCache().getChannel()));
+        return container;
+    }
 }
@@ -0,0 +1,25 @@
+package com.erkang.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 单请求SQL预算配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sql.budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+
+    /** 单个请求允许执行的SQL语句数 */
+    private int maxStatements = 30;
+
+    /** 同一语句形态（相同SQL、不同参数）在单个请求中允许重复的次数，超过视为疑似N+1 */
+    private int maxRepeats = 5;
+
+    /** 单个请求SQL累计耗时上限 */
+    private long maxTimeMs = 1000;
+}
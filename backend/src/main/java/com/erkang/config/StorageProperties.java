@@ -0,0 +1,205 @@
+package com.erkang.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件存储配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+
+    /** 存储后端 */
+    private Backend backend = new Backend();
+
+    /** 分片上传 */
+    private Multipart multipart = new Multipart();
+
+    /** 浏览器直传 */
+    private Direct direct = new Direct();
+
+    /** 流式下载 */
+    private Download download = new Download();
+
+    /** 图片附件缩略图 */
+    private Thumbnail thumbnail = new Thumbnail();
+
+    /** 内容寻址去重 */
+    private Dedup dedup = new Dedup();
+
+    /** 预签名下载URL */
+    private Presign presign = new Presign();
+
+    /** 对象本地磁盘缓存 */
+    private LocalCache localCache = new LocalCache();
+
+    @Data
+    public static class Backend {
+        /** 存储后端：minio，或 filesystem（单机部署与测试环境，不依赖对象存储服务） */
+        private String type = "minio";
+
+        /** 文件系统后端 */
+        private Filesystem filesystem = new Filesystem();
+    }
+
+    @Data
+    public static class Filesystem {
+        /** 存储根目录 */
+        private String root = "./data/storage";
+
+        /** 预签名链接使用的应用外部访问地址 */
+        private String publicUrl = "http://localhost:8080";
+
+        /** 预签名链接的签名密钥，为空时启动时随机生成（重启后已签发的链接失效） */
+        private String signingKey = "";
+
+        /** 写入完成后是否强制刷盘 */
+        private boolean fsync = false;
+    }
+
+    @Data
+    public static class Multipart {
+        /** 分片大小（最后一片可更小），对象存储要求不小于5MB */
+        private int partSize = 8 * 1024 * 1024;
+
+        /** 单个文件大小上限 */
+        private long maxFileSize = 5L * 1024 * 1024 * 1024;
+
+        /** 分片缓冲区总数，分片上传占用的内存不超过 缓冲区数×分片大小 */
+        private int maxBuffers = 16;
+
+        /** 单个上传任务同时转发的分片数上限 */
+        private int maxConcurrentPartsPerUpload = 4;
+
+        /** 等待空闲缓冲区的时间，超时返回系统繁忙 */
+        private long bufferWaitMs = 2000;
+
+        /** 上传任务有效期，过期未完成的任务被清理 */
+        private long expireMs = 24 * 60 * 60 * 1000L;
+
+        /** 过期任务清理间隔，0 表示不清理 */
+        private long cleanupIntervalMs = 10 * 60 * 1000L;
+
+        /** 单次清理的任务数上限 */
+        private int cleanupBatchSize = 100;
+    }
+
+    @Data
+    public static class Direct {
+        /** 单个文件大小上限 */
+        private long maxFileSize = 100L * 1024 * 1024;
+
+        /** 上传表单有效期（分钟） */
+        private int expireMinutes = 10;
+
+        /** 上传凭证在表单过期后的保留时间（分钟），用于上传完成后登记 */
+        private int completeGraceMinutes = 30;
+
+        /** 未配置允许的内容类型时使用的默认列表 */
+        public static final List<String> DEFAULT_CONTENT_TYPES = List.of(
+                "image/jpeg", "image/png", "application/pdf", "application/dicom", "video/mp4");
+
+        /** 允许的内容类型，为空时使用默认列表 */
+        private List<String> allowedContentTypes = new ArrayList<>(DEFAULT_CONTENT_TYPES);
+    }
+
+    @Data
+    public static class Download {
+        /** 转发缓冲区大小，单个下载占用的内存固定为该值，与文件大小无关 */
+        private int bufferSize = 64 * 1024;
+    }
+
+    @Data
+    public static class Thumbnail {
+        /** 是否在附件登记后生成缩略图 */
+        private boolean enabled = true;
+
+        /** 缩略图规格：名称 → 长边像素，小于该尺寸的原图不放大 */
+        private Map<String, Integer> sizes = defaultSizes();
+
+        /** 生成线程数 */
+        private int threads = 2;
+
+        /** 排队任务上限，队列满时跳过（可通过重新生成补齐） */
+        private int queueCapacity = 200;
+
+        /** 参与生成的原图类型 */
+        private List<String> contentTypes = new ArrayList<>(List.of("image/jpeg", "image/png"));
+
+        /** 原图大小上限 */
+        private long maxSourceSize = 30L * 1024 * 1024;
+
+        /** 原图像素上限，防止解码超大图片耗尽内存 */
+        private long maxSourcePixels = 50_000_000L;
+
+        /** JPEG 压缩质量 */
+        private float quality = 0.85f;
+
+        /** 缩略图访问链接有效期（分钟） */
+        private int urlExpireMinutes = 30;
+
+        private static Map<String, Integer> defaultSizes() {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            sizes.put("small", 160);
+            sizes.put("medium", 640);
+            return sizes;
+        }
+    }
+
+    @Data
+    public static class Dedup {
+        /** 是否按内容去重，关闭时普通上传按文件名生成对象名 */
+        private boolean enabled = true;
+
+        /** 去重对象的名称前缀，对象名为 前缀/哈希前两位/哈希 */
+        private String prefix = "cas";
+    }
+
+    @Data
+    public static class Presign {
+        /** 单次批量签名的对象数上限 */
+        private int maxBatchSize = 100;
+
+        /** 有效期上限（分钟），对象存储要求不超过7天 */
+        private int maxExpireMinutes = 7 * 24 * 60;
+
+        /** 缓存的签名条数上限 */
+        private int cacheMaxEntries = 10000;
+
+        /** 安全余量，签名距过期不足该时间时重新签名 */
+        private long safetyMarginMs = 5 * 60 * 1000L;
+    }
+
+    @Data
+    public static class LocalCache {
+        /** 是否在本地磁盘缓存完整下载过的对象 */
+        private boolean enabled = true;
+
+        /** 缓存目录，启动时清空其中的缓存文件 */
+        private String directory = Path.of(System.getProperty("java.io.tmpdir"), "erkang-object-cache").toString();
+
+        /** 缓存文件总字节数上限，超过时淘汰最久未访问的对象 */
+        private long maxBytes = 1024L * 1024 * 1024;
+
+        /** 单个对象大小上限，更大的对象不缓存 */
+        private long maxObjectSize = 16L * 1024 * 1024;
+
+        /** 重新校验间隔，间隔内命中不访问对象存储，超过后按 ETag 校验 */
+        private long revalidateMs = 30_000;
+
+        /** 被淘汰文件的延迟删除时间，留给正在发送的响应 */
+        private long retireGraceMs = 60_000;
+
+        /** 定时删除过了延迟时间的淘汰文件的间隔，0 表示只在写入与作废时顺带删除 */
+        private long purgeIntervalMs = 30_000;
+    }
+}
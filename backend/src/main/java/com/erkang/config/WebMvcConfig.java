@@ -1,5 +1,7 @@
 package com.erkang.config;
 
+import com.erkang.metrics.SqlBudgetFilter;
+import com.erkang.metrics.jfr.JfrRequestFilter;
 import com.erkang.security.JwtAuthFilter;
 import com.erkang.security.RBACInterceptor;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
     
     private final RBACInterceptor rbacInterceptor;
     private final JwtAuthFilter jwtAuthFilter;
+    private final SqlBudgetFilter sqlBudgetFilter;
+    private final JfrRequestFilter jfrRequestFilter;
     
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -45,4 +49,22 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registration.setOrder(1);
         return registration;
     }
+    
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilterRegistration() {
+        FilterRegistrationBean<SqlBudgetFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(sqlBudgetFilter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(2);
+        return registration;
+    }
+    
+    @Bean
+    public FilterRegistrationBean<JfrRequestFilter> jfrRequestFilterRegistration() {
+        FilterRegistrationBean<JfrRequestFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(jfrRequestFilter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(3);
+        return registration;
+    }
 }
@@ -3,12 +3,19 @@ package com.erkang.controller;
 import com.erkang.common.Result;
 import com.erkang.domain.entity.AIChatMessage;
 import com.erkang.domain.entity.AIChatSession;
+import com.erkang.domain.entity.AITask;
+import com.erkang.domain.enums.RoleEnum;
 import com.erkang.security.Auditable;
+import com.erkang.security.LoginUser;
 import com.erkang.security.RequireRole;
 import com.erkang.security.UserContext;
 import com.erkang.service.AIService;
+import com.erkang.service.AIStreamService;
+import com.erkang.service.AITaskQueueService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -23,6 +30,8 @@ import java.util.Map;
 public class AIController {
 
     private final AIService aiService;
+    private final AIStreamService aiStreamService;
+    private final AITaskQueueService aiTaskQueueService;
 
     /**
      * 创建对话会话
@@ -37,7 +46,7 @@ public class AIController {
     }
 
     /**
-     * 健康问答
+     * 健康问答（仅本人会话）
      */
     @PostMapping("/session/{sessionId}/chat")
     @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT"})
@@ -46,11 +55,92 @@ public class AIController {
             @PathVariable Long sessionId,
             @RequestBody Map<String, String> request) {
         Long userId = UserContext.getUserId();
+        aiService.getOwnedSession(sessionId, userId, isAdmin());
         String question = request.get("question");
         String answer = aiService.healthQA(sessionId, userId, question);
         return Result.success(Map.of("answer", answer));
     }
 
+    /**
+     * 健康问答（流式输出，SSE；推流前校验会话归属）
+     */
+    @PostMapping(value = "/session/{sessionId}/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT"})
+    @Auditable(action = "AI_HEALTH_QA_STREAM", module = "ai")
+    public SseEmitter healthQAStream(
+            @PathVariable Long sessionId,
+            @RequestBody Map<String, String> request) {
+        Long userId = UserContext.getUserId();
+        aiService.getOwnedSession(sessionId, userId, isAdmin());
+        String question = request.get("question");
+        return aiStreamService.healthQAStream(sessionId, userId, question);
+    }
+
+    /**
+     * 提交异步AI任务
+     */
+    @PostMapping("/tasks")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT"})
+    @Auditable(action = "SUBMIT_AI_TASK", module = "ai")
+    public Result<AITask> submitTask(@RequestBody Map<String, Object> request) {
+        Long userId = UserContext.getUserId();
+        String taskType = (String) request.get("taskType");
+        String content = (String) request.get("content");
+        Long relatedId = request.get("relatedId") != null
+                ? Long.valueOf(request.get("relatedId").toString()) : null;
+        String relatedType = (String) request.get("relatedType");
+        AITask task = aiTaskQueueService.submit(userId, taskType, content, relatedId, relatedType);
+        return Result.success(task);
+    }
+
+    /**
+     * 查询异步AI任务状态
+     */
+    @GetMapping("/tasks/{taskId}")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "ADMIN"})
+    public Result<AITask> getTask(@PathVariable Long taskId) {
+        return Result.success(aiTaskQueueService.getTask(taskId, UserContext.getUserId(), isAdmin()));
+    }
+
+    /**
+     * 订阅异步AI任务结果（SSE）
+     */
+    @GetMapping(value = "/tasks/{taskId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "ADMIN"})
+    public SseEmitter subscribeTask(@PathVariable Long taskId) {
+        aiTaskQueueService.getTask(taskId, UserContext.getUserId(), isAdmin());
+        return aiTaskQueueService.openEventStream(taskId);
+    }
+
+    /**
+     * 查询问答缓存统计
+     */
+    @GetMapping("/cache/stats")
+    @RequireRole({"ADMIN"})
+    public Result<Map<String, Object>> getCacheStats() {
+        return Result.success(aiService.getCacheStats());
+    }
+
+    /**
+     * 查询模型调用统计
+     */
+    @GetMapping("/model/stats")
+    @RequireRole({"ADMIN"})
+    public Result<Map<String, Object>> getModelStats() {
+        return Result.success(aiService.getModelStats());
+    }
+
+    /**
+     * 清空问答缓存
+     */
+    @DeleteMapping("/cache")
+    @RequireRole({"ADMIN"})
+    @Auditable(action = "CLEAR_AI_CACHE", module = "ai")
+    public Result<Void> clearCache() {
+        aiService.clearCache();
+        return Result.success();
+    }
+
     /**
      * 关闭会话
      */
@@ -91,4 +181,9 @@ public class AIController {
         List<AIChatMessage> list = aiService.listMessagesBySessionId(sessionId);
         return Result.success(list);
     }
+
+    private boolean isAdmin() {
+        LoginUser user = UserContext.getUser();
+        return user != null && user.hasRole(RoleEnum.ADMIN);
+    }
 }
@@ -11,6 +11,7 @@ import com.erkang.mapper.PermissionMapper;
 import com.erkang.mapper.PrescriptionMapper;
 import com.erkang.mapper.RoleMapper;
 import com.erkang.mapper.UserMapper;
+import com.erkang.security.PermissionCache;
 import com.erkang.security.RequireRole;
 import com.erkang.service.AuditService;
 import com.erkang.service.AuthService;
@@ -49,6 +50,7 @@ public class AdminController {
     private final RoleMapper roleMapper;
     private final PermissionMapper permissionMapper;
     private final AuditService auditService;
+    private final PermissionCache permissionCache;
 
     /**
      * 获取用户列表
@@ -109,7 +111,7 @@ public class AdminController {
             map.put("createdAt", user.getCreatedAt());
             map.put("lastLoginAt", user.getLastLoginAt());
             
-            List<String> roles = userMapper.selectRoleCodesByUserId(user.getId());
+            List<String> roles = permissionCache.getUserRoles(user.getId());
             String roleCode = roles.isEmpty() ? "PATIENT" : roles.get(0);
             // 转换角色编码为前端期望的格式
             String displayRole = roleCode;
@@ -169,7 +171,7 @@ public class AdminController {
         data.put("lastLoginAt", user.getLastLoginAt());
         data.put("lastLoginIp", user.getLastLoginIp());
         
-        List<String> roles = userMapper.selectRoleCodesByUserId(user.getId());
+        List<String> roles = permissionCache.getUserRoles(user.getId());
         data.put("role", roles.isEmpty() ? "PATIENT" : roles.get(0));
         data.put("roles", roles);
         
@@ -212,6 +214,7 @@ public class AdminController {
             Long roleId = userMapper.selectRoleIdByCode(role);
             if (roleId != null) {
                 userMapper.insertUserRole(user.getId(), roleId);
+                permissionCache.invalidateUser(user.getId());
             }
         }
         
@@ -271,6 +274,7 @@ public class AdminController {
         // 软删除
         user.setDeletedAt(LocalDateTime.now());
         userMapper.updateById(user);
+        permissionCache.invalidateUser(id);
         
         log.info("删除用户成功: userId={}", id);
         return Result.success();
@@ -430,7 +434,7 @@ public class AdminController {
             throw new BusinessException(ErrorCode.PARAM_ERROR, "角色不存在");
         }
         // 获取角色的权限ID列表
-        List<Long> permissionIds = roleMapper.selectPermissionIdsByRoleId(id);
+        List<Long> permissionIds = permissionCache.getRolePermissionIds(id);
         role.put("permissionIds", permissionIds);
         return Result.success(role);
     }
@@ -485,6 +489,8 @@ public class AdminController {
                 roleMapper.insertRolePermission(id, permId.longValue());
             }
         }
+        // 提交后作废本节点并通知其他节点
+        permissionCache.invalidateRoles();
         
         // 记录审计日志 _Requirements: 4.4_
         String roleCode = (String) role.get("roleCode");
@@ -506,31 +512,6 @@ public class AdminController {
     @RequireRole({"ADMIN"})
     @Operation(summary = "获取权限树")
     public Result<List<Map<String, Object>>> getPermissionTree() {
-        List<Map<String, Object>> allPermissions = permissionMapper.selectAllPermissions();
-        // 构建树形结构
-        List<Map<String, Object>> tree = buildPermissionTree(allPermissions, 0L);
-        return Result.success(tree);
-    }
-
-    /**
-     * 构建权限树
-     */
-    private List<Map<String, Object>> buildPermissionTree(List<Map<String, Object>> allPermissions, Long parentId) {
-        return allPermissions.stream()
-            .filter(p -> {
-                Object pid = p.get("parentId");
-                if (pid == null) return parentId == 0L;
-                return pid.equals(parentId) || pid.equals(parentId.intValue());
-            })
-            .map(p -> {
-                Map<String, Object> node = new HashMap<>(p);
-                Long id = ((Number) p.get("id")).longValue();
-                List<Map<String, Object>> children = buildPermissionTree(allPermissions, id);
-                if (!children.isEmpty()) {
-                    node.put("children", children);
-                }
-                return node;
-            })
-            .toList();
+        return Result.success(permissionCache.getPermissionTree());
     }
 }
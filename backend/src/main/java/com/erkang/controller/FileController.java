@@ -1,16 +1,37 @@
 package com.erkang.controller;
 
 import com.erkang.common.Result;
+import com.erkang.domain.dto.BatchPresignRequest;
+import com.erkang.domain.dto.ClaimFileRequest;
+import com.erkang.domain.dto.CompleteDirectUploadRequest;
+import com.erkang.domain.dto.InitiateUploadRequest;
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.domain.entity.MedicalAttachment;
+import com.erkang.domain.vo.DirectUploadVO;
+import com.erkang.domain.vo.FileUploadVO;
+import com.erkang.domain.vo.PresignedUrlVO;
+import com.erkang.integration.storage.LocalObjectCache;
 import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.FileOwnerMapper;
 import com.erkang.security.Auditable;
 import com.erkang.security.RequireRole;
 import com.erkang.security.UserContext;
+import com.erkang.service.DedupStorageService;
+import com.erkang.service.DirectUploadService;
+import com.erkang.service.FileDownloadService;
+import com.erkang.service.FileUrlService;
+import com.erkang.service.MultipartUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,6 +45,14 @@ import java.util.Map;
 public class FileController {
 
     private final MinioService minioService;
+    private final MultipartUploadService multipartUploadService;
+    private final DirectUploadService directUploadService;
+    private final FileDownloadService fileDownloadService;
+    private final DedupStorageService dedupStorageService;
+    private final FileUrlService fileUrlService;
+    private final PresignedUrlCache presignedUrlCache;
+    private final LocalObjectCache localObjectCache;
+    private final FileOwnerMapper fileOwnerMapper;
 
     /**
      * 上传文件
@@ -36,20 +65,109 @@ public class FileController {
             @RequestParam(defaultValue = "attachment") String category) {
         
         Long userId = UserContext.getUserId();
-        String objectName = minioService.uploadFile(file, category);
+        DedupStorageService.StoredFile stored = dedupStorageService.store(userId, file, category);
         
         Map<String, String> result = new HashMap<>();
-        result.put("objectName", objectName);
+        result.put("objectName", stored.objectName());
         result.put("fileName", file.getOriginalFilename());
         result.put("fileSize", String.valueOf(file.getSize()));
         result.put("contentType", file.getContentType());
+        result.put("sha256", stored.sha256());
+        result.put("deduplicated", String.valueOf(stored.deduplicated()));
         
-        log.info("文件上传成功: userId={}, objectName={}", userId, objectName);
+        log.info("文件上传成功: userId={}, objectName={}", userId, stored.objectName());
+        return Result.success(result);
+    }
+
+    /**
+     * 按内容哈希秒传（上传前预检）
+     * 当前用户上传过相同内容时直接返回对象名称，否则返回空，客户端需正常上传
+     */
+    @PostMapping("/claim")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST"})
+    public Result<Map<String, String>> claim(@RequestBody ClaimFileRequest request) {
+        String category = request.getCategory() == null ? "attachment" : request.getCategory();
+        DedupStorageService.StoredFile stored = dedupStorageService.claim(UserContext.getUserId(),
+                request.getSha256(), request.getFileSize(), request.getFileName(), category);
+        if (stored == null) {
+            return Result.success(null);
+        }
+        Map<String, String> result = new HashMap<>();
+        result.put("objectName", stored.objectName());
+        result.put("fileName", request.getFileName());
+        result.put("fileSize", String.valueOf(stored.fileSize()));
+        result.put("sha256", stored.sha256());
+        result.put("deduplicated", "true");
         return Result.success(result);
     }
 
     /**
-     * 获取文件预签名下载URL
+     * 发起分片上传（大文件）
+     * 返回上传ID与分片大小，客户端按分片大小切分后可并行上传各分片
+     */
+    @PostMapping("/multipart")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST"})
+    public Result<FileUploadVO> initiateMultipart(@RequestBody InitiateUploadRequest request) {
+        String category = request.getCategory() == null ? "attachment" : request.getCategory();
+        return Result.success(multipartUploadService.initiate(UserContext.getUserId(), request.getFileName(),
+                request.getFileSize(), request.getContentType(), category));
+    }
+
+    /**
+     * 上传分片，请求体为分片原始字节
+     */
+    @PutMapping("/multipart/{uploadId}/parts/{partNumber}")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST"})
+    public Result<FileUploadVO.Part> uploadPart(@PathVariable String uploadId, @PathVariable int partNumber,
+                                                HttpServletRequest request) throws IOException {
+        return Result.success(multipartUploadService.uploadPart(UserContext.getUserId(), uploadId, partNumber,
+                request.getInputStream(), request.getContentLengthLong()));
+    }
+
+    /**
+     * 查询分片上传进度（断点续传时补传缺少的分片）
+     */
+    @GetMapping("/multipart/{uploadId}")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST"})
+    public Result<FileUploadVO> getMultipartProgress(@PathVariable String uploadId) {
+        return Result.success(multipartUploadService.getProgress(UserContext.getUserId(), uploadId));
+    }
+
+    /**
+     * 完成分片上传
+     */
+    @PostMapping("/multipart/{uploadId}/complete")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST"})
+    @Auditable(action = "FILE_UPLOAD", module = "file")
+    public Result<FileUploadVO> completeMultipart(@PathVariable String uploadId) {
+        FileUploadVO upload = multipartUploadService.complete(UserContext.getUserId(), uploadId);
+        log.info("分片上传完成: userId={}, objectName={}", UserContext.getUserId(), upload.getObjectName());
+        return Result.success(upload);
+    }
+
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping("/multipart/{uploadId}")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST"})
+    public Result<Void> abortMultipart(@PathVariable String uploadId) {
+        multipartUploadService.abort(UserContext.getUserId(), uploadId);
+        return Result.success(null);
+    }
+
+    /**
+     * 流式下载文件，支持 Range 断点续传/拖动预览与 ETag 协商缓存
+     * 按对象校验访问权限，规则与预签名链接一致
+     */
+    @GetMapping("/download")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST", "ADMIN"})
+    public void download(@RequestParam String objectName, HttpServletRequest request, HttpServletResponse response) {
+        fileUrlService.checkAccess(objectName);
+        fileDownloadService.download(objectName, request, response);
+    }
+
+    /**
+     * 获取文件预签名下载URL（按对象校验访问权限，签名在有效期内复用）
      */
     @GetMapping("/presigned-url")
     @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST", "ADMIN"})
@@ -57,8 +175,17 @@ public class FileController {
             @RequestParam String objectName,
             @RequestParam(defaultValue = "30") int expireMinutes) {
         
-        String url = minioService.getPresignedUrl(objectName, expireMinutes);
-        return Result.success(url);
+        return Result.success(fileUrlService.presign(objectName, expireMinutes));
+    }
+
+    /**
+     * 批量获取预签名下载URL（按对象校验访问权限，签名在有效期内复用）
+     */
+    @PostMapping("/presigned-urls")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST", "ADMIN"})
+    public Result<List<PresignedUrlVO>> getPresignedUrls(@RequestBody BatchPresignRequest request) {
+        int expireMinutes = request.getExpireMinutes() == null ? 30 : request.getExpireMinutes();
+        return Result.success(fileUrlService.presignBatch(request.getObjectNames(), expireMinutes));
     }
 
     /**
@@ -71,12 +198,11 @@ public class FileController {
             @RequestParam(defaultValue = "attachment") String category,
             @RequestParam(defaultValue = "10") int expireMinutes) {
         
-        // 生成对象名称
-        String objectName = category + "/" + java.time.LocalDate.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("yyyy/MM/dd")) + "/" +
-                java.util.UUID.randomUUID().toString().substring(0, 8) + "_" + fileName;
+        // 生成对象名称（与其他上传方式一样清理文件名，不会与缩略图对象名冲突）
+        String objectName = MinioService.generateObjectName(fileName, category);
         
         String url = minioService.getPresignedUploadUrl(objectName, expireMinutes);
+        fileOwnerMapper.record(objectName, UserContext.getUserId(), FileOwner.SOURCE_PRESIGNED);
         
         Map<String, String> result = new HashMap<>();
         result.put("uploadUrl", url);
@@ -86,23 +212,50 @@ public class FileController {
     }
 
     /**
-     * 检查文件是否存在
+     * 获取浏览器直传表单（POST Policy，限定对象名、内容类型与文件大小）
+     */
+    @PostMapping("/direct-upload")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT"})
+    public Result<DirectUploadVO> presignDirectUpload(@RequestBody InitiateUploadRequest request) {
+        String category = request.getCategory() == null ? "medical" : request.getCategory();
+        return Result.success(directUploadService.presign(UserContext.getUserId(), request.getFileName(),
+                request.getFileSize(), request.getContentType(), category));
+    }
+
+    /**
+     * 直传完成后登记为病历附件
+     */
+    @PostMapping("/direct-upload/complete")
+    @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT"})
+    @Auditable(action = "FILE_UPLOAD", module = "file")
+    public Result<MedicalAttachment> completeDirectUpload(@RequestBody CompleteDirectUploadRequest request) {
+        return Result.success(directUploadService.complete(UserContext.getUserId(), request));
+    }
+
+    /**
+     * 检查文件是否存在（按对象校验访问权限，去重对象名可由哈希推算，不能据此探测他人的文件）
      */
     @GetMapping("/exists")
     @RequireRole({"PATIENT", "DOCTOR_PRIMARY", "DOCTOR_EXPERT", "PHARMACIST", "ADMIN"})
     public Result<Boolean> exists(@RequestParam String objectName) {
+        fileUrlService.checkAccess(objectName);
         boolean exists = minioService.exists(objectName);
         return Result.success(exists);
     }
 
     /**
      * 删除文件（仅管理员）
+     * 去重对象须指定上传者，只释放该上传者的一次引用，其他引用仍可访问
      */
     @DeleteMapping
     @RequireRole({"ADMIN"})
     @Auditable(action = "FILE_DELETE", module = "file")
-    public Result<Void> delete(@RequestParam String objectName) {
-        minioService.deleteFile(objectName);
+    public Result<Void> delete(@RequestParam String objectName, @RequestParam(required = false) Long uploaderId) {
+        if (!dedupStorageService.release(objectName, uploaderId)) {
+            minioService.deleteFile(objectName);
+        }
+        presignedUrlCache.invalidate(objectName);
+        localObjectCache.invalidate(objectName);
         log.info("文件删除成功: objectName={}", objectName);
         return Result.success(null);
     }
@@ -0,0 +1,82 @@
+package com.erkang.controller;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.common.Result;
+import com.erkang.integration.storage.FileSystemStorageBackend;
+import com.erkang.service.FileDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 文件系统存储的预签名访问入口
+ * 仅在 storage.backend.type=filesystem 时启用，代替对象存储处理预签名的下载、上传与表单直传；
+ * 请求不携带登录Token，凭链接或表单中的签名访问
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/storage/object")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "storage.backend", name = "type", havingValue = "filesystem")
+public class LocalStorageController {
+
+    private final FileSystemStorageBackend backend;
+    private final FileDownloadService fileDownloadService;
+
+    /**
+     * 预签名下载
+     */
+    @GetMapping
+    public void download(@RequestParam String key, @RequestParam long expires, @RequestParam String signature,
+                         HttpServletRequest request, HttpServletResponse response) {
+        backend.verify("GET", key, expires, signature);
+        fileDownloadService.download(key, request, response);
+    }
+
+    /**
+     * 预签名上传（PUT 请求体即文件内容）
+     */
+    @PutMapping
+    public Result<Void> upload(@RequestParam String key, @RequestParam long expires, @RequestParam String signature,
+                               HttpServletRequest request) throws IOException {
+        backend.verify("PUT", key, expires, signature);
+        long size = request.getContentLengthLong();
+        if (size < 0) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "缺少Content-Length");
+        }
+        try (InputStream in = request.getInputStream()) {
+            backend.put(key, in, size, request.getContentType());
+        }
+        log.info("预签名上传完成: object={}, size={}", key, size);
+        return Result.success(null);
+    }
+
+    /**
+     * 表单直传，字段由 {@link FileSystemStorageBackend#presignPostForm} 生成
+     */
+    @PostMapping
+    public Result<Void> postUpload(@RequestParam String key,
+                                   @RequestParam("Content-Type") String contentType,
+                                   @RequestParam long size,
+                                   @RequestParam long expires,
+                                   @RequestParam String signature,
+                                   @RequestParam("file") MultipartFile file) throws IOException {
+        backend.verifyPost(key, contentType, size, expires, signature);
+        if (file.getSize() != size) {
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "上传的文件与申请不一致");
+        }
+        try (InputStream in = file.getInputStream()) {
+            backend.put(key, in, size, contentType);
+        }
+        log.info("表单直传完成: object={}, size={}", key, size);
+        return Result.success(null);
+    }
+}
@@ -107,4 +107,14 @@ public class MedicalRecordController {
         List<MedicalAttachment> attachments = recordService.listAttachments(id);
         return Result.success(attachments);
     }
+
+    /**
+     * 重新生成附件缩略图
+     */
+    @PostMapping("/attachments/{attachmentId}/renditions")
+    @RequireRole({"DOCTOR_PRIMARY", "DOCTOR_EXPERT", "ADMIN"})
+    public Result<Void> regenerateRenditions(@PathVariable Long attachmentId) {
+        recordService.regenerateRenditions(attachmentId);
+        return Result.success(null);
+    }
 }
@@ -0,0 +1,76 @@
+package com.erkang.controller;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.common.Result;
+import com.erkang.domain.enums.ScreeningCategory;
+import com.erkang.domain.vo.ScreeningHitVO;
+import com.erkang.security.Auditable;
+import com.erkang.security.RequireRole;
+import com.erkang.service.ScreeningService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文本筛查词典管理控制器
+ * _Requirements: 8.5, 10.3, 10.4, 10.6_
+ */
+@Tag(name = "文本筛查", description = "急危重症/红旗征象词典维护与筛查")
+@RestController
+@RequestMapping("/api/admin/screening")
+@RequiredArgsConstructor
+public class ScreeningController {
+
+    private final ScreeningService screeningService;
+
+    /**
+     * 获取当前词典
+     */
+    @GetMapping("/dictionaries")
+    @RequireRole({"ADMIN"})
+    @Operation(summary = "获取筛查词典")
+    public Result<Map<String, Object>> getDictionaries() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("version", screeningService.getDictionaryVersion());
+        data.put("dictionaries", screeningService.getDictionaries());
+        return Result.success(data);
+    }
+
+    /**
+     * 热更新词典，无需重启
+     */
+    @PutMapping("/dictionaries/{category}")
+    @RequireRole({"ADMIN"})
+    @Auditable(action = "UPDATE_SCREENING_DICTIONARY", module = "admin")
+    @Operation(summary = "更新筛查词典")
+    public Result<Map<String, Object>> updateDictionary(
+            @PathVariable String category,
+            @RequestBody Map<String, List<String>> request) {
+        ScreeningCategory screeningCategory = ScreeningCategory.fromCode(category);
+        if (screeningCategory == null) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "未知的筛查类别: " + category);
+        }
+        List<String> keywords = request.get("keywords");
+        if (keywords == null) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "关键词列表不能为空");
+        }
+        long version = screeningService.reloadDictionary(screeningCategory, keywords);
+        return Result.success(Map.of("version", version));
+    }
+
+    /**
+     * 筛查文本，返回全部命中
+     */
+    @PostMapping("/scan")
+    @RequireRole({"ADMIN"})
+    @Operation(summary = "筛查文本")
+    public Result<List<ScreeningHitVO>> scan(@RequestBody Map<String, String> request) {
+        return Result.success(screeningService.scan(request.get("text")));
+    }
+}
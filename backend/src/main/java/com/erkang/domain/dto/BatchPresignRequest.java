@@ -0,0 +1,22 @@
+package com.erkang.domain.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量获取预签名下载URL请求
+ */
+@Data
+public class BatchPresignRequest {
+
+    /**
+     * 对象名称列表
+     */
+    private List<String> objectNames;
+
+    /**
+     * 过期时间（分钟）
+     */
+    private Integer expireMinutes = 30;
+}
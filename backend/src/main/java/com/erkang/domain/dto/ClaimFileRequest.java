@@ -0,0 +1,30 @@
+package com.erkang.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 按内容哈希秒传请求
+ */
+@Data
+public class ClaimFileRequest {
+
+    /**
+     * 文件内容SHA-256（十六进制）
+     */
+    private String sha256;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件分类（medical/prescription/attachment）
+     */
+    private String category;
+}
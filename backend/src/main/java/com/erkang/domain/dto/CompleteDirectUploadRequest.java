@@ -0,0 +1,30 @@
+package com.erkang.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 浏览器直传完成后登记病历附件请求
+ */
+@Data
+public class CompleteDirectUploadRequest {
+
+    /**
+     * 预签名表单中的对象名称
+     */
+    private String objectName;
+
+    /**
+     * 病历ID
+     */
+    private Long recordId;
+
+    /**
+     * 附件分类（REPORT/IMAGE/OTHER）
+     */
+    private String category;
+
+    /**
+     * 描述
+     */
+    private String description;
+}
@@ -0,0 +1,30 @@
+package com.erkang.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 发起上传请求（分片上传与浏览器直传共用）
+ */
+@Data
+public class InitiateUploadRequest {
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 内容类型
+     */
+    private String contentType;
+
+    /**
+     * 文件分类（medical/prescription/attachment）
+     */
+    private String category;
+}
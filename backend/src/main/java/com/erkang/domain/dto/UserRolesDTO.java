@@ -0,0 +1,30 @@
+package com.erkang.domain.dto;
+
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 用户及其角色编码（登录时一次联表查询）
+ */
+@Data
+public class UserRolesDTO {
+
+    private Long id;
+    private String username;
+    private String password;
+    private String realName;
+    private String avatar;
+    private Integer status;
+
+    /** 逗号分隔的角色编码 */
+    private String roleCodes;
+
+    public List<String> getRoles() {
+        if (roleCodes == null || roleCodes.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(roleCodes.split(","));
+    }
+}
@@ -20,6 +20,9 @@ public class AIChatSession {
     private String sessionType;         // HEALTH_QA
     private String title;               // 会话标题
     private String status;              // ACTIVE/CLOSED
+    private String summary;             // 早期对话滚动摘要
+    private Long summaryUntilId;        // 已纳入摘要的最后一条消息ID
+    private Integer summaryTokens;      // 摘要Token数
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
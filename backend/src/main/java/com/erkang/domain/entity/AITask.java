@@ -29,6 +29,8 @@ public class AITask {
     
     private Integer tokensUsed;         // 消耗Token数
     private Integer latencyMs;          // 响应延迟(毫秒)
+    private Integer retryCount;         // 重试次数
+    private Boolean cacheHit;           // 是否命中问答缓存
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
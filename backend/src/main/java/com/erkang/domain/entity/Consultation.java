@@ -35,6 +35,10 @@ public class Consultation {
     /** 状态更新时间 */
     private LocalDateTime statusUpdatedAt;
     
+    /** 版本号：只在状态流转时由条件更新递增，updateById 不写入 */
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private Integer version;
+    
     /** 开始时间 */
     private LocalDateTime startTime;
     
@@ -0,0 +1,29 @@
+package com.erkang.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 去重文件内容实体
+ * 相同内容（SHA-256）只存一份，按引用数回收
+ */
+@Data
+@TableName("file_blob")
+public class FileBlob {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String sha256;
+    private String objectName;
+    private Long fileSize;
+    private String contentType;
+    private Integer refCount;           // -1 表示正在删除
+
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.erkang.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 去重文件引用实体
+ * 每次上传（或按哈希秒传）记录一条，标识上传者持有该内容
+ */
+@Data
+@TableName("file_blob_ref")
+public class FileBlobRef {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String sha256;
+    private Long uploaderId;
+    private String fileName;
+    private String category;
+
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+}
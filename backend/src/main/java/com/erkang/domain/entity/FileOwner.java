@@ -0,0 +1,29 @@
+package com.erkang.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文件上传者实体
+ * 普通上传、浏览器直传与预签名上传各记录一条，标识对象由谁上传
+ */
+@Data
+@TableName("file_owner")
+public class FileOwner {
+
+    public static final String SOURCE_UPLOAD = "UPLOAD";
+    public static final String SOURCE_DIRECT = "DIRECT";
+    public static final String SOURCE_PRESIGNED = "PRESIGNED";
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String objectName;
+    private Long uploaderId;
+    private String source;              // UPLOAD/DIRECT/PRESIGNED
+
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+}
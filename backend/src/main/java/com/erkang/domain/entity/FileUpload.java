@@ -0,0 +1,36 @@
+package com.erkang.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传任务实体
+ * 已上传的分片以对象存储为准，这里只记录任务本身
+ */
+@Data
+@TableName("file_upload")
+public class FileUpload {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String uploadId;            // 对象存储分配的上传ID
+    private String objectName;
+    private String fileName;
+    private String contentType;
+    private String category;
+    private Long fileSize;
+    private Integer partSize;
+    private Integer partCount;
+    private Long uploaderId;
+
+    private String status;              // UPLOADING/COMPLETED/ABORTED/EXPIRED
+
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+    private LocalDateTime completedAt;
+}
@@ -34,6 +34,8 @@ public class FollowupPlan {
     private String redFlags;            // 红旗征象(JSON)
     
     private String status;              // ACTIVE/COMPLETED/CANCELED
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private Integer version;            // 版本号，只在状态流转时递增
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
@@ -36,6 +36,8 @@ public class FollowupRecord {
     private LocalDateTime submittedAt;  // 提交时间
     private LocalDateTime reviewedAt;   // 审阅时间
     private Long reviewerId;            // 审阅医生ID
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private Integer version;            // 版本号，只在状态流转时递增
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
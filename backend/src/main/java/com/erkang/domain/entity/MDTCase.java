@@ -33,6 +33,8 @@ public class MDTCase {
     
     private String status;              // PENDING/IN_PROGRESS/COMPLETED/CANCELED
     private LocalDateTime statusUpdatedAt;
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private Integer version;            // 版本号，只在状态流转时递增
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
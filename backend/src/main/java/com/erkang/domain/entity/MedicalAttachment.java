@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.annotation.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * 病历附件实体
@@ -27,6 +28,11 @@ public class MedicalAttachment {
     private String category;        // REPORT/IMAGE/OTHER
     private String description;
     private Long uploaderId;
+    private String renditions;      // 已生成的缩略图规格，逗号分隔
+    
+    /** 缩略图访问地址（规格 → URL），查询时填充 */
+    @TableField(exist = false)
+    private Map<String, String> renditionUrls;
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
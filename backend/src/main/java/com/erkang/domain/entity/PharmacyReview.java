@@ -17,8 +17,10 @@ public class PharmacyReview {
     private Long id;
     
     private Long prescriptionId;
+    @TableField("reviewer_id")
     private Long pharmacistId;
     
+    @TableField("review_status")
     private String result;              // APPROVED/REJECTED
     private String riskLevel;           // LOW/MEDIUM/HIGH
     private String riskDescription;     // 风险描述
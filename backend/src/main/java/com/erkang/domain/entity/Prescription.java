@@ -22,12 +22,15 @@ public class Prescription {
     private String prescriptionNo;
     
     private String diagnosis;           // 诊断
+    @TableField("notes")
     private String remark;              // 备注
     
     private String status;              // DRAFT/PENDING_REVIEW/APPROVED/REJECTED/DISPENSED
     private LocalDateTime submittedAt;  // 提交时间
     private LocalDateTime reviewedAt;   // 审核时间
     private LocalDateTime dispensedAt;  // 发药时间
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private Integer version;            // 版本号，只在状态流转时递增
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
@@ -21,6 +21,7 @@ public class PrescriptionItem {
     
     private String drugName;            // 药品名称
     private String drugCode;            // 药品编码
+    @TableField("drug_spec")
     private String specification;       // 规格
     private String dosage;              // 单次剂量
     private String frequency;           // 用药频次
@@ -29,6 +30,7 @@ public class PrescriptionItem {
     private Integer quantity;           // 数量
     private String unit;                // 单位
     private BigDecimal price;           // 单价
+    @TableField("notes")
     private String remark;              // 备注
     
     @TableField(fill = FieldFill.INSERT)
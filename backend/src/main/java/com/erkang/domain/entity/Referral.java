@@ -24,7 +24,9 @@ public class Referral {
     private Long toDepartmentId;        // 转入科室
     
     private String referralNo;          // 转诊编号
+    @TableField("referral_reason")
     private String reason;              // 转诊原因
+    @TableField("clinical_summary")
     private String medicalSummary;      // 病历摘要（必填）
     private String examResults;         // 检查资料（必填）
     private String urgencyLevel;        // 紧急程度: NORMAL/URGENT/EMERGENCY
@@ -34,6 +36,8 @@ public class Referral {
     
     private LocalDateTime acceptedAt;
     private LocalDateTime completedAt;
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private Integer version;            // 版本号，只在状态流转时递增
     
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
@@ -0,0 +1,39 @@
+package com.erkang.domain.enums;
+
+import lombok.Getter;
+
+/**
+ * AI任务状态枚举
+ */
+@Getter
+public enum AITaskStatus {
+
+    PENDING("PENDING", "排队中"),
+    PROCESSING("PROCESSING", "处理中"),
+    COMPLETED("COMPLETED", "已完成"),
+    FAILED("FAILED", "失败");
+
+    private final String code;
+    private final String name;
+
+    AITaskStatus(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    /**
+     * 是否为终态
+     */
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED;
+    }
+
+    public static AITaskStatus fromCode(String code) {
+        for (AITaskStatus status : values()) {
+            if (status.getCode().equals(code)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.erkang.domain.enums;
+
+import lombok.Getter;
+
+/**
+ * AI任务类型枚举
+ */
+@Getter
+public enum AITaskType {
+
+    HEALTH_QA("HEALTH_QA", "健康问答"),
+    RECORD_SUMMARY("RECORD_SUMMARY", "病历摘要"),
+    RISK_CHECK("RISK_CHECK", "风险检查"),
+    FOLLOWUP_GEN("FOLLOWUP_GEN", "随访生成");
+
+    private final String code;
+    private final String name;
+
+    AITaskType(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    public static AITaskType fromCode(String code) {
+        for (AITaskType type : values()) {
+            if (type.getCode().equals(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -2,6 +2,7 @@ package com.erkang.domain.enums;
 
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -49,6 +50,19 @@ public enum ConsultationStatus {
         return this == FINISHED || this == CANCELED;
     }
     
+    /**
+     * 允许流转到目标状态的前驱状态编码
+     */
+    public static List<String> predecessorCodesOf(ConsultationStatus target) {
+        List<String> codes = new ArrayList<>();
+        for (ConsultationStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                codes.add(status.getCode());
+            }
+        }
+        return codes;
+    }
+    
     public static ConsultationStatus fromCode(String code) {
         for (ConsultationStatus status : values()) {
             if (status.getCode().equals(code)) {
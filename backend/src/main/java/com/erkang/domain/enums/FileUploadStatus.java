@@ -0,0 +1,32 @@
+package com.erkang.domain.enums;
+
+import lombok.Getter;
+
+/**
+ * 分片上传任务状态枚举
+ */
+@Getter
+public enum FileUploadStatus {
+
+    UPLOADING("UPLOADING", "上传中"),
+    COMPLETED("COMPLETED", "已完成"),
+    ABORTED("ABORTED", "已取消"),
+    EXPIRED("EXPIRED", "已过期");
+
+    private final String code;
+    private final String name;
+
+    FileUploadStatus(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    public static FileUploadStatus fromCode(String code) {
+        for (FileUploadStatus status : values()) {
+            if (status.getCode().equals(code)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
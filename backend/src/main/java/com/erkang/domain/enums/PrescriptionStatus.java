@@ -2,6 +2,7 @@ package com.erkang.domain.enums;
 
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -60,6 +61,19 @@ public enum PrescriptionStatus {
         return this == DRAFT || this == REJECTED;
     }
     
+    /**
+     * 允许流转到目标状态的前驱状态编码
+     */
+    public static List<String> predecessorCodesOf(PrescriptionStatus target) {
+        List<String> codes = new ArrayList<>();
+        for (PrescriptionStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                codes.add(status.getCode());
+            }
+        }
+        return codes;
+    }
+    
     public static PrescriptionStatus fromCode(String code) {
         for (PrescriptionStatus status : values()) {
             if (status.getCode().equals(code)) {
@@ -2,6 +2,11 @@ package com.erkang.domain.enums;
 
 import lombok.Getter;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 角色枚举
  */
@@ -14,6 +19,17 @@ public enum RoleEnum {
     PHARMACIST("PHARMACIST", "药师"),
     ADMIN("ADMIN", "管理员");
     
+    /** 医生角色（基层、专家）掩码 */
+    public static final int DOCTOR_MASK = DOCTOR_PRIMARY.mask() | DOCTOR_EXPERT.mask();
+    
+    private static final Map<String, RoleEnum> BY_CODE = new HashMap<>();
+    
+    static {
+        for (RoleEnum role : values()) {
+            BY_CODE.put(role.code, role);
+        }
+    }
+    
     private final String code;
     private final String name;
     
@@ -23,12 +39,31 @@ public enum RoleEnum {
     }
     
     public static RoleEnum fromCode(String code) {
-        for (RoleEnum role : values()) {
-            if (role.getCode().equals(code)) {
-                return role;
+        return code == null ? null : BY_CODE.get(code);
+    }
+    
+    /** 角色在位掩码中对应的位 */
+    public int mask() {
+        return 1 << ordinal();
+    }
+    
+    /** 角色编码集合对应的位掩码，未知编码忽略 */
+    public static int maskOf(Collection<String> codes) {
+        int mask = 0;
+        if (codes != null) {
+            for (String code : codes) {
+                RoleEnum role = fromCode(code);
+                if (role != null) {
+                    mask |= role.mask();
+                }
             }
         }
-        return null;
+        return mask;
+    }
+    
+    /** 角色编码数组对应的位掩码，未知编码忽略 */
+    public static int maskOf(String... codes) {
+        return maskOf(Arrays.asList(codes));
     }
     
     /** 是否为医生角色 */
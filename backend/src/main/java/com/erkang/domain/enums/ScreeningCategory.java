@@ -0,0 +1,39 @@
+package com.erkang.domain.enums;
+
+import lombok.Getter;
+
+/**
+ * 文本筛查命中类别
+ */
+@Getter
+public enum ScreeningCategory {
+
+    EMERGENCY("EMERGENCY", "急危重症"),
+    RED_FLAG("RED_FLAG", "红旗征象"),
+    DOSAGE("DOSAGE", "处方剂量"),
+    ID_CARD("ID_CARD", "身份证号"),
+    PHONE("PHONE", "手机号"),
+    NAME("NAME", "姓名");
+
+    private final String code;
+    private final String name;
+
+    ScreeningCategory(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    /** 是否为词典类别（可热更新） */
+    public boolean isDictionary() {
+        return this == EMERGENCY || this == RED_FLAG;
+    }
+
+    public static ScreeningCategory fromCode(String code) {
+        for (ScreeningCategory category : values()) {
+            if (category.getCode().equals(code)) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.erkang.domain.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 浏览器直传表单VO
+ * 客户端将 formData 中的字段连同文件（字段名 file，放在最后）以 multipart/form-data 提交到 uploadUrl
+ */
+@Data
+@Builder
+public class DirectUploadVO {
+
+    private String objectName;
+    private String uploadUrl;
+    private Map<String, String> formData;
+    private Long fileSize;
+    private String contentType;
+    private LocalDateTime expiresAt;
+}
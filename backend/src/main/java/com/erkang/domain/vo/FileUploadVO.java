@@ -0,0 +1,48 @@
+package com.erkang.domain.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传任务VO
+ */
+@Data
+@Builder
+public class FileUploadVO {
+
+    /** 上传ID */
+    private String uploadId;
+
+    /** 对象名称 */
+    private String objectName;
+
+    private String fileName;
+    private Long fileSize;
+    private String contentType;
+
+    /** 分片大小（最后一片为剩余字节） */
+    private Integer partSize;
+
+    /** 分片总数 */
+    private Integer partCount;
+
+    /** UPLOADING/COMPLETED/ABORTED/EXPIRED */
+    private String status;
+
+    private LocalDateTime expiresAt;
+
+    /** 已上传的分片（断点续传时只需补传缺少的分片） */
+    private List<Part> uploadedParts;
+
+    @Data
+    @AllArgsConstructor
+    public static class Part {
+        private Integer partNumber;
+        private String etag;
+        private Long size;
+    }
+}
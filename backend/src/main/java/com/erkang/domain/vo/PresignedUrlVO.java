@@ -0,0 +1,21 @@
+package com.erkang.domain.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 预签名下载URL VO
+ * 无权访问的对象 url 与 expiresAt 为空
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUrlVO {
+
+    private String objectName;
+    private String url;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,37 @@
+package com.erkang.domain.vo;
+
+import com.erkang.domain.enums.ScreeningCategory;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文本筛查命中 VO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScreeningHitVO {
+
+    /**
+     * 命中类别
+     */
+    private ScreeningCategory category;
+
+    /**
+     * 命中的关键词或文本片段
+     */
+    private String matched;
+
+    /**
+     * 起始位置（含）
+     */
+    private Integer start;
+
+    /**
+     * 结束位置（不含）
+     */
+    private Integer end;
+}
@@ -0,0 +1,307 @@
+package com.erkang.integration.ai;
+
+import com.erkang.config.AIModelProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 模型推理微批调度
+ * 收集线程取到首个请求后，最多再等待 maxWaitMs 或直到凑满一批，合并为一次批量推理，
+ * 结果按顺序分发给各自的调用方；同时进行的批量调用数受限，超出时收集线程等待。
+ * 没有其他未完成的请求时不等待，直接单独调用；
+ * 批量调用失败时只记一次熔断失败，批内请求改为各自单独调用，个别异常请求不会拖累同批的其他请求
+ * _Requirements: 10.1, 10.5_
+ */
+@Slf4j
+public class AIBatchDispatcher {
+
+    private final AIModelClient client;
+    private final AIModelProperties.Batch config;
+    private final Runnable onBatchFailure;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // 已提交且尚未完成的请求数（含排队中与调用中）
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Semaphore inFlight;
+    private final ThreadPoolExecutor flushers;
+    private final ThreadPoolExecutor retriers;
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong totalWaitMicros = new AtomicLong();
+    private final AtomicLong maxWaitMicros = new AtomicLong();
+    // 下标为批大小，值为该大小的批次数
+    private final AtomicLongArray sizeHistogram;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer queueWaitTimer;
+    private final Counter failedBatchCounter;
+
+    /**
+     * @param onBatchFailure 批量调用失败时回调一次（用于熔断计数）
+     */
+    public AIBatchDispatcher(AIModelClient client, AIModelProperties.Batch config, MeterRegistry meterRegistry,
+                             Runnable onBatchFailure) {
+        this.client = client;
+        this.config = config;
+        this.onBatchFailure = onBatchFailure;
+        int concurrency = Math.max(1, config.getMaxConcurrentBatches());
+        this.inFlight = new Semaphore(concurrency);
+        this.flushers = new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("ai-batch-"));
+        this.flushers.allowCoreThreadTimeOut(true);
+        // 失败批次的逐个重试并行执行，线程用尽时在批量线程中执行
+        this.retriers = new ThreadPoolExecutor(0, concurrency * Math.max(1, config.getMaxBatchSize()),
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new CustomizableThreadFactory("ai-batch-retry-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.sizeHistogram = new AtomicLongArray(Math.max(1, config.getMaxBatchSize()) + 1);
+
+        this.batchSizeSummary = DistributionSummary.builder("erkang.ai.batch.size")
+                .description("单批合并的请求数")
+                .serviceLevelObjectives(batchSizeBuckets(sizeHistogram.length() - 1))
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("erkang.ai.batch.wait")
+                .description("请求在批量队列中的等待时间")
+                .register(meterRegistry);
+        this.failedBatchCounter = meterRegistry.counter("erkang.ai.batch.failures");
+        Gauge.builder("erkang.ai.batch.queued", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("erkang.ai.batch.max.size", config, AIModelProperties.Batch::getMaxBatchSize)
+                .register(meterRegistry);
+        Gauge.builder("erkang.ai.batch.max.wait", config, AIModelProperties.Batch::getMaxWaitMs)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.collector = new Thread(this::collect, "ai-batch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * 提交一次推理请求
+     * @param deadlineNanos 调用方的截止时间（System.nanoTime），批量调用取批内最早的截止时间
+     */
+    public CompletableFuture<String> submit(List<Map<String, String>> messages, long deadlineNanos) {
+        Pending pending = new Pending(messages, deadlineNanos);
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("批量调度已停止"));
+            return pending.future;
+        }
+        outstanding.incrementAndGet();
+        pending.future.whenComplete((result, error) -> outstanding.decrementAndGet());
+        queue.add(pending);
+        return pending.future;
+    }
+
+    public void shutdown() {
+        running = false;
+        collector.interrupt();
+        flushers.shutdownNow();
+        retriers.shutdownNow();
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        IllegalStateException stopped = new IllegalStateException("批量调度已停止");
+        rest.forEach(p -> p.future.completeExceptionally(stopped));
+    }
+
+    /**
+     * 批量统计：批次数、请求数、平均批大小、批大小分布与排队等待时间
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long batchCount = batches.get();
+        long requestCount = requests.get();
+        stats.put("batches", batchCount);
+        stats.put("requests", requestCount);
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("retriedRequests", retried.get());
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) requestCount / batchCount);
+        stats.put("avgWaitMs", requestCount == 0 ? 0.0 : totalWaitMicros.get() / 1000.0 / requestCount);
+        stats.put("maxWaitMs", maxWaitMicros.get() / 1000.0);
+        stats.put("queued", queue.size());
+        Map<Integer, Long> sizes = new HashMap<>();
+        for (int size = 1; size < sizeHistogram.length(); size++) {
+            long count = sizeHistogram.get(size);
+            if (count > 0) {
+                sizes.put(size, count);
+            }
+        }
+        stats.put("batchSizes", sizes);
+        stats.put("maxBatchSize", config.getMaxBatchSize());
+        stats.put("maxWaitMsConfig", config.getMaxWaitMs());
+        return stats;
+    }
+
+    private void collect() {
+        int maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getMaxWaitMs()));
+        while (running) {
+            try {
+                Pending first = queue.take();
+                List<Pending> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long flushAt = System.nanoTime() + maxWaitNanos;
+                // 只有这一个请求时不等待凑批
+                while (batch.size() < maxBatchSize && (batch.size() > 1 || outstanding.get() > 1)) {
+                    long remaining = flushAt - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                inFlight.acquire();
+                flushers.execute(() -> {
+                    try {
+                        flush(batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("AI批量调度异常: error={}", e.getMessage());
+            }
+        }
+    }
+
+    private void flush(List<Pending> collected) {
+        // 调用方已超时放弃的请求不再发送
+        List<Pending> batch = new ArrayList<>(collected.size());
+        long now = System.nanoTime();
+        for (Pending pending : collected) {
+            if (pending.future.isDone()) {
+                continue;
+            }
+            if (pending.deadlineNanos <= now) {
+                pending.future.completeExceptionally(new TimeoutException("AI模型调用超时"));
+                continue;
+            }
+            batch.add(pending);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long deadline = Long.MAX_VALUE;
+        List<List<Map<String, String>>> prompts = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            deadline = Math.min(deadline, pending.deadlineNanos);
+            prompts.add(pending.messages);
+            long waitNanos = now - pending.enqueuedAt;
+            long waitMicros = waitNanos / 1000;
+            queueWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+            totalWaitMicros.addAndGet(waitMicros);
+            maxWaitMicros.accumulateAndGet(waitMicros, Math::max);
+        }
+        batches.incrementAndGet();
+        requests.addAndGet(batch.size());
+        sizeHistogram.incrementAndGet(Math.min(batch.size(), sizeHistogram.length() - 1));
+        batchSizeSummary.record(batch.size());
+
+        if (batch.size() == 1) {
+            single(batch.get(0));
+            return;
+        }
+        try {
+            List<String> results = client.completeBatch(prompts, Duration.ofNanos(deadline - now));
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("批量结果数量不匹配: expected=" + batch.size()
+                        + ", actual=" + results.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failedBatches.incrementAndGet();
+            failedBatchCounter.increment();
+            log.warn("AI批量推理失败，逐个重试: size={}, error={}", batch.size(), e.getMessage());
+            onBatchFailure.run();
+            batch.forEach(this::retry);
+        }
+    }
+
+    private void retry(Pending pending) {
+        if (pending.future.isDone()) {
+            return;
+        }
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("批量调度已停止"));
+            return;
+        }
+        retried.incrementAndGet();
+        try {
+            retriers.execute(() -> single(pending));
+        } catch (RejectedExecutionException e) {
+            single(pending);
+        }
+    }
+
+    /**
+     * 单独调用，结果或异常交给该请求的调用方
+     */
+    private void single(Pending pending) {
+        long remaining = pending.deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            pending.future.completeExceptionally(new TimeoutException("AI模型调用超时"));
+            return;
+        }
+        try {
+            pending.future.complete(client.complete(pending.messages, Duration.ofNanos(remaining)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        } catch (Exception e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private static double[] batchSizeBuckets(int maxBatchSize) {
+        double[] buckets = new double[maxBatchSize];
+        for (int i = 0; i < maxBatchSize; i++) {
+            buckets[i] = i + 1;
+        }
+        return buckets;
+    }
+
+    private static final class Pending {
+        private final List<Map<String, String>> messages;
+        private final long deadlineNanos;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        private Pending(List<Map<String, String>> messages, long deadlineNanos) {
+            this.messages = messages;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
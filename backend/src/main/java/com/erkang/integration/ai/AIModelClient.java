@@ -0,0 +1,45 @@
+package com.erkang.integration.ai;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AI模型客户端SPI
+ * 实现只负责一次模型调用；截止时间、熔断、对冲与兜底回答由 {@link AIModelGateway} 统一处理
+ * _Requirements: 10.1, 10.5_
+ */
+public interface AIModelClient {
+
+    /**
+     * 发送对话消息并返回模型回答
+     * @param messages 按顺序排列的 role/content 消息
+     * @param timeout 本次调用剩余的时间，实现应在超时或线程被中断后尽快放弃
+     */
+    String complete(List<Map<String, String>> messages, Duration timeout) throws Exception;
+
+    /**
+     * 是否支持一次调用完成多组对话（批量推理）
+     */
+    default boolean supportsBatch() {
+        return false;
+    }
+
+    /**
+     * 批量调用，返回结果与输入一一对应；默认逐个调用
+     */
+    default List<String> completeBatch(List<List<Map<String, String>>> prompts, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<String> results = new ArrayList<>(prompts.size());
+        for (List<Map<String, String>> messages : prompts) {
+            results.add(complete(messages, Duration.ofNanos(Math.max(1, deadline - System.nanoTime()))));
+        }
+        return results;
+    }
+
+    /**
+     * 实现名称，用于日志与统计
+     */
+    String name();
+}
@@ -0,0 +1,26 @@
+package com.erkang.integration.ai;
+
+import com.erkang.config.AIModelProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI模型客户端配置，按 ai.model.provider 选择实现
+ * _Requirements: 10.1_
+ */
+@Slf4j
+@Configuration
+public class AIModelConfig {
+
+    @Bean
+    public AIModelClient aiModelClient(AIModelProperties properties, ObjectMapper objectMapper) {
+        if ("http".equalsIgnoreCase(properties.getProvider())) {
+            log.info("AI模型客户端: http, endpoint={}", properties.getHttp().getEndpoint());
+            return new HttpAIModelClient(properties.getHttp(), objectMapper);
+        }
+        log.info("AI模型客户端: stub");
+        return new StubAIModelClient();
+    }
+}
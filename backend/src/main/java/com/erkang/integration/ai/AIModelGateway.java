@@ -0,0 +1,267 @@
+package com.erkang.integration.ai;
+
+import com.erkang.config.AIModelProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * AI模型调用网关
+ * 每次调用有整体截止时间；首个请求超过近期耗时分位数仍未返回时发出一次对冲请求，先返回者胜出；
+ * 连续失败触发熔断，熔断期间直接返回兜底回答，模型服务抖动不会拖慢问答接口；
+ * 模型支持批量推理时，并发请求经 {@link AIBatchDispatcher} 合并后发送
+ * _Requirements: 10.1, 10.5_
+ */
+@Slf4j
+@Component
+public class AIModelGateway {
+
+    private final AIModelClient client;
+    private final AIModelProperties properties;
+    private final LongSupplier clock;
+    private final CircuitBreaker breaker;
+    private final LatencyTracker latencies;
+    private final ThreadPoolExecutor executor;
+    private final AIBatchDispatcher batcher;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter rejectedCounter;
+    private final Counter hedgeCounter;
+
+    @Autowired
+    public AIModelGateway(AIModelClient client, AIModelProperties properties, MeterRegistry meterRegistry) {
+        this(client, properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    AIModelGateway(AIModelClient client, AIModelProperties properties, MeterRegistry meterRegistry,
+                   LongSupplier clock) {
+        this.client = client;
+        this.properties = properties;
+        this.clock = clock;
+        this.breaker = new CircuitBreaker(properties.getBreaker(), clock);
+        this.latencies = new LatencyTracker(properties.getHedge().getSampleSize());
+        // 每个调用最多占用两个线程（首个请求 + 对冲请求）
+        int maxThreads = Math.max(2, properties.getHttp().getMaxConnections() * 2);
+        this.executor = new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("ai-model-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.batcher = properties.getBatch().isEnabled() && client.supportsBatch()
+                ? new AIBatchDispatcher(client, properties.getBatch(), meterRegistry, breaker::onFailure) : null;
+
+        this.successTimer = callTimer(meterRegistry, "success");
+        this.failureTimer = callTimer(meterRegistry, "fallback");
+        this.rejectedCounter = meterRegistry.counter("erkang.ai.model.rejected", "client", client.name());
+        this.hedgeCounter = meterRegistry.counter("erkang.ai.model.hedges", "client", client.name());
+        // 0=关闭 1=半开 2=打开
+        Gauge.builder("erkang.ai.model.breaker.state", breaker, b -> switch (b.getState()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                })
+                .tag("client", client.name())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * 调用模型，失败、超时或熔断时返回标记为兜底的回答，不抛出异常；
+     * 同步问答直接使用兜底回答，异步任务据此判定失败并重试
+     */
+    public AIModelReply complete(List<Map<String, String>> messages) {
+        calls.incrementAndGet();
+        if (!breaker.tryAcquire()) {
+            rejected.incrementAndGet();
+            rejectedCounter.increment();
+            return fallback();
+        }
+        long start = System.nanoTime();
+        try {
+            String content = invoke(messages);
+            breaker.onSuccess();
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new AIModelReply(content, false);
+        } catch (RejectedExecutionException e) {
+            // 本地调用线程或批量队列已满，模型并未失败，不计入熔断
+            breaker.release();
+            rejected.incrementAndGet();
+            rejectedCounter.increment();
+            log.warn("AI模型调用线程已满，返回兜底回答: client={}", client.name());
+            return fallback();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.onFailure();
+            log.warn("AI模型调用被中断: client={}", client.name());
+        } catch (Exception e) {
+            breaker.onFailure();
+            log.warn("AI模型调用失败: client={}, error={}", client.name(), e.getMessage());
+        }
+        failures.incrementAndGet();
+        failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return fallback();
+    }
+
+    /**
+     * 调用统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("client", client.name());
+        stats.put("breakerState", breaker.getState().name());
+        stats.put("calls", calls.get());
+        stats.put("failures", failures.get());
+        stats.put("rejected", rejected.get());
+        stats.put("hedges", hedges.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        stats.put("hedgeDelayMs", hedgeDelay());
+        if (batcher != null) {
+            stats.put("batch", batcher.getStats());
+        }
+        return stats;
+    }
+
+    CircuitBreaker.State breakerState() {
+        return breaker.getState();
+    }
+
+    private String invoke(List<Map<String, String>> messages) throws Exception {
+        long start = clock.getAsLong();
+        long deadline = start + properties.getDeadlineMs();
+        long hedgeAt = properties.getHedge().isEnabled() ? start + hedgeDelay() : Long.MAX_VALUE;
+
+        ExecutorCompletionService<String> completion = new ExecutorCompletionService<>(executor);
+        List<Future<String>> attempts = new ArrayList<>(2);
+        try {
+            attempts.add(completion.submit(() -> attempt(messages, deadline, batcher != null)));
+            boolean hedged = hedgeAt >= deadline;
+            int pending = 1;
+            Exception lastError = null;
+            while (true) {
+                long now = clock.getAsLong();
+                long waitUntil = hedged ? deadline : Math.min(deadline, hedgeAt);
+                Future<String> done = completion.poll(Math.max(0, waitUntil - now), TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    if (hedged || clock.getAsLong() >= deadline) {
+                        throw new TimeoutException("AI模型调用超时");
+                    }
+                    hedged = true;
+                    if (hedge(completion, attempts, messages, deadline)) {
+                        pending++;
+                    }
+                    continue;
+                }
+                pending--;
+                try {
+                    String content = done.get();
+                    if (done != attempts.get(0)) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    return content;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause() instanceof Exception cause ? cause : e;
+                    if (pending == 0) {
+                        throw lastError;
+                    }
+                }
+            }
+        } finally {
+            // 中断仍未返回的请求，释放连接
+            attempts.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private boolean hedge(ExecutorCompletionService<String> completion, List<Future<String>> attempts,
+                          List<Map<String, String>> messages, long deadline) {
+        try {
+            // 对冲请求直接调用模型，不进入批量队列重复排队
+            attempts.add(completion.submit(() -> attempt(messages, deadline, false)));
+            hedges.incrementAndGet();
+            hedgeCounter.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 线程已满时不再对冲，继续等待首个请求
+            return false;
+        }
+    }
+
+    private String attempt(List<Map<String, String>> messages, long deadline, boolean batched) throws Exception {
+        long start = clock.getAsLong();
+        long remaining = Math.max(1, deadline - start);
+        String content = batched
+                ? awaitBatch(messages, remaining)
+                : client.complete(messages, Duration.ofMillis(remaining));
+        latencies.record(clock.getAsLong() - start);
+        return content;
+    }
+
+    private String awaitBatch(List<Map<String, String>> messages, long remainingMs) throws Exception {
+        CompletableFuture<String> future = batcher.submit(messages,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMs));
+        try {
+            return future.get(remainingMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            // 超时或被中断时标记放弃，尚未发出的批次会跳过该请求
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * 对冲延迟：样本充足时取近期耗时分位数，否则取初始值
+     */
+    private long hedgeDelay() {
+        AIModelProperties.Hedge hedge = properties.getHedge();
+        if (latencies.count() < hedge.getMinSamples()) {
+            return hedge.getInitialDelayMs();
+        }
+        return Math.max(hedge.getMinDelayMs(), latencies.percentile(hedge.getPercentile()));
+    }
+
+    private Timer callTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("erkang.ai.model.call")
+                .tag("client", client.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private AIModelReply fallback() {
+        return new AIModelReply(properties.getSafeAnswer(), true);
+    }
+}
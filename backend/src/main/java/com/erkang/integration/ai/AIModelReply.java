@@ -0,0 +1,9 @@
+package com.erkang.integration.ai;
+
+/**
+ * 模型调用结果
+ * @param content 回答内容
+ * @param fallback 是否为模型不可用时的兜底回答（兜底回答不应被缓存）
+ */
+public record AIModelReply(String content, boolean fallback) {
+}
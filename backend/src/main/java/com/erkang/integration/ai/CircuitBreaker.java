@@ -0,0 +1,118 @@
+package com.erkang.integration.ai;
+
+import com.erkang.config.AIModelProperties;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 基于最近N次调用结果的熔断器
+ * 关闭：正常放行，失败率达到阈值后打开；
+ * 打开：直接拒绝，持续 openMs 后进入半开；
+ * 半开：只放行一次探测调用，成功则关闭，失败则重新打开；
+ * 放行后因本地资源不足未发出的调用经 release 归还，不影响状态
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final AIModelProperties.Breaker config;
+    private final LongSupplier clock;
+
+    private final boolean[] window;
+    private int windowCount;
+    private int windowIndex;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probing;
+
+    public CircuitBreaker(AIModelProperties.Breaker config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+        this.window = new boolean[Math.max(1, config.getWindowSize())];
+    }
+
+    /**
+     * 是否放行本次调用；放行后必须调用 onSuccess、onFailure 或 release
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= config.getOpenMs()) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probing) {
+                    yield false;
+                }
+                probing = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset();
+            state = State.CLOSED;
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= config.getMinimumCalls()
+                && windowFailures >= config.getFailureRateThreshold() * windowCount) {
+            open();
+        }
+    }
+
+    /**
+     * 放行后未实际调用模型（如本地线程已满）时归还，不计入调用结果；半开状态下归还探测名额
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        probing = false;
+        reset();
+    }
+
+    private void reset() {
+        windowCount = 0;
+        windowIndex = 0;
+        windowFailures = 0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.erkang.integration.ai;
+
+import com.erkang.config.AIModelProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * OpenAI兼容 Chat Completions 接口的HTTP客户端
+ * 共用一个 HttpClient，连接保持复用；同时占用的连接数受信号量限制，
+ * 等待连接与请求本身都计入调用剩余时间；配置 batch-endpoint 后支持批量推理
+ */
+@Slf4j
+public class HttpAIModelClient implements AIModelClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI endpoint;
+    private final URI batchEndpoint;
+    private final String apiKey;
+    private final String model;
+    private final Semaphore connections;
+
+    public HttpAIModelClient(AIModelProperties.Http config, ObjectMapper objectMapper) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()))
+                .build();
+        this.objectMapper = objectMapper;
+        this.endpoint = URI.create(config.getEndpoint());
+        this.batchEndpoint = config.getBatchEndpoint() != null && !config.getBatchEndpoint().isBlank()
+                ? URI.create(config.getBatchEndpoint()) : null;
+        this.apiKey = config.getApiKey();
+        this.model = config.getModel();
+        this.connections = new Semaphore(Math.max(1, config.getMaxConnections()), true);
+    }
+
+    @Override
+    public String complete(List<Map<String, String>> messages, Duration timeout) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", model);
+        body.put("messages", messages);
+        return parseContent(objectMapper.readTree(post(endpoint, body, timeout)).path("choices").path(0));
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return batchEndpoint != null;
+    }
+
+    /**
+     * 批量推理：一次请求携带多组对话，响应 choices 按 index 对应请求顺序
+     */
+    @Override
+    public List<String> completeBatch(List<List<Map<String, String>>> prompts, Duration timeout) throws Exception {
+        if (batchEndpoint == null) {
+            return AIModelClient.super.completeBatch(prompts, timeout);
+        }
+        List<Map<String, Object>> batch = new ArrayList<>(prompts.size());
+        for (List<Map<String, String>> messages : prompts) {
+            batch.add(Map.of("messages", messages));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", model);
+        body.put("batch", batch);
+
+        JsonNode choices = objectMapper.readTree(post(batchEndpoint, body, timeout)).path("choices");
+        String[] results = new String[prompts.size()];
+        for (JsonNode choice : choices) {
+            int index = choice.path("index").asInt(-1);
+            if (index < 0 || index >= results.length) {
+                throw new IOException("模型服务返回的批量结果序号无效: " + index);
+            }
+            results[index] = parseContent(choice);
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                throw new IOException("模型服务缺少批量结果: " + i);
+            }
+        }
+        return List.of(results);
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    private String post(URI uri, Map<String, Object> body, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (!connections.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("等待模型连接超时");
+        }
+        try {
+            Duration remaining = Duration.ofNanos(deadline - System.nanoTime());
+            if (remaining.isNegative() || remaining.isZero()) {
+                throw new TimeoutException("等待模型连接超时");
+            }
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                    .timeout(remaining)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            if (apiKey != null && !apiKey.isBlank()) {
+                builder.header("Authorization", "Bearer " + apiKey);
+            }
+            HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("模型服务返回状态码 " + response.statusCode());
+            }
+            return response.body();
+        } finally {
+            connections.release();
+        }
+    }
+
+    private String parseContent(JsonNode choice) throws IOException {
+        JsonNode content = choice.path("message").path("content");
+        if (!content.isTextual() || content.asText().isBlank()) {
+            throw new IOException("模型服务返回内容为空");
+        }
+        return content.asText();
+    }
+}
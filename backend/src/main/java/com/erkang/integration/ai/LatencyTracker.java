@@ -0,0 +1,45 @@
+package com.erkang.integration.ai;
+
+import java.util.Arrays;
+
+/**
+ * 最近若干次调用耗时的环形缓冲，用于计算对冲延迟
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int count;
+    private int index;
+
+    public LatencyTracker(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[index] = latencyMs;
+        index = (index + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * 分位数（0-1），无样本时返回-1
+     */
+    public long percentile(double p) {
+        long[] copy;
+        synchronized (this) {
+            if (count == 0) {
+                return -1;
+            }
+            copy = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(copy);
+        int rank = (int) Math.ceil(p * copy.length) - 1;
+        return copy[Math.max(0, Math.min(copy.length - 1, rank))];
+    }
+}
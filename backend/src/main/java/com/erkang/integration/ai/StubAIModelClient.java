@@ -0,0 +1,38 @@
+package com.erkang.integration.ai;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内置模拟模型，未接入真实模型服务时使用
+ */
+public class StubAIModelClient implements AIModelClient {
+
+    static final String ANSWER = "根据您的描述，这可能是常见的耳鼻喉科症状。建议您：\n" +
+            "1. 保持充足休息\n" +
+            "2. 多饮水\n" +
+            "3. 避免刺激性食物\n" +
+            "4. 如症状持续或加重，请及时就医";
+
+    @Override
+    public String complete(List<Map<String, String>> messages, Duration timeout) {
+        return ANSWER;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return true;
+    }
+
+    @Override
+    public List<String> completeBatch(List<List<Map<String, String>>> prompts, Duration timeout) {
+        return Collections.nCopies(prompts.size(), ANSWER);
+    }
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+}
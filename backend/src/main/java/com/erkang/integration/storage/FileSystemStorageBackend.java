@@ -0,0 +1,601 @@
+package com.erkang.integration.storage;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 本地文件系统存储后端
+ * 对象存放在 根目录/objects/对象名，内容类型存放在 根目录/meta/对象名；
+ * 写入先落到临时文件再原子重命名，读取方不会看到写了一半的对象；
+ * 分片合并与下载经 FileChannel.transferTo 在内核中完成拷贝。
+ * 预签名链接指向应用自身的 /api/storage/object，以 HMAC-SHA256 签名限定方法、对象与过期时间
+ */
+@Slf4j
+public class FileSystemStorageBackend implements StorageBackend {
+
+    static final String OBJECT_PATH = "/api/storage/object";
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{32}");
+    private static final String UPLOAD_FILE = "upload.properties";
+    private static final String PART_SUFFIX = ".part";
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final Path objectsDir;
+    private final Path metaDir;
+    private final Path uploadsDir;
+    private final Path tmpDir;
+    private final String publicUrl;
+    private final byte[] signingKey;
+    private final boolean fsync;
+
+    public FileSystemStorageBackend(StorageProperties.Filesystem properties) {
+        Path root = Path.of(properties.getRoot()).toAbsolutePath().normalize();
+        this.objectsDir = root.resolve("objects");
+        this.metaDir = root.resolve("meta");
+        this.uploadsDir = root.resolve("uploads");
+        this.tmpDir = root.resolve("tmp");
+        this.publicUrl = properties.getPublicUrl().replaceAll("/+$", "");
+        this.fsync = properties.isFsync();
+        if (properties.getSigningKey() == null || properties.getSigningKey().isBlank()) {
+            this.signingKey = new byte[32];
+            new SecureRandom().nextBytes(signingKey);
+            log.warn("未配置存储签名密钥，已随机生成，重启后已签发的链接失效");
+        } else {
+            this.signingKey = properties.getSigningKey().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 创建存储目录并清理上次运行留下的临时文件
+     */
+    @Override
+    public void initialize() {
+        try {
+            for (Path dir : List.of(objectsDir, metaDir, uploadsDir, tmpDir)) {
+                Files.createDirectories(dir);
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(tmpDir)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            log.info("文件系统存储目录: {}", objectsDir.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法初始化存储目录: " + objectsDir.getParent(), e);
+        }
+    }
+
+    @Override
+    public void put(String objectName, InputStream stream, long size, String contentType) {
+        Path target = objectPath(objectName);
+        Path temp = tempFile();
+        try {
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(stream)) {
+                long n;
+                while ((n = channel.transferFrom(source, written, TRANSFER_CHUNK)) > 0) {
+                    written += n;
+                }
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            if (size >= 0 && written != size) {
+                throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件大小与声明不一致");
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // 对象落盘后再写元数据，写入失败时不会留下指向旧对象的新内容类型
+            writeMeta(objectName, contentType);
+        } catch (IOException e) {
+            log.error("文件上传失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件上传失败: " + e.getMessage());
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String objectName) {
+        try {
+            return Files.newInputStream(objectPath(objectName));
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或无法访问");
+        }
+    }
+
+    @Override
+    public InputStream getRange(String objectName, long offset, long length) {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(objectPath(objectName), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或无法访问");
+        }
+        // 按位置读取，打开后不再有可能失败的调用，通道随返回的流关闭
+        return Channels.newInputStream(new RangeChannel(channel, offset, offset + length));
+    }
+
+    @Override
+    public ObjectInfo stat(String objectName) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(objectPath(objectName), BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或尚未上传完成");
+            }
+            return new ObjectInfo(attrs.size(), etag(attrs), readMeta(objectName),
+                    attrs.lastModifiedTime().toInstant());
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或尚未上传完成");
+        }
+    }
+
+    @Override
+    public void delete(String objectName) {
+        try {
+            Files.deleteIfExists(objectPath(objectName));
+            Files.deleteIfExists(metaPath(objectName));
+        } catch (IOException e) {
+            log.error("文件删除失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件删除失败");
+        }
+    }
+
+    @Override
+    public Path localPath(String objectName) {
+        Path path = objectPath(objectName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    @Override
+    public String presignGet(String objectName, int expireMinutes) {
+        return presign("GET", objectName, expireMinutes);
+    }
+
+    @Override
+    public String presignPut(String objectName, int expireMinutes) {
+        return presign("PUT", objectName, expireMinutes);
+    }
+
+    /**
+     * 表单字段：key、Content-Type、size、expires 与签名，提交时逐项校验
+     */
+    @Override
+    public Map<String, String> presignPostForm(String objectName, String contentType, long fileSize,
+                                               int expireMinutes) {
+        objectPath(objectName);
+        long expires = expiresAt(expireMinutes);
+        Map<String, String> formData = new LinkedHashMap<>();
+        formData.put("key", objectName);
+        formData.put("Content-Type", contentType);
+        formData.put("size", String.valueOf(fileSize));
+        formData.put("expires", String.valueOf(expires));
+        formData.put("signature", sign("POST", objectName, contentType, String.valueOf(fileSize),
+                String.valueOf(expires)));
+        return formData;
+    }
+
+    @Override
+    public String postUploadUrl() {
+        return publicUrl + OBJECT_PATH;
+    }
+
+    /**
+     * 校验 GET/PUT 预签名链接
+     * @throws BusinessException 签名不符或已过期
+     */
+    public void verify(String method, String objectName, long expires, String signature) {
+        verifySignature(expires, signature, method, objectName, String.valueOf(expires));
+    }
+
+    /**
+     * 校验直传表单
+     * @throws BusinessException 签名不符或已过期
+     */
+    public void verifyPost(String objectName, String contentType, long fileSize, long expires, String signature) {
+        verifySignature(expires, signature, "POST", objectName, contentType, String.valueOf(fileSize),
+                String.valueOf(expires));
+    }
+
+    @Override
+    public String createMultipart(String objectName, String contentType) {
+        objectPath(objectName);
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        Properties upload = new Properties();
+        upload.setProperty("object", objectName);
+        upload.setProperty("initiated", String.valueOf(System.currentTimeMillis()));
+        if (contentType != null && !contentType.isBlank()) {
+            upload.setProperty("contentType", contentType);
+        }
+        try {
+            Path dir = Files.createDirectories(uploadsDir.resolve(uploadId));
+            try (OutputStream out = Files.newOutputStream(dir.resolve(UPLOAD_FILE))) {
+                upload.store(out, null);
+            }
+            return uploadId;
+        } catch (IOException e) {
+            log.error("创建分片上传失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "创建分片上传失败");
+        }
+    }
+
+    @Override
+    public String uploadPart(String objectName, String uploadId, int partNumber, byte[] data, int length) {
+        Path dir = uploadDir(objectName, uploadId);
+        Path temp = tempFile();
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            Path part = dir.resolve(partFileName(partNumber));
+            Files.move(temp, part, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return etag(Files.readAttributes(part, BasicFileAttributes.class));
+        } catch (IOException e) {
+            log.error("分片上传失败: object={}, part={}", objectName, partNumber, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "分片上传失败");
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public List<UploadedPart> listParts(String objectName, String uploadId) {
+        Path dir = uploadDir(objectName, uploadId);
+        List<UploadedPart> parts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + PART_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                parts.add(new UploadedPart(Integer.parseInt(name.substring(0, name.length() - PART_SUFFIX.length())),
+                        etag(attrs), attrs.size()));
+            }
+        } catch (IOException e) {
+            log.error("查询已上传分片失败: object={}, uploadId={}", objectName, uploadId, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "查询上传进度失败");
+        }
+        parts.sort(Comparator.comparingInt(UploadedPart::partNumber));
+        return parts;
+    }
+
+    /**
+     * 按给定顺序把分片拼接到临时文件（文件间拷贝由内核完成），再原子重命名为目标对象
+     */
+    @Override
+    public void completeMultipart(String objectName, String uploadId, List<UploadedPart> parts) {
+        Path dir = uploadDir(objectName, uploadId);
+        Properties upload = readUpload(dir);
+        Path target = objectPath(objectName);
+        Path temp = tempFile();
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                for (UploadedPart part : parts) {
+                    Path file = dir.resolve(partFileName(part.partNumber()));
+                    try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                        if (!etag(Files.readAttributes(file, BasicFileAttributes.class)).equals(part.etag())) {
+                            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "分片已变更，请重新上传");
+                        }
+                        FileTransfer.transfer(in, 0, in.size(), out);
+                    }
+                }
+                if (fsync) {
+                    out.force(true);
+                }
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            writeMeta(objectName, upload.getProperty("contentType"));
+            deleteRecursively(dir);
+        } catch (IOException e) {
+            log.error("分片合并失败: object={}, uploadId={}", objectName, uploadId, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件合并失败");
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public void abortMultipart(String objectName, String uploadId) {
+        Path dir = uploadsDir.resolve(checkUploadId(uploadId));
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        if (!objectName.equals(readUpload(dir).getProperty("object"))) {
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "取消上传失败");
+        }
+        try {
+            deleteRecursively(dir);
+        } catch (IOException e) {
+            log.error("取消分片上传失败: object={}, uploadId={}", objectName, uploadId, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "取消上传失败");
+        }
+    }
+
+    @Override
+    public List<PendingUpload> listMultipartUploadsInitiatedBefore(ZonedDateTime before, int limit) {
+        List<PendingUpload> uploads = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(uploadsDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                if (uploads.size() >= limit) {
+                    break;
+                }
+                Properties upload;
+                try {
+                    upload = readUpload(dir);
+                } catch (BusinessException e) {
+                    continue;
+                }
+                ZonedDateTime initiated = Instant.ofEpochMilli(Long.parseLong(upload.getProperty("initiated", "0")))
+                        .atZone(ZoneId.systemDefault());
+                if (initiated.isBefore(before)) {
+                    uploads.add(new PendingUpload(upload.getProperty("object"), dir.getFileName().toString(), initiated));
+                }
+            }
+            return uploads;
+        } catch (IOException e) {
+            log.error("查询未完成的分片上传失败", e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "查询未完成的上传失败");
+        }
+    }
+
+    @Override
+    public String name() {
+        return "filesystem";
+    }
+
+    /**
+     * 对象文件路径，拒绝越出存储目录的对象名
+     */
+    Path objectPath(String objectName) {
+        return resolveWithin(objectsDir, objectName);
+    }
+
+    private Path metaPath(String objectName) {
+        return resolveWithin(metaDir, objectName);
+    }
+
+    private static Path resolveWithin(Path dir, String objectName) {
+        if (objectName == null || objectName.isBlank()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "对象名称无效");
+        }
+        Path path = dir.resolve(objectName).normalize();
+        if (!path.startsWith(dir) || path.equals(dir)) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "对象名称无效");
+        }
+        return path;
+    }
+
+    private Path tempFile() {
+        try {
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "存储目录不可用");
+        }
+        return tmpDir.resolve(UUID.randomUUID().toString());
+    }
+
+    private void writeMeta(String objectName, String contentType) throws IOException {
+        Path meta = metaPath(objectName);
+        if (contentType == null || contentType.isBlank()) {
+            Files.deleteIfExists(meta);
+            return;
+        }
+        Path temp = tempFile();
+        try {
+            Files.writeString(temp, contentType, StandardOpenOption.CREATE_NEW);
+            Files.createDirectories(meta.getParent());
+            Files.move(temp, meta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private String readMeta(String objectName) {
+        try {
+            return Files.readString(metaPath(objectName));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("读取对象元数据失败: {}, reason={}", objectName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 分片上传任务目录，任务不存在或不属于该对象时拒绝
+     */
+    private Path uploadDir(String objectName, String uploadId) {
+        Path dir = uploadsDir.resolve(checkUploadId(uploadId));
+        if (!objectName.equals(readUpload(dir).getProperty("object"))) {
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "上传任务不存在");
+        }
+        return dir;
+    }
+
+    private static String checkUploadId(String uploadId) {
+        if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "上传任务不存在");
+        }
+        return uploadId;
+    }
+
+    private static Properties readUpload(Path dir) {
+        Properties upload = new Properties();
+        try (InputStream in = Files.newInputStream(dir.resolve(UPLOAD_FILE))) {
+            upload.load(in);
+            return upload;
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "上传任务不存在");
+        }
+    }
+
+    private static String partFileName(int partNumber) {
+        return String.format("%05d%s", partNumber, PART_SUFFIX);
+    }
+
+    /**
+     * ETag：大小、修改时间与文件标识（每次原子重命名都是新文件），内容变化时必然不同
+     */
+    private static String etag(BasicFileAttributes attrs) {
+        StringBuilder etag = new StringBuilder()
+                .append(Long.toHexString(attrs.size()))
+                .append('-')
+                .append(Long.toHexString(attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS)));
+        if (attrs.fileKey() != null) {
+            etag.append('-').append(Integer.toHexString(attrs.fileKey().hashCode()));
+        }
+        return etag.toString();
+    }
+
+    private String presign(String method, String objectName, int expireMinutes) {
+        objectPath(objectName);
+        long expires = expiresAt(expireMinutes);
+        return publicUrl + OBJECT_PATH
+                + "?key=" + URLEncoder.encode(objectName, StandardCharsets.UTF_8)
+                + "&expires=" + expires
+                + "&signature=" + sign(method, objectName, String.valueOf(expires));
+    }
+
+    private static long expiresAt(int expireMinutes) {
+        return System.currentTimeMillis() / 1000 + expireMinutes * 60L;
+    }
+
+    private void verifySignature(long expires, String signature, String... fields) {
+        boolean valid = signature != null
+                && MessageDigest.isEqual(sign(fields).getBytes(StandardCharsets.UTF_8),
+                        signature.getBytes(StandardCharsets.UTF_8));
+        if (!valid || expires < System.currentTimeMillis() / 1000) {
+            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED, "链接无效或已过期");
+        }
+    }
+
+    /**
+     * 各字段按 长度+内容 编码后计算 HMAC，对象名与内容类型中的分隔符不能移动字段边界
+     */
+    private String sign(String... fields) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(signingKey, "HmacSHA256"));
+            for (String field : fields) {
+                if (field == null) {
+                    mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+                    continue;
+                }
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                mac.update(bytes);
+            }
+            byte[] digest = mac.doFinal();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败: {}, reason={}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 文件区间 [position, end) 的只读通道，关闭时关闭底层文件
+     */
+    private static final class RangeChannel implements ReadableByteChannel {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private RangeChannel(FileChannel channel, long position, long end) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            long remaining = end - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > remaining) {
+                dst.limit(dst.position() + (int) remaining);
+            }
+            try {
+                int n = channel.read(dst, position);
+                if (n > 0) {
+                    position += n;
+                }
+                return n;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.erkang.integration.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 本地文件发送
+ * 连接器支持 sendfile 时由连接器在请求处理结束后直接从文件发送，不经过应用缓冲区；
+ * 否则经 FileChannel.transferTo 写入响应输出流
+ */
+public final class FileTransfer {
+
+    /** Tomcat 连接器的 sendfile 请求属性 */
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileTransfer() {
+    }
+
+    /**
+     * 将文件区间写入响应（调用方已设置响应头与 Content-Length）
+     */
+    public static void send(Path file, long offset, long length,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, offset);
+            request.setAttribute(SENDFILE_END, offset + length);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, offset, length, Channels.newChannel(out));
+        }
+        out.flush();
+    }
+
+    /**
+     * 将通道区间完整写入目标通道
+     */
+    static void transfer(FileChannel channel, long offset, long length, WritableByteChannel target)
+            throws IOException {
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+            long n = channel.transferTo(position, end - position, target);
+            if (n <= 0) {
+                throw new EOFException("文件长度不足: " + end);
+            }
+            position += n;
+        }
+    }
+}
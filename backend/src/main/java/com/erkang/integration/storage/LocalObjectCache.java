@@ -0,0 +1,351 @@
+package com.erkang.integration.storage;
+
+import com.erkang.common.BusinessException;
+import com.erkang.config.StorageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 对象本地磁盘缓存
+ * 完整下载对象时顺带写入本地目录，之后的读取直接走本地文件：重新校验间隔内不访问对象存储，
+ * 超过后按 ETag 校验（只查询元数据，不传输内容）；按缓存文件总字节数淘汰最久未访问的对象。
+ * 淘汰的文件延迟删除，除写入与作废时顺带删除外还定时清理，没有新写入时也不会长期占用磁盘。
+ * 本地文件经 {@link FileTransfer} 发送
+ */
+@Slf4j
+@Component
+public class LocalObjectCache {
+
+    private static final String FILE_SUFFIX = ".obj";
+
+    private final MinioService minioService;
+    private final StorageProperties.LocalCache properties;
+    private final LongSupplier clock;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter staleCounter;
+
+    private final LinkedHashMap<String, CachedObject> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Deque<Retired> retired = new ArrayDeque<>();
+    private long totalBytes;
+    private volatile Path directory;
+    private ScheduledExecutorService purger;
+
+    @Autowired
+    public LocalObjectCache(MinioService minioService, StorageProperties storageProperties,
+                            MeterRegistry meterRegistry) {
+        this(minioService, storageProperties, meterRegistry, System::currentTimeMillis);
+    }
+
+    LocalObjectCache(MinioService minioService, StorageProperties storageProperties,
+                     MeterRegistry meterRegistry, LongSupplier clock) {
+        this.minioService = minioService;
+        this.properties = storageProperties.getLocalCache();
+        this.clock = clock;
+        this.hitCounter = meterRegistry.counter("erkang.storage.local.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("erkang.storage.local.cache", "result", "miss");
+        this.staleCounter = meterRegistry.counter("erkang.storage.local.cache", "result", "stale");
+        Gauge.builder("erkang.storage.local.cache.bytes", this, LocalObjectCache::totalBytes)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 准备缓存目录；索引只在内存中，上次运行留下的缓存文件全部删除
+     * 目录不可用时只记录日志，下载照常回源
+     */
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path dir = Path.of(properties.getDirectory());
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + FILE_SUFFIX)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            directory = dir;
+            log.info("对象本地缓存目录: {}, maxBytes={}", dir, properties.getMaxBytes());
+        } catch (IOException e) {
+            log.warn("对象本地缓存目录不可用，已停用: {}, reason={}", dir, e.getMessage());
+            return;
+        }
+        long interval = properties.getPurgeIntervalMs();
+        if (interval > 0) {
+            purger = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("object-cache-purger-"));
+            purger.scheduleWithFixedDelay(this::purgeRetired, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * 缓存的对象
+     */
+    public static final class CachedObject {
+        private final Path path;
+        private final ObjectInfo info;
+        private volatile long validatedAt;
+
+        CachedObject(Path path, ObjectInfo info, long validatedAt) {
+            this.path = path;
+            this.info = info;
+            this.validatedAt = validatedAt;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        public ObjectInfo info() {
+            return info;
+        }
+    }
+
+    private record Retired(Path path, long retiredAt) {
+    }
+
+    /**
+     * 查找缓存的对象，超过重新校验间隔时按 ETag 与大小校验
+     * @return 未缓存或对象已变更时返回 null
+     * @throws BusinessException 校验时对象已不存在
+     */
+    public CachedObject lookup(String objectName) {
+        if (directory == null) {
+            return null;
+        }
+        CachedObject cached;
+        synchronized (this) {
+            cached = entries.get(objectName);
+        }
+        if (cached == null) {
+            missCounter.increment();
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (now - cached.validatedAt < properties.getRevalidateMs()) {
+            hitCounter.increment();
+            return cached;
+        }
+        ObjectInfo current;
+        try {
+            current = minioService.statObject(objectName);
+        } catch (BusinessException e) {
+            invalidate(objectName);
+            throw e;
+        }
+        if (Objects.equals(current.etag(), cached.info.etag()) && current.size() == cached.info.size()) {
+            cached.validatedAt = now;
+            hitCounter.increment();
+            return cached;
+        }
+        staleCounter.increment();
+        invalidate(objectName);
+        return null;
+    }
+
+    /**
+     * 将对象内容转发到输出流，同时写入缓存
+     * 对象超过单个大小上限、缺少 ETag 或写入本地失败时只转发；客户端中断时不缓存
+     * @return 转发的字节数
+     */
+    public long copyAndStore(String objectName, ObjectInfo info, InputStream in, OutputStream out,
+                             int bufferSize) throws IOException {
+        Path dir = directory;
+        FileChannel channel = null;
+        Path file = null;
+        if (dir != null && info.etag() != null && info.size() <= properties.getMaxObjectSize()) {
+            file = dir.resolve(UUID.randomUUID() + FILE_SUFFIX);
+            channel = openForWrite(file);
+        }
+        byte[] buffer = new byte[bufferSize];
+        long total = 0;
+        int n;
+        try {
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+                total += n;
+                if (channel != null && !write(channel, buffer, n)) {
+                    channel = discard(channel, file);
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            discard(channel, file);
+            throw e;
+        }
+        if (channel != null) {
+            channel.close();
+            if (total == info.size()) {
+                put(objectName, new CachedObject(file, info, clock.getAsLong()));
+            } else {
+                Files.deleteIfExists(file);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 将缓存文件的区间写入响应（调用方已设置响应头与 Content-Length）
+     */
+    public void transfer(CachedObject cached, long offset, long length,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            FileTransfer.send(cached.path, offset, length, request, response);
+        } catch (NoSuchFileException e) {
+            // 缓存文件被外部清理
+            forget(cached);
+            throw e;
+        }
+    }
+
+    /**
+     * 作废对象的缓存（对象删除或覆盖后调用）
+     */
+    public void invalidate(String objectName) {
+        synchronized (this) {
+            CachedObject removed = entries.remove(objectName);
+            if (removed != null) {
+                totalBytes -= removed.info.size();
+                retired.add(new Retired(removed.path, clock.getAsLong()));
+            }
+        }
+        purgeRetired();
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void forget(CachedObject cached) {
+        synchronized (this) {
+            if (entries.values().remove(cached)) {
+                totalBytes -= cached.info.size();
+                retired.add(new Retired(cached.path, clock.getAsLong()));
+            }
+        }
+        purgeRetired();
+    }
+
+    /**
+     * 登记缓存文件并按总字节数淘汰最久未访问的对象
+     * 被替换或淘汰的文件延迟删除，留给正在经 sendfile 发送的响应
+     */
+    private void put(String objectName, CachedObject cached) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            CachedObject previous = entries.put(objectName, cached);
+            totalBytes += cached.info.size();
+            if (previous != null) {
+                totalBytes -= previous.info.size();
+                retired.add(new Retired(previous.path, now));
+            }
+            Iterator<CachedObject> it = entries.values().iterator();
+            while (totalBytes > properties.getMaxBytes() && it.hasNext()) {
+                CachedObject eldest = it.next();
+                it.remove();
+                totalBytes -= eldest.info.size();
+                retired.add(new Retired(eldest.path, now));
+            }
+        }
+        purgeRetired();
+    }
+
+    /**
+     * 删除过了延迟时间的淘汰文件
+     */
+    void purgeRetired() {
+        long deadline = clock.getAsLong() - properties.getRetireGraceMs();
+        List<Path> expired = new ArrayList<>();
+        synchronized (this) {
+            while (!retired.isEmpty() && retired.peekFirst().retiredAt() <= deadline) {
+                expired.add(retired.pollFirst().path());
+            }
+        }
+        for (Path file : expired) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("删除缓存文件失败: {}, reason={}", file, e.getMessage());
+            }
+        }
+    }
+
+    private static FileChannel openForWrite(Path file) {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            log.warn("创建缓存文件失败: {}, reason={}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean write(FileChannel channel, byte[] data, int length) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("写入缓存文件失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static FileChannel discard(FileChannel channel, Path file) {
+        if (channel == null) {
+            return null;
+        }
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除缓存文件失败: {}, reason={}", file, e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.erkang.integration.storage;
+
+import com.erkang.integration.storage.StorageBackend.PendingUpload;
+import com.erkang.integration.storage.StorageBackend.UploadedPart;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * 分片上传
+ * 封装存储后端的分片上传接口（创建、上传分片、列出已传分片、合并、取消），
+ * 分片数据直接转发到存储后端，不在应用内缓存
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MinioMultipartService {
+
+    private final StorageBackend backend;
+
+    /**
+     * 新建的分片上传任务
+     */
+    public record CreatedUpload(String objectName, String uploadId) {
+    }
+
+    /**
+     * 创建分片上传任务，对象名称规则与普通上传相同
+     */
+    public CreatedUpload createUpload(String fileName, String category, String contentType) {
+        String objectName = MinioService.generateObjectName(fileName, category);
+        return new CreatedUpload(objectName, backend.createMultipart(objectName, contentType));
+    }
+
+    /**
+     * 上传单个分片，只发送 data 的前 length 个字节
+     * @return 分片ETag
+     */
+    public String uploadPart(String objectName, String uploadId, int partNumber, byte[] data, int length) {
+        return backend.uploadPart(objectName, uploadId, partNumber, data, length);
+    }
+
+    /**
+     * 列出已上传的分片（按分片号升序）
+     */
+    public List<UploadedPart> listParts(String objectName, String uploadId) {
+        return backend.listParts(objectName, uploadId);
+    }
+
+    /**
+     * 按分片号顺序合并分片
+     */
+    public void completeUpload(String objectName, String uploadId, List<UploadedPart> parts) {
+        backend.completeMultipart(objectName, uploadId, parts);
+        log.info("分片合并完成: object={}, parts={}", objectName, parts.size());
+    }
+
+    /**
+     * 取消分片上传并释放已上传分片，任务已不存在时视为成功
+     */
+    public void abortUpload(String objectName, String uploadId) {
+        backend.abortMultipart(objectName, uploadId);
+    }
+
+    /**
+     * 列出在指定时间之前创建、仍未完成的分片上传任务（最多 limit 个）
+     */
+    public List<PendingUpload> listUploadsInitiatedBefore(ZonedDateTime before, int limit) {
+        return backend.listMultipartUploadsInitiatedBefore(before, limit);
+    }
+}
@@ -2,23 +2,24 @@ package com.erkang.integration.storage;
 
 import com.erkang.common.BusinessException;
 import com.erkang.common.ErrorCode;
-import io.minio.*;
-import io.minio.http.Method;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
- * MinIO 对象存储服务
+ * 对象存储服务
+ * 应用访问对象存储的统一入口，负责对象命名；具体读写由配置的 {@link StorageBackend} 完成
  * _Requirements: 12.1, 12.2, 12.3, 12.4_
  */
 @Slf4j
@@ -26,10 +27,9 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class MinioService {
 
-    private final MinioClient minioClient;
+    private static final Pattern CATEGORY = Pattern.compile("[A-Za-z0-9_-]{1,50}");
 
-    @Value("${minio.bucket:erkang-files}")
-    private String defaultBucket;
+    private final StorageBackend backend;
 
     /**
      * 上传文件
@@ -38,22 +38,15 @@ public class MinioService {
      * @return 文件存储路径
      */
     public String uploadFile(MultipartFile file, String category) {
-        try {
-            String objectName = generateObjectName(file.getOriginalFilename(), category);
-            
-            minioClient.putObject(PutObjectArgs.builder()
-                    .bucket(defaultBucket)
-                    .object(objectName)
-                    .stream(file.getInputStream(), file.getSize(), -1)
-                    .contentType(file.getContentType())
-                    .build());
-            
-            log.info("文件上传成功: bucket={}, object={}", defaultBucket, objectName);
-            return objectName;
-        } catch (Exception e) {
+        String objectName = generateObjectName(file.getOriginalFilename(), category);
+        try (InputStream in = file.getInputStream()) {
+            backend.put(objectName, in, file.getSize(), file.getContentType());
+        } catch (IOException e) {
             log.error("文件上传失败", e);
             throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件上传失败: " + e.getMessage());
         }
+        log.info("文件上传成功: backend={}, object={}", backend.name(), objectName);
+        return objectName;
     }
 
     /**
@@ -65,22 +58,31 @@ public class MinioService {
      * @return 文件存储路径
      */
     public String uploadBytes(byte[] data, String fileName, String contentType, String category) {
-        try {
-            String objectName = generateObjectName(fileName, category);
-            
-            minioClient.putObject(PutObjectArgs.builder()
-                    .bucket(defaultBucket)
-                    .object(objectName)
-                    .stream(new ByteArrayInputStream(data), data.length, -1)
-                    .contentType(contentType)
-                    .build());
-            
-            log.info("文件上传成功: bucket={}, object={}, size={}", defaultBucket, objectName, data.length);
-            return objectName;
-        } catch (Exception e) {
-            log.error("文件上传失败", e);
-            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件上传失败: " + e.getMessage());
-        }
+        String objectName = generateObjectName(fileName, category);
+        backend.put(objectName, new ByteArrayInputStream(data), data.length, contentType);
+        log.info("文件上传成功: backend={}, object={}, size={}", backend.name(), objectName, data.length);
+        return objectName;
+    }
+
+    /**
+     * 上传字节数组到指定对象（已存在时覆盖）
+     * @param objectName 对象名称
+     * @param data 文件数据
+     * @param contentType 内容类型
+     */
+    public void putBytes(String objectName, byte[] data, String contentType) {
+        putStream(objectName, new ByteArrayInputStream(data), data.length, contentType);
+    }
+
+    /**
+     * 上传输入流到指定对象（已存在时覆盖）
+     * @param objectName 对象名称
+     * @param stream 文件内容
+     * @param size 文件大小
+     * @param contentType 内容类型
+     */
+    public void putStream(String objectName, InputStream stream, long size, String contentType) {
+        backend.put(objectName, stream, size, contentType);
     }
 
     /**
@@ -89,15 +91,18 @@ public class MinioService {
      * @return 文件输入流
      */
     public InputStream downloadFile(String objectName) {
-        try {
-            return minioClient.getObject(GetObjectArgs.builder()
-                    .bucket(defaultBucket)
-                    .object(objectName)
-                    .build());
-        } catch (Exception e) {
-            log.error("文件下载失败: {}", objectName, e);
-            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或无法访问");
-        }
+        return backend.get(objectName);
+    }
+
+    /**
+     * 按字节区间下载文件
+     * @param objectName 对象名称
+     * @param offset 起始偏移
+     * @param length 读取长度
+     * @return 区间内容输入流
+     */
+    public InputStream downloadRange(String objectName, long offset, long length) {
+        return backend.getRange(objectName, offset, length);
     }
 
     /**
@@ -108,12 +113,19 @@ public class MinioService {
     public byte[] downloadBytes(String objectName) {
         try (InputStream is = downloadFile(objectName)) {
             return is.readAllBytes();
-        } catch (Exception e) {
+        } catch (IOException e) {
             log.error("文件下载失败: {}", objectName, e);
             throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或无法访问");
         }
     }
 
+    /**
+     * 对象在本地文件系统中的路径（文件系统后端），可直接从文件发送；否则返回 null
+     */
+    public Path localPath(String objectName) {
+        return backend.localPath(objectName);
+    }
+
     /**
      * 生成预签名下载URL
      * @param objectName 对象名称
@@ -121,17 +133,7 @@ public class MinioService {
      * @return 预签名URL
      */
     public String getPresignedUrl(String objectName, int expireMinutes) {
-        try {
-            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
-                    .bucket(defaultBucket)
-                    .object(objectName)
-                    .method(Method.GET)
-                    .expiry(expireMinutes, TimeUnit.MINUTES)
-                    .build());
-        } catch (Exception e) {
-            log.error("生成预签名URL失败: {}", objectName, e);
-            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED, "无法生成文件访问链接");
-        }
+        return backend.presignGet(objectName, expireMinutes);
     }
 
     /**
@@ -141,17 +143,37 @@ public class MinioService {
      * @return 预签名URL
      */
     public String getPresignedUploadUrl(String objectName, int expireMinutes) {
-        try {
-            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
-                    .bucket(defaultBucket)
-                    .object(objectName)
-                    .method(Method.PUT)
-                    .expiry(expireMinutes, TimeUnit.MINUTES)
-                    .build());
-        } catch (Exception e) {
-            log.error("生成预签名上传URL失败: {}", objectName, e);
-            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED, "无法生成文件上传链接");
-        }
+        return backend.presignPut(objectName, expireMinutes);
+    }
+
+    /**
+     * 生成浏览器直传的 POST 表单
+     * 表单限定对象名、内容类型与文件大小，客户端将返回的字段连同文件以 multipart/form-data 提交到 {@link #getPostUploadUrl()}
+     * @param objectName 对象名称
+     * @param contentType 内容类型
+     * @param fileSize 文件大小（字节），上传的文件必须恰好为该大小
+     * @param expireMinutes 过期时间（分钟）
+     * @return 表单字段
+     */
+    public Map<String, String> getPresignedPostFormData(String objectName, String contentType,
+                                                        long fileSize, int expireMinutes) {
+        return backend.presignPostForm(objectName, contentType, fileSize, expireMinutes);
+    }
+
+    /**
+     * 直传表单的提交地址
+     */
+    public String getPostUploadUrl() {
+        return backend.postUploadUrl();
+    }
+
+    /**
+     * 查询对象元数据
+     * @param objectName 对象名称
+     * @return 对象元数据
+     */
+    public ObjectInfo statObject(String objectName) {
+        return backend.stat(objectName);
     }
 
     /**
@@ -159,16 +181,8 @@ public class MinioService {
      * @param objectName 对象名称
      */
     public void deleteFile(String objectName) {
-        try {
-            minioClient.removeObject(RemoveObjectArgs.builder()
-                    .bucket(defaultBucket)
-                    .object(objectName)
-                    .build());
-            log.info("文件删除成功: {}", objectName);
-        } catch (Exception e) {
-            log.error("文件删除失败: {}", objectName, e);
-            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件删除失败");
-        }
+        backend.delete(objectName);
+        log.info("文件删除成功: {}", objectName);
     }
 
     /**
@@ -177,41 +191,25 @@ public class MinioService {
      * @return 是否存在
      */
     public boolean exists(String objectName) {
-        try {
-            minioClient.statObject(StatObjectArgs.builder()
-                    .bucket(defaultBucket)
-                    .object(objectName)
-                    .build());
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return backend.exists(objectName);
     }
 
     /**
-     * 确保 bucket 存在
+     * 确保 bucket（或存储目录）存在
      */
     public void ensureBucketExists() {
-        try {
-            boolean found = minioClient.bucketExists(BucketExistsArgs.builder()
-                    .bucket(defaultBucket)
-                    .build());
-            if (!found) {
-                minioClient.makeBucket(MakeBucketArgs.builder()
-                        .bucket(defaultBucket)
-                        .build());
-                log.info("创建 bucket: {}", defaultBucket);
-            }
-        } catch (Exception e) {
-            log.error("检查/创建 bucket 失败", e);
-        }
+        backend.initialize();
     }
 
     /**
      * 生成对象名称
      * 格式: category/yyyy/MM/dd/uuid_filename
+     * 分类与文件名都不含@，不会与缩略图对象名（原对象名@规格.jpg）冲突
      */
-    private String generateObjectName(String originalFilename, String category) {
+    public static String generateObjectName(String originalFilename, String category) {
+        if (category == null || !CATEGORY.matcher(category).matches()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "文件分类无效");
+        }
         String date = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
         String uuid = UUID.randomUUID().toString().substring(0, 8);
         String safeName = sanitizeFilename(originalFilename);
@@ -219,9 +217,9 @@ public class MinioService {
     }
 
     /**
-     * 清理文件名，移除不安全字符
+     * 清理文件名，移除不安全字符（含缩略图对象名使用的@）
      */
-    private String sanitizeFilename(String filename) {
+    private static String sanitizeFilename(String filename) {
         if (filename == null || filename.isEmpty()) {
             return "unnamed";
         }
@@ -0,0 +1,334 @@
+package com.erkang.integration.storage;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.Part;
+import io.minio.messages.Upload;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MinIO 存储后端
+ * 普通读写使用 MinioClient；S3 分片上传接口只在异步客户端上提供，经 {@link MultipartClient} 公开
+ * _Requirements: 12.1, 12.2, 12.3, 12.4_
+ */
+@Slf4j
+public class MinioStorageBackend implements StorageBackend {
+
+    // S3 单次列出分片/上传任务的数量上限
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private final MinioClient minioClient;
+    private final MultipartClient multipartClient;
+    private final String bucket;
+    private final String endpoint;
+
+    public MinioStorageBackend(MinioClient minioClient, MinioAsyncClient minioAsyncClient,
+                               String bucket, String endpoint) {
+        this(minioClient, new MultipartClient(minioAsyncClient), bucket, endpoint);
+    }
+
+    MinioStorageBackend(MinioClient minioClient, MultipartClient multipartClient, String bucket, String endpoint) {
+        this.minioClient = minioClient;
+        this.multipartClient = multipartClient;
+        this.bucket = bucket;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public void put(String objectName, InputStream stream, long size, String contentType) {
+        try {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .stream(stream, size, -1)
+                    .contentType(contentType)
+                    .build());
+        } catch (Exception e) {
+            log.error("文件上传失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件上传失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream get(String objectName) {
+        try {
+            return minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .build());
+        } catch (Exception e) {
+            log.error("文件下载失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或无法访问");
+        }
+    }
+
+    @Override
+    public InputStream getRange(String objectName, long offset, long length) {
+        try {
+            return minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .offset(offset)
+                    .length(length)
+                    .build());
+        } catch (Exception e) {
+            log.error("文件区间下载失败: {}, offset={}, length={}", objectName, offset, length, e);
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或无法访问");
+        }
+    }
+
+    @Override
+    public ObjectInfo stat(String objectName) {
+        try {
+            return ObjectInfo.of(minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .build()));
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或尚未上传完成");
+        }
+    }
+
+    @Override
+    public void delete(String objectName) {
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .build());
+        } catch (Exception e) {
+            log.error("文件删除失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件删除失败");
+        }
+    }
+
+    @Override
+    public String presignGet(String objectName, int expireMinutes) {
+        try {
+            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .method(Method.GET)
+                    .expiry(expireMinutes, TimeUnit.MINUTES)
+                    .build());
+        } catch (Exception e) {
+            log.error("生成预签名URL失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED, "无法生成文件访问链接");
+        }
+    }
+
+    @Override
+    public String presignPut(String objectName, int expireMinutes) {
+        try {
+            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .method(Method.PUT)
+                    .expiry(expireMinutes, TimeUnit.MINUTES)
+                    .build());
+        } catch (Exception e) {
+            log.error("生成预签名上传URL失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED, "无法生成文件上传链接");
+        }
+    }
+
+    /**
+     * POST Policy：策略限定对象名、内容类型与文件大小
+     */
+    @Override
+    public Map<String, String> presignPostForm(String objectName, String contentType, long fileSize,
+                                               int expireMinutes) {
+        try {
+            PostPolicy policy = new PostPolicy(bucket, ZonedDateTime.now().plusMinutes(expireMinutes));
+            policy.addEqualsCondition("key", objectName);
+            policy.addEqualsCondition("Content-Type", contentType);
+            policy.addContentLengthRangeCondition(fileSize, fileSize);
+            Map<String, String> formData = new LinkedHashMap<>(minioClient.getPresignedPostFormData(policy));
+            formData.put("key", objectName);
+            formData.put("Content-Type", contentType);
+            return formData;
+        } catch (Exception e) {
+            log.error("生成预签名上传表单失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED, "无法生成文件上传链接");
+        }
+    }
+
+    @Override
+    public String postUploadUrl() {
+        return endpoint.replaceAll("/+$", "") + "/" + bucket;
+    }
+
+    @Override
+    public String createMultipart(String objectName, String contentType) {
+        try {
+            Multimap<String, String> headers = contentType == null || contentType.isBlank()
+                    ? null : ImmutableMultimap.of("Content-Type", contentType);
+            return multipartClient.create(bucket, objectName, headers).result().uploadId();
+        } catch (Exception e) {
+            log.error("创建分片上传失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "创建分片上传失败");
+        }
+    }
+
+    @Override
+    public String uploadPart(String objectName, String uploadId, int partNumber, byte[] data, int length) {
+        try {
+            return multipartClient.upload(bucket, objectName, uploadId, partNumber, data, length).etag();
+        } catch (Exception e) {
+            log.error("分片上传失败: object={}, part={}", objectName, partNumber, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "分片上传失败");
+        }
+    }
+
+    @Override
+    public List<UploadedPart> listParts(String objectName, String uploadId) {
+        try {
+            List<UploadedPart> parts = new ArrayList<>();
+            Integer marker = null;
+            while (true) {
+                ListPartsResponse response = multipartClient.parts(bucket, objectName, uploadId, marker);
+                for (Part part : response.result().partList()) {
+                    parts.add(new UploadedPart(part.partNumber(), part.etag(), part.partSize()));
+                }
+                if (!response.result().isTruncated()) {
+                    return parts;
+                }
+                marker = response.result().nextPartNumberMarker();
+            }
+        } catch (Exception e) {
+            log.error("查询已上传分片失败: object={}, uploadId={}", objectName, uploadId, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "查询上传进度失败");
+        }
+    }
+
+    @Override
+    public void completeMultipart(String objectName, String uploadId, List<UploadedPart> parts) {
+        try {
+            Part[] sorted = parts.stream()
+                    .map(p -> new Part(p.partNumber(), p.etag()))
+                    .toArray(Part[]::new);
+            multipartClient.complete(bucket, objectName, uploadId, sorted);
+        } catch (Exception e) {
+            log.error("分片合并失败: object={}, uploadId={}", objectName, uploadId, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件合并失败");
+        }
+    }
+
+    @Override
+    public void abortMultipart(String objectName, String uploadId) {
+        try {
+            multipartClient.abort(bucket, objectName, uploadId);
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchUpload".equals(e.errorResponse().code())) {
+                log.error("取消分片上传失败: object={}, uploadId={}", objectName, uploadId, e);
+                throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "取消上传失败");
+            }
+        } catch (Exception e) {
+            log.error("取消分片上传失败: object={}, uploadId={}", objectName, uploadId, e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "取消上传失败");
+        }
+    }
+
+    @Override
+    public List<PendingUpload> listMultipartUploadsInitiatedBefore(ZonedDateTime before, int limit) {
+        try {
+            List<PendingUpload> uploads = new ArrayList<>();
+            String keyMarker = null;
+            String uploadIdMarker = null;
+            while (uploads.size() < limit) {
+                ListMultipartUploadsResponse response = multipartClient.uploads(bucket, keyMarker, uploadIdMarker);
+                for (Upload upload : response.result().uploads()) {
+                    if (upload.initiated() != null && upload.initiated().isBefore(before) && uploads.size() < limit) {
+                        uploads.add(new PendingUpload(upload.objectName(), upload.uploadId(), upload.initiated()));
+                    }
+                }
+                if (!response.result().isTruncated()) {
+                    break;
+                }
+                keyMarker = response.result().nextKeyMarker();
+                uploadIdMarker = response.result().nextUploadIdMarker();
+            }
+            return uploads;
+        } catch (Exception e) {
+            log.error("查询未完成的分片上传失败", e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "查询未完成的上传失败");
+        }
+    }
+
+    /**
+     * 确保 bucket 存在
+     */
+    @Override
+    public void initialize() {
+        try {
+            boolean found = minioClient.bucketExists(BucketExistsArgs.builder()
+                    .bucket(bucket)
+                    .build());
+            if (!found) {
+                minioClient.makeBucket(MakeBucketArgs.builder()
+                        .bucket(bucket)
+                        .build());
+                log.info("创建 bucket: {}", bucket);
+            }
+        } catch (Exception e) {
+            log.error("检查/创建 bucket 失败", e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "minio";
+    }
+
+    /**
+     * 公开 S3 分片上传接口（MinioAsyncClient 中为 protected）
+     */
+    static class MultipartClient extends MinioAsyncClient {
+
+        MultipartClient(MinioAsyncClient client) {
+            super(client);
+        }
+
+        CreateMultipartUploadResponse create(String bucket, String object, Multimap<String, String> headers)
+                throws Exception {
+            return createMultipartUpload(bucket, null, object, headers, null);
+        }
+
+        UploadPartResponse upload(String bucket, String object, String uploadId, int partNumber,
+                                  byte[] data, int length) throws Exception {
+            return uploadPart(bucket, null, object, data, length, uploadId, partNumber, null, null);
+        }
+
+        ListPartsResponse parts(String bucket, String object, String uploadId, Integer partNumberMarker)
+                throws Exception {
+            return listParts(bucket, null, object, LIST_PAGE_SIZE, partNumberMarker, uploadId, null, null);
+        }
+
+        void complete(String bucket, String object, String uploadId, Part[] parts) throws Exception {
+            completeMultipartUpload(bucket, null, object, uploadId, parts, null, null);
+        }
+
+        void abort(String bucket, String object, String uploadId) throws Exception {
+            abortMultipartUpload(bucket, null, object, uploadId, null, null);
+        }
+
+        ListMultipartUploadsResponse uploads(String bucket, String keyMarker, String uploadIdMarker)
+                throws Exception {
+            return listMultipartUploads(bucket, null, null, null, keyMarker, LIST_PAGE_SIZE, null, uploadIdMarker,
+                    null, null);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.erkang.integration.storage;
+
+import io.minio.StatObjectResponse;
+
+import java.time.Instant;
+
+/**
+ * 对象元数据
+ * @param size 对象大小
+ * @param etag 对象存储返回的 ETag（未加引号）
+ * @param contentType 内容类型，可能为 null
+ * @param lastModified 最后修改时间，可能为 null
+ */
+public record ObjectInfo(long size, String etag, String contentType, Instant lastModified) {
+
+    public static ObjectInfo of(StatObjectResponse stat) {
+        return new ObjectInfo(stat.size(), stat.etag(), stat.contentType(),
+                stat.lastModified() != null ? stat.lastModified().toInstant() : null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.erkang.integration.storage;
+
+import com.erkang.config.StorageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 预签名下载URL缓存
+ * 同一对象、同一有效期的签名在到期前一个安全余量之前重复使用，避免每次重新计算签名；
+ * 按最近最少使用淘汰，条目数有上限
+ */
+@Component
+public class PresignedUrlCache {
+
+    private final MinioService minioService;
+    private final StorageProperties.Presign properties;
+    private final LongSupplier clock;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    private final LinkedHashMap<Key, Signed> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    @Autowired
+    public PresignedUrlCache(MinioService minioService, StorageProperties storageProperties,
+                             MeterRegistry meterRegistry) {
+        this(minioService, storageProperties, meterRegistry, System::currentTimeMillis);
+    }
+
+    PresignedUrlCache(MinioService minioService, StorageProperties storageProperties,
+                      MeterRegistry meterRegistry, LongSupplier clock) {
+        this.minioService = minioService;
+        this.properties = storageProperties.getPresign();
+        this.clock = clock;
+        this.hitCounter = meterRegistry.counter("erkang.storage.presign.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("erkang.storage.presign.cache", "result", "miss");
+    }
+
+    /**
+     * 签名结果
+     * @param expiresAt 过期时间（毫秒时间戳）
+     */
+    public record Signed(String url, long expiresAt) {
+    }
+
+    /**
+     * 获取预签名下载URL
+     */
+    public Signed get(String objectName, int expireMinutes) {
+        Key key = new Key(objectName, expireMinutes);
+        long now = clock.getAsLong();
+        synchronized (this) {
+            Signed cached = entries.get(key);
+            if (cached != null && now < cached.expiresAt() - properties.getSafetyMarginMs()) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+        missCounter.increment();
+        // 签名在锁外计算，并发未命中时各自签名，后写入者覆盖
+        Signed signed = new Signed(minioService.getPresignedUrl(objectName, expireMinutes),
+                now + expireMinutes * 60_000L);
+        if (signed.expiresAt() - properties.getSafetyMarginMs() > now) {
+            put(key, signed);
+        }
+        return signed;
+    }
+
+    /**
+     * 批量获取预签名下载URL，结果与输入顺序一致（重复的对象名只签名一次）
+     */
+    public Map<String, Signed> getAll(Collection<String> objectNames, int expireMinutes) {
+        Map<String, Signed> result = new LinkedHashMap<>();
+        for (String objectName : objectNames) {
+            if (!result.containsKey(objectName)) {
+                result.put(objectName, get(objectName, expireMinutes));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 作废对象的全部缓存签名（对象删除或覆盖后调用）
+     */
+    public synchronized void invalidate(String objectName) {
+        entries.keySet().removeIf(key -> key.objectName().equals(objectName));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void put(Key key, Signed signed) {
+        entries.put(key, signed);
+        Iterator<Key> it = entries.keySet().iterator();
+        while (entries.size() > properties.getCacheMaxEntries() && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Key(String objectName, int expireMinutes) {
+    }
+}
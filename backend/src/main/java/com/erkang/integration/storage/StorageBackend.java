@@ -0,0 +1,137 @@
+package com.erkang.integration.storage;
+
+import com.erkang.common.BusinessException;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 对象存储后端SPI
+ * 实现只负责对象的读写、签名与分片上传；对象命名、去重、缓存等由上层服务处理，
+ * 按 storage.backend.type 选择实现（minio / filesystem）。失败时抛出 {@link BusinessException}
+ */
+public interface StorageBackend {
+
+    /**
+     * 已上传分片
+     */
+    record UploadedPart(int partNumber, String etag, long size) {
+    }
+
+    /**
+     * 未完成的分片上传任务
+     */
+    record PendingUpload(String objectName, String uploadId, ZonedDateTime initiated) {
+    }
+
+    /**
+     * 写入对象（已存在时覆盖）
+     * @param size 内容大小
+     */
+    void put(String objectName, InputStream stream, long size, String contentType);
+
+    /**
+     * 读取对象
+     */
+    InputStream get(String objectName);
+
+    /**
+     * 按字节区间读取对象
+     */
+    InputStream getRange(String objectName, long offset, long length);
+
+    /**
+     * 查询对象元数据，对象不存在时抛出 FILE_NOT_FOUND
+     */
+    ObjectInfo stat(String objectName);
+
+    /**
+     * 对象是否存在
+     */
+    default boolean exists(String objectName) {
+        try {
+            stat(objectName);
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 删除对象，对象不存在时视为成功
+     */
+    void delete(String objectName);
+
+    /**
+     * 生成预签名下载URL
+     */
+    String presignGet(String objectName, int expireMinutes);
+
+    /**
+     * 生成预签名上传URL（PUT）
+     */
+    String presignPut(String objectName, int expireMinutes);
+
+    /**
+     * 生成浏览器直传的 POST 表单字段，上传的文件必须恰好为 fileSize 且内容类型一致
+     */
+    Map<String, String> presignPostForm(String objectName, String contentType, long fileSize, int expireMinutes);
+
+    /**
+     * 直传表单的提交地址
+     */
+    String postUploadUrl();
+
+    /**
+     * 创建分片上传任务
+     * @return 上传任务ID
+     */
+    String createMultipart(String objectName, String contentType);
+
+    /**
+     * 上传单个分片，只写入 data 的前 length 个字节
+     * @return 分片ETag
+     */
+    String uploadPart(String objectName, String uploadId, int partNumber, byte[] data, int length);
+
+    /**
+     * 列出已上传的分片（按分片号升序）
+     */
+    List<UploadedPart> listParts(String objectName, String uploadId);
+
+    /**
+     * 按给定顺序合并分片
+     */
+    void completeMultipart(String objectName, String uploadId, List<UploadedPart> parts);
+
+    /**
+     * 取消分片上传并释放已上传分片，任务已不存在时视为成功
+     */
+    void abortMultipart(String objectName, String uploadId);
+
+    /**
+     * 列出在指定时间之前创建、仍未完成的分片上传任务（最多 limit 个）
+     */
+    List<PendingUpload> listMultipartUploadsInitiatedBefore(ZonedDateTime before, int limit);
+
+    /**
+     * 对象在本地文件系统中的路径，可直接从文件发送；对象不在本地时返回 null
+     */
+    default Path localPath(String objectName) {
+        return null;
+    }
+
+    /**
+     * 启动时的准备工作（如创建 bucket 或目录）
+     */
+    default void initialize() {
+    }
+
+    /**
+     * 实现名称，用于日志
+     */
+    String name();
+}
@@ -0,0 +1,36 @@
+package com.erkang.integration.storage;
+
+import com.erkang.config.StorageProperties;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 存储后端配置，按 storage.backend.type 选择实现
+ */
+@Slf4j
+@Configuration
+public class StorageBackendConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "storage.backend", name = "type", havingValue = "minio", matchIfMissing = true)
+    public MinioStorageBackend minioStorageBackend(MinioClient minioClient, MinioAsyncClient minioAsyncClient,
+                                                   @Value("${minio.bucket:erkang-files}") String bucket,
+                                                   @Value("${minio.endpoint:http://localhost:9000}") String endpoint) {
+        log.info("存储后端: minio, endpoint={}, bucket={}", endpoint, bucket);
+        return new MinioStorageBackend(minioClient, minioAsyncClient, bucket, endpoint);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "storage.backend", name = "type", havingValue = "filesystem")
+    public FileSystemStorageBackend fileSystemStorageBackend(StorageProperties storageProperties) {
+        log.info("存储后端: filesystem, root={}", storageProperties.getBackend().getFilesystem().getRoot());
+        FileSystemStorageBackend backend = new FileSystemStorageBackend(storageProperties.getBackend().getFilesystem());
+        backend.initialize();
+        return backend;
+    }
+}
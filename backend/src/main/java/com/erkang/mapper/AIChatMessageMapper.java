@@ -3,7 +3,40 @@ package com.erkang.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.erkang.domain.entity.AIChatMessage;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 @Mapper
 public interface AIChatMessageMapper extends BaseMapper<AIChatMessage> {
+
+    /**
+     * 游标倒序读取 (afterId, beforeId) 区间内最新的消息
+     */
+    @Select("<script>" +
+            "SELECT id, session_id, role, content, tokens, created_at FROM ai_chat_message " +
+            "WHERE session_id = #{sessionId} " +
+            "<if test='afterId != null'>AND id &gt; #{afterId} </if>" +
+            "<if test='beforeId != null'>AND id &lt; #{beforeId} </if>" +
+            "ORDER BY id DESC LIMIT #{limit}" +
+            "</script>")
+    List<AIChatMessage> selectLatestBefore(@Param("sessionId") Long sessionId,
+                                           @Param("afterId") Long afterId,
+                                           @Param("beforeId") Long beforeId,
+                                           @Param("limit") int limit);
+
+    /**
+     * 游标正序读取 (afterId, upToId] 区间内最早的消息
+     */
+    @Select("<script>" +
+            "SELECT id, session_id, role, content, tokens, created_at FROM ai_chat_message " +
+            "WHERE session_id = #{sessionId} AND id &lt;= #{upToId} " +
+            "<if test='afterId != null'>AND id &gt; #{afterId} </if>" +
+            "ORDER BY id ASC LIMIT #{limit}" +
+            "</script>")
+    List<AIChatMessage> selectOldestAfter(@Param("sessionId") Long sessionId,
+                                          @Param("afterId") Long afterId,
+                                          @Param("upToId") Long upToId,
+                                          @Param("limit") int limit);
 }
@@ -3,7 +3,20 @@ package com.erkang.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.erkang.domain.entity.AIChatSession;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 
 @Mapper
 public interface AIChatSessionMapper extends BaseMapper<AIChatSession> {
+
+    /**
+     * 更新滚动摘要，仅当摘要进度前进时生效
+     */
+    @Update("UPDATE ai_chat_session SET summary = #{summary}, summary_until_id = #{untilId}, " +
+            "summary_tokens = #{tokens} " +
+            "WHERE id = #{id} AND (summary_until_id IS NULL OR summary_until_id < #{untilId})")
+    int updateSummary(@Param("id") Long id,
+                      @Param("summary") String summary,
+                      @Param("untilId") Long untilId,
+                      @Param("tokens") int tokens);
 }
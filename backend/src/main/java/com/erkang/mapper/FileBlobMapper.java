@@ -0,0 +1,42 @@
+package com.erkang.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.erkang.domain.entity.FileBlob;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    @Select("SELECT * FROM file_blob WHERE sha256 = #{sha256}")
+    FileBlob selectBySha256(@Param("sha256") String sha256);
+
+    @Select("SELECT * FROM file_blob WHERE object_name = #{objectName}")
+    FileBlob selectByObjectName(@Param("objectName") String objectName);
+
+    /**
+     * 增加引用，正在删除的内容不可再引用，返回受影响行数
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count + 1, updated_at = NOW() " +
+            "WHERE sha256 = #{sha256} AND ref_count >= 0")
+    int incrementRef(@Param("sha256") String sha256);
+
+    /**
+     * 减少引用，返回受影响行数
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count - 1, updated_at = NOW() " +
+            "WHERE sha256 = #{sha256} AND ref_count > 0")
+    int decrementRef(@Param("sha256") String sha256);
+
+    /**
+     * 引用数为0时标记为正在删除，返回受影响行数；标记成功者负责删除对象
+     */
+    @Update("UPDATE file_blob SET ref_count = -1, updated_at = NOW() WHERE sha256 = #{sha256} AND ref_count = 0")
+    int markDeleting(@Param("sha256") String sha256);
+
+    @Delete("DELETE FROM file_blob WHERE sha256 = #{sha256} AND ref_count = -1")
+    int deleteMarked(@Param("sha256") String sha256);
+}
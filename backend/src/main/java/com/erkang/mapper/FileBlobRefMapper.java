@@ -0,0 +1,22 @@
+package com.erkang.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.erkang.domain.entity.FileBlobRef;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+@Mapper
+public interface FileBlobRefMapper extends BaseMapper<FileBlobRef> {
+
+    @Select("SELECT COUNT(*) FROM file_blob_ref WHERE sha256 = #{sha256} AND uploader_id = #{uploaderId}")
+    long countByUploader(@Param("sha256") String sha256, @Param("uploaderId") Long uploaderId);
+
+    /**
+     * 删除该上传者最近的一条引用，返回受影响行数
+     */
+    @Delete("DELETE FROM file_blob_ref WHERE sha256 = #{sha256} AND uploader_id = #{uploaderId} " +
+            "ORDER BY id DESC LIMIT 1")
+    int deleteOneByUploader(@Param("sha256") String sha256, @Param("uploaderId") Long uploaderId);
+}
@@ -0,0 +1,19 @@
+package com.erkang.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.erkang.domain.entity.FileOwner;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface FileOwnerMapper extends BaseMapper<FileOwner> {
+
+    /**
+     * 记录上传者，对象已有记录时保留原记录，返回受影响行数
+     */
+    @Insert("INSERT IGNORE INTO file_owner (object_name, uploader_id, source, created_at) " +
+            "VALUES (#{objectName}, #{uploaderId}, #{source}, NOW())")
+    int record(@Param("objectName") String objectName, @Param("uploaderId") Long uploaderId,
+               @Param("source") String source);
+}
@@ -0,0 +1,32 @@
+package com.erkang.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.erkang.domain.entity.FileUpload;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface FileUploadMapper extends BaseMapper<FileUpload> {
+
+    @Select("SELECT * FROM file_upload WHERE upload_id = #{uploadId}")
+    FileUpload selectByUploadId(@Param("uploadId") String uploadId);
+
+    /**
+     * 仅当状态仍为 from 时更新，返回受影响行数
+     */
+    @Update("UPDATE file_upload SET status = #{to}, completed_at = #{at} WHERE id = #{id} AND status = #{from}")
+    int updateStatus(@Param("id") Long id, @Param("from") String from, @Param("to") String to,
+                     @Param("at") LocalDateTime at);
+
+    /**
+     * 已过期仍未完成的上传任务
+     */
+    @Select("SELECT * FROM file_upload WHERE status = 'UPLOADING' AND expires_at < #{now} " +
+            "ORDER BY expires_at LIMIT #{limit}")
+    List<FileUpload> selectExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,11 +1,13 @@
 package com.erkang.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.erkang.domain.dto.UserRolesDTO;
 import com.erkang.domain.entity.User;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
 
@@ -21,6 +23,36 @@ public interface UserMapper extends BaseMapper<User> {
     @Select("SELECT * FROM sys_user WHERE username = #{username} AND deleted_at IS NULL")
     User selectByUsername(@Param("username") String username);
     
+    /**
+     * 登录查询：用户与角色编码一次联表取出
+     */
+    @Select("SELECT u.id, u.username, u.password, u.real_name, u.avatar, u.status, " +
+            "GROUP_CONCAT(r.role_code) AS role_codes FROM sys_user u " +
+            "LEFT JOIN sys_user_role ur ON ur.user_id = u.id " +
+            "LEFT JOIN sys_role r ON r.id = ur.role_id " +
+            "WHERE u.username = #{username} AND u.deleted_at IS NULL " +
+            "GROUP BY u.id, u.username, u.password, u.real_name, u.avatar, u.status")
+    UserRolesDTO selectWithRolesByUsername(@Param("username") String username);
+    
+    /**
+     * 批量写回最后登录时间与IP
+     */
+    @Update("<script>UPDATE sys_user SET " +
+            "last_login_at = CASE id <foreach collection='users' item='u'>" +
+            "WHEN #{u.id} THEN #{u.lastLoginAt} </foreach>END, " +
+            "last_login_ip = CASE id <foreach collection='users' item='u'>" +
+            "WHEN #{u.id} THEN #{u.lastLoginIp} </foreach>END " +
+            "WHERE id IN <foreach collection='users' item='u' open='(' separator=',' close=')'>#{u.id}</foreach>" +
+            "</script>")
+    int updateLastLogins(@Param("users") List<User> users);
+    
+    /**
+     * 替换密码哈希（仅当哈希未被并发修改时生效）
+     */
+    @Update("UPDATE sys_user SET password = #{newHash} WHERE id = #{userId} AND password = #{oldHash}")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash);
+    
     /**
      * 查询用户角色编码列表
      */
@@ -0,0 +1,84 @@
+package com.erkang.metrics;
+
+import com.erkang.metrics.jfr.StorageOperationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务方法与对象存储调用计时切面
+ * 成功调用的 Timer 按方法缓存，热路径上不再按标签查找
+ */
+@Aspect
+@Component
+public class MethodMetricsAspect {
+
+    static final String SERVICE_TIMER = "erkang.service";
+    static final String STORAGE_TIMER = "erkang.storage";
+
+    private final MeterRegistry registry;
+    private final Map<Method, Timer> serviceTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Timer> storageTimers = new ConcurrentHashMap<>();
+
+    public MethodMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.erkang.service..*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER, serviceTimers);
+    }
+
+    @Around("execution(public * com.erkang.integration.storage..*(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        StorageOperationEvent event = new StorageOperationEvent();
+        event.begin();
+        String exception = null;
+        try {
+            return time(joinPoint, STORAGE_TIMER, storageTimers);
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                        + "." + joinPoint.getSignature().getName();
+                event.exception = exception;
+                event.commit();
+            }
+        }
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name, Map<Method, Timer> timers) throws Throwable {
+        long start = System.nanoTime();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        try {
+            Object result = joinPoint.proceed();
+            timers.computeIfAbsent(method, m -> timer(name, m, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(name, method, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String name, Method method, String exception) {
+        return Timer.builder(name)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
@@ -0,0 +1,104 @@
+package com.erkang.metrics;
+
+import com.erkang.metrics.jfr.SqlStatementEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis 语句执行计时
+ * 以 Mapper 方法（MappedStatement id）为标签，查询与更新分别统计
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class})
+})
+public class MybatisMetricsInterceptor implements Interceptor {
+
+    static final String TIMER = "erkang.mybatis.statement";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MybatisMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        SqlStatementEvent event = new SqlStatementEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            recordBudget(start);
+            timers.computeIfAbsent(statement.getId(), id -> timer(statement, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            commit(event, statement, null);
+            return result;
+        } catch (Throwable e) {
+            recordBudget(start);
+            // proceed 通过反射调用，异常被包装为 InvocationTargetException
+            String exception = ExceptionUtil.unwrapThrowable(e).getClass().getSimpleName();
+            timer(statement, exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            commit(event, statement, exception);
+            throw e;
+        }
+    }
+
+    private static void commit(SqlStatementEvent event, MappedStatement statement, String exception) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.statement = statement.getId();
+            event.command = statement.getSqlCommandType().name();
+            event.exception = exception;
+            event.commit();
+        }
+    }
+
+    private static void recordBudget(long start) {
+        SqlBudget budget = SqlBudget.current();
+        if (budget != null) {
+            budget.recordTime(System.nanoTime() - start);
+        }
+    }
+
+    private Timer timer(MappedStatement statement, String exception) {
+        return Timer.builder(TIMER)
+                .tag("statement", shortId(statement.getId()))
+                .tag("command", statement.getSqlCommandType().name())
+                .tag("exception", exception)
+                .register(registry);
+    }
+
+    /**
+     * com.erkang.mapper.UserMapper.selectById -> UserMapper.selectById
+     */
+    static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+}
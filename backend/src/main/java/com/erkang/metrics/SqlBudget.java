@@ -0,0 +1,182 @@
+package com.erkang.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * 单请求SQL统计
+ * 请求线程上的语句数、累计耗时与各语句形态的重复次数；
+ * 测试中可用 {@link #capture(Callable)} 包裹一次调用并断言其语句数
+ * _Requirements: 13.1_
+ */
+public final class SqlBudget {
+
+    private static final ThreadLocal<SqlBudget> CURRENT = new ThreadLocal<>();
+
+    // IN (?, ?, ?) 的参数个数不同仍视为同一形态
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String name;
+    private final Map<String, Shape> shapes = new LinkedHashMap<>();
+    private int statements;
+    private long totalNanos;
+
+    private SqlBudget(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 在当前线程开始统计，返回此前的统计以便恢复
+     */
+    public static SqlBudget begin(String name) {
+        SqlBudget previous = CURRENT.get();
+        CURRENT.set(new SqlBudget(name));
+        return previous;
+    }
+
+    /**
+     * 结束当前线程的统计并恢复此前的统计
+     */
+    public static SqlBudget end(SqlBudget previous) {
+        SqlBudget current = CURRENT.get();
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        return current;
+    }
+
+    /**
+     * 当前线程的统计，未开始时返回null
+     */
+    public static SqlBudget current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 统计一段调用中执行的SQL（测试用）
+     */
+    public static SqlBudget capture(Callable<?> action) throws Exception {
+        SqlBudget previous = begin("capture");
+        SqlBudget captured = CURRENT.get();
+        try {
+            action.call();
+        } finally {
+            end(previous);
+        }
+        return captured;
+    }
+
+    void recordStatement(String statementId, String sql) {
+        statements++;
+        shapes.computeIfAbsent(shapeOf(sql), k -> new Shape(statementId, k)).count++;
+    }
+
+    void recordTime(long nanos) {
+        totalNanos += nanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatementCount() {
+        return statements;
+    }
+
+    public long getTotalTimeMs() {
+        return totalNanos / 1_000_000;
+    }
+
+    /**
+     * 重复次数超过阈值的语句形态，按次数降序
+     */
+    public List<Shape> getRepeatedShapes(int maxRepeats) {
+        List<Shape> repeated = new ArrayList<>();
+        for (Shape shape : shapes.values()) {
+            if (shape.count > maxRepeats) {
+                repeated.add(shape);
+            }
+        }
+        repeated.sort(Comparator.comparingInt(Shape::getCount).reversed());
+        return repeated;
+    }
+
+    /**
+     * 断言语句数不超过上限
+     */
+    public SqlBudget assertAtMost(int maxStatements) {
+        if (statements > maxStatements) {
+            throw new AssertionError("SQL语句数超出预算: " + statements + " > " + maxStatements + "\n" + report());
+        }
+        return this;
+    }
+
+    /**
+     * 断言没有语句形态重复超过阈值（疑似N+1）
+     */
+    public SqlBudget assertNoRepeatsOver(int maxRepeats) {
+        List<Shape> repeated = getRepeatedShapes(maxRepeats);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("疑似N+1查询: " + repeated + "\n" + report());
+        }
+        return this;
+    }
+
+    /**
+     * 统计摘要：总数、耗时与重复最多的语句
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder()
+                .append(name).append(": statements=").append(statements)
+                .append(", timeMs=").append(getTotalTimeMs());
+        shapes.values().stream()
+                .sorted(Comparator.comparingInt(Shape::getCount).reversed())
+                .limit(5)
+                .forEach(shape -> sb.append("\n  ").append(shape));
+        return sb.toString();
+    }
+
+    static String shapeOf(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return IN_LIST.matcher(collapsed).replaceAll("(?)");
+    }
+
+    /**
+     * 语句形态：参数化后的SQL文本及其执行次数
+     */
+    public static final class Shape {
+        private final String statementId;
+        private final String sql;
+        private int count;
+
+        private Shape(String statementId, String sql) {
+            this.statementId = statementId;
+            this.sql = sql;
+        }
+
+        public String getStatementId() {
+            return statementId;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return MybatisMetricsInterceptor.shortId(statementId) + " x" + count + " [" + sql + "]";
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.erkang.metrics;
+
+import com.erkang.config.SqlBudgetProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 单请求SQL预算过滤器
+ * 统计每个请求执行的语句数与耗时，超出预算或出现疑似N+1时记录告警
+ * _Requirements: 13.1, 13.2_
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetFilter implements Filter {
+
+    static final String STATEMENTS = "erkang.sql.request.statements";
+    static final String EXCEEDED = "erkang.sql.budget.exceeded";
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry registry;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!properties.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        SqlBudget previous = SqlBudget.begin(httpRequest.getMethod() + " " + httpRequest.getRequestURI());
+        SqlBudget budget = SqlBudget.current();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlBudget.end(previous);
+            check(budget, endpoint(httpRequest));
+        }
+    }
+
+    void check(SqlBudget budget, String endpoint) {
+        if (budget.getStatementCount() == 0) {
+            return;
+        }
+        DistributionSummary.builder(STATEMENTS)
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(budget.getStatementCount());
+
+        if (budget.getStatementCount() > properties.getMaxStatements()) {
+            exceeded(endpoint, "statements");
+            log.warn("SQL语句数超出预算({}): {}", properties.getMaxStatements(), budget.report());
+        }
+        List<SqlBudget.Shape> repeated = budget.getRepeatedShapes(properties.getMaxRepeats());
+        if (!repeated.isEmpty()) {
+            exceeded(endpoint, "repeated");
+            log.warn("疑似N+1查询: {} {}", budget.getName(), repeated);
+        }
+        if (budget.getTotalTimeMs() > properties.getMaxTimeMs()) {
+            exceeded(endpoint, "time");
+            log.warn("SQL累计耗时超出预算({}ms): {}", properties.getMaxTimeMs(), budget.report());
+        }
+    }
+
+    private void exceeded(String endpoint, String reason) {
+        Counter.builder(EXCEEDED)
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 以路由模板作为端点名，避免路径参数造成标签膨胀
+     */
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    }
+}
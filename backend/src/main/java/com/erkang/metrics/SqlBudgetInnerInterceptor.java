@@ -0,0 +1,33 @@
+package com.erkang.metrics;
+
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * SQL预算计数插件
+ * 在当前线程已开始 {@link SqlBudget} 统计时，记录每条执行的语句及其形态
+ * _Requirements: 13.1_
+ */
+public class SqlBudgetInnerInterceptor implements InnerInterceptor {
+
+    @Override
+    public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                            ResultHandler resultHandler, BoundSql boundSql) {
+        SqlBudget budget = SqlBudget.current();
+        if (budget != null) {
+            budget.recordStatement(ms.getId(), boundSql.getSql());
+        }
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) {
+        SqlBudget budget = SqlBudget.current();
+        if (budget != null) {
+            budget.recordStatement(ms.getId(), ms.getBoundSql(parameter).getSql());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.erkang.metrics;
+
+import com.erkang.websocket.WebSocketSessionManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebSocket 会话数、问诊房间数与待发送缓冲
+ */
+@Component
+public class WebSocketMetrics implements MeterBinder {
+
+    private final WebSocketSessionManager sessionManager;
+
+    public WebSocketMetrics(WebSocketSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("erkang.websocket.sessions", sessionManager, WebSocketSessionManager::getOnlineCount)
+                .description("在线WebSocket会话数")
+                .register(registry);
+        Gauge.builder("erkang.websocket.consultations", sessionManager, WebSocketSessionManager::getConsultationCount)
+                .description("有用户加入的问诊房间数")
+                .register(registry);
+        Gauge.builder("erkang.websocket.send.buffer", sessionManager, WebSocketSessionManager::getPendingSendBytes)
+                .description("所有会话待发送缓冲")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
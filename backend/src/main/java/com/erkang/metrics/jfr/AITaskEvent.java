@@ -0,0 +1,37 @@
+package com.erkang.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * AI任务结束事件；任务可能跨线程排队重试，耗时以字段记录
+ */
+@Name("com.erkang.AITask")
+@Label("AI Task")
+@Category({"Erkang", "AI"})
+@StackTrace(false)
+public class AITaskEvent extends Event {
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Task Type")
+    public String taskType;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Latency")
+    @Timespan(Timespan.MILLISECONDS)
+    public long latency;
+}
@@ -0,0 +1,144 @@
+package com.erkang.metrics.jfr;
+
+import com.erkang.config.JfrProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 持续飞行记录
+ * 以低开销配置保留最近一段时间的记录，慢请求触发时异步转储到磁盘
+ * _Requirements: 13.3_
+ */
+@Slf4j
+@Component
+public class FlightRecorderService {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final JfrProperties properties;
+    private final AtomicLong lastDumpNanos = new AtomicLong();
+    private final ExecutorService dumper = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jfr-dump");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Recording recording;
+
+    public FlightRecorderService(JfrProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            Recording continuous = new Recording(Configuration.getConfiguration(properties.getSettings()));
+            continuous.setName("erkang-continuous");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(Duration.ofMillis(properties.getMaxAgeMs()));
+            continuous.setMaxSize(properties.getMaxSizeBytes());
+            Duration threshold = Duration.ofMillis(properties.getEventThresholdMs());
+            continuous.enable(HttpRequestEvent.class);
+            continuous.enable(AITaskEvent.class);
+            continuous.enable(SqlStatementEvent.class).withThreshold(threshold);
+            continuous.enable(RedisCommandEvent.class).withThreshold(threshold);
+            continuous.enable(StorageOperationEvent.class).withThreshold(threshold);
+            continuous.enable(WebSocketSendEvent.class).withThreshold(threshold);
+            continuous.start();
+            recording = continuous;
+            log.info("JFR持续记录已开启: settings={}, maxAge={}ms", properties.getSettings(), properties.getMaxAgeMs());
+        } catch (Exception e) {
+            log.warn("JFR持续记录开启失败: {}", e.getMessage());
+        }
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * 请求结束时检查是否为慢请求，是则异步转储（受最小间隔限制）
+     */
+    public void onRequestCompleted(String endpoint, long durationMs) {
+        if (recording == null || durationMs < properties.getSlowRequestMs()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastDumpNanos.get();
+        if (last != 0 && now - last < Duration.ofMillis(properties.getMinDumpIntervalMs()).toNanos()) {
+            return;
+        }
+        if (lastDumpNanos.compareAndSet(last, now)) {
+            dumper.execute(() -> dump("slow-" + endpoint));
+        }
+    }
+
+    /**
+     * 立即转储当前记录，返回文件路径；未开启记录时返回null
+     */
+    public Path dump(String reason) {
+        Recording current = recording;
+        if (current == null) {
+            return null;
+        }
+        try {
+            Path dir = Paths.get(properties.getDumpDir());
+            Files.createDirectories(dir);
+            Path file = dir.resolve(LocalDateTime.now().format(FILE_TIME) + "-" + fileSafe(reason) + ".jfr");
+            current.dump(file);
+            log.warn("已转储JFR记录: reason={}, file={}", reason, file);
+            pruneDumps(dir);
+            return file;
+        } catch (IOException e) {
+            log.error("转储JFR记录失败: reason={}, error={}", reason, e.getMessage());
+            return null;
+        }
+    }
+
+    private void pruneDumps(Path dir) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(dir)) {
+            dumps = files.filter(p -> p.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .toList();
+        }
+        for (int i = 0; i < dumps.size() - properties.getMaxDumps(); i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+
+    static String fileSafe(String reason) {
+        String safe = reason.replaceAll("[^A-Za-z0-9._-]+", "_").replaceAll("_+", "_");
+        return safe.length() > 80 ? safe.substring(0, 80) : safe;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dumper.shutdownNow();
+        Recording current = recording;
+        recording = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.erkang.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * HTTP请求事件，持续时间为请求在过滤器链中的处理时间
+ */
+@Name("com.erkang.HttpRequest")
+@Label("HTTP Request")
+@Category({"Erkang", "HTTP"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    @Description("路由模板，如 /api/consultations/{id}")
+    public String endpoint;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Status")
+    public int status;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Roles")
+    public String roles;
+
+    @Label("SQL Statements")
+    public int sqlStatements;
+}
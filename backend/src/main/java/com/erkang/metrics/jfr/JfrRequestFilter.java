@@ -0,0 +1,61 @@
+package com.erkang.metrics.jfr;
+
+import com.erkang.metrics.SqlBudget;
+import com.erkang.security.LoginUser;
+import com.erkang.security.UserContext;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * HTTP请求飞行记录过滤器
+ * 位于认证过滤器之后，记录请求的用户、角色与端点，慢请求时触发记录转储
+ * _Requirements: 13.3_
+ */
+@Component
+@RequiredArgsConstructor
+public class JfrRequestFilter implements Filter {
+
+    private final FlightRecorderService flightRecorder;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpRequestEvent event = new HttpRequestEvent();
+        long start = System.nanoTime();
+        event.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            event.end();
+            String endpoint = endpoint(httpRequest);
+            if (event.shouldCommit()) {
+                event.method = httpRequest.getMethod();
+                event.endpoint = endpoint;
+                event.uri = httpRequest.getRequestURI();
+                event.status = ((HttpServletResponse) response).getStatus();
+                LoginUser user = UserContext.getUser();
+                if (user != null) {
+                    event.userId = user.getUserId() != null ? user.getUserId() : 0;
+                    event.roles = user.getRoles() != null ? String.join(",", user.getRoles()) : null;
+                }
+                SqlBudget budget = SqlBudget.current();
+                event.sqlStatements = budget != null ? budget.getStatementCount() : 0;
+                event.commit();
+            }
+            flightRecorder.onRequestCompleted(httpRequest.getMethod() + " " + endpoint,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+}
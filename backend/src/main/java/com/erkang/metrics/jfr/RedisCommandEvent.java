@@ -0,0 +1,21 @@
+package com.erkang.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Redis 命令事件
+ */
+@Name("com.erkang.RedisCommand")
+@Label("Redis Command")
+@Category({"Erkang", "Redis"})
+public class RedisCommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Exception")
+    public String exception;
+}
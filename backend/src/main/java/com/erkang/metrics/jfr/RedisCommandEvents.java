@@ -0,0 +1,83 @@
+package com.erkang.metrics.jfr;
+
+import jdk.jfr.EventType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * 为 Redis 连接包装命令事件
+ * 连接上的命令方法及 keyCommands()/stringCommands() 等返回的命令对象上的调用各记为一个事件
+ */
+public final class RedisCommandEvents {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(RedisCommandEvent.class);
+
+    private RedisCommandEvents() {
+    }
+
+    /**
+     * 事件未开启时直接返回原连接
+     */
+    public static RedisConnection wrap(RedisConnection connection) {
+        if (!EVENT_TYPE.isEnabled() || Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof Handler) {
+            return connection;
+        }
+        return (RedisConnection) proxy(connection);
+    }
+
+    private static Object proxy(Object target) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass(), target.getClass().getClassLoader());
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, new Handler(target));
+    }
+
+    private record Handler(Object target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeTarget(method, args);
+            }
+            // xxxCommands() 只返回命令对象，包装后在其上的调用才是真正的命令
+            if (isCommandsAccessor(method)) {
+                Object commands = invokeTarget(method, args);
+                return commands != null ? proxy(commands) : null;
+            }
+            RedisCommandEvent event = new RedisCommandEvent();
+            event.begin();
+            String exception = null;
+            try {
+                return invokeTarget(method, args);
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.command = method.getName();
+                    event.exception = exception;
+                    event.commit();
+                }
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private static boolean isCommandsAccessor(Method method) {
+            return method.getParameterCount() == 0
+                    && method.getReturnType().isInterface()
+                    && method.getReturnType().getSimpleName().endsWith("Commands");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.erkang.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * MyBatis 语句执行事件，保留调用栈以便定位触发查询的业务代码
+ */
+@Name("com.erkang.SqlStatement")
+@Label("SQL Statement")
+@Category({"Erkang", "Database"})
+public class SqlStatementEvent extends Event {
+
+    @Label("Statement")
+    public String statement;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Exception")
+    public String exception;
+}
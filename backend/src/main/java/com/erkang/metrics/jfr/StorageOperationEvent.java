@@ -0,0 +1,21 @@
+package com.erkang.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 对象存储（MinIO）操作事件
+ */
+@Name("com.erkang.StorageOperation")
+@Label("Storage Operation")
+@Category({"Erkang", "Storage"})
+public class StorageOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Exception")
+    public String exception;
+}
@@ -0,0 +1,31 @@
+package com.erkang.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * WebSocket 消息发送事件，持续时间包含序列化与写入发送缓冲
+ */
+@Name("com.erkang.WebSocketSend")
+@Label("WebSocket Send")
+@Category({"Erkang", "WebSocket"})
+@StackTrace(false)
+public class WebSocketSendEvent extends Event {
+
+    @Label("Message Type")
+    public String type;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,5 @@
+/**
+ * 飞行记录事件 - HTTP请求、SQL语句、Redis命令、对象存储、WebSocket发送与AI任务的 JFR 自定义事件，
+ * 以及慢请求触发的持续记录转储
+ */
+package com.erkang.metrics.jfr;
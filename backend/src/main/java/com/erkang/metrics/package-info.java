@@ -0,0 +1,4 @@
+/**
+ * 监控指标 - 服务方法、SQL语句、对象存储与WebSocket的计时与计数，经 Prometheus 端点导出
+ */
+package com.erkang.metrics;
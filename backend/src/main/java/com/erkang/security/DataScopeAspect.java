@@ -19,6 +19,11 @@ import org.springframework.stereotype.Component;
 @Component
 public class DataScopeAspect {
     
+    private static final int PATIENT_SCOPE_MASK = RoleEnum.PATIENT.mask() | RoleEnum.DOCTOR_MASK
+            | RoleEnum.PHARMACIST.mask() | RoleEnum.ADMIN.mask();
+    private static final int DOCTOR_SCOPE_MASK = RoleEnum.DOCTOR_MASK | RoleEnum.ADMIN.mask();
+    private static final int PHARMACIST_SCOPE_MASK = RoleEnum.PHARMACIST.mask() | RoleEnum.ADMIN.mask();
+    
     @Before("@annotation(dataScope)")
     public void checkDataScope(JoinPoint joinPoint, DataScope dataScope) {
         LoginUser user = UserContext.getUser();
@@ -41,15 +46,9 @@ public class DataScopeAspect {
      * 患者只能访问自己的数据
      */
     private void checkPatientScope(LoginUser user) {
-        if (!user.hasRole(RoleEnum.PATIENT.getCode())) {
-            // 非患者角色，检查是否有其他合法角色
-            if (!user.hasAnyRole(
-                    RoleEnum.DOCTOR_PRIMARY.getCode(),
-                    RoleEnum.DOCTOR_EXPERT.getCode(),
-                    RoleEnum.PHARMACIST.getCode(),
-                    RoleEnum.ADMIN.getCode())) {
-                throw new BusinessException(ErrorCode.AUTH_DATA_SCOPE_DENIED);
-            }
+        // 患者或其他合法角色
+        if (!user.hasAnyRole(PATIENT_SCOPE_MASK)) {
+            throw new BusinessException(ErrorCode.AUTH_DATA_SCOPE_DENIED);
         }
         // 患者角色的具体数据过滤在Service层通过userId实现
     }
@@ -59,10 +58,7 @@ public class DataScopeAspect {
      * 医生只能访问其接诊范围内的数据
      */
     private void checkDoctorScope(LoginUser user) {
-        if (!user.hasAnyRole(
-                RoleEnum.DOCTOR_PRIMARY.getCode(),
-                RoleEnum.DOCTOR_EXPERT.getCode(),
-                RoleEnum.ADMIN.getCode())) {
+        if (!user.hasAnyRole(DOCTOR_SCOPE_MASK)) {
             throw new BusinessException(ErrorCode.AUTH_DATA_SCOPE_DENIED);
         }
     }
@@ -72,9 +68,7 @@ public class DataScopeAspect {
      * 药师只能访问待审核处方
      */
     private void checkPharmacistScope(LoginUser user) {
-        if (!user.hasAnyRole(
-                RoleEnum.PHARMACIST.getCode(),
-                RoleEnum.ADMIN.getCode())) {
+        if (!user.hasAnyRole(PHARMACIST_SCOPE_MASK)) {
             throw new BusinessException(ErrorCode.AUTH_DATA_SCOPE_DENIED);
         }
     }
@@ -83,7 +77,7 @@ public class DataScopeAspect {
      * 检查管理员数据范围
      */
     private void checkAdminScope(LoginUser user) {
-        if (!user.hasRole(RoleEnum.ADMIN.getCode())) {
+        if (!user.hasRole(RoleEnum.ADMIN)) {
             throw new BusinessException(ErrorCode.AUTH_DATA_SCOPE_DENIED);
         }
     }
@@ -20,7 +20,7 @@ public class DataScopeHelper {
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
         }
         
-        if (user.hasRole(RoleEnum.PATIENT.getCode())) {
+        if (user.hasRole(RoleEnum.PATIENT)) {
             return user.getUserId();
         }
         
@@ -38,12 +38,12 @@ public class DataScopeHelper {
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
         }
         
-        if (user.hasAnyRole(RoleEnum.DOCTOR_PRIMARY.getCode(), RoleEnum.DOCTOR_EXPERT.getCode())) {
+        if (user.hasAnyRole(RoleEnum.DOCTOR_MASK)) {
             return user.getUserId();
         }
         
         // 管理员不限制
-        if (user.hasRole(RoleEnum.ADMIN.getCode())) {
+        if (user.hasRole(RoleEnum.ADMIN)) {
             return null;
         }
         
@@ -60,12 +60,12 @@ public class DataScopeHelper {
         }
         
         // 管理员可访问所有
-        if (user.hasRole(RoleEnum.ADMIN.getCode())) {
+        if (user.hasRole(RoleEnum.ADMIN)) {
             return;
         }
         
         // 患者只能访问自己
-        if (user.hasRole(RoleEnum.PATIENT.getCode())) {
+        if (user.hasRole(RoleEnum.PATIENT)) {
             if (!user.getUserId().equals(patientId)) {
                 throw new BusinessException(ErrorCode.AUTH_DATA_SCOPE_DENIED);
             }
@@ -79,7 +79,7 @@ public class DataScopeHelper {
      */
     public static boolean isAdmin() {
         LoginUser user = UserContext.getUser();
-        return user != null && user.hasRole(RoleEnum.ADMIN.getCode());
+        return user != null && user.hasRole(RoleEnum.ADMIN);
     }
     
     /**
@@ -87,9 +87,7 @@ public class DataScopeHelper {
      */
     public static boolean isDoctor() {
         LoginUser user = UserContext.getUser();
-        return user != null && user.hasAnyRole(
-                RoleEnum.DOCTOR_PRIMARY.getCode(), 
-                RoleEnum.DOCTOR_EXPERT.getCode());
+        return user != null && user.hasAnyRole(RoleEnum.DOCTOR_MASK);
     }
     
     /**
@@ -97,6 +95,6 @@ public class DataScopeHelper {
      */
     public static boolean isPatient() {
         LoginUser user = UserContext.getUser();
-        return user != null && user.hasRole(RoleEnum.PATIENT.getCode());
+        return user != null && user.hasRole(RoleEnum.PATIENT);
     }
 }
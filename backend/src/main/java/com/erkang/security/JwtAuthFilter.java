@@ -29,6 +29,7 @@ public class JwtAuthFilter implements Filter {
     private static final List<String> WHITE_LIST = Arrays.asList(
             "/api/auth/login",
             "/api/auth/refresh",
+            "/api/storage/object",
             "/swagger-ui/**",
             "/v3/api-docs/**",
             "/doc.html",
@@ -1,14 +1,18 @@
 package com.erkang.security;
 
+import com.erkang.domain.enums.RoleEnum;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Setter;
+
 import java.util.List;
 
 /**
  * 登录用户信息（存储在ThreadLocal中）
+ * 角色编码在构建时转换为位掩码，鉴权只做一次按位与
  */
 @Data
-@Builder
 public class LoginUser {
     
     /** 用户ID */
@@ -20,10 +24,44 @@ public class LoginUser {
     /** 角色列表 */
     private List<String> roles;
     
+    /** 角色位掩码（见 {@link RoleEnum#mask()}） */
+    @Setter(AccessLevel.NONE)
+    private int roleMask;
+    
+    @Builder
+    public LoginUser(Long userId, String username, List<String> roles) {
+        this.userId = userId;
+        this.username = username;
+        setRoles(roles);
+    }
+    
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+        this.roleMask = RoleEnum.maskOf(roles);
+    }
+    
+    /**
+     * 是否拥有指定角色
+     */
+    public boolean hasRole(RoleEnum role) {
+        return (roleMask & role.mask()) != 0;
+    }
+    
+    /**
+     * 是否拥有掩码中的任一角色
+     */
+    public boolean hasAnyRole(int mask) {
+        return (roleMask & mask) != 0;
+    }
+    
     /**
      * 是否拥有指定角色
      */
     public boolean hasRole(String role) {
+        RoleEnum known = RoleEnum.fromCode(role);
+        if (known != null) {
+            return hasRole(known);
+        }
         return roles != null && roles.contains(role);
     }
     
@@ -31,9 +69,8 @@ public class LoginUser {
      * 是否拥有任一角色
      */
     public boolean hasAnyRole(String... roleArray) {
-        if (roles == null) return false;
         for (String role : roleArray) {
-            if (roles.contains(role)) {
+            if (hasRole(role)) {
                 return true;
             }
         }
@@ -0,0 +1,108 @@
+package com.erkang.security;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.AuthProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 密码哈希
+ * BCrypt 计算在按CPU核数配置的独立线程池中执行，排队超过上限时直接拒绝（系统繁忙），
+ * 登录高峰不会让哈希计算占满请求线程
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Counter rejectedCounter;
+
+    public PasswordHasher(AuthProperties properties, MeterRegistry meterRegistry) {
+        AuthProperties.Hash hash = properties.getHash();
+        this.encoder = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        this.executor = new ThreadPoolExecutor(hash.resolvedThreads(), hash.resolvedThreads(),
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, hash.getQueueCapacity())),
+                new CustomizableThreadFactory("password-hash-"), new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = hash.getTimeoutMs();
+        this.rejectedCounter = meterRegistry.counter("erkang.auth.hash.rejected");
+        Gauge.builder("erkang.auth.hash.queue", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验结果；校验通过且原哈希成本低于配置时附带按新成本生成的哈希
+     */
+    public record Verification(boolean matched, String upgradedHash) {
+    }
+
+    /**
+     * 校验密码，并在同一次任务中完成哈希升级
+     */
+    public Verification verify(String rawPassword, String encodedPassword) {
+        return call(() -> {
+            boolean matched = encoder.matches(rawPassword, encodedPassword);
+            String upgraded = matched && encoder.upgradeEncoding(encodedPassword)
+                    ? encoder.encode(rawPassword) : null;
+            return new Verification(matched, upgraded);
+        });
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return call(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) {
+        return call(() -> encoder.encode(rawPassword));
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希排队已满: queue={}", executor.getQueue().size());
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            log.warn("密码哈希等待超时: {}ms", timeoutMs);
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
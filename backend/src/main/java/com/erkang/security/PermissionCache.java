@@ -0,0 +1,249 @@
+package com.erkang.security;
+
+import com.erkang.config.AuthProperties;
+import com.erkang.mapper.PermissionMapper;
+import com.erkang.mapper.RoleMapper;
+import com.erkang.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 角色权限缓存
+ * 缓存用户→角色、角色→权限ID与权限树，整体带版本号：角色权限变更时版本递增、
+ * 旧版本数据整体作废，权限树每个版本只构建一次；用户角色变更时只作废该用户。
+ * 事务内的作废在提交后生效，并通过 Redis 频道通知其他节点
+ */
+@Slf4j
+@Component
+public class PermissionCache {
+
+    static final String USER_MESSAGE = "user";
+    static final String ROLES_MESSAGE = "roles";
+
+    private final UserMapper userMapper;
+    private final RoleMapper roleMapper;
+    private final PermissionMapper permissionMapper;
+    private final AuthProperties.Cache properties;
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 角色权限版本：角色权限变更时递增，每个版本对应一份快照
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0);
+
+    // 用户角色作废次数：加载前后不一致的结果不写入缓存，避免旧数据覆盖
+    private final AtomicLong userEvictions = new AtomicLong();
+    private final Map<Long, List<String>> userRoles = new ConcurrentHashMap<>();
+
+    public PermissionCache(UserMapper userMapper, RoleMapper roleMapper, PermissionMapper permissionMapper,
+                           AuthProperties properties, StringRedisTemplate redisTemplate) {
+        this.userMapper = userMapper;
+        this.roleMapper = roleMapper;
+        this.permissionMapper = permissionMapper;
+        this.properties = properties.getCache();
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 用户的角色编码
+     */
+    public List<String> getUserRoles(Long userId) {
+        List<String> cached = userRoles.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long evictions = userEvictions.get();
+        List<String> roles = List.copyOf(userMapper.selectRoleCodesByUserId(userId));
+        if (userRoles.size() >= properties.getMaxUsers()) {
+            userRoles.clear();
+        }
+        userRoles.put(userId, roles);
+        // 加载期间发生过作废时丢弃本次结果
+        if (userEvictions.get() != evictions) {
+            userRoles.remove(userId, roles);
+        }
+        return roles;
+    }
+
+    /**
+     * 角色的权限ID
+     */
+    public List<Long> getRolePermissionIds(Long roleId) {
+        Snapshot current = currentSnapshot();
+        List<Long> cached = current.rolePermissions.get(roleId);
+        if (cached != null) {
+            return cached;
+        }
+        List<Long> ids = List.copyOf(roleMapper.selectPermissionIdsByRoleId(roleId));
+        if (version.get() == current.version) {
+            current.rolePermissions.putIfAbsent(roleId, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * 权限树（当前版本首次访问时构建）
+     */
+    public List<Map<String, Object>> getPermissionTree() {
+        Snapshot current = currentSnapshot();
+        List<Map<String, Object>> tree = current.permissionTree;
+        if (tree == null) {
+            tree = buildPermissionTree(permissionMapper.selectAllPermissions());
+            if (version.get() == current.version) {
+                current.permissionTree = tree;
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * 作废单个用户的角色（用户角色变更后调用）
+     */
+    public void invalidateUser(Long userId) {
+        afterCommit(() -> {
+            evictUser(userId);
+            broadcast(USER_MESSAGE + ":" + userId);
+        });
+    }
+
+    /**
+     * 作废全部角色权限与权限树（角色权限变更后调用）
+     */
+    public void invalidateRoles() {
+        afterCommit(() -> {
+            evictRoles();
+            broadcast(ROLES_MESSAGE);
+        });
+    }
+
+    /**
+     * 处理其他节点的作废通知，格式为 节点ID|user:用户ID 或 节点ID|roles
+     */
+    public void onMessage(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        String body = message.substring(separator + 1);
+        if (ROLES_MESSAGE.equals(body)) {
+            evictRoles();
+        } else if (body.startsWith(USER_MESSAGE + ":")) {
+            try {
+                evictUser(Long.valueOf(body.substring(USER_MESSAGE.length() + 1)));
+            } catch (NumberFormatException e) {
+                log.warn("忽略无法识别的权限缓存通知: {}", message);
+            }
+        }
+    }
+
+    /**
+     * 当前角色权限版本
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    private void evictUser(Long userId) {
+        userEvictions.incrementAndGet();
+        userRoles.remove(userId);
+    }
+
+    private void evictRoles() {
+        version.incrementAndGet();
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current.version == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            long v = version.get();
+            if (snapshot.version != v) {
+                snapshot = new Snapshot(v);
+            }
+            return snapshot;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void broadcast(String body) {
+        if (redisTemplate == null || !properties.isBroadcast()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), nodeId + "|" + body);
+        } catch (Exception e) {
+            // 通知失败不影响本节点，其他节点最多读到旧角色直至下次作废
+            log.warn("权限缓存作废通知发送失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按父节点分组后一次构建整棵树，parentId 为空或0视为根节点
+     */
+    static List<Map<String, Object>> buildPermissionTree(List<Map<String, Object>> allPermissions) {
+        Map<Long, List<Map<String, Object>>> byParent = new HashMap<>();
+        for (Map<String, Object> permission : allPermissions) {
+            Object parentId = permission.get("parentId");
+            long parent = parentId == null ? 0L : ((Number) parentId).longValue();
+            byParent.computeIfAbsent(parent, k -> new ArrayList<>()).add(permission);
+        }
+        return children(byParent, 0L);
+    }
+
+    private static List<Map<String, Object>> children(Map<Long, List<Map<String, Object>>> byParent, long parentId) {
+        List<Map<String, Object>> permissions = byParent.remove(parentId);
+        if (permissions == null) {
+            return List.of();
+        }
+        List<Map<String, Object>> nodes = new ArrayList<>(permissions.size());
+        for (Map<String, Object> permission : permissions) {
+            Map<String, Object> node = new LinkedHashMap<>(permission);
+            List<Map<String, Object>> children = children(byParent, ((Number) permission.get("id")).longValue());
+            if (!children.isEmpty()) {
+                node.put("children", children);
+            }
+            nodes.add(Collections.unmodifiableMap(node));
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * 某一版本的角色权限与权限树
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final Map<Long, List<Long>> rolePermissions = new ConcurrentHashMap<>();
+        private volatile List<Map<String, Object>> permissionTree;
+
+        private Snapshot(long version) {
+            this.version = version;
+        }
+    }
+}
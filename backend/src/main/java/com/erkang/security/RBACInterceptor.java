@@ -2,34 +2,59 @@ package com.erkang.security;
 
 import com.erkang.common.BusinessException;
 import com.erkang.common.ErrorCode;
+import com.erkang.domain.enums.RoleEnum;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * RBAC权限拦截器
+ * 启动时为每个处理方法解析 @RequireRole 并转换为角色掩码，请求时只做一次按位与
  */
 @Slf4j
 @Component
 public class RBACInterceptor implements HandlerInterceptor {
     
+    /** 未标注 @RequireRole 的处理方法 */
+    static final int NOT_REQUIRED = -1;
+    
+    private final Map<Method, Integer> requiredMasks = new ConcurrentHashMap<>();
+    
+    /**
+     * 预先计算所有已注册处理方法的角色掩码
+     */
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()
+                .forEach(mapping -> mapping.getHandlerMethods().values().forEach(this::requiredMask));
+        log.info("已预计算 {} 个接口的角色掩码", requiredMasks.size());
+    }
+    
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         if (!(handler instanceof HandlerMethod handlerMethod)) {
             return true;
         }
         
-        // 获取方法或类上的@RequireRole注解
-        RequireRole requireRole = handlerMethod.getMethodAnnotation(RequireRole.class);
-        if (requireRole == null) {
-            requireRole = handlerMethod.getBeanType().getAnnotation(RequireRole.class);
+        // 异步分派（如SSE流式响应结束）已在首次请求时完成鉴权
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
         }
         
         // 没有注解，放行
-        if (requireRole == null) {
+        int required = requiredMask(handlerMethod);
+        if (required == NOT_REQUIRED) {
             return true;
         }
         
@@ -40,16 +65,46 @@ public class RBACInterceptor implements HandlerInterceptor {
         }
         
         // 检查角色权限
-        String[] allowedRoles = requireRole.value();
-        if (!user.hasAnyRole(allowedRoles)) {
+        if (!user.hasAnyRole(required)) {
             log.warn("用户 {} 无权访问 {}, 需要角色: {}, 当前角色: {}", 
                     user.getUsername(), 
                     request.getRequestURI(),
-                    String.join(",", allowedRoles),
-                    String.join(",", user.getRoles()));
+                    String.join(",", requireRole(handlerMethod).value()),
+                    user.getRoles() != null ? String.join(",", user.getRoles()) : "");
             throw new BusinessException(ErrorCode.AUTH_ROLE_NOT_ALLOWED);
         }
         
         return true;
     }
+    
+    /**
+     * 处理方法要求的角色掩码，启动后未登记的方法首次访问时计算
+     */
+    int requiredMask(HandlerMethod handlerMethod) {
+        Integer cached = requiredMasks.get(handlerMethod.getMethod());
+        if (cached != null) {
+            return cached;
+        }
+        return requiredMasks.computeIfAbsent(handlerMethod.getMethod(), m -> {
+            RequireRole requireRole = requireRole(handlerMethod);
+            if (requireRole == null) {
+                return NOT_REQUIRED;
+            }
+            for (String role : requireRole.value()) {
+                if (RoleEnum.fromCode(role) == null) {
+                    log.warn("{} 的 @RequireRole 包含未知角色 {}，该角色不会被授权", m, role);
+                }
+            }
+            return RoleEnum.maskOf(requireRole.value());
+        });
+    }
+    
+    // 获取方法或类上的@RequireRole注解
+    private static RequireRole requireRole(HandlerMethod handlerMethod) {
+        RequireRole requireRole = handlerMethod.getMethodAnnotation(RequireRole.class);
+        if (requireRole == null) {
+            requireRole = handlerMethod.getBeanType().getAnnotation(RequireRole.class);
+        }
+        return requireRole;
+    }
 }
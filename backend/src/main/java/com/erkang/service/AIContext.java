@@ -0,0 +1,67 @@
+package com.erkang.service;
+
+import com.erkang.domain.entity.AIChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AI对话上下文：早期对话摘要 + 最近若干轮消息，总Token数不超过预算
+ * _Requirements: 10.1, 10.5_
+ */
+public class AIContext {
+
+    private static final AIContext EMPTY = new AIContext(null, List.of(), 0);
+
+    private final String summary;
+    private final List<AIChatMessage> messages;
+    private final int tokens;
+
+    public AIContext(String summary, List<AIChatMessage> messages, int tokens) {
+        this.summary = summary;
+        this.messages = messages;
+        this.tokens = tokens;
+    }
+
+    public static AIContext empty() {
+        return EMPTY;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public List<AIChatMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * 摘要与历史消息的Token数（不含本次问题）
+     */
+    public int getTokens() {
+        return tokens;
+    }
+
+    /**
+     * 是否包含历史对话
+     */
+    public boolean hasHistory() {
+        return (summary != null && !summary.isEmpty()) || !messages.isEmpty();
+    }
+
+    /**
+     * 组装发送给模型的消息列表
+     */
+    public List<Map<String, String>> toPrompt(String question) {
+        List<Map<String, String>> prompt = new ArrayList<>(messages.size() + 2);
+        if (summary != null && !summary.isEmpty()) {
+            prompt.add(Map.of("role", "system", "content", "此前对话摘要：\n" + summary));
+        }
+        for (AIChatMessage message : messages) {
+            prompt.add(Map.of("role", message.getRole().toLowerCase(), "content", message.getContent()));
+        }
+        prompt.add(Map.of("role", "user", "content", question));
+        return prompt;
+    }
+}
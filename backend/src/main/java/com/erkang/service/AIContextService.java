@@ -0,0 +1,190 @@
+package com.erkang.service;
+
+import com.erkang.domain.entity.AIChatMessage;
+import com.erkang.domain.entity.AIChatSession;
+import com.erkang.mapper.AIChatMessageMapper;
+import com.erkang.mapper.AIChatSessionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * AI对话上下文构建
+ * 按游标倒序读取最近消息直到Token预算用尽，更早的消息折叠进会话的滚动摘要，
+ * 无论会话多长，单次构建的提示词大小与数据库读取量都有上限
+ * _Requirements: 10.1, 10.5_
+ */
+@Slf4j
+@Service
+public class AIContextService {
+
+    // 摘要在提示词中的格式开销
+    private static final int SUMMARY_OVERHEAD = 16;
+
+    // 摘要中单条消息保留的最大字符数
+    private static final int SUMMARY_LINE_CHARS = 80;
+
+    private final AIChatSessionMapper aiChatSessionMapper;
+    private final AIChatMessageMapper aiChatMessageMapper;
+    private final TokenCounter tokenCounter;
+
+    @Value("${ai.context.max-tokens:3000}")
+    private int maxTokens = 3000;
+
+    @Value("${ai.context.summary-max-tokens:500}")
+    private int summaryMaxTokens = 500;
+
+    @Value("${ai.context.max-messages:40}")
+    private int maxMessages = 40;
+
+    @Value("${ai.context.page-size:20}")
+    private int pageSize = 20;
+
+    @Value("${ai.context.fold-batch-size:50}")
+    private int foldBatchSize = 50;
+
+    public AIContextService(AIChatSessionMapper aiChatSessionMapper, AIChatMessageMapper aiChatMessageMapper,
+                            TokenCounter tokenCounter) {
+        this.aiChatSessionMapper = aiChatSessionMapper;
+        this.aiChatMessageMapper = aiChatMessageMapper;
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * 计算文本Token数
+     */
+    public int countTokens(String text) {
+        return tokenCounter.count(text);
+    }
+
+    /**
+     * 构建会话上下文（不含本次问题）
+     */
+    public AIContext buildContext(Long sessionId, String question) {
+        if (sessionId == null) {
+            return AIContext.empty();
+        }
+        AIChatSession session = aiChatSessionMapper.selectById(sessionId);
+        if (session == null) {
+            return AIContext.empty();
+        }
+
+        // 摘要按上限预留，保证折叠后总量仍不超过预算
+        int budget = maxTokens - tokenCounter.count(question) - TokenCounter.MESSAGE_OVERHEAD
+                - summaryMaxTokens - SUMMARY_OVERHEAD;
+        Long summaryUntilId = session.getSummaryUntilId();
+
+        Deque<AIChatMessage> window = new ArrayDeque<>();
+        int used = 0;
+        Long overflowId = null;
+        Long cursor = null;
+        while (overflowId == null) {
+            List<AIChatMessage> page = aiChatMessageMapper.selectLatestBefore(sessionId, summaryUntilId, cursor, pageSize);
+            for (AIChatMessage message : page) {
+                int tokens = tokensOf(message);
+                if (used + tokens > budget || window.size() >= maxMessages) {
+                    overflowId = message.getId();
+                    break;
+                }
+                window.addFirst(message);
+                used += tokens;
+                cursor = message.getId();
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        String summary = session.getSummary();
+        int summaryTokens = session.getSummaryTokens() != null ? session.getSummaryTokens() : 0;
+        if (overflowId != null) {
+            AIChatSession folded = fold(session, overflowId);
+            summary = folded.getSummary();
+            summaryTokens = folded.getSummaryTokens();
+        }
+
+        int tokens = used + (summary != null && !summary.isEmpty() ? summaryTokens + SUMMARY_OVERHEAD : 0);
+        return new AIContext(summary, Collections.unmodifiableList(new ArrayList<>(window)), tokens);
+    }
+
+    /**
+     * 将 (summaryUntilId, overflowId] 区间内的消息分批折叠进滚动摘要，直到与窗口衔接。
+     * 每批读取量有上限并单独保存进度，长时间未访问的会话只在首次构建时补齐
+     */
+    private AIChatSession fold(AIChatSession session, Long overflowId) {
+        while (session.getSummaryUntilId() == null || session.getSummaryUntilId() < overflowId) {
+            List<AIChatMessage> older = aiChatMessageMapper.selectOldestAfter(
+                    session.getId(), session.getSummaryUntilId(), overflowId, foldBatchSize);
+            if (older.isEmpty()) {
+                break;
+            }
+
+            String summary = summarize(session.getSummary(), older);
+            int summaryTokens = tokenCounter.count(summary);
+            Long untilId = older.get(older.size() - 1).getId();
+
+            // 条件更新，避免并发构建时摘要进度回退
+            aiChatSessionMapper.updateSummary(session.getId(), summary, untilId, summaryTokens);
+
+            session.setSummary(summary);
+            session.setSummaryUntilId(untilId);
+            session.setSummaryTokens(summaryTokens);
+            log.debug("AI会话摘要已更新: sessionId={}, untilId={}, tokens={}", session.getId(), untilId, summaryTokens);
+        }
+        return session;
+    }
+
+    /**
+     * 生成滚动摘要：追加每条消息的要点，超出上限时丢弃最早的内容
+     * 实际项目中可交由大模型生成摘要，这里采用抽取式摘要
+     */
+    String summarize(String previous, List<AIChatMessage> messages) {
+        Deque<String> lines = new ArrayDeque<>();
+        if (previous != null && !previous.isEmpty()) {
+            for (String line : previous.split("\n")) {
+                lines.addLast(line);
+            }
+        }
+        for (AIChatMessage message : messages) {
+            String content = message.getContent() != null ? message.getContent().strip() : "";
+            int end = content.indexOf('\n');
+            String gist = end >= 0 ? content.substring(0, end) : content;
+            if (gist.length() > SUMMARY_LINE_CHARS) {
+                gist = gist.substring(0, SUMMARY_LINE_CHARS) + "…";
+            }
+            lines.addLast(("USER".equals(message.getRole()) ? "患者：" : "助手：") + gist);
+        }
+
+        // 逐行计数后从最早的行开始丢弃（每个换行按1个Token计）
+        Deque<Integer> lineTokens = new ArrayDeque<>(lines.size());
+        int total = -1;
+        for (String line : lines) {
+            int tokens = tokenCounter.count(line);
+            lineTokens.addLast(tokens);
+            total += tokens + 1;
+        }
+        while (lines.size() > 1 && total > summaryMaxTokens) {
+            lines.removeFirst();
+            total -= lineTokens.removeFirst() + 1;
+        }
+
+        String summary = String.join("\n", lines);
+        // 合并后的实际计数兜底，单行仍超出上限时从头部截断
+        while (tokenCounter.count(summary) > summaryMaxTokens) {
+            int cut = summary.indexOf('\n');
+            summary = cut >= 0 ? summary.substring(cut + 1) : summary.substring(summary.length() / 4);
+        }
+        return summary;
+    }
+
+    private int tokensOf(AIChatMessage message) {
+        int tokens = message.getTokens() != null ? message.getTokens() : tokenCounter.count(message.getContent());
+        return tokens + TokenCounter.MESSAGE_OVERHEAD;
+    }
+}
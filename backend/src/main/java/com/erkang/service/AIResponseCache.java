@@ -0,0 +1,182 @@
+package com.erkang.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * AI问答结果缓存
+ * 以归一化后问题的哈希为键缓存模型原始输出，按最近最少使用淘汰，
+ * 同时受条目存活时间与总字节数上限约束
+ * _Requirements: 10.1, 10.5_
+ */
+@Slf4j
+@Component
+public class AIResponseCache {
+
+    // 每个条目的固定开销估算（对象头、引用、时间戳等）
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    // 句末语气词，不影响问题语义
+    private static final String TRAILING_PARTICLES = "呢吗嘛啊呀吧哦";
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    @Autowired
+    public AIResponseCache(@Value("${ai.cache.enabled:true}") boolean enabled,
+                           @Value("${ai.cache.max-bytes:16777216}") long maxBytes,
+                           @Value("${ai.cache.ttl-ms:3600000}") long ttlMs) {
+        this(enabled, maxBytes, ttlMs, System::currentTimeMillis);
+    }
+
+    AIResponseCache(boolean enabled, long maxBytes, long ttlMs, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * 归一化问题：全半角统一、转小写、去除空白与标点、去除句末语气词
+     */
+    public static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(question, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder sb = new StringBuilder(text.length());
+        text.codePoints()
+                .filter(cp -> Character.isLetterOrDigit(cp))
+                .forEach(sb::appendCodePoint);
+        int end = sb.length();
+        while (end > 0 && TRAILING_PARTICLES.indexOf(sb.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    /**
+     * 缓存键：归一化问题的 SHA-256
+     */
+    public static String keyOf(String question) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalize(question).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取缓存，未命中或已过期返回null
+     */
+    public String get(String question) {
+        if (!enabled) {
+            return null;
+        }
+        String key = keyOf(question);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && clock.getAsLong() - entry.createdAt >= ttlMs) {
+                remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.value;
+        }
+    }
+
+    /**
+     * 写入缓存，单条超过容量上限时不缓存
+     */
+    public void put(String question, String response) {
+        if (!enabled || response == null) {
+            return;
+        }
+        String key = keyOf(question);
+        long size = sizeOf(key, response);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            remove(key);
+            entries.put(key, new Entry(response, size, clock.getAsLong()));
+            currentBytes += size;
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && it.hasNext()) {
+                currentBytes -= it.next().getValue().size;
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+        log.info("AI问答缓存已清空");
+    }
+
+    /**
+     * 缓存统计
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("bytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    synchronized long currentBytes() {
+        return currentBytes;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= removed.size;
+        }
+    }
+
+    private static long sizeOf(String key, String value) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (key.length() + value.length());
+    }
+
+    private record Entry(String value, long size, long createdAt) {
+    }
+}
@@ -1,22 +1,31 @@
 package com.erkang.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
 import com.erkang.domain.entity.AIChatMessage;
 import com.erkang.domain.entity.AIChatSession;
 import com.erkang.domain.entity.AITask;
+import com.erkang.domain.enums.ScreeningCategory;
+import com.erkang.integration.ai.AIModelGateway;
+import com.erkang.integration.ai.AIModelReply;
 import com.erkang.mapper.AIChatMessageMapper;
 import com.erkang.mapper.AIChatSessionMapper;
 import com.erkang.mapper.AITaskMapper;
+import com.erkang.metrics.jfr.AITaskEvent;
 import com.erkang.security.Auditable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * AI服务
@@ -30,20 +39,20 @@ public class AIService {
     private final AITaskMapper aiTaskMapper;
     private final AIChatSessionMapper aiChatSessionMapper;
     private final AIChatMessageMapper aiChatMessageMapper;
+    private final ScreeningService screeningService;
+    private final AIResponseCache aiResponseCache;
+    private final AIContextService aiContextService;
+    private final AIModelGateway aiModelGateway;
+    private final MeterRegistry meterRegistry;
 
-    // 敏感信息正则模式
-    private static final Pattern PHONE_PATTERN = Pattern.compile("1[3-9]\\d{9}");
-    private static final Pattern ID_CARD_PATTERN = Pattern.compile("\\d{17}[\\dXx]");
-    private static final Pattern NAME_PATTERN = Pattern.compile("(?:姓名|患者|病人)[：:]*([\\u4e00-\\u9fa5]{2,4})");
-    
     // 免责声明
-    private static final String DISCLAIMER = "\n\n【免责声明】以上内容仅供健康参考，不构成医疗诊断或治疗建议。如有不适，请及时就医。";
+    static final String DISCLAIMER = "\n\n【免责声明】以上内容仅供健康参考，不构成医疗诊断或治疗建议。如有不适，请及时就医。";
     
-    // 急危重症关键词
-    private static final String[] EMERGENCY_KEYWORDS = {
-        "胸痛", "呼吸困难", "意识丧失", "大出血", "剧烈头痛", "高烧不退",
-        "心悸", "窒息", "抽搐", "昏迷", "中毒", "严重过敏"
-    };
+    // 模拟流式输出的片段长度
+    private static final int STREAM_CHUNK_SIZE = 4;
+
+    // 关联AI会话的任务类型标识
+    static final String RELATED_TYPE_SESSION = "AI_SESSION";
 
     /**
      * 创建对话会话
@@ -75,23 +84,26 @@ public class AIService {
         // 1. 输入脱敏
         String sanitizedQuestion = sanitizeInput(question);
         
-        // 2. 保存用户消息
+        // 2. 构建对话上下文（最近消息 + 早期摘要，受Token预算约束）
+        AIContext context = aiContextService.buildContext(sessionId, sanitizedQuestion);
+        
+        // 3. 保存用户消息
         saveMessage(sessionId, "USER", sanitizedQuestion);
         
-        // 3. 创建AI任务
+        // 4. 创建AI任务
         AITask task = createTask("HEALTH_QA", userId, sanitizedQuestion);
         
         try {
-            // 4. 调用AI模型（模拟）
-            String rawResponse = callAIModel(sanitizedQuestion);
+            // 5. 调用AI模型，重复问题直接使用缓存结果
+            String rawResponse = answer(task, sanitizedQuestion, context).content();
             
-            // 5. 输出合规校验
+            // 6. 输出合规校验
             String compliantResponse = ensureCompliance(rawResponse, sanitizedQuestion);
             
-            // 6. 保存AI响应
+            // 7. 保存AI响应
             saveMessage(sessionId, "ASSISTANT", compliantResponse);
             
-            // 7. 更新任务状态
+            // 8. 更新任务状态
             long latency = System.currentTimeMillis() - startTime;
             completeTask(task, compliantResponse, (int) latency);
             
@@ -109,29 +121,7 @@ public class AIService {
      * _Requirements: 10.6_
      */
     public String sanitizeInput(String input) {
-        if (input == null) {
-            return "";
-        }
-        
-        String result = input;
-        
-        // 先脱敏身份证号（18位，避免被手机号正则误匹配）
-        result = ID_CARD_PATTERN.matcher(result).replaceAll("[身份证号已隐藏]");
-        
-        // 再脱敏手机号
-        result = PHONE_PATTERN.matcher(result).replaceAll("[手机号已隐藏]");
-        
-        // 脱敏姓名
-        Matcher nameMatcher = NAME_PATTERN.matcher(result);
-        while (nameMatcher.find()) {
-            String name = nameMatcher.group(1);
-            if (name != null && name.length() >= 2) {
-                String masked = name.charAt(0) + "*".repeat(name.length() - 1);
-                result = result.replace(name, masked);
-            }
-        }
-        
-        return result;
+        return screeningService.sanitize(input);
     }
 
     /**
@@ -168,14 +158,8 @@ public class AIService {
      * _Requirements: 10.4_
      */
     private String checkEmergencyRisk(String question) {
-        if (question == null) {
-            return null;
-        }
-        
-        for (String keyword : EMERGENCY_KEYWORDS) {
-            if (question.contains(keyword)) {
-                return "⚠️ 【紧急提醒】您描述的症状可能涉及急危重症，请立即就医或拨打120急救电话！";
-            }
+        if (screeningService.containsKeyword(ScreeningCategory.EMERGENCY, question)) {
+            return "⚠️ 【紧急提醒】您描述的症状可能涉及急危重症，请立即就医或拨打120急救电话！";
         }
         return null;
     }
@@ -185,31 +169,190 @@ public class AIService {
      * _Requirements: 10.3_
      */
     private String filterPrescriptionDosage(String response) {
-        if (response == null) {
-            return "";
+        return screeningService.filterDosage(response);
+    }
+
+    /**
+     * 创建流式输出合规过滤器
+     * _Requirements: 10.2, 10.3, 10.4_
+     */
+    public StreamingComplianceFilter newComplianceFilter(String question) {
+        String emergencyWarning = checkEmergencyRisk(question);
+        String prefix = emergencyWarning != null ? emergencyWarning + "\n\n" : "";
+        return new StreamingComplianceFilter(prefix, this::filterPrescriptionDosage, DISCLAIMER);
+    }
+
+    /**
+     * 调用AI模型并按片段回调输出
+     * @return 是否命中缓存
+     */
+    public boolean streamAIModel(Long sessionId, String question, Consumer<String> onToken) {
+        AIContext context = aiContextService.buildContext(sessionId, question);
+        String cached = lookupCache(question, context);
+        String response = cached;
+        if (cached == null) {
+            AIModelReply reply = callAIModel(question, context);
+            response = reply.content();
+            if (!reply.fallback() && isCacheable(question, context)) {
+                aiResponseCache.put(question, response);
+            }
         }
-        
-        // 过滤具体剂量信息（如：每次2片、每日3次、500mg等）
-        String result = response;
-        result = result.replaceAll("每次\\d+[片粒支ml毫升]", "每次[剂量请遵医嘱]");
-        result = result.replaceAll("每日\\d+次", "每日[次数请遵医嘱]");
-        result = result.replaceAll("\\d+mg", "[剂量请遵医嘱]");
-        result = result.replaceAll("\\d+毫克", "[剂量请遵医嘱]");
-        
-        return result;
+        for (int i = 0; i < response.length(); i += STREAM_CHUNK_SIZE) {
+            onToken.accept(response.substring(i, Math.min(response.length(), i + STREAM_CHUNK_SIZE)));
+        }
+        return cached != null;
+    }
+
+    /**
+     * 获取模型输出：可缓存的问题优先读取缓存，并在任务上记录是否命中
+     * _Requirements: 10.4, 10.5_
+     */
+    private AIModelReply answer(AITask task, String question, AIContext context) {
+        String cached = lookupCache(question, context);
+        task.setCacheHit(cached != null);
+        if (cached != null) {
+            return new AIModelReply(cached, false);
+        }
+        AIModelReply reply = callAIModel(question, context);
+        // 兜底回答不缓存，模型恢复后重新获取
+        if (!reply.fallback() && isCacheable(question, context)) {
+            aiResponseCache.put(question, reply.content());
+        }
+        return reply;
+    }
+
+    private String lookupCache(String question, AIContext context) {
+        return isCacheable(question, context) ? aiResponseCache.get(question) : null;
     }
 
     /**
-     * 模拟调用AI模型
+     * 急危重症问题每次都交给模型处理；带历史对话的问题回答依赖上下文，同样不走缓存
      */
-    private String callAIModel(String question) {
-        // 实际项目中这里会调用大模型API
-        // 这里返回模拟响应
-        return "根据您的描述，这可能是常见的耳鼻喉科症状。建议您：\n" +
-               "1. 保持充足休息\n" +
-               "2. 多饮水\n" +
-               "3. 避免刺激性食物\n" +
-               "4. 如症状持续或加重，请及时就医";
+    private boolean isCacheable(String question, AIContext context) {
+        return !context.hasHistory() && checkEmergencyRisk(question) == null;
+    }
+
+    /**
+     * 调用AI模型，模型不可用时得到兜底回答
+     */
+    private AIModelReply callAIModel(String question, AIContext context) {
+        log.debug("AI模型调用: contextMessages={}, contextTokens={}",
+                context.getMessages().size(), context.getTokens());
+        return aiModelGateway.complete(context.toPrompt(question));
+    }
+
+    /**
+     * 保存一次完整问答（流式输出结束后一次性落库）
+     * _Requirements: 10.1, 10.5_
+     */
+    @Transactional
+    public AITask saveExchange(Long sessionId, Long userId, String sanitizedQuestion,
+                               String answer, int latencyMs, boolean cacheHit) {
+        saveMessage(sessionId, "USER", sanitizedQuestion);
+        saveMessage(sessionId, "ASSISTANT", answer);
+        AITask task = createTask("HEALTH_QA", userId, sanitizedQuestion);
+        task.setCacheHit(cacheHit);
+        completeTask(task, answer, latencyMs);
+        return task;
+    }
+
+    /**
+     * 记录一次失败的问答
+     */
+    @Transactional
+    public AITask saveFailedExchange(Long sessionId, Long userId, String sanitizedQuestion,
+                                     String errorMessage) {
+        saveMessage(sessionId, "USER", sanitizedQuestion);
+        AITask task = createTask("HEALTH_QA", userId, sanitizedQuestion);
+        failTask(task, errorMessage);
+        return task;
+    }
+
+    /**
+     * 执行异步队列中的AI任务，返回合规处理后的结果
+     * 模型不可用时抛出异常而不是返回兜底回答，由队列按退避重试，最终标记失败
+     * _Requirements: 10.2, 10.5_
+     */
+    public String executeTask(AITask task) {
+        AIContext context = RELATED_TYPE_SESSION.equals(task.getRelatedType())
+                ? aiContextService.buildContext(task.getRelatedId(), task.getRequestData())
+                : AIContext.empty();
+        AIModelReply reply = answer(task, task.getRequestData(), context);
+        if (reply.fallback()) {
+            throw new BusinessException(ErrorCode.EXTERNAL_SERVICE_ERROR, "AI模型暂不可用");
+        }
+        return ensureCompliance(reply.content(), task.getRequestData());
+    }
+
+    /**
+     * 登记排队任务
+     */
+    public AITask enqueueTask(String taskType, Long userId, String sanitizedRequest,
+                              Long relatedId, String relatedType) {
+        AITask task = new AITask();
+        task.setTaskType(taskType);
+        task.setUserId(userId);
+        task.setRequestData(sanitizedRequest);
+        task.setRelatedId(relatedId);
+        task.setRelatedType(relatedType);
+        task.setStatus("PENDING");
+        task.setRetryCount(0);
+        task.setCreatedAt(LocalDateTime.now());
+        aiTaskMapper.insert(task);
+        return task;
+    }
+
+    /**
+     * 排队任务开始执行（已结束的任务不会被改回处理中）
+     */
+    public void startQueuedTask(AITask task) {
+        AITask update = new AITask();
+        update.setStatus("PROCESSING");
+        update.setRetryCount(task.getRetryCount());
+        aiTaskMapper.update(update, new LambdaQueryWrapper<AITask>()
+                .eq(AITask::getId, task.getId())
+                .in(AITask::getStatus, "PENDING", "PROCESSING"));
+        task.setStatus("PROCESSING");
+    }
+
+    /**
+     * 排队任务执行成功；关联AI会话的任务同时写入对话记录
+     */
+    @Transactional
+    public void completeQueuedTask(AITask task, String responseData, int latencyMs) {
+        if (RELATED_TYPE_SESSION.equals(task.getRelatedType()) && task.getRelatedId() != null) {
+            saveMessage(task.getRelatedId(), "USER", task.getRequestData());
+            saveMessage(task.getRelatedId(), "ASSISTANT", responseData);
+        }
+        completeTask(task, responseData, latencyMs);
+    }
+
+    /**
+     * 排队任务执行失败
+     */
+    public void failQueuedTask(AITask task, String errorMessage) {
+        failTask(task, errorMessage);
+    }
+
+    /**
+     * 问答缓存统计
+     */
+    public Map<String, Object> getCacheStats() {
+        return aiResponseCache.getStats();
+    }
+
+    /**
+     * 清空问答缓存
+     */
+    public void clearCache() {
+        aiResponseCache.clear();
+    }
+
+    /**
+     * 模型调用统计（熔断状态、对冲次数等）
+     */
+    public Map<String, Object> getModelStats() {
+        return aiModelGateway.getStats();
     }
 
     /**
@@ -220,7 +363,7 @@ public class AIService {
         message.setSessionId(sessionId);
         message.setRole(role);
         message.setContent(content);
-        message.setTokens(content != null ? content.length() / 4 : 0); // 简单估算
+        message.setTokens(aiContextService.countTokens(content));
         message.setCreatedAt(LocalDateTime.now());
         aiChatMessageMapper.insert(message);
     }
@@ -246,9 +389,17 @@ public class AIService {
         task.setResponseData(responseData);
         task.setStatus("COMPLETED");
         task.setLatencyMs(latencyMs);
-        task.setTokensUsed(responseData != null ? responseData.length() / 4 : 0);
+        // 命中缓存时未调用模型，不消耗Token
+        task.setTokensUsed(responseData != null && !Boolean.TRUE.equals(task.getCacheHit())
+                ? responseData.length() / 4 : 0);
         task.setCompletedAt(LocalDateTime.now());
         aiTaskMapper.updateById(task);
+        Timer.builder("erkang.ai.task.latency")
+                .tag("type", task.getTaskType())
+                .tag("cacheHit", String.valueOf(Boolean.TRUE.equals(task.getCacheHit())))
+                .register(meterRegistry)
+                .record(Duration.ofMillis(latencyMs));
+        commitTaskEvent(task);
     }
 
     /**
@@ -259,6 +410,21 @@ public class AIService {
         task.setErrorMessage(errorMessage);
         task.setCompletedAt(LocalDateTime.now());
         aiTaskMapper.updateById(task);
+        meterRegistry.counter("erkang.ai.task.failures", "type", task.getTaskType()).increment();
+        commitTaskEvent(task);
+    }
+
+    private static void commitTaskEvent(AITask task) {
+        AITaskEvent event = new AITaskEvent();
+        if (event.shouldCommit()) {
+            event.taskId = task.getId() != null ? task.getId() : 0;
+            event.taskType = task.getTaskType();
+            event.userId = task.getUserId() != null ? task.getUserId() : 0;
+            event.status = task.getStatus();
+            event.cacheHit = Boolean.TRUE.equals(task.getCacheHit());
+            event.latency = task.getLatencyMs() != null ? task.getLatencyMs() : 0;
+            event.commit();
+        }
     }
 
     /**
@@ -282,6 +448,21 @@ public class AIService {
         return aiChatSessionMapper.selectById(sessionId);
     }
 
+    /**
+     * 查询会话并校验归属（仅本人或管理员）
+     * 问答会读取会话上下文并写入消息，须在构建上下文或开始推流前校验
+     */
+    public AIChatSession getOwnedSession(Long sessionId, Long userId, boolean admin) {
+        AIChatSession session = sessionId == null ? null : aiChatSessionMapper.selectById(sessionId);
+        if (session == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "会话不存在");
+        }
+        if (!admin && !session.getUserId().equals(userId)) {
+            throw new BusinessException(ErrorCode.FORBIDDEN);
+        }
+        return session;
+    }
+
     /**
      * 查询用户会话列表
      */
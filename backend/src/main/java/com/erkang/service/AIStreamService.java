@@ -0,0 +1,100 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.domain.entity.AITask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * AI流式问答服务
+ * 模型输出逐段经合规过滤后通过SSE下发，问答结束后一次性落库，不在模型调用期间占用数据库连接
+ * _Requirements: 10.1, 10.2, 10.3, 10.4_
+ */
+@Slf4j
+@Service
+public class AIStreamService {
+
+    private final AIService aiService;
+    private final TaskExecutor aiStreamExecutor;
+
+    @Value("${ai.stream.timeout-ms:120000}")
+    private long timeoutMs;
+
+    public AIStreamService(AIService aiService,
+                           @Qualifier("aiStreamExecutor") TaskExecutor aiStreamExecutor) {
+        this.aiService = aiService;
+        this.aiStreamExecutor = aiStreamExecutor;
+    }
+
+    /**
+     * 流式健康问答
+     * 事件: delta(增量文本) / done(任务ID与耗时) / error(错误信息)
+     */
+    public SseEmitter healthQAStream(Long sessionId, Long userId, String question) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        String sanitizedQuestion = aiService.sanitizeInput(question);
+        try {
+            aiStreamExecutor.execute(() -> stream(emitter, sessionId, userId, sanitizedQuestion));
+        } catch (RejectedExecutionException e) {
+            log.warn("AI流式问答线程池已满: sessionId={}", sessionId);
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+        }
+        return emitter;
+    }
+
+    private void stream(SseEmitter emitter, Long sessionId, Long userId, String sanitizedQuestion) {
+        long startTime = System.currentTimeMillis();
+        StreamingComplianceFilter filter = aiService.newComplianceFilter(sanitizedQuestion);
+        try {
+            sendDelta(emitter, filter.begin());
+            boolean cacheHit = aiService.streamAIModel(sessionId, sanitizedQuestion,
+                    chunk -> sendDelta(emitter, filter.accept(chunk)));
+            sendDelta(emitter, filter.finish());
+
+            int latency = (int) (System.currentTimeMillis() - startTime);
+            AITask task = aiService.saveExchange(sessionId, userId, sanitizedQuestion, filter.getOutput(),
+                    latency, cacheHit);
+
+            emitter.send(SseEmitter.event().name("done")
+                    .data(Map.of("taskId", task.getId() != null ? task.getId() : 0L, "latencyMs", latency,
+                            "cacheHit", cacheHit)));
+            emitter.complete();
+            log.info("AI流式问答完成: sessionId={}, latency={}ms", sessionId, latency);
+        } catch (Exception e) {
+            String message = e instanceof UncheckedIOException ? "客户端连接已断开" : e.getMessage();
+            log.warn("AI流式问答失败: sessionId={}, error={}", sessionId, message);
+            try {
+                aiService.saveFailedExchange(sessionId, userId, sanitizedQuestion, message);
+            } catch (Exception persistError) {
+                log.error("记录AI流式问答失败信息出错: {}", persistError.getMessage());
+            }
+            try {
+                emitter.send(SseEmitter.event().name("error").data(Map.of("message", "AI服务暂时不可用")));
+                emitter.complete();
+            } catch (Exception ignored) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void sendDelta(SseEmitter emitter, String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name("delta").data(Map.of("content", text)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.AITaskProperties;
+import com.erkang.domain.entity.AIChatSession;
+import com.erkang.domain.entity.AITask;
+import com.erkang.domain.enums.AITaskStatus;
+import com.erkang.domain.enums.AITaskType;
+import com.erkang.mapper.AITaskMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * AI异步任务队列
+ * 每种任务类型独立的有界队列与工作线程池，按用户限制并发，失败按指数退避重试，
+ * 超时标记为失败；模型响应变慢时任务在队列中等待，不占用请求线程
+ * _Requirements: 10.1, 10.5_
+ */
+@Slf4j
+@Service
+public class AITaskQueueService {
+
+    // SSE连接在任务超时之后额外保留的时间
+    private static final long EVENT_STREAM_GRACE_MS = 5000;
+
+    private final AIService aiService;
+    private final AITaskMapper aiTaskMapper;
+    private final AITaskProperties properties;
+
+    private final Map<AITaskType, ThreadPoolExecutor> workers = new EnumMap<>(AITaskType.class);
+    private final Map<Long, Integer> userInFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Execution> executions = new ConcurrentHashMap<>();
+    private final Map<Long, List<Consumer<AITask>>> listeners = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public AITaskQueueService(AIService aiService, AITaskMapper aiTaskMapper, AITaskProperties properties) {
+        this.aiService = aiService;
+        this.aiTaskMapper = aiTaskMapper;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (AITaskType type : AITaskType.values()) {
+            AITaskProperties.Pool pool = properties.poolFor(type.getCode());
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    pool.getCorePoolSize(), Math.max(pool.getCorePoolSize(), pool.getMaxPoolSize()),
+                    60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, pool.getQueueCapacity())),
+                    new CustomizableThreadFactory("ai-task-" + type.getCode().toLowerCase() + "-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            workers.put(type, executor);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ai-task-timer-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.values().forEach(ThreadPoolExecutor::shutdownNow);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        // 未完成的任务统一标记失败，避免长期停留在处理中
+        executions.values().forEach(execution -> finish(execution, null, "服务停止，任务中断"));
+    }
+
+    /**
+     * 提交任务，立即返回排队中的任务
+     */
+    public AITask submit(Long userId, String taskType, String content, Long relatedId, String relatedType) {
+        AITaskType type = AITaskType.fromCode(taskType);
+        if (type == null) {
+            throw new BusinessException(ErrorCode.AI_TASK_TYPE_INVALID);
+        }
+        if (content == null || content.isBlank()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "任务内容不能为空");
+        }
+        // 关联会话时，工作线程会读取会话上下文并写入消息，只允许关联本人的会话
+        if (AIService.RELATED_TYPE_SESSION.equals(relatedType)) {
+            AIChatSession session = relatedId == null ? null : aiService.getSessionById(relatedId);
+            if (session == null) {
+                throw new BusinessException(ErrorCode.NOT_FOUND, "会话不存在");
+            }
+            if (!userId.equals(session.getUserId())) {
+                throw new BusinessException(ErrorCode.FORBIDDEN);
+            }
+        }
+
+        if (!acquireSlot(userId)) {
+            throw new BusinessException(ErrorCode.AI_TASK_LIMIT_EXCEEDED);
+        }
+
+        AITask task;
+        try {
+            task = aiService.enqueueTask(type.getCode(), userId, aiService.sanitizeInput(content),
+                    relatedId, relatedType);
+        } catch (RuntimeException e) {
+            releaseSlot(userId);
+            throw e;
+        }
+
+        Execution execution = new Execution(task, type);
+        executions.put(task.getId(), execution);
+        execution.timeout = scheduler.schedule(
+                () -> finish(execution, null, "任务执行超时"), properties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+
+        if (!dispatch(execution)) {
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+        }
+        log.info("AI任务已提交: taskId={}, type={}, userId={}", task.getId(), type, userId);
+        return task;
+    }
+
+    /**
+     * 查询任务（仅本人或管理员）
+     */
+    public AITask getTask(Long taskId, Long userId, boolean admin) {
+        AITask task = aiTaskMapper.selectById(taskId);
+        if (task == null) {
+            throw new BusinessException(ErrorCode.AI_TASK_NOT_FOUND);
+        }
+        if (!admin && !task.getUserId().equals(userId)) {
+            throw new BusinessException(ErrorCode.FORBIDDEN);
+        }
+        return task;
+    }
+
+    /**
+     * 订阅任务结果，任务进入终态时回调一次；任务已结束则立即回调
+     */
+    public void subscribe(Long taskId, Consumer<AITask> listener) {
+        listeners.computeIfAbsent(taskId, k -> new CopyOnWriteArrayList<>()).add(listener);
+        if (!executions.containsKey(taskId)) {
+            // 任务不在本实例执行（已结束或由其他实例处理），以数据库状态为准，未结束时轮询到结束或超时；
+            // 执行方在提交后 timeoutMs 内必然写入终态，从订阅时起算不会早于它放弃
+            poll(taskId, listener, System.currentTimeMillis() + properties.getTimeoutMs());
+        }
+    }
+
+    /**
+     * 读取数据库中的任务状态，只在终态时通知订阅者；监听已被通知或取消后停止轮询
+     */
+    private void poll(Long taskId, Consumer<AITask> listener, long deadline) {
+        List<Consumer<AITask>> current = listeners.get(taskId);
+        if (current == null || !current.contains(listener)) {
+            return;
+        }
+        AITask task = aiTaskMapper.selectById(taskId);
+        if (task == null) {
+            unsubscribe(taskId, listener);
+            return;
+        }
+        AITaskStatus status = AITaskStatus.fromCode(task.getStatus());
+        if (status != null && status.isFinal()) {
+            List<Consumer<AITask>> pending = listeners.remove(taskId);
+            if (pending != null) {
+                pending.forEach(l -> l.accept(task));
+            }
+            return;
+        }
+        if (System.currentTimeMillis() >= deadline) {
+            log.warn("等待AI任务结果超时: taskId={}, status={}", taskId, task.getStatus());
+            unsubscribe(taskId, listener);
+            return;
+        }
+        try {
+            scheduler.schedule(() -> poll(taskId, listener, deadline),
+                    properties.getSubscribePollMs(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 服务停止中
+            unsubscribe(taskId, listener);
+        }
+    }
+
+    /**
+     * 以SSE方式订阅任务结果，任务结束时推送一次 result 事件后关闭
+     */
+    public SseEmitter openEventStream(Long taskId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeoutMs() + EVENT_STREAM_GRACE_MS);
+        Consumer<AITask> listener = task -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(task));
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        };
+        emitter.onTimeout(() -> unsubscribe(taskId, listener));
+        emitter.onError(e -> unsubscribe(taskId, listener));
+        subscribe(taskId, listener);
+        return emitter;
+    }
+
+    /**
+     * 取消订阅
+     */
+    public void unsubscribe(Long taskId, Consumer<AITask> listener) {
+        listeners.computeIfPresent(taskId, (k, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * 各任务类型的队列积压情况
+     */
+    public Map<AITaskType, Integer> getQueueDepths() {
+        Map<AITaskType, Integer> depths = new EnumMap<>(AITaskType.class);
+        workers.forEach((type, executor) -> depths.put(type, executor.getQueue().size()));
+        return depths;
+    }
+
+    private boolean dispatch(Execution execution) {
+        try {
+            workers.get(execution.type).execute(() -> run(execution));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("AI任务队列已满: taskId={}, type={}", execution.task.getId(), execution.type);
+            finish(execution, null, "任务队列已满");
+            return false;
+        }
+    }
+
+    private void run(Execution execution) {
+        if (execution.finished.get()) {
+            return;
+        }
+        AITask task = execution.task;
+        execution.worker = Thread.currentThread();
+        int attempt = execution.attempts.incrementAndGet();
+        try {
+            task.setRetryCount(attempt - 1);
+            aiService.startQueuedTask(task);
+            String result = aiService.executeTask(task);
+            finish(execution, result, null);
+        } catch (Exception e) {
+            if (execution.finished.get()) {
+                return;
+            }
+            if (attempt < properties.getMaxAttempts()) {
+                long delay = properties.backoffFor(attempt);
+                log.warn("AI任务执行失败，{}ms后重试: taskId={}, attempt={}, error={}",
+                        delay, task.getId(), attempt, e.getMessage());
+                scheduler.schedule(() -> dispatch(execution), delay, TimeUnit.MILLISECONDS);
+            } else {
+                finish(execution, null, e.getMessage());
+            }
+        } finally {
+            execution.worker = null;
+            // 清除超时中断标记，避免影响线程池中的下一个任务
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * 结束任务（成功或失败），每个任务只会结束一次
+     */
+    private void finish(Execution execution, String result, String errorMessage) {
+        if (!execution.finished.compareAndSet(false, true)) {
+            return;
+        }
+        AITask task = execution.task;
+        if (execution.timeout != null) {
+            execution.timeout.cancel(false);
+        }
+        Thread worker = execution.worker;
+        if (errorMessage != null && worker != null && worker != Thread.currentThread()) {
+            worker.interrupt();
+        }
+
+        try {
+            if (errorMessage == null) {
+                int latency = (int) (System.currentTimeMillis() - execution.submittedAt);
+                aiService.completeQueuedTask(task, result, latency);
+            } else {
+                aiService.failQueuedTask(task, errorMessage);
+            }
+        } catch (Exception e) {
+            log.error("更新AI任务状态失败: taskId={}, error={}", task.getId(), e.getMessage());
+            task.setStatus(errorMessage == null ? AITaskStatus.COMPLETED.getCode() : AITaskStatus.FAILED.getCode());
+        } finally {
+            executions.remove(task.getId());
+            releaseSlot(task.getUserId());
+        }
+
+        log.info("AI任务结束: taskId={}, status={}, attempts={}", task.getId(), task.getStatus(), execution.attempts.get());
+        List<Consumer<AITask>> subscribers = listeners.remove(task.getId());
+        if (subscribers != null) {
+            subscribers.forEach(listener -> {
+                try {
+                    listener.accept(task);
+                } catch (Exception e) {
+                    log.warn("AI任务结果通知失败: taskId={}, error={}", task.getId(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    private boolean acquireSlot(Long userId) {
+        boolean[] acquired = new boolean[1];
+        userInFlight.compute(userId, (k, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= properties.getMaxConcurrentPerUser()) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseSlot(Long userId) {
+        userInFlight.computeIfPresent(userId, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * 单个任务的执行状态
+     */
+    private static final class Execution {
+        private final AITask task;
+        private final AITaskType type;
+        private final long submittedAt = System.currentTimeMillis();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile Thread worker;
+        private volatile ScheduledFuture<?> timeout;
+
+        private Execution(AITask task, AITaskType type) {
+            this.task = task;
+            this.type = type;
+        }
+    }
+}
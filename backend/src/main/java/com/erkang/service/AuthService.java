@@ -3,15 +3,17 @@ package com.erkang.service;
 import com.erkang.common.BusinessException;
 import com.erkang.common.ErrorCode;
 import com.erkang.domain.dto.LoginRequest;
+import com.erkang.domain.dto.UserRolesDTO;
 import com.erkang.domain.entity.User;
 import com.erkang.domain.vo.LoginVO;
 import com.erkang.mapper.UserMapper;
 import com.erkang.security.JwtTokenProvider;
+import com.erkang.security.PasswordHasher;
+import com.erkang.security.PermissionCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * 认证服务
+ * 登录时用户与角色一次查出，密码校验在独立的哈希线程池执行，最后登录信息批量写回
  */
 @Slf4j
 @Service
@@ -29,7 +32,9 @@ public class AuthService {
     private final UserMapper userMapper;
     private final JwtTokenProvider jwtTokenProvider;
     private final RedisTemplate<String, Object> redisTemplate;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHasher passwordHasher;
+    private final LastLoginWriter lastLoginWriter;
+    private final PermissionCache permissionCache;
     
     @Value("${jwt.expiration}")
     private long expiration;
@@ -40,41 +45,40 @@ public class AuthService {
      * 用户登录
      */
     public LoginVO login(LoginRequest request, String ip) {
-        // 查询用户
-        User user = userMapper.selectByUsername(request.getUsername());
+        // 查询用户及角色
+        UserRolesDTO user = userMapper.selectWithRolesByUsername(request.getUsername());
         if (user == null) {
             log.warn("用户不存在: {}", request.getUsername());
             throw new BusinessException(ErrorCode.AUTH_INVALID_CREDENTIALS);
         }
         
         // 检查用户状态
-        if (user.getStatus() != 1) {
+        if (user.getStatus() == null || user.getStatus() != 1) {
             log.warn("用户已禁用: {}", request.getUsername());
             throw new BusinessException(ErrorCode.AUTH_USER_DISABLED);
         }
         
         // 验证密码
-        log.info("验证密码 - 用户: {}, 输入密码: {}, 数据库哈希: {}", 
-                 request.getUsername(), request.getPassword(), user.getPassword());
-        boolean matches = passwordEncoder.matches(request.getPassword(), user.getPassword());
-        log.info("密码验证结果: {}", matches);
-        
-        if (!matches) {
+        PasswordHasher.Verification verification = passwordHasher.verify(request.getPassword(), user.getPassword());
+        if (!verification.matched()) {
             log.warn("密码验证失败: {}", request.getUsername());
             throw new BusinessException(ErrorCode.AUTH_INVALID_CREDENTIALS);
         }
         
-        // 获取用户角色
-        List<String> roles = userMapper.selectRoleCodesByUserId(user.getId());
+        // 哈希成本低于配置时替换为新哈希
+        if (verification.upgradedHash() != null) {
+            userMapper.updatePasswordHash(user.getId(), user.getPassword(), verification.upgradedHash());
+            log.info("密码哈希已升级: userId={}", user.getId());
+        }
+        
+        List<String> roles = user.getRoles();
         
         // 生成Token
         String accessToken = jwtTokenProvider.generateToken(user.getId(), user.getUsername(), roles);
         String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
         
-        // 更新登录信息
-        user.setLastLoginAt(LocalDateTime.now());
-        user.setLastLoginIp(ip);
-        userMapper.updateById(user);
+        // 更新登录信息（批量写回）
+        lastLoginWriter.record(user.getId(), LocalDateTime.now(), ip);
         
         log.info("用户登录成功: userId={}, username={}, ip={}", user.getId(), user.getUsername(), ip);
         
@@ -122,7 +126,7 @@ public class AuthService {
             throw new BusinessException(ErrorCode.AUTH_USER_DISABLED);
         }
         
-        List<String> roles = userMapper.selectRoleCodesByUserId(userId);
+        List<String> roles = permissionCache.getUserRoles(userId);
         String newAccessToken = jwtTokenProvider.generateToken(userId, user.getUsername(), roles);
         String newRefreshToken = jwtTokenProvider.generateRefreshToken(userId);
         
@@ -151,7 +155,7 @@ public class AuthService {
      * 加密密码
      */
     public String encodePassword(String rawPassword) {
-        return passwordEncoder.encode(rawPassword);
+        return passwordHasher.encode(rawPassword);
     }
 
     /**
@@ -162,7 +166,7 @@ public class AuthService {
         if (user == null) {
             throw new BusinessException(ErrorCode.AUTH_USER_NOT_FOUND);
         }
-        List<String> roles = userMapper.selectRoleCodesByUserId(userId);
+        List<String> roles = permissionCache.getUserRoles(userId);
         return com.erkang.domain.vo.UserInfoVO.builder()
                 .id(user.getId())
                 .username(user.getUsername())
@@ -205,11 +209,11 @@ public class AuthService {
             throw new BusinessException(ErrorCode.AUTH_USER_NOT_FOUND);
         }
         // 验证旧密码
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHasher.matches(oldPassword, user.getPassword())) {
             throw new BusinessException(ErrorCode.AUTH_INVALID_CREDENTIALS, "原密码错误");
         }
         // 设置新密码
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHasher.encode(newPassword));
         userMapper.updateById(user);
         log.info("用户修改密码成功: userId={}", userId);
     }
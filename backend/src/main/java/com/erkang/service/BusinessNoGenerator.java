@@ -0,0 +1,225 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.common.utils.Snowflake;
+import com.erkang.config.IdProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 业务编号生成
+ * 编号 = 前缀 + yyyyMMdd + 19位雪花ID（左补零），按生成时间有序、跨节点不重复，作为唯一索引时顺序追加。
+ * 节点号优先取配置；未配置时通过 Redis 租约分配：SET NX 抢占空闲节点号并定期续期，租约失效后拒绝发号并重新抢占。
+ * 续期时同时记录已发出的最大时间，节点号换手后新持有者从该时间之后继续，避免时钟不一致的两台机器先后使用同一节点号时重号
+ */
+@Slf4j
+@Service
+public class BusinessNoGenerator {
+
+    static final int ID_DIGITS = 19;
+    private static final int DATE_DIGITS = 8;
+    // 已发出最大时间的保留时长，远大于机器间可能的时钟偏差
+    private static final long ISSUED_TTL_MS = TimeUnit.DAYS.toMillis(1);
+
+    // 仍持有租约时续期并记录已发出的最大时间
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('pexpire', KEYS[1], ARGV[2]) "
+                    + "redis.call('set', KEYS[2], ARGV[3], 'px', ARGV[4]) "
+                    + "return 1 end return 0", Long.class);
+
+    // 仍持有租约时记录已发出的最大时间并释放
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('set', KEYS[2], ARGV[2], 'px', ARGV[3]) "
+                    + "return redis.call('del', KEYS[1]) end return 0", Long.class);
+
+    private final IdProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final LongSupplier clock;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final String owner = UUID.randomUUID().toString();
+
+    private volatile Snowflake snowflake;
+    // 租约本地有效期：按发出续期请求前的时间计算，早于 Redis 中的实际过期
+    private volatile long leaseValidUntil;
+    private volatile Day day = new Day(0, 0, 0);
+    private ScheduledExecutorService renewer;
+
+    @Autowired
+    public BusinessNoGenerator(IdProperties properties, StringRedisTemplate redisTemplate) {
+        this(properties, redisTemplate, System::currentTimeMillis);
+    }
+
+    BusinessNoGenerator(IdProperties properties, StringRedisTemplate redisTemplate, LongSupplier clock) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (properties.getNodeId() >= 0) {
+            snowflake = new Snowflake(properties.getNodeId(), properties.getMaxClockBackwardMs(), 0, clock);
+            leaseValidUntil = Long.MAX_VALUE;
+            log.info("业务编号节点号: {}（配置）", properties.getNodeId());
+            return;
+        }
+        if (!acquire(0)) {
+            throw new IllegalStateException("没有空闲的业务编号节点号");
+        }
+        renewer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("id-lease-"));
+        renewer.scheduleWithFixedDelay(this::renew, properties.getRenewIntervalMs(),
+                properties.getRenewIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renewer == null) {
+            return;
+        }
+        renewer.shutdownNow();
+        Snowflake current = snowflake;
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(current.nodeId()), issuedKey(current.nodeId())),
+                    owner, String.valueOf(current.issuedUntil()), String.valueOf(ISSUED_TTL_MS));
+        } catch (RuntimeException e) {
+            log.warn("释放业务编号节点号失败: node={}", current.nodeId(), e);
+        }
+    }
+
+    /**
+     * 生成编号，除结果字符串外不产生临时对象
+     */
+    public String next(String prefix) {
+        if (clock.getAsLong() >= leaseValidUntil) {
+            throw new BusinessException(ErrorCode.INTERNAL_ERROR, "业务编号节点号租约已失效");
+        }
+        return format(prefix, snowflake.nextId());
+    }
+
+    /**
+     * 当前节点号
+     */
+    public int nodeId() {
+        return snowflake.nodeId();
+    }
+
+    String format(String prefix, long id) {
+        int length = prefix.length();
+        char[] chars = new char[length + DATE_DIGITS + ID_DIGITS];
+        prefix.getChars(0, length, chars, 0);
+        writeDigits(chars, length + DATE_DIGITS, dateOf(Snowflake.timestampOf(id)), DATE_DIGITS);
+        writeDigits(chars, chars.length, id, ID_DIGITS);
+        return new String(chars);
+    }
+
+    /**
+     * 续期租约；租约已被他人取得时改用新的节点号，Redis 暂时不可用时保留到本地有效期结束
+     */
+    void renew() {
+        Snowflake current = snowflake;
+        long now = clock.getAsLong();
+        try {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT,
+                    List.of(leaseKey(current.nodeId()), issuedKey(current.nodeId())), owner,
+                    String.valueOf(properties.getLeaseTtlMs()), String.valueOf(current.issuedUntil()),
+                    String.valueOf(ISSUED_TTL_MS));
+            if (renewed != null && renewed == 1L) {
+                leaseValidUntil = now + properties.getLeaseTtlMs();
+                return;
+            }
+            log.warn("业务编号节点号租约已丢失: node={}", current.nodeId());
+            leaseValidUntil = 0;
+            if (!acquire(current.issuedUntil())) {
+                log.error("没有空闲的业务编号节点号，暂停发号");
+            }
+        } catch (RuntimeException e) {
+            log.warn("业务编号节点号续期失败: node={}, validFor={}ms", current.nodeId(), leaseValidUntil - now, e);
+        }
+    }
+
+    /**
+     * 从随机位置起抢占空闲节点号
+     */
+    private boolean acquire(long issuedUntil) {
+        int start = ThreadLocalRandom.current().nextInt(Snowflake.MAX_NODE_ID + 1);
+        for (int i = 0; i <= Snowflake.MAX_NODE_ID; i++) {
+            int nodeId = (start + i) & Snowflake.MAX_NODE_ID;
+            long now = clock.getAsLong();
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey(nodeId), owner,
+                    properties.getLeaseTtlMs(), TimeUnit.MILLISECONDS);
+            if (!Boolean.TRUE.equals(acquired)) {
+                continue;
+            }
+            String issued = redisTemplate.opsForValue().get(issuedKey(nodeId));
+            long previous = Math.max(issuedUntil, issued == null ? 0 : Long.parseLong(issued));
+            if (previous - now > properties.getMaxClockBackwardMs()) {
+                // 上一持有者的时钟领先本机过多，换一个节点号
+                redisTemplate.delete(leaseKey(nodeId));
+                continue;
+            }
+            snowflake = new Snowflake(nodeId, properties.getMaxClockBackwardMs(), previous, clock);
+            leaseValidUntil = now + properties.getLeaseTtlMs();
+            log.info("业务编号节点号: {}（租约）", nodeId);
+            return true;
+        }
+        return false;
+    }
+
+    private String leaseKey(int nodeId) {
+        return properties.getLeaseKeyPrefix() + nodeId;
+    }
+
+    private String issuedKey(int nodeId) {
+        return properties.getLeaseKeyPrefix() + nodeId + ":issued";
+    }
+
+    /**
+     * 日期 yyyyMMdd，同一天内复用缓存
+     */
+    private int dateOf(long millis) {
+        Day current = day;
+        if (millis >= current.start && millis < current.end) {
+            return current.yyyyMMdd;
+        }
+        LocalDate date = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+        current = new Day(date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth());
+        day = current;
+        return current.yyyyMMdd;
+    }
+
+    /**
+     * 从 end 向前写入 digits 位十进制数，不足左补零
+     */
+    private static void writeDigits(char[] chars, int end, long value, int digits) {
+        for (int i = end - 1; i >= end - digits; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private record Day(long start, long end, int yyyyMMdd) {
+    }
+}
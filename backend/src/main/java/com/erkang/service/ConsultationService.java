@@ -33,6 +33,8 @@ public class ConsultationService {
     private final AppointmentMapper appointmentMapper;
     private final DoctorProfileMapper doctorProfileMapper;
     private final AuditService auditService;
+    private final BusinessNoGenerator businessNoGenerator;
+    private final StatusTransitionEngine statusTransitionEngine;
     
     /**
      * 创建问诊
@@ -108,18 +110,13 @@ public class ConsultationService {
      */
     @Transactional
     public void startConsultation(Long consultationId) {
-        Consultation consultation = getAndCheckOwnership(consultationId);
+        getAndCheckOwnership(consultationId);
         
-        ConsultationStatus currentStatus = ConsultationStatus.fromCode(consultation.getStatus());
-        if (!currentStatus.canTransitionTo(ConsultationStatus.IN_PROGRESS)) {
-            throw new BusinessException(ErrorCode.CONSULT_STATUS_INVALID, 
-                    "当前状态不允许接诊: " + currentStatus.getName());
-        }
-        
-        consultation.setStatus(ConsultationStatus.IN_PROGRESS.getCode());
-        consultation.setStatusUpdatedAt(LocalDateTime.now());
-        consultation.setStartTime(LocalDateTime.now());
-        consultationMapper.updateById(consultation);
+        transition(StatusTransition.of("Consultation", consultationId)
+                .from(ConsultationStatus.predecessorCodesOf(ConsultationStatus.IN_PROGRESS))
+                .to(ConsultationStatus.IN_PROGRESS.getCode())
+                .stamp("status_updated_at")
+                .stamp("start_time"), "当前状态不允许接诊: ");
         
         auditService.log("START_CONSULTATION", "CONSULTATION", "Consultation", 
                 consultationId, "医生接诊");
@@ -129,34 +126,32 @@ public class ConsultationService {
 
     /**
      * 结束问诊
+     * 时长取自读到的开始时间，以版本号保证期间未发生其他流转
      */
     @Transactional
     public void finishConsultation(Long consultationId) {
         Consultation consultation = getAndCheckOwnership(consultationId);
         
-        ConsultationStatus currentStatus = ConsultationStatus.fromCode(consultation.getStatus());
-        if (!currentStatus.canTransitionTo(ConsultationStatus.FINISHED)) {
-            throw new BusinessException(ErrorCode.CONSULT_STATUS_INVALID,
-                    "当前状态不允许结束: " + currentStatus.getName());
-        }
-        
-        consultation.setStatus(ConsultationStatus.FINISHED.getCode());
-        consultation.setStatusUpdatedAt(LocalDateTime.now());
-        consultation.setEndTime(LocalDateTime.now());
+        StatusTransition transition = StatusTransition.of("Consultation", consultationId)
+                .from(ConsultationStatus.predecessorCodesOf(ConsultationStatus.FINISHED))
+                .to(ConsultationStatus.FINISHED.getCode())
+                .expectVersion(consultation.getVersion())
+                .stamp("status_updated_at")
+                .stamp("end_time");
         
         // 计算时长
+        Integer duration = null;
         if (consultation.getStartTime() != null) {
-            long minutes = java.time.Duration.between(
-                    consultation.getStartTime(), consultation.getEndTime()).toMinutes();
-            consultation.setDuration((int) minutes);
+            duration = (int) java.time.Duration.between(consultation.getStartTime(), transition.getAt()).toMinutes();
+            transition.set("duration", duration);
         }
         
-        consultationMapper.updateById(consultation);
+        transition(transition, "当前状态不允许结束: ");
         
         auditService.log("FINISH_CONSULTATION", "CONSULTATION", "Consultation",
                 consultationId, "问诊结束");
         
-        log.info("问诊结束: consultationId={}, duration={}分钟", consultationId, consultation.getDuration());
+        log.info("问诊结束: consultationId={}, duration={}分钟", consultationId, duration);
     }
     
     /**
@@ -164,17 +159,12 @@ public class ConsultationService {
      */
     @Transactional
     public void cancelConsultation(Long consultationId, String reason) {
-        Consultation consultation = getAndCheckOwnership(consultationId);
-        
-        ConsultationStatus currentStatus = ConsultationStatus.fromCode(consultation.getStatus());
-        if (!currentStatus.canTransitionTo(ConsultationStatus.CANCELED)) {
-            throw new BusinessException(ErrorCode.CONSULT_STATUS_INVALID,
-                    "当前状态不允许取消: " + currentStatus.getName());
-        }
+        getAndCheckOwnership(consultationId);
         
-        consultation.setStatus(ConsultationStatus.CANCELED.getCode());
-        consultation.setStatusUpdatedAt(LocalDateTime.now());
-        consultationMapper.updateById(consultation);
+        transition(StatusTransition.of("Consultation", consultationId)
+                .from(ConsultationStatus.predecessorCodesOf(ConsultationStatus.CANCELED))
+                .to(ConsultationStatus.CANCELED.getCode())
+                .stamp("status_updated_at"), "当前状态不允许取消: ");
         
         auditService.log("CANCEL_CONSULTATION", "CONSULTATION", "Consultation",
                 consultationId, "取消问诊: " + reason);
@@ -182,6 +172,22 @@ public class ConsultationService {
         log.info("取消问诊: consultationId={}, reason={}", consultationId, reason);
     }
     
+    /**
+     * 执行状态流转，未生效时按最新状态报错
+     */
+    private void transition(StatusTransition transition, String rejectedMessage) {
+        if (statusTransitionEngine.apply(consultationMapper, transition)) {
+            return;
+        }
+        Consultation current = consultationMapper.selectById(transition.getId());
+        if (current == null) {
+            throw new BusinessException(ErrorCode.CONSULT_NOT_FOUND);
+        }
+        ConsultationStatus currentStatus = ConsultationStatus.fromCode(current.getStatus());
+        throw new BusinessException(ErrorCode.CONSULT_STATUS_INVALID,
+                rejectedMessage + (currentStatus == null ? current.getStatus() : currentStatus.getName()));
+    }
+    
     /**
      * 获取问诊详情并校验归属
      */
@@ -207,8 +213,7 @@ public class ConsultationService {
      * 生成问诊编号
      */
     private String generateConsultationNo() {
-        return "C" + System.currentTimeMillis() + 
-               String.format("%04d", (int)(Math.random() * 10000));
+        return businessNoGenerator.next("C");
     }
     
     /**
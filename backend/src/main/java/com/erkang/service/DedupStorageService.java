@@ -0,0 +1,258 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.FileBlob;
+import com.erkang.domain.entity.FileBlobRef;
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.integration.storage.LocalObjectCache;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.FileBlobMapper;
+import com.erkang.mapper.FileBlobRefMapper;
+import com.erkang.mapper.FileOwnerMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * 内容寻址去重存储
+ * 上传内容按 SHA-256 存放在固定对象名下，相同内容只存一份、按引用数回收；
+ * 客户端可先按哈希秒传，但只能引用自己上传过的内容，未上传过的需上传文件证明持有
+ */
+@Slf4j
+@Service
+public class DedupStorageService {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final MinioService minioService;
+    private final FileBlobMapper blobMapper;
+    private final FileBlobRefMapper refMapper;
+    private final FileOwnerMapper ownerMapper;
+    private final PresignedUrlCache presignedUrlCache;
+    private final LocalObjectCache localObjectCache;
+    private final StorageProperties.Dedup properties;
+    private final Counter hitCounter;
+    private final Counter savedBytesCounter;
+
+    public DedupStorageService(MinioService minioService, FileBlobMapper blobMapper, FileBlobRefMapper refMapper,
+                               FileOwnerMapper ownerMapper, PresignedUrlCache presignedUrlCache,
+                               LocalObjectCache localObjectCache, StorageProperties storageProperties,
+                               MeterRegistry meterRegistry) {
+        this.minioService = minioService;
+        this.blobMapper = blobMapper;
+        this.refMapper = refMapper;
+        this.ownerMapper = ownerMapper;
+        this.presignedUrlCache = presignedUrlCache;
+        this.localObjectCache = localObjectCache;
+        this.properties = storageProperties.getDedup();
+        this.hitCounter = meterRegistry.counter("erkang.storage.dedup.hits");
+        this.savedBytesCounter = meterRegistry.counter("erkang.storage.dedup.saved.bytes");
+    }
+
+    /**
+     * 存储结果
+     * @param deduplicated 内容已存在，本次未写入对象存储
+     */
+    public record StoredFile(String objectName, String sha256, long fileSize, boolean deduplicated) {
+    }
+
+    /**
+     * 上传文件；内容已存在时只增加引用
+     * 上传的文件已由容器缓存在本地，先在本地计算哈希，重复内容不再写入对象存储
+     */
+    public StoredFile store(Long userId, MultipartFile file, String category) {
+        if (!properties.isEnabled()) {
+            String objectName = minioService.uploadFile(file, category);
+            ownerMapper.record(objectName, userId, FileOwner.SOURCE_UPLOAD);
+            return new StoredFile(objectName, null, file.getSize(), false);
+        }
+        String sha256;
+        try (InputStream in = file.getInputStream()) {
+            sha256 = sha256(in);
+        } catch (IOException e) {
+            log.error("读取上传文件失败", e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件上传失败: " + e.getMessage());
+        }
+
+        String objectName = objectName(sha256);
+        // 先占用内容记录再写对象：持有引用期间，释放流程不会删除该对象
+        boolean created = acquire(sha256, objectName, file.getSize(), file.getContentType());
+        boolean written = false;
+        try {
+            // 引用已有内容时首个上传者可能仍在写入，对象缺失则由本次上传补齐
+            if (created || !minioService.exists(objectName)) {
+                try (InputStream in = file.getInputStream()) {
+                    minioService.putStream(objectName, in, file.getSize(), file.getContentType());
+                }
+                written = true;
+            }
+            addRef(sha256, userId, file.getOriginalFilename(), category);
+        } catch (IOException e) {
+            releaseBlob(sha256, objectName);
+            log.error("读取上传文件失败", e);
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "文件上传失败: " + e.getMessage());
+        } catch (RuntimeException e) {
+            releaseBlob(sha256, objectName);
+            throw e;
+        }
+        boolean deduplicated = !written;
+        if (deduplicated) {
+            hitCounter.increment();
+            savedBytesCounter.increment(file.getSize());
+        }
+        log.info("文件存储: userId={}, object={}, size={}, deduplicated={}",
+                userId, objectName, file.getSize(), deduplicated);
+        return new StoredFile(objectName, sha256, file.getSize(), deduplicated);
+    }
+
+    /**
+     * 按哈希秒传：内容已存在、大小一致且当前用户上传过该内容时直接引用
+     * @return 引用成功时返回存储结果，否则返回 null（客户端需上传文件）
+     */
+    public StoredFile claim(Long userId, String sha256, Long fileSize, String fileName, String category) {
+        String hash = sha256 == null ? "" : sha256.toLowerCase();
+        if (!SHA256_HEX.matcher(hash).matches()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "文件哈希格式错误");
+        }
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        FileBlob blob = blobMapper.selectBySha256(hash);
+        if (blob == null || !blob.getFileSize().equals(fileSize)
+                || refMapper.countByUploader(hash, userId) == 0
+                || blobMapper.incrementRef(hash) == 0) {
+            return null;
+        }
+        hitCounter.increment();
+        savedBytesCounter.increment(blob.getFileSize());
+        addRef(hash, userId, fileName, category);
+        log.info("按哈希秒传: userId={}, object={}", userId, blob.getObjectName());
+        return new StoredFile(blob.getObjectName(), hash, blob.getFileSize(), true);
+    }
+
+    /**
+     * 释放上传者的一次引用，引用数归零时删除对象
+     * @return 是否为去重对象（非去重对象由调用方按普通文件处理）
+     */
+    public boolean release(String objectName, Long uploaderId) {
+        FileBlob blob = blobMapper.selectByObjectName(objectName);
+        if (blob == null) {
+            return false;
+        }
+        if (uploaderId == null) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "去重文件需指定上传者");
+        }
+        String sha256 = blob.getSha256();
+        // 只删除该上传者自己的引用，引用删除成功才减少引用数，避免引用记录与引用数不一致
+        if (refMapper.deleteOneByUploader(sha256, uploaderId) == 0) {
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "该用户未引用此文件");
+        }
+        releaseBlob(sha256, objectName);
+        return true;
+    }
+
+    /**
+     * 占用内容记录：内容已存在时增加引用，否则登记新内容（引用数为1）
+     * @return 是否由本次登记；内容正在删除时拒绝，客户端稍后重试
+     */
+    private boolean acquire(String sha256, String objectName, long size, String contentType) {
+        if (blobMapper.incrementRef(sha256) == 1) {
+            return false;
+        }
+        FileBlob blob = new FileBlob();
+        blob.setSha256(sha256);
+        blob.setObjectName(objectName);
+        blob.setFileSize(size);
+        blob.setContentType(contentType);
+        blob.setRefCount(1);
+        blob.setCreatedAt(LocalDateTime.now());
+        blob.setUpdatedAt(LocalDateTime.now());
+        try {
+            blobMapper.insert(blob);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // 并发上传相同内容时后到者改为增加引用；记录仍在则说明正在删除
+            if (blobMapper.incrementRef(sha256) == 0) {
+                throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 减少一次引用；本次减到0且标记删除成功时才删除对象，标记期间的新上传不会引用该内容。
+     * 对象删除后同时清除签名缓存与本地副本，同一哈希重新上传前不会再读到旧内容
+     */
+    private void releaseBlob(String sha256, String objectName) {
+        if (blobMapper.decrementRef(sha256) == 0) {
+            log.warn("去重对象引用数已为0: {}", objectName);
+            return;
+        }
+        if (blobMapper.markDeleting(sha256) == 1) {
+            minioService.deleteFile(objectName);
+            presignedUrlCache.invalidate(objectName);
+            localObjectCache.invalidate(objectName);
+            blobMapper.deleteMarked(sha256);
+            log.info("去重对象已删除: {}", objectName);
+        }
+    }
+
+    private void addRef(String sha256, Long userId, String fileName, String category) {
+        FileBlobRef ref = new FileBlobRef();
+        ref.setSha256(sha256);
+        ref.setUploaderId(userId);
+        ref.setFileName(fileName);
+        ref.setCategory(category);
+        ref.setCreatedAt(LocalDateTime.now());
+        refMapper.insert(ref);
+    }
+
+    /**
+     * 内容对象名：前缀/哈希前两位/哈希
+     */
+    String objectName(String sha256) {
+        return properties.getPrefix() + "/" + sha256.substring(0, 2) + "/" + sha256;
+    }
+
+    /**
+     * 去重对象的内容哈希，非去重对象返回 null
+     */
+    public String sha256Of(String objectName) {
+        String prefix = properties.getPrefix() + "/";
+        if (objectName == null || !objectName.startsWith(prefix)) {
+            return null;
+        }
+        String hash = objectName.substring(objectName.lastIndexOf('/') + 1);
+        return SHA256_HEX.matcher(hash).matches() && objectName.equals(objectName(hash)) ? hash : null;
+    }
+
+    static String sha256(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
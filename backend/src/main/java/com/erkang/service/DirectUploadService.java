@@ -0,0 +1,179 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.dto.CompleteDirectUploadRequest;
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.domain.entity.MedicalAttachment;
+import com.erkang.domain.entity.MedicalRecord;
+import com.erkang.domain.vo.DirectUploadVO;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.ObjectInfo;
+import com.erkang.mapper.FileOwnerMapper;
+import com.erkang.mapper.MedicalRecordMapper;
+import com.erkang.security.DataScopeHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 浏览器直传服务
+ * 签发带对象名、内容类型与大小约束的 POST 表单，文件由浏览器直接上传到对象存储；
+ * 上传完成后按上传凭证核对对象元数据并登记病历附件，文件内容不经过应用服务器
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DirectUploadService {
+
+    private static final String TICKET_PREFIX = "file:direct-upload:";
+
+    private final MinioService minioService;
+    private final StringRedisTemplate redisTemplate;
+    private final StorageProperties storageProperties;
+    private final MedicalRecordMapper recordMapper;
+    private final MedicalRecordService recordService;
+    private final FileOwnerMapper fileOwnerMapper;
+
+    /**
+     * 签发直传表单，并记录上传凭证（上传者、内容类型、大小、文件名）
+     */
+    public DirectUploadVO presign(Long userId, String fileName, Long fileSize, String contentType, String category) {
+        StorageProperties.Direct config = storageProperties.getDirect();
+        if (fileSize == null || fileSize <= 0) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "文件大小无效");
+        }
+        if (fileSize > config.getMaxFileSize()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "文件超过大小上限");
+        }
+        if (contentType == null || contentType.isBlank()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "内容类型不能为空");
+        }
+        // 未配置时使用默认列表，不允许任意类型（如 text/html）经直传进入存储
+        List<String> allowed = config.getAllowedContentTypes();
+        if (allowed == null || allowed.isEmpty()) {
+            allowed = StorageProperties.Direct.DEFAULT_CONTENT_TYPES;
+        }
+        if (!allowed.contains(contentType)) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "不支持的文件类型: " + contentType);
+        }
+
+        String objectName = MinioService.generateObjectName(fileName, category);
+        int expireMinutes = config.getExpireMinutes();
+        var formData = minioService.getPresignedPostFormData(objectName, contentType, fileSize, expireMinutes);
+        Ticket ticket = new Ticket(userId, fileSize, contentType, fileName);
+        redisTemplate.opsForValue().set(TICKET_PREFIX + objectName, ticket.encode(),
+                expireMinutes + config.getCompleteGraceMinutes(), TimeUnit.MINUTES);
+        // 登记附件前上传者也需要能预览自己上传的文件
+        fileOwnerMapper.record(objectName, userId, FileOwner.SOURCE_DIRECT);
+
+        return DirectUploadVO.builder()
+                .objectName(objectName)
+                .uploadUrl(minioService.getPostUploadUrl())
+                .formData(formData)
+                .fileSize(fileSize)
+                .contentType(contentType)
+                .expiresAt(LocalDateTime.now().plusMinutes(expireMinutes))
+                .build();
+    }
+
+    /**
+     * 上传完成后登记病历附件
+     * 登记者须为病历所属患者、接诊医生或管理员；对象大小与内容类型须与签发时一致，否则删除对象；每个凭证只能登记一次
+     */
+    public MedicalAttachment complete(Long userId, CompleteDirectUploadRequest request) {
+        String key = TICKET_PREFIX + request.getObjectName();
+        String encoded = redisTemplate.opsForValue().get(key);
+        if (encoded == null) {
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "上传凭证不存在或已过期");
+        }
+        Ticket ticket = Ticket.decode(encoded);
+        if (!ticket.uploaderId().equals(userId)) {
+            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED);
+        }
+        MedicalRecord record = recordMapper.selectById(request.getRecordId());
+        if (record == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "病历不存在");
+        }
+        // 只能登记到本人的病历或本人接诊的病历
+        if (!userId.equals(record.getPatientId()) && !userId.equals(record.getDoctorId())
+                && !DataScopeHelper.isAdmin()) {
+            throw new BusinessException(ErrorCode.AUTH_DATA_SCOPE_DENIED);
+        }
+
+        ObjectInfo stat = minioService.statObject(request.getObjectName());
+        if (stat.size() != ticket.fileSize() || !ticket.contentType().equals(stat.contentType())) {
+            // 策略已限定大小与类型，不一致说明对象被绕过表单写入，直接删除
+            redisTemplate.delete(key);
+            minioService.deleteFile(request.getObjectName());
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "上传的文件与申请不一致");
+        }
+        // 删除凭证成功者登记，重复提交不会产生多条附件
+        if (!Boolean.TRUE.equals(redisTemplate.delete(key))) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "该文件已登记");
+        }
+
+        MedicalAttachment attachment = new MedicalAttachment();
+        attachment.setRecordId(record.getId());
+        attachment.setConsultationId(record.getConsultationId());
+        attachment.setPatientId(record.getPatientId());
+        attachment.setFileName(ticket.fileName());
+        attachment.setFileType(stat.contentType());
+        attachment.setFileSize(stat.size());
+        attachment.setFileUrl(request.getObjectName());
+        attachment.setCategory(request.getCategory());
+        attachment.setDescription(request.getDescription());
+        attachment.setUploaderId(userId);
+        try {
+            recordService.addAttachment(attachment);
+        } catch (RuntimeException e) {
+            // 登记失败时恢复凭证，客户端可重试
+            redisTemplate.opsForValue().set(key, encoded,
+                    storageProperties.getDirect().getCompleteGraceMinutes(), TimeUnit.MINUTES);
+            throw e;
+        }
+        log.info("直传附件已登记: recordId={}, objectName={}, size={}",
+                record.getId(), request.getObjectName(), stat.size());
+        return attachment;
+    }
+
+    /**
+     * 上传凭证：上传者ID、大小、内容类型、文件名依次编码为 长度:内容，任何字段都可以含任意字符
+     */
+    record Ticket(Long uploaderId, long fileSize, String contentType, String fileName) {
+
+        String encode() {
+            StringBuilder sb = new StringBuilder();
+            for (String field : new String[]{String.valueOf(uploaderId), String.valueOf(fileSize), contentType,
+                    fileName == null ? "" : fileName}) {
+                sb.append(field.length()).append(':').append(field);
+            }
+            return sb.toString();
+        }
+
+        static Ticket decode(String value) {
+            String[] fields = new String[4];
+            int pos = 0;
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    int colon = value.indexOf(':', pos);
+                    int end = colon + 1 + Integer.parseInt(value.substring(pos, colon));
+                    fields[i] = value.substring(colon + 1, end);
+                    pos = end;
+                }
+                if (pos != value.length()) {
+                    throw new IllegalArgumentException("trailing data");
+                }
+                return new Ticket(Long.valueOf(fields[0]), Long.parseLong(fields[1]), fields[2], fields[3]);
+            } catch (RuntimeException e) {
+                throw new BusinessException(ErrorCode.PARAM_ERROR, "上传凭证无效");
+            }
+        }
+    }
+}
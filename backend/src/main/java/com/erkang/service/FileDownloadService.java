@@ -0,0 +1,214 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.integration.storage.FileTransfer;
+import com.erkang.integration.storage.LocalObjectCache;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.ObjectInfo;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * 流式下载服务
+ * 对象存储的响应经固定大小的缓冲区直接写入响应输出流，不整体读入内存；
+ * 支持 Range（206 断点/拖动播放）、ETag 与 If-None-Match（304）；热点对象经本地磁盘缓存读取
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileDownloadService {
+
+    private final MinioService minioService;
+    private final LocalObjectCache localObjectCache;
+    private final StorageProperties storageProperties;
+
+    /**
+     * 将对象写入响应
+     * 存储后端在本地（文件系统后端）或本地缓存命中时直接从文件发送；未命中的完整下载顺带写入本地缓存
+     * @param objectName 对象名称
+     */
+    public void download(String objectName, HttpServletRequest request, HttpServletResponse response) {
+        Path localFile = minioService.localPath(objectName);
+        LocalObjectCache.CachedObject cached = localFile == null ? localObjectCache.lookup(objectName) : null;
+        ObjectInfo info = cached != null ? cached.info() : minioService.statObject(objectName);
+        long size = info.size();
+        String etag = quoteEtag(info.etag());
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (info.lastModified() != null) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, info.lastModified().toEpochMilli());
+        }
+        if (etag != null && etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ByteRange range = null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range 与当前版本不一致时忽略 Range，返回完整内容
+        if (ifRange == null || (etag != null && ifRange.trim().equals(etag))) {
+            range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size);
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+
+        response.setContentType(info.contentType() != null ? info.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(fileName(objectName), StandardCharsets.UTF_8).build().toString());
+        long start = 0;
+        long length = size;
+        if (range != null) {
+            start = range.start();
+            length = range.length();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + size);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        response.setContentLengthLong(length);
+
+        int bufferSize = storageProperties.getDownload().getBufferSize();
+        try {
+            if (localFile != null) {
+                FileTransfer.send(localFile, start, length, request, response);
+            } else if (cached != null) {
+                localObjectCache.transfer(cached, start, length, request, response);
+            } else if (range == null) {
+                try (InputStream in = minioService.downloadFile(objectName)) {
+                    localObjectCache.copyAndStore(objectName, info, in, response.getOutputStream(), bufferSize);
+                }
+            } else {
+                try (InputStream in = minioService.downloadRange(objectName, start, length)) {
+                    copy(in, response.getOutputStream(), bufferSize);
+                }
+            }
+        } catch (IOException e) {
+            if (response.isCommitted()) {
+                // 客户端中断（拖动进度、关闭预览）属于正常情况
+                log.debug("下载中断: object={}, reason={}", objectName, e.getMessage());
+                return;
+            }
+            log.error("文件下载失败: {}", objectName, e);
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "文件不存在或无法访问");
+        }
+    }
+
+    /**
+     * 以固定大小的缓冲区转发
+     */
+    static long copy(InputStream in, OutputStream out, int bufferSize) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            total += n;
+        }
+        out.flush();
+        return total;
+    }
+
+    static String quoteEtag(String etag) {
+        if (etag == null || etag.isEmpty()) {
+            return null;
+        }
+        return etag.startsWith("\"") || etag.startsWith("W/") ? etag : "\"" + etag + "\"";
+    }
+
+    /**
+     * If-None-Match 是否命中（弱比较）
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String fileName(String objectName) {
+        return objectName.substring(objectName.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * 单个字节区间（含首尾）
+     */
+    record ByteRange(long start, long end) {
+
+        /** 区间无法满足，返回 416 */
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        long length() {
+            return end - start + 1;
+        }
+
+        /**
+         * 解析 Range 请求头
+         * 无该头、格式无法识别或包含多个区间时返回 null（按完整内容响应）
+         */
+        static ByteRange parse(String header, long size) {
+            if (header == null || !header.startsWith("bytes=")) {
+                return null;
+            }
+            String spec = header.substring("bytes=".length()).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0 || spec.indexOf(',') >= 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // bytes=-N：最后 N 个字节
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || size == 0) {
+                        return UNSATISFIABLE;
+                    }
+                    return new ByteRange(Math.max(0, size - suffix), size - 1);
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+                if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                    return null;
+                }
+                if (start >= size) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(start, end);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
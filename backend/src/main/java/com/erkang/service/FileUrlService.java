@@ -0,0 +1,191 @@
+package com.erkang.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.FileBlobRef;
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.domain.entity.FileUpload;
+import com.erkang.domain.entity.MedicalAttachment;
+import com.erkang.domain.enums.FileUploadStatus;
+import com.erkang.domain.enums.RoleEnum;
+import com.erkang.domain.vo.PresignedUrlVO;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.FileBlobRefMapper;
+import com.erkang.mapper.FileOwnerMapper;
+import com.erkang.mapper.FileUploadMapper;
+import com.erkang.mapper.MedicalAttachmentMapper;
+import com.erkang.security.LoginUser;
+import com.erkang.security.UserContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 文件访问链接服务
+ * 批量签发预签名下载URL：先按对象批量校验访问权限（每类关联数据一次查询），再从签名缓存取URL；
+ * 按对象名读取的其他接口（下载等）使用同一套访问规则
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileUrlService {
+
+    private static final int UNRESTRICTED_MASK =
+            RoleEnum.ADMIN.mask() | RoleEnum.DOCTOR_MASK | RoleEnum.PHARMACIST.mask();
+
+    private final PresignedUrlCache presignedUrlCache;
+    private final MedicalAttachmentMapper attachmentMapper;
+    private final FileBlobRefMapper blobRefMapper;
+    private final FileUploadMapper fileUploadMapper;
+    private final FileOwnerMapper fileOwnerMapper;
+    private final DedupStorageService dedupStorageService;
+    private final StorageProperties storageProperties;
+
+    /**
+     * 获取单个对象的预签名下载URL，无权访问时拒绝
+     */
+    public String presign(String objectName, int expireMinutes) {
+        checkExpireMinutes(expireMinutes);
+        checkAccess(objectName);
+        return presignedUrlCache.get(objectName, expireMinutes).url();
+    }
+
+    /**
+     * 批量获取预签名下载URL，结果与请求顺序一致，无权访问的对象不返回URL
+     */
+    public List<PresignedUrlVO> presignBatch(List<String> objectNames, int expireMinutes) {
+        StorageProperties.Presign config = storageProperties.getPresign();
+        if (objectNames == null || objectNames.isEmpty()) {
+            return List.of();
+        }
+        if (objectNames.size() > config.getMaxBatchSize()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "单次最多签发" + config.getMaxBatchSize() + "个链接");
+        }
+        checkExpireMinutes(expireMinutes);
+
+        Set<String> accessible = accessibleObjects(UserContext.getUser(), new LinkedHashSet<>(objectNames));
+        List<String> allowed = objectNames.stream().filter(accessible::contains).toList();
+        Map<String, PresignedUrlCache.Signed> signed = presignedUrlCache.getAll(allowed, expireMinutes);
+
+        List<PresignedUrlVO> result = new ArrayList<>(objectNames.size());
+        for (String objectName : objectNames) {
+            PresignedUrlCache.Signed url = signed.get(objectName);
+            result.add(url == null
+                    ? new PresignedUrlVO(objectName, null, null)
+                    : new PresignedUrlVO(objectName, url.url(), LocalDateTime.ofInstant(
+                            Instant.ofEpochMilli(url.expiresAt()), ZoneId.systemDefault())));
+        }
+        if (allowed.size() < objectNames.size()) {
+            log.warn("批量签名中有无权访问的对象: userId={}, denied={}",
+                    UserContext.getUserId(), objectNames.size() - allowed.size());
+        }
+        return result;
+    }
+
+    /**
+     * 校验当前用户能否访问指定对象，无权访问时拒绝
+     */
+    public void checkAccess(String objectName) {
+        if (objectName == null || objectName.isBlank()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "对象名称不能为空");
+        }
+        if (accessibleObjects(UserContext.getUser(), Set.of(objectName)).isEmpty()) {
+            log.warn("无权访问对象: userId={}, objectName={}", UserContext.getUserId(), objectName);
+            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED);
+        }
+    }
+
+    private void checkExpireMinutes(int expireMinutes) {
+        if (expireMinutes <= 0 || expireMinutes > storageProperties.getPresign().getMaxExpireMinutes()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "过期时间无效");
+        }
+    }
+
+    /**
+     * 批量计算可访问的对象
+     * 管理员、医生与药师不限制（与 DataScopeHelper 一致，具体业务另行校验）；
+     * 患者只能访问属于自己或由自己上传的病历附件（含其缩略图）、自己上传过的去重内容，
+     * 以及尚未登记为附件的自己的上传（分片上传按上传任务，普通上传、直传与预签名上传按 file_owner）
+     */
+    Set<String> accessibleObjects(LoginUser user, Set<String> objectNames) {
+        if (user == null) {
+            throw new BusinessException(ErrorCode.UNAUTHORIZED);
+        }
+        if (!user.hasRole(RoleEnum.PATIENT) || user.hasAnyRole(UNRESTRICTED_MASK)) {
+            return objectNames;
+        }
+        Long userId = user.getUserId();
+
+        // 缩略图按原图校验
+        Map<String, String> originals = new HashMap<>();
+        Map<String, String> hashes = new HashMap<>();
+        for (String objectName : objectNames) {
+            String original = ThumbnailService.originalObjectName(objectName);
+            originals.put(objectName, original);
+            String sha256 = dedupStorageService.sha256Of(original);
+            if (sha256 != null) {
+                hashes.put(original, sha256);
+            }
+        }
+
+        Set<String> ownedOriginals = new HashSet<>();
+        List<MedicalAttachment> attachments = attachmentMapper.selectList(new LambdaQueryWrapper<MedicalAttachment>()
+                .in(MedicalAttachment::getFileUrl, new HashSet<>(originals.values())));
+        for (MedicalAttachment attachment : attachments) {
+            if (userId.equals(attachment.getPatientId()) || userId.equals(attachment.getUploaderId())) {
+                ownedOriginals.add(attachment.getFileUrl());
+            }
+        }
+        if (!hashes.isEmpty()) {
+            Set<String> ownedHashes = new HashSet<>();
+            blobRefMapper.selectList(new LambdaQueryWrapper<FileBlobRef>()
+                            .eq(FileBlobRef::getUploaderId, userId)
+                            .in(FileBlobRef::getSha256, new HashSet<>(hashes.values())))
+                    .forEach(ref -> ownedHashes.add(ref.getSha256()));
+            hashes.forEach((original, sha256) -> {
+                if (ownedHashes.contains(sha256)) {
+                    ownedOriginals.add(original);
+                }
+            });
+        }
+
+        // 前两类都未命中的，再按上传记录校验
+        Set<String> pending = new HashSet<>(originals.values());
+        pending.removeAll(ownedOriginals);
+        if (!pending.isEmpty()) {
+            fileUploadMapper.selectList(new LambdaQueryWrapper<FileUpload>()
+                            .eq(FileUpload::getUploaderId, userId)
+                            .eq(FileUpload::getStatus, FileUploadStatus.COMPLETED.getCode())
+                            .in(FileUpload::getObjectName, pending))
+                    .forEach(upload -> ownedOriginals.add(upload.getObjectName()));
+            pending.removeAll(ownedOriginals);
+        }
+        if (!pending.isEmpty()) {
+            fileOwnerMapper.selectList(new LambdaQueryWrapper<FileOwner>()
+                            .eq(FileOwner::getUploaderId, userId)
+                            .in(FileOwner::getObjectName, pending))
+                    .forEach(owner -> ownedOriginals.add(owner.getObjectName()));
+        }
+
+        Set<String> accessible = new HashSet<>();
+        for (String objectName : objectNames) {
+            if (ownedOriginals.contains(originals.get(objectName))) {
+                accessible.add(objectName);
+            }
+        }
+        return accessible;
+    }
+}
@@ -1,10 +1,12 @@
 package com.erkang.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.erkang.common.BusinessException;
 import com.erkang.common.ErrorCode;
 import com.erkang.domain.entity.FollowupPlan;
 import com.erkang.domain.entity.FollowupRecord;
+import com.erkang.domain.enums.ScreeningCategory;
 import com.erkang.mapper.FollowupPlanMapper;
 import com.erkang.mapper.FollowupRecordMapper;
 import com.erkang.security.Auditable;
@@ -15,9 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 随访服务
@@ -30,6 +30,9 @@ public class FollowupService {
 
     private final FollowupPlanMapper followupPlanMapper;
     private final FollowupRecordMapper followupRecordMapper;
+    private final ScreeningService screeningService;
+    private final BusinessNoGenerator businessNoGenerator;
+    private final StatusTransitionEngine statusTransitionEngine;
 
     /**
      * 创建随访计划
@@ -89,39 +92,49 @@ public class FollowupService {
             throw new BusinessException(ErrorCode.FOLLOWUP_RECORD_NOT_FOUND);
         }
         
-        if (!"PENDING".equals(record.getStatus())) {
-            throw new BusinessException(ErrorCode.PARAM_ERROR, "随访记录状态不允许此操作");
-        }
-        
         record.setSymptoms(symptoms);
         record.setAnswers(answers);
-        record.setStatus("SUBMITTED");
-        record.setSubmittedAt(LocalDateTime.now());
-        record.setUpdatedAt(LocalDateTime.now());
         
         // 检测红旗征象
         boolean hasRedFlag = detectRedFlags(record);
         record.setHasRedFlag(hasRedFlag);
         
-        followupRecordMapper.updateById(record);
+        StatusTransition transition = StatusTransition.of("FollowupRecord", recordId)
+                .from("PENDING")
+                .to("SUBMITTED")
+                .stamp("submitted_at")
+                .set("symptoms", symptoms)
+                .set("answers", answers)
+                .set("has_red_flag", hasRedFlag)
+                .set("red_flag_detail", record.getRedFlagDetail());
+        if (!statusTransitionEngine.apply(followupRecordMapper, transition)) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "随访记录状态不允许此操作");
+        }
+        record.setStatus("SUBMITTED");
+        record.setSubmittedAt(transition.getAt());
+        record.setUpdatedAt(transition.getAt());
         
         // 更新计划完成次数
         FollowupPlan plan = followupPlanMapper.selectById(record.getPlanId());
         if (plan != null) {
-            plan.setCompletedTimes(plan.getCompletedTimes() + 1);
+            UpdateWrapper<FollowupPlan> progress = new UpdateWrapper<>();
+            progress.setSql("completed_times = completed_times + 1")
+                    .set("updated_at", transition.getAt())
+                    .eq("id", plan.getId());
             
             // 更新下次随访日期
             if (plan.getIntervalDays() != null && plan.getIntervalDays() > 0) {
-                plan.setNextFollowupDate(LocalDate.now().plusDays(plan.getIntervalDays()));
+                progress.set("next_followup_date", LocalDate.now().plusDays(plan.getIntervalDays()));
             }
+            followupPlanMapper.update(null, progress);
             
-            // 检查是否完成所有随访
-            if (plan.getTotalTimes() != null && plan.getCompletedTimes() >= plan.getTotalTimes()) {
-                plan.setStatus("COMPLETED");
+            // 检查是否完成所有随访：以累加后的次数为准，已取消的计划不受影响
+            if (plan.getTotalTimes() != null) {
+                statusTransitionEngine.apply(followupPlanMapper, StatusTransition.of("FollowupPlan", plan.getId())
+                        .from("ACTIVE")
+                        .to("COMPLETED")
+                        .where("completed_times >= total_times"));
             }
-            
-            plan.setUpdatedAt(LocalDateTime.now());
-            followupPlanMapper.updateById(plan);
         }
         
         log.info("提交随访记录: recordNo={}, hasRedFlag={}", record.getRecordNo(), hasRedFlag);
@@ -133,52 +146,37 @@ public class FollowupService {
      * _Requirements: 8.5_
      */
     private boolean detectRedFlags(FollowupRecord record) {
-        if (record.getSymptoms() == null) {
-            return false;
-        }
-        
-        String symptoms = record.getSymptoms().toLowerCase();
-        
-        // 耳鼻喉科常见红旗征象关键词
-        String[] redFlagKeywords = {
-            "剧烈疼痛", "高烧", "出血", "呼吸困难", "吞咽困难",
-            "听力急剧下降", "面瘫", "眩晕", "恶心呕吐", "意识模糊",
-            "severe pain", "high fever", "bleeding", "difficulty breathing"
-        };
-        
-        for (String keyword : redFlagKeywords) {
-            if (symptoms.contains(keyword.toLowerCase())) {
-                record.setRedFlagDetail("检测到红旗征象: " + keyword);
-                return true;
-            }
+        String keyword = screeningService.findFirstKeyword(ScreeningCategory.RED_FLAG, record.getSymptoms());
+        if (keyword != null) {
+            record.setRedFlagDetail("检测到红旗征象: " + keyword);
+            return true;
         }
-        
         return false;
     }
 
+
     /**
      * 医生审阅随访记录
      */
     @Transactional
     @Auditable(action = "REVIEW_FOLLOWUP_RECORD", module = "followup")
     public FollowupRecord reviewRecord(Long recordId, Long reviewerId, String comment, String nextAction) {
+        boolean applied = statusTransitionEngine.apply(followupRecordMapper,
+                StatusTransition.of("FollowupRecord", recordId)
+                        .from("SUBMITTED")
+                        .to("REVIEWED")
+                        .stamp("reviewed_at")
+                        .set("reviewer_id", reviewerId)
+                        .set("doctor_comment", comment)
+                        .set("next_action", nextAction));
         FollowupRecord record = followupRecordMapper.selectById(recordId);
         if (record == null) {
             throw new BusinessException(ErrorCode.FOLLOWUP_RECORD_NOT_FOUND);
         }
-        
-        if (!"SUBMITTED".equals(record.getStatus())) {
+        if (!applied) {
             throw new BusinessException(ErrorCode.PARAM_ERROR, "随访记录状态不允许此操作");
         }
         
-        record.setReviewerId(reviewerId);
-        record.setDoctorComment(comment);
-        record.setNextAction(nextAction);
-        record.setStatus("REVIEWED");
-        record.setReviewedAt(LocalDateTime.now());
-        record.setUpdatedAt(LocalDateTime.now());
-        followupRecordMapper.updateById(record);
-        
         // 如果有红旗征象，触发提前复诊提醒
         if (Boolean.TRUE.equals(record.getHasRedFlag())) {
             triggerEarlyRevisitReminder(record);
@@ -203,19 +201,16 @@ public class FollowupService {
     @Transactional
     @Auditable(action = "CANCEL_FOLLOWUP_PLAN", module = "followup")
     public FollowupPlan cancelPlan(Long planId) {
+        boolean applied = statusTransitionEngine.apply(followupPlanMapper,
+                StatusTransition.of("FollowupPlan", planId).from("ACTIVE").to("CANCELED"));
         FollowupPlan plan = followupPlanMapper.selectById(planId);
         if (plan == null) {
             throw new BusinessException(ErrorCode.FOLLOWUP_PLAN_NOT_FOUND);
         }
-        
-        if ("COMPLETED".equals(plan.getStatus()) || "CANCELED".equals(plan.getStatus())) {
+        if (!applied) {
             throw new BusinessException(ErrorCode.PARAM_ERROR, "随访计划状态不允许此操作");
         }
         
-        plan.setStatus("CANCELED");
-        plan.setUpdatedAt(LocalDateTime.now());
-        followupPlanMapper.updateById(plan);
-        
         log.info("取消随访计划: planNo={}", plan.getPlanNo());
         return plan;
     }
@@ -308,14 +303,10 @@ public class FollowupService {
     }
 
     private String generatePlanNo() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "FP" + date + uuid;
+        return businessNoGenerator.next("FP");
     }
 
     private String generateRecordNo() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "FR" + date + uuid;
+        return businessNoGenerator.next("FR");
     }
 }
@@ -0,0 +1,104 @@
+package com.erkang.service;
+
+import com.erkang.config.AuthProperties;
+import com.erkang.domain.entity.User;
+import com.erkang.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最后登录信息批量写回
+ * 登录时只记录到内存，定时合并为少量 UPDATE；同一用户多次登录只保留最后一次
+ */
+@Slf4j
+@Service
+public class LastLoginWriter {
+
+    private final UserMapper userMapper;
+    private final AuthProperties.LastLogin properties;
+    private final Map<Long, User> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public LastLoginWriter(UserMapper userMapper, AuthProperties properties) {
+        this.userMapper = userMapper;
+        this.properties = properties.getLastLogin();
+    }
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("last-login-"));
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, properties.getFlushIntervalMs(),
+                properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * 记录一次登录
+     */
+    public void record(Long userId, LocalDateTime loginAt, String ip) {
+        User user = new User();
+        user.setId(userId);
+        user.setLastLoginAt(loginAt);
+        user.setLastLoginIp(ip);
+        pending.put(userId, user);
+    }
+
+    /**
+     * 写回当前积累的登录信息，返回写回的用户数
+     */
+    public synchronized int flush() {
+        int written = 0;
+        List<User> batch = new ArrayList<>();
+        Iterator<Long> ids = pending.keySet().iterator();
+        while (ids.hasNext()) {
+            User user = pending.remove(ids.next());
+            if (user != null) {
+                batch.add(user);
+            }
+            if (batch.size() >= properties.getMaxBatchSize() || (!ids.hasNext() && !batch.isEmpty())) {
+                try {
+                    userMapper.updateLastLogins(batch);
+                    written += batch.size();
+                } catch (RuntimeException e) {
+                    // 写回失败时放回，较新的登录记录优先
+                    batch.forEach(u -> pending.putIfAbsent(u.getId(), u));
+                    throw e;
+                }
+                batch = new ArrayList<>();
+            }
+        }
+        return written;
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("最后登录信息写回失败: pending={}", pending.size(), e);
+        }
+    }
+}
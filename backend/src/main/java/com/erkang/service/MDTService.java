@@ -16,9 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * MDT会诊服务
@@ -32,6 +30,8 @@ public class MDTService {
     private final MDTCaseMapper mdtCaseMapper;
     private final MDTMemberMapper mdtMemberMapper;
     private final MDTConclusionMapper mdtConclusionMapper;
+    private final BusinessNoGenerator businessNoGenerator;
+    private final StatusTransitionEngine statusTransitionEngine;
 
     /**
      * 发起会诊
@@ -159,21 +159,12 @@ public class MDTService {
     @Transactional
     @Auditable(action = "START_MDT", module = "mdt")
     public MDTCase startMDT(Long mdtId) {
-        MDTCase mdtCase = mdtCaseMapper.selectById(mdtId);
-        if (mdtCase == null) {
-            throw new BusinessException(ErrorCode.MDT_NOT_FOUND);
-        }
-        
-        if (!"PENDING".equals(mdtCase.getStatus())) {
-            throw new BusinessException(ErrorCode.PARAM_ERROR, "会诊状态不允许此操作");
-        }
-        
-        mdtCase.setStatus("IN_PROGRESS");
-        mdtCase.setActualStartTime(LocalDateTime.now());
-        mdtCase.setStatusUpdatedAt(LocalDateTime.now());
-        mdtCase.setRtcRoomId("MDT_" + mdtCase.getMdtNo());
-        mdtCase.setUpdatedAt(LocalDateTime.now());
-        mdtCaseMapper.updateById(mdtCase);
+        MDTCase mdtCase = transition(StatusTransition.of("MDTCase", mdtId)
+                .from("PENDING")
+                .to("IN_PROGRESS")
+                .stamp("status_updated_at")
+                .stamp("actual_start_time")
+                .setSql("rtc_room_id = CONCAT('MDT_', mdt_no)"));
         
         log.info("开始会诊: mdtNo={}", mdtCase.getMdtNo());
         return mdtCase;
@@ -185,20 +176,11 @@ public class MDTService {
     @Transactional
     @Auditable(action = "END_MDT", module = "mdt")
     public MDTCase endMDT(Long mdtId) {
-        MDTCase mdtCase = mdtCaseMapper.selectById(mdtId);
-        if (mdtCase == null) {
-            throw new BusinessException(ErrorCode.MDT_NOT_FOUND);
-        }
-        
-        if (!"IN_PROGRESS".equals(mdtCase.getStatus())) {
-            throw new BusinessException(ErrorCode.PARAM_ERROR, "会诊状态不允许此操作");
-        }
-        
-        mdtCase.setStatus("COMPLETED");
-        mdtCase.setActualEndTime(LocalDateTime.now());
-        mdtCase.setStatusUpdatedAt(LocalDateTime.now());
-        mdtCase.setUpdatedAt(LocalDateTime.now());
-        mdtCaseMapper.updateById(mdtCase);
+        MDTCase mdtCase = transition(StatusTransition.of("MDTCase", mdtId)
+                .from("IN_PROGRESS")
+                .to("COMPLETED")
+                .stamp("status_updated_at")
+                .stamp("actual_end_time"));
         
         log.info("结束会诊: mdtNo={}", mdtCase.getMdtNo());
         return mdtCase;
@@ -210,21 +192,27 @@ public class MDTService {
     @Transactional
     @Auditable(action = "CANCEL_MDT", module = "mdt")
     public MDTCase cancelMDT(Long mdtId) {
-        MDTCase mdtCase = mdtCaseMapper.selectById(mdtId);
+        MDTCase mdtCase = transition(StatusTransition.of("MDTCase", mdtId)
+                .from("PENDING", "IN_PROGRESS")
+                .to("CANCELED")
+                .stamp("status_updated_at"));
+        
+        log.info("取消会诊: mdtNo={}", mdtCase.getMdtNo());
+        return mdtCase;
+    }
+
+    /**
+     * 执行状态流转并返回最新记录
+     */
+    private MDTCase transition(StatusTransition transition) {
+        boolean applied = statusTransitionEngine.apply(mdtCaseMapper, transition);
+        MDTCase mdtCase = mdtCaseMapper.selectById(transition.getId());
         if (mdtCase == null) {
             throw new BusinessException(ErrorCode.MDT_NOT_FOUND);
         }
-        
-        if ("COMPLETED".equals(mdtCase.getStatus()) || "CANCELED".equals(mdtCase.getStatus())) {
+        if (!applied) {
             throw new BusinessException(ErrorCode.PARAM_ERROR, "会诊状态不允许此操作");
         }
-        
-        mdtCase.setStatus("CANCELED");
-        mdtCase.setStatusUpdatedAt(LocalDateTime.now());
-        mdtCase.setUpdatedAt(LocalDateTime.now());
-        mdtCaseMapper.updateById(mdtCase);
-        
-        log.info("取消会诊: mdtNo={}", mdtCase.getMdtNo());
         return mdtCase;
     }
 
@@ -342,8 +330,6 @@ public class MDTService {
     }
 
     private String generateMDTNo() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "MDT" + date + uuid;
+        return businessNoGenerator.next("MDT");
     }
 }
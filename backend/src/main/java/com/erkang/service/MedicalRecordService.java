@@ -16,9 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 病历服务
@@ -31,6 +29,8 @@ public class MedicalRecordService {
 
     private final MedicalRecordMapper recordMapper;
     private final MedicalAttachmentMapper attachmentMapper;
+    private final ThumbnailService thumbnailService;
+    private final BusinessNoGenerator businessNoGenerator;
 
     /**
      * 创建病历
@@ -159,6 +159,7 @@ public class MedicalRecordService {
     public MedicalAttachment addAttachment(MedicalAttachment attachment) {
         attachment.setCreatedAt(LocalDateTime.now());
         attachmentMapper.insert(attachment);
+        thumbnailService.submitAfterCommit(attachment);
         return attachment;
     }
 
@@ -169,7 +170,14 @@ public class MedicalRecordService {
         LambdaQueryWrapper<MedicalAttachment> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(MedicalAttachment::getRecordId, recordId)
                .orderByDesc(MedicalAttachment::getCreatedAt);
-        return attachmentMapper.selectList(wrapper);
+        return thumbnailService.fillRenditionUrls(attachmentMapper.selectList(wrapper));
+    }
+
+    /**
+     * 重新生成附件缩略图
+     */
+    public void regenerateRenditions(Long attachmentId) {
+        thumbnailService.regenerate(attachmentId);
     }
 
     /**
@@ -181,8 +189,6 @@ public class MedicalRecordService {
     }
 
     private String generateRecordNo() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "MR" + date + uuid;
+        return businessNoGenerator.next("MR");
     }
 }
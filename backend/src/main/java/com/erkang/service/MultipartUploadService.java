@@ -0,0 +1,381 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.FileUpload;
+import com.erkang.domain.enums.FileUploadStatus;
+import com.erkang.domain.vo.FileUploadVO;
+import com.erkang.integration.storage.MinioMultipartService;
+import com.erkang.integration.storage.StorageBackend;
+import com.erkang.integration.storage.StorageBackend.UploadedPart;
+import com.erkang.mapper.FileUploadMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大文件分片上传
+ * 客户端按固定分片大小切分文件，各分片可并行上传、失败后单独重传；已上传分片以对象存储为准，
+ * 断点续传时查询进度后补传缺少的分片。分片经固定数量的复用缓冲区转发，内存占用有上限；
+ * 过期未完成的任务定时取消并释放对象存储中的分片
+ */
+@Slf4j
+@Service
+public class MultipartUploadService {
+
+    // S3 单个上传任务的分片数上限
+    static final int MAX_PARTS = 10000;
+
+    private final FileUploadMapper fileUploadMapper;
+    private final MinioMultipartService storage;
+    private final StorageProperties.Multipart properties;
+    private final PartBuffers buffers;
+    private final Map<String, Integer> inFlightParts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService cleaner;
+
+    public MultipartUploadService(FileUploadMapper fileUploadMapper, MinioMultipartService storage,
+                                  StorageProperties properties, MeterRegistry meterRegistry) {
+        this.fileUploadMapper = fileUploadMapper;
+        this.storage = storage;
+        this.properties = properties.getMultipart();
+        this.buffers = new PartBuffers(this.properties.getMaxBuffers(), this.properties.getPartSize());
+        Gauge.builder("erkang.storage.multipart.buffers", buffers, PartBuffers::inUse)
+                .description("正在使用的分片缓冲区数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        long interval = properties.getCleanupIntervalMs();
+        if (interval > 0) {
+            cleaner = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("upload-cleaner-"));
+            cleaner.scheduleWithFixedDelay(this::cleanupSafely, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+
+    /**
+     * 发起分片上传
+     */
+    public FileUploadVO initiate(Long userId, String fileName, Long fileSize, String contentType, String category) {
+        if (fileSize == null || fileSize <= 0) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "文件大小无效");
+        }
+        int partSize = properties.getPartSize();
+        if (fileSize > properties.getMaxFileSize() || fileSize > (long) partSize * MAX_PARTS) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "文件超过大小上限");
+        }
+        MinioMultipartService.CreatedUpload created = storage.createUpload(fileName, category, contentType);
+
+        LocalDateTime now = LocalDateTime.now();
+        FileUpload upload = new FileUpload();
+        upload.setUploadId(created.uploadId());
+        upload.setObjectName(created.objectName());
+        upload.setFileName(fileName);
+        upload.setContentType(contentType);
+        upload.setCategory(category);
+        upload.setFileSize(fileSize);
+        upload.setPartSize(partSize);
+        upload.setPartCount((int) ((fileSize + partSize - 1) / partSize));
+        upload.setUploaderId(userId);
+        upload.setStatus(FileUploadStatus.UPLOADING.getCode());
+        upload.setCreatedAt(now);
+        upload.setExpiresAt(now.plusNanos(properties.getExpireMs() * 1_000_000));
+        try {
+            fileUploadMapper.insert(upload);
+        } catch (RuntimeException e) {
+            storage.abortUpload(created.objectName(), created.uploadId());
+            throw e;
+        }
+        log.info("发起分片上传: userId={}, object={}, size={}, parts={}",
+                userId, created.objectName(), fileSize, upload.getPartCount());
+        return toVO(upload, List.of());
+    }
+
+    /**
+     * 上传单个分片，请求体即分片内容，长度必须与该分片的预期大小一致
+     */
+    public FileUploadVO.Part uploadPart(Long userId, String uploadId, int partNumber,
+                                        InputStream body, long contentLength) {
+        FileUpload upload = requireActive(userId, uploadId);
+        if (partNumber < 1 || partNumber > upload.getPartCount()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "分片号超出范围: " + partNumber);
+        }
+        int expected = expectedPartSize(upload, partNumber);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "分片" + partNumber + "大小应为" + expected + "字节");
+        }
+
+        acquireSlot(uploadId);
+        byte[] buffer = null;
+        try {
+            buffer = buffers.acquire(properties.getBufferWaitMs());
+            if (buffer == null) {
+                throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+            }
+            readPart(body, buffer, expected, partNumber);
+            String etag = storage.uploadPart(upload.getObjectName(), uploadId, partNumber, buffer, expected);
+            return new FileUploadVO.Part(partNumber, etag, (long) expected);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+        } finally {
+            if (buffer != null) {
+                buffers.release(buffer);
+            }
+            releaseSlot(uploadId);
+        }
+    }
+
+    /**
+     * 查询上传进度（断点续传）
+     */
+    public FileUploadVO getProgress(Long userId, String uploadId) {
+        FileUpload upload = requireOwned(userId, uploadId);
+        if (!FileUploadStatus.UPLOADING.getCode().equals(upload.getStatus())) {
+            return toVO(upload, List.of());
+        }
+        return toVO(upload, storage.listParts(upload.getObjectName(), uploadId));
+    }
+
+    /**
+     * 合并全部分片，完成上传
+     */
+    public FileUploadVO complete(Long userId, String uploadId) {
+        FileUpload upload = requireActive(userId, uploadId);
+        List<UploadedPart> parts = storage.listParts(upload.getObjectName(), uploadId);
+
+        List<Integer> missing = new ArrayList<>();
+        Map<Integer, UploadedPart> byNumber = new HashMap<>();
+        parts.forEach(p -> byNumber.put(p.partNumber(), p));
+        for (int n = 1; n <= upload.getPartCount(); n++) {
+            UploadedPart part = byNumber.get(n);
+            if (part == null || part.size() != expectedPartSize(upload, n)) {
+                missing.add(n);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "分片不完整，缺少: "
+                    + (missing.size() > 20 ? missing.subList(0, 20) + "等" + missing.size() + "个" : missing));
+        }
+
+        List<UploadedPart> ordered = new ArrayList<>(upload.getPartCount());
+        for (int n = 1; n <= upload.getPartCount(); n++) {
+            ordered.add(byNumber.get(n));
+        }
+        storage.completeUpload(upload.getObjectName(), uploadId, ordered);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (fileUploadMapper.updateStatus(upload.getId(), FileUploadStatus.UPLOADING.getCode(),
+                FileUploadStatus.COMPLETED.getCode(), now) == 0) {
+            log.warn("分片上传已合并但任务状态已变更: uploadId={}", uploadId);
+        }
+        upload.setStatus(FileUploadStatus.COMPLETED.getCode());
+        upload.setCompletedAt(now);
+        log.info("分片上传完成: userId={}, object={}", userId, upload.getObjectName());
+        return toVO(upload, List.of());
+    }
+
+    /**
+     * 取消上传并释放已上传的分片
+     */
+    public void abort(Long userId, String uploadId) {
+        FileUpload upload = requireOwned(userId, uploadId);
+        if (fileUploadMapper.updateStatus(upload.getId(), FileUploadStatus.UPLOADING.getCode(),
+                FileUploadStatus.ABORTED.getCode(), LocalDateTime.now()) == 0) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "上传任务已结束");
+        }
+        // 取消失败的分片由定时清理兜底
+        try {
+            storage.abortUpload(upload.getObjectName(), uploadId);
+        } catch (BusinessException e) {
+            log.warn("取消分片上传失败，等待定时清理: uploadId={}", uploadId);
+        }
+        log.info("取消分片上传: userId={}, uploadId={}", userId, uploadId);
+    }
+
+    /**
+     * 清理过期任务：标记过期并取消对象存储中的上传，同时取消超过有效期仍未完成、
+     * 但没有任务记录的上传（如建任务后写库失败）
+     * @return 取消的上传数
+     */
+    public int cleanupExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int batch = properties.getCleanupBatchSize();
+        int aborted = 0;
+        for (FileUpload upload : fileUploadMapper.selectExpired(now, batch)) {
+            if (fileUploadMapper.updateStatus(upload.getId(), FileUploadStatus.UPLOADING.getCode(),
+                    FileUploadStatus.EXPIRED.getCode(), now) == 1) {
+                aborted += abortQuietly(upload.getObjectName(), upload.getUploadId());
+            }
+        }
+        LocalDateTime cutoff = now.minusNanos(properties.getExpireMs() * 1_000_000);
+        for (StorageBackend.PendingUpload pending
+                : storage.listUploadsInitiatedBefore(cutoff.atZone(ZoneId.systemDefault()), batch)) {
+            aborted += abortQuietly(pending.objectName(), pending.uploadId());
+        }
+        if (aborted > 0) {
+            log.info("清理过期分片上传: {}", aborted);
+        }
+        return aborted;
+    }
+
+    private void cleanupSafely() {
+        try {
+            cleanupExpired();
+        } catch (Exception e) {
+            log.warn("清理过期分片上传失败: {}", e.getMessage());
+        }
+    }
+
+    private int abortQuietly(String objectName, String uploadId) {
+        try {
+            storage.abortUpload(objectName, uploadId);
+            return 1;
+        } catch (BusinessException e) {
+            return 0;
+        }
+    }
+
+    private FileUpload requireOwned(Long userId, String uploadId) {
+        FileUpload upload = fileUploadMapper.selectByUploadId(uploadId);
+        if (upload == null) {
+            throw new BusinessException(ErrorCode.FILE_NOT_FOUND, "上传任务不存在");
+        }
+        if (!upload.getUploaderId().equals(userId)) {
+            throw new BusinessException(ErrorCode.FILE_ACCESS_DENIED);
+        }
+        return upload;
+    }
+
+    private FileUpload requireActive(Long userId, String uploadId) {
+        FileUpload upload = requireOwned(userId, uploadId);
+        if (!FileUploadStatus.UPLOADING.getCode().equals(upload.getStatus())) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "上传任务已结束");
+        }
+        if (upload.getExpiresAt() != null && upload.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "上传任务已过期");
+        }
+        return upload;
+    }
+
+    /**
+     * 分片的预期大小：最后一片为剩余字节
+     */
+    static int expectedPartSize(FileUpload upload, int partNumber) {
+        long offset = (long) (partNumber - 1) * upload.getPartSize();
+        return (int) Math.min(upload.getPartSize(), upload.getFileSize() - offset);
+    }
+
+    private static void readPart(InputStream body, byte[] buffer, int length, int partNumber) {
+        try {
+            int read = body.readNBytes(buffer, 0, length);
+            if (read != length || body.read() != -1) {
+                throw new BusinessException(ErrorCode.PARAM_ERROR, "分片" + partNumber + "大小应为" + length + "字节");
+            }
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.FILE_UPLOAD_FAILED, "分片读取中断");
+        }
+    }
+
+    // 单个上传任务的并发分片数，超出时直接返回系统繁忙
+    private void acquireSlot(String uploadId) {
+        int max = properties.getMaxConcurrentPartsPerUpload();
+        boolean[] acquired = {false};
+        inFlightParts.compute(uploadId, (k, v) -> {
+            int current = v == null ? 0 : v;
+            if (current >= max) {
+                return v;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        if (!acquired[0]) {
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY, "同一文件同时上传的分片过多");
+        }
+    }
+
+    private void releaseSlot(String uploadId) {
+        inFlightParts.computeIfPresent(uploadId, (k, v) -> v <= 1 ? null : v - 1);
+    }
+
+    private static FileUploadVO toVO(FileUpload upload, List<UploadedPart> parts) {
+        return FileUploadVO.builder()
+                .uploadId(upload.getUploadId())
+                .objectName(upload.getObjectName())
+                .fileName(upload.getFileName())
+                .fileSize(upload.getFileSize())
+                .contentType(upload.getContentType())
+                .partSize(upload.getPartSize())
+                .partCount(upload.getPartCount())
+                .status(upload.getStatus())
+                .expiresAt(upload.getExpiresAt())
+                .uploadedParts(parts.stream()
+                        .map(p -> new FileUploadVO.Part(p.partNumber(), p.etag(), p.size()))
+                        .toList())
+                .build();
+    }
+
+    int buffersInUse() {
+        return buffers.inUse();
+    }
+
+    /**
+     * 分片缓冲区池：最多分配 maxBuffers 个，用完归还复用
+     */
+    static final class PartBuffers {
+        private final int max;
+        private final int bufferSize;
+        private final Semaphore permits;
+        private final ConcurrentLinkedQueue<byte[]> free = new ConcurrentLinkedQueue<>();
+
+        PartBuffers(int max, int bufferSize) {
+            this.max = Math.max(1, max);
+            this.bufferSize = bufferSize;
+            this.permits = new Semaphore(this.max);
+        }
+
+        byte[] acquire(long waitMs) throws InterruptedException {
+            if (!permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+            byte[] buffer = free.poll();
+            return buffer != null ? buffer : new byte[bufferSize];
+        }
+
+        void release(byte[] buffer) {
+            free.offer(buffer);
+            permits.release();
+        }
+
+        int inUse() {
+            return max - permits.availablePermits();
+        }
+    }
+}
@@ -17,9 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 处方服务
@@ -32,6 +30,8 @@ public class PrescriptionService {
 
     private final PrescriptionMapper prescriptionMapper;
     private final PrescriptionItemMapper itemMapper;
+    private final BusinessNoGenerator businessNoGenerator;
+    private final StatusTransitionEngine statusTransitionEngine;
 
     /**
      * 创建处方
@@ -143,10 +143,11 @@ public class PrescriptionService {
             throw new BusinessException(ErrorCode.PARAM_ERROR, "处方明细不能为空");
         }
         
+        StatusTransition transition = transition(prescriptionId, targetStatus).stamp("submitted_at");
+        applyTransition(transition, targetStatus);
         prescription.setStatus(targetStatus.getCode());
-        prescription.setSubmittedAt(LocalDateTime.now());
-        prescription.setUpdatedAt(LocalDateTime.now());
-        prescriptionMapper.updateById(prescription);
+        prescription.setSubmittedAt(transition.getAt());
+        prescription.setUpdatedAt(transition.getAt());
         
         log.info("处方提交审核: prescriptionNo={}", prescription.getPrescriptionNo());
         return prescription;
@@ -158,7 +159,7 @@ public class PrescriptionService {
     @Transactional
     @Auditable(action = "APPROVE_PRESCRIPTION", module = "prescription")
     public Prescription approve(Long prescriptionId) {
-        return transitionStatus(prescriptionId, PrescriptionStatus.APPROVED);
+        return transitionStatus(transition(prescriptionId, PrescriptionStatus.APPROVED).stamp("reviewed_at"));
     }
 
     /**
@@ -167,10 +168,9 @@ public class PrescriptionService {
     @Transactional
     @Auditable(action = "REJECT_PRESCRIPTION", module = "prescription")
     public Prescription reject(Long prescriptionId, String reason) {
-        Prescription prescription = transitionStatus(prescriptionId, PrescriptionStatus.REJECTED);
-        prescription.setRemark(reason);
-        prescriptionMapper.updateById(prescription);
-        return prescription;
+        return transitionStatus(transition(prescriptionId, PrescriptionStatus.REJECTED)
+                .stamp("reviewed_at")
+                .set("notes", reason));
     }
 
     /**
@@ -179,39 +179,44 @@ public class PrescriptionService {
     @Transactional
     @Auditable(action = "DISPENSE_PRESCRIPTION", module = "prescription")
     public Prescription dispense(Long prescriptionId) {
-        Prescription prescription = transitionStatus(prescriptionId, PrescriptionStatus.DISPENSED);
-        prescription.setDispensedAt(LocalDateTime.now());
-        prescriptionMapper.updateById(prescription);
-        return prescription;
+        return transitionStatus(transition(prescriptionId, PrescriptionStatus.DISPENSED).stamp("dispensed_at"));
     }
 
     /**
-     * 状态流转
+     * 状态流转：条件更新状态与流转时间，成功后读取最新记录
      */
-    private Prescription transitionStatus(Long prescriptionId, PrescriptionStatus targetStatus) {
-        Prescription prescription = prescriptionMapper.selectById(prescriptionId);
-        if (prescription == null) {
-            throw new BusinessException(ErrorCode.PRESCRIPTION_NOT_FOUND);
-        }
-        
-        PrescriptionStatus currentStatus = PrescriptionStatus.fromCode(prescription.getStatus());
-        if (currentStatus == null || !currentStatus.canTransitionTo(targetStatus)) {
-            throw new BusinessException(ErrorCode.PRESCRIPTION_STATUS_INVALID, 
-                    "状态流转不合法: " + currentStatus + " -> " + targetStatus);
-        }
-        
-        prescription.setStatus(targetStatus.getCode());
-        if (targetStatus == PrescriptionStatus.APPROVED || targetStatus == PrescriptionStatus.REJECTED) {
-            prescription.setReviewedAt(LocalDateTime.now());
-        }
-        prescription.setUpdatedAt(LocalDateTime.now());
-        prescriptionMapper.updateById(prescription);
+    private Prescription transitionStatus(StatusTransition transition) {
+        PrescriptionStatus targetStatus = PrescriptionStatus.fromCode(transition.getTo());
+        applyTransition(transition, targetStatus);
+        Prescription prescription = prescriptionMapper.selectById(transition.getId());
         
         log.info("处方状态变更: prescriptionNo={}, {} -> {}", 
-                prescription.getPrescriptionNo(), currentStatus, targetStatus);
+                prescription.getPrescriptionNo(), transition.getFrom(), targetStatus);
         return prescription;
     }
 
+    private StatusTransition transition(Long prescriptionId, PrescriptionStatus targetStatus) {
+        return StatusTransition.of("Prescription", prescriptionId)
+                .from(PrescriptionStatus.predecessorCodesOf(targetStatus))
+                .to(targetStatus.getCode())
+                .stamp("status_updated_at");
+    }
+
+    /**
+     * 执行状态流转，未生效时按最新状态报错
+     */
+    private void applyTransition(StatusTransition transition, PrescriptionStatus targetStatus) {
+        if (statusTransitionEngine.apply(prescriptionMapper, transition)) {
+            return;
+        }
+        Prescription current = prescriptionMapper.selectById(transition.getId());
+        if (current == null) {
+            throw new BusinessException(ErrorCode.PRESCRIPTION_NOT_FOUND);
+        }
+        throw new BusinessException(ErrorCode.PRESCRIPTION_STATUS_INVALID, 
+                "状态流转不合法: " + PrescriptionStatus.fromCode(current.getStatus()) + " -> " + targetStatus);
+    }
+
     /**
      * 查询处方详情
      */
@@ -260,8 +265,6 @@ public class PrescriptionService {
     }
 
     private String generatePrescriptionNo() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "RX" + date + uuid;
+        return businessNoGenerator.next("RX");
     }
 }
@@ -12,9 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 转诊服务
@@ -26,6 +24,8 @@ import java.util.UUID;
 public class ReferralService {
 
     private final ReferralMapper referralMapper;
+    private final BusinessNoGenerator businessNoGenerator;
+    private final StatusTransitionEngine statusTransitionEngine;
 
     /**
      * 发起转诊
@@ -69,19 +69,11 @@ public class ReferralService {
     @Transactional
     @Auditable(action = "ACCEPT_REFERRAL", module = "referral")
     public Referral accept(Long referralId) {
-        Referral referral = referralMapper.selectById(referralId);
-        if (referral == null) {
-            throw new BusinessException(ErrorCode.REFERRAL_NOT_FOUND);
-        }
-        
-        if (!"PENDING".equals(referral.getStatus())) {
-            throw new BusinessException(ErrorCode.PARAM_ERROR, "转诊状态不允许此操作");
-        }
-        
-        referral.setStatus("ACCEPTED");
-        referral.setAcceptedAt(LocalDateTime.now());
-        referral.setUpdatedAt(LocalDateTime.now());
-        referralMapper.updateById(referral);
+        Referral referral = transition(StatusTransition.of("Referral", referralId)
+                .from("PENDING")
+                .to("ACCEPTED")
+                .stamp("status_updated_at")
+                .stamp("accepted_at"));
         
         log.info("接受转诊: referralNo={}", referral.getReferralNo());
         return referral;
@@ -93,19 +85,11 @@ public class ReferralService {
     @Transactional
     @Auditable(action = "REJECT_REFERRAL", module = "referral")
     public Referral reject(Long referralId, String reason) {
-        Referral referral = referralMapper.selectById(referralId);
-        if (referral == null) {
-            throw new BusinessException(ErrorCode.REFERRAL_NOT_FOUND);
-        }
-        
-        if (!"PENDING".equals(referral.getStatus())) {
-            throw new BusinessException(ErrorCode.PARAM_ERROR, "转诊状态不允许此操作");
-        }
-        
-        referral.setStatus("REJECTED");
-        referral.setRejectReason(reason);
-        referral.setUpdatedAt(LocalDateTime.now());
-        referralMapper.updateById(referral);
+        Referral referral = transition(StatusTransition.of("Referral", referralId)
+                .from("PENDING")
+                .to("REJECTED")
+                .stamp("status_updated_at")
+                .set("reject_reason", reason));
         
         log.info("拒绝转诊: referralNo={}, reason={}", referral.getReferralNo(), reason);
         return referral;
@@ -117,21 +101,28 @@ public class ReferralService {
     @Transactional
     @Auditable(action = "COMPLETE_REFERRAL", module = "referral")
     public Referral complete(Long referralId) {
-        Referral referral = referralMapper.selectById(referralId);
+        Referral referral = transition(StatusTransition.of("Referral", referralId)
+                .from("ACCEPTED")
+                .to("COMPLETED")
+                .stamp("status_updated_at")
+                .stamp("completed_at"));
+        
+        log.info("完成转诊: referralNo={}", referral.getReferralNo());
+        return referral;
+    }
+
+    /**
+     * 执行状态流转并返回最新记录
+     */
+    private Referral transition(StatusTransition transition) {
+        boolean applied = statusTransitionEngine.apply(referralMapper, transition);
+        Referral referral = referralMapper.selectById(transition.getId());
         if (referral == null) {
             throw new BusinessException(ErrorCode.REFERRAL_NOT_FOUND);
         }
-        
-        if (!"ACCEPTED".equals(referral.getStatus())) {
+        if (!applied) {
             throw new BusinessException(ErrorCode.PARAM_ERROR, "转诊状态不允许此操作");
         }
-        
-        referral.setStatus("COMPLETED");
-        referral.setCompletedAt(LocalDateTime.now());
-        referral.setUpdatedAt(LocalDateTime.now());
-        referralMapper.updateById(referral);
-        
-        log.info("完成转诊: referralNo={}", referral.getReferralNo());
         return referral;
     }
 
@@ -181,8 +172,6 @@ public class ReferralService {
     }
 
     private String generateReferralNo() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "RF" + date + uuid;
+        return businessNoGenerator.next("RF");
     }
 }
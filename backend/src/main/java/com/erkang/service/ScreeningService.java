@@ -0,0 +1,310 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.common.utils.AhoCorasick;
+import com.erkang.domain.enums.ScreeningCategory;
+import com.erkang.domain.vo.ScreeningHitVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 文本筛查服务
+ * 急危重症/红旗征象词典由一个 Aho-Corasick 自动机一次扫描完成匹配，
+ * 剂量与敏感信息由预编译的合并正则一次扫描完成；词典支持运行时热更新
+ * _Requirements: 8.5, 10.3, 10.4, 10.6_
+ */
+@Slf4j
+@Service
+public class ScreeningService {
+
+    // 急危重症关键词
+    private static final List<String> DEFAULT_EMERGENCY_KEYWORDS = List.of(
+        "胸痛", "呼吸困难", "意识丧失", "大出血", "剧烈头痛", "高烧不退",
+        "心悸", "窒息", "抽搐", "昏迷", "中毒", "严重过敏"
+    );
+
+    // 耳鼻喉科常见红旗征象关键词
+    private static final List<String> DEFAULT_RED_FLAG_KEYWORDS = List.of(
+        "剧烈疼痛", "高烧", "出血", "呼吸困难", "吞咽困难",
+        "听力急剧下降", "面瘫", "眩晕", "恶心呕吐", "意识模糊",
+        "severe pain", "high fever", "bleeding", "difficulty breathing"
+    );
+
+    // 敏感信息：身份证号优先于手机号，避免18位证件号被手机号规则拆开
+    private static final Pattern PII_PATTERN = Pattern.compile(
+        "(\\d{17}[\\dXx])|(1[3-9]\\d{9})|(?:姓名|患者|病人)[：:]*([\\u4e00-\\u9fa5]{2,4})");
+
+    // 处方剂量：每次N片/每日N次/Nmg/N毫克
+    private static final Pattern DOSAGE_PATTERN = Pattern.compile(
+        "每(?:(次\\d+[片粒支ml毫升])|(日\\d+次))|(\\d+(?:mg|毫克))");
+
+    // 全量筛查：敏感信息 + 剂量
+    private static final Pattern SCAN_PATTERN = Pattern.compile(
+        PII_PATTERN.pattern() + "|" + DOSAGE_PATTERN.pattern());
+
+    private static final String ID_CARD_MASK = "[身份证号已隐藏]";
+    private static final String PHONE_MASK = "[手机号已隐藏]";
+    private static final String DOSE_MASK = "[剂量请遵医嘱]";
+    private static final String TIMES_MASK = "每日[次数请遵医嘱]";
+    private static final String PER_DOSE_MASK = "每次[剂量请遵医嘱]";
+
+    private volatile Dictionary dictionary;
+
+    public ScreeningService() {
+        Map<ScreeningCategory, List<String>> defaults = new EnumMap<>(ScreeningCategory.class);
+        defaults.put(ScreeningCategory.EMERGENCY, DEFAULT_EMERGENCY_KEYWORDS);
+        defaults.put(ScreeningCategory.RED_FLAG, DEFAULT_RED_FLAG_KEYWORDS);
+        this.dictionary = Dictionary.build(defaults, 1L);
+    }
+
+    /**
+     * 返回文本中最先命中的指定类别关键词，没有命中返回null
+     */
+    public String findFirstKeyword(ScreeningCategory category, String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        Dictionary dict = this.dictionary;
+        int bit = 1 << category.ordinal();
+        int index = dict.automaton.findFirst(text, k -> (dict.categoryMasks[k] & bit) != 0);
+        return index >= 0 ? dict.automaton.keyword(index) : null;
+    }
+
+    /**
+     * 是否包含指定类别关键词
+     */
+    public boolean containsKeyword(ScreeningCategory category, String text) {
+        return findFirstKeyword(category, text) != null;
+    }
+
+    /**
+     * 全量筛查，返回全部类别的命中
+     */
+    public List<ScreeningHitVO> scan(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<ScreeningHitVO> hits = new ArrayList<>();
+        Dictionary dict = this.dictionary;
+        ScreeningCategory[] categories = ScreeningCategory.values();
+        dict.automaton.scan(text, (k, start, end) -> {
+            int mask = dict.categoryMasks[k];
+            for (ScreeningCategory category : categories) {
+                if ((mask & (1 << category.ordinal())) != 0) {
+                    hits.add(new ScreeningHitVO(category, dict.automaton.keyword(k), start, end));
+                }
+            }
+            return true;
+        });
+
+        Matcher matcher = SCAN_PATTERN.matcher(text);
+        while (matcher.find()) {
+            ScreeningCategory category;
+            int group;
+            if (matcher.start(1) >= 0) {
+                category = ScreeningCategory.ID_CARD;
+                group = 1;
+            } else if (matcher.start(2) >= 0) {
+                category = ScreeningCategory.PHONE;
+                group = 2;
+            } else if (matcher.start(3) >= 0) {
+                category = ScreeningCategory.NAME;
+                group = 3;
+            } else {
+                category = ScreeningCategory.DOSAGE;
+                group = 0;
+            }
+            hits.add(new ScreeningHitVO(category, matcher.group(group), matcher.start(group), matcher.end(group)));
+        }
+        return hits;
+    }
+
+    /**
+     * 敏感信息脱敏：身份证号、手机号整体隐藏，姓名保留首字
+     * _Requirements: 10.6_
+     */
+    public String sanitize(String input) {
+        if (input == null) {
+            return "";
+        }
+        Matcher matcher = PII_PATTERN.matcher(input);
+        if (!matcher.find()) {
+            return input;
+        }
+
+        StringBuilder result = new StringBuilder(input.length() + 16);
+        Set<String> names = null;
+        int last = 0;
+        do {
+            result.append(input, last, matcher.start());
+            if (matcher.start(1) >= 0) {
+                result.append(ID_CARD_MASK);
+            } else if (matcher.start(2) >= 0) {
+                result.append(PHONE_MASK);
+            } else {
+                result.append(input, matcher.start(), matcher.end());
+                if (names == null) {
+                    names = new LinkedHashSet<>(2);
+                }
+                names.add(matcher.group(3));
+            }
+            last = matcher.end();
+        } while (matcher.find());
+        result.append(input, last, input.length());
+
+        return names == null ? result.toString() : maskNames(result, names);
+    }
+
+    /**
+     * 过滤处方剂量信息
+     * _Requirements: 10.3_
+     */
+    public String filterDosage(String text) {
+        if (text == null) {
+            return "";
+        }
+        Matcher matcher = DOSAGE_PATTERN.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        int last = 0;
+        do {
+            result.append(text, last, matcher.start());
+            if (matcher.start(1) >= 0) {
+                result.append(PER_DOSE_MASK);
+            } else if (matcher.start(2) >= 0) {
+                result.append(TIMES_MASK);
+            } else {
+                result.append(DOSE_MASK);
+            }
+            last = matcher.end();
+        } while (matcher.find());
+        result.append(text, last, text.length());
+        return result.toString();
+    }
+
+    /**
+     * 热更新词典
+     */
+    public synchronized long reloadDictionary(ScreeningCategory category, List<String> keywords) {
+        if (!category.isDictionary()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "该类别不支持词典配置: " + category.getCode());
+        }
+        Dictionary current = this.dictionary;
+        Map<ScreeningCategory, List<String>> updated = new EnumMap<>(current.keywords);
+        updated.put(category, keywords != null ? keywords : List.of());
+        this.dictionary = Dictionary.build(updated, current.version + 1);
+        log.info("筛查词典已更新: category={}, size={}, version={}",
+                category, updated.get(category).size(), current.version + 1);
+        return current.version + 1;
+    }
+
+    /**
+     * 当前词典内容
+     */
+    public Map<ScreeningCategory, List<String>> getDictionaries() {
+        return dictionary.keywords;
+    }
+
+    /**
+     * 当前词典版本
+     */
+    public long getDictionaryVersion() {
+        return dictionary.version;
+    }
+
+    /**
+     * 将文本中所有已识别的姓名替换为首字+星号（一次扫描，最左最长匹配）
+     */
+    private String maskNames(StringBuilder text, Set<String> names) {
+        if (names.size() == 1) {
+            // 常见情况只有一个姓名，直接顺序查找
+            String name = names.iterator().next();
+            String masked = name.charAt(0) + "*".repeat(name.length() - 1);
+            for (int i = text.indexOf(name); i >= 0; i = text.indexOf(name, i + name.length())) {
+                text.replace(i, i + name.length(), masked);
+            }
+            return text.toString();
+        }
+        AhoCorasick automaton = AhoCorasick.build(new ArrayList<>(names), false);
+        List<int[]> spans = new ArrayList<>();
+        automaton.scan(text, (k, start, end) -> {
+            spans.add(new int[]{start, end});
+            return true;
+        });
+        spans.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(b[1], a[1]));
+
+        StringBuilder result = new StringBuilder(text.length());
+        int last = 0;
+        for (int[] span : spans) {
+            if (span[0] < last) {
+                continue;
+            }
+            result.append(text, last, span[0]);
+            result.append(text.charAt(span[0]));
+            result.append("*".repeat(span[1] - span[0] - 1));
+            last = span[1];
+        }
+        result.append(text, last, text.length());
+        return result.toString();
+    }
+
+    /**
+     * 词典快照：不可变，热更新时整体替换
+     */
+    private static final class Dictionary {
+
+        private final Map<ScreeningCategory, List<String>> keywords;
+        private final AhoCorasick automaton;
+        private final int[] categoryMasks;
+        private final long version;
+
+        private Dictionary(Map<ScreeningCategory, List<String>> keywords, AhoCorasick automaton,
+                           int[] categoryMasks, long version) {
+            this.keywords = keywords;
+            this.automaton = automaton;
+            this.categoryMasks = categoryMasks;
+            this.version = version;
+        }
+
+        static Dictionary build(Map<ScreeningCategory, List<String>> source, long version) {
+            Map<ScreeningCategory, List<String>> keywords = new EnumMap<>(ScreeningCategory.class);
+            // 忽略大小写去重，同一关键词可属于多个类别
+            Map<String, String> originals = new LinkedHashMap<>();
+            Map<String, Integer> masks = new LinkedHashMap<>();
+            source.forEach((category, words) -> {
+                List<String> cleaned = new ArrayList<>();
+                for (String word : words) {
+                    if (word == null || word.isBlank()) {
+                        continue;
+                    }
+                    String trimmed = word.trim();
+                    cleaned.add(trimmed);
+                    String key = trimmed.toLowerCase(Locale.ROOT);
+                    originals.putIfAbsent(key, trimmed);
+                    masks.merge(key, 1 << category.ordinal(), (a, b) -> a | b);
+                }
+                keywords.put(category, Collections.unmodifiableList(cleaned));
+            });
+
+            List<String> words = new ArrayList<>(originals.values());
+            int[] categoryMasks = masks.values().stream().mapToInt(Integer::intValue).toArray();
+            return new Dictionary(Collections.unmodifiableMap(keywords),
+                    AhoCorasick.build(words, true), categoryMasks, version);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.erkang.service;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 状态流转描述：记录、允许的前驱状态、目标状态，以及与状态在同一条语句中写入的列
+ */
+@Getter
+public final class StatusTransition {
+
+    private final String entity;
+    private final Long id;
+    private final LocalDateTime at = LocalDateTime.now();
+    private List<String> from = List.of();
+    private String to;
+    private Integer expectedVersion;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+    private final List<String> sqlSets = new ArrayList<>();
+    private final List<String> conditions = new ArrayList<>();
+
+    private StatusTransition(String entity, Long id) {
+        this.entity = entity;
+        this.id = id;
+    }
+
+    /**
+     * @param entity 实体名称，用于事件与日志
+     * @param id     记录ID
+     */
+    public static StatusTransition of(String entity, Long id) {
+        return new StatusTransition(entity, id);
+    }
+
+    /**
+     * 允许的前驱状态
+     */
+    public StatusTransition from(String... statuses) {
+        return from(Arrays.asList(statuses));
+    }
+
+    public StatusTransition from(Collection<String> statuses) {
+        this.from = List.copyOf(statuses);
+        return this;
+    }
+
+    /**
+     * 目标状态
+     */
+    public StatusTransition to(String status) {
+        this.to = status;
+        return this;
+    }
+
+    /**
+     * 将流转时间写入该列
+     */
+    public StatusTransition stamp(String column) {
+        columns.put(column, at);
+        return this;
+    }
+
+    /**
+     * 同时写入的列
+     */
+    public StatusTransition set(String column, Object value) {
+        columns.put(column, value);
+        return this;
+    }
+
+    /**
+     * 同时执行的 SET 片段（只用于常量表达式，不拼接外部输入）
+     */
+    public StatusTransition setSql(String sql) {
+        sqlSets.add(sql);
+        return this;
+    }
+
+    /**
+     * 附加的 WHERE 条件（只用于常量表达式，不拼接外部输入）
+     */
+    public StatusTransition where(String condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    /**
+     * 要求版本号未变化，用于流转依赖此前读到的其他字段时；为空时不校验
+     */
+    public StatusTransition expectVersion(Integer version) {
+        this.expectedVersion = version;
+        return this;
+    }
+}
@@ -0,0 +1,61 @@
+package com.erkang.service;
+
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * 状态流转引擎
+ * 用一条条件更新完成状态校验与变更，并发请求中只有一个能成功：
+ * UPDATE t SET status = ?, updated_at = ?, version = version + 1, ... WHERE id = ? AND status IN (...) [AND version = ?] [AND ...]
+ * 影响行数即结果，流转时间等列在同一条语句中写入。成功后发布 {@link StatusTransitionEvent}，
+ * 发布时事务尚未提交，需要在提交后处理的监听方使用 @TransactionalEventListener
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatusTransitionEngine {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 执行状态流转，返回是否成功；失败表示记录不存在、当前状态不在前驱状态中或版本号已变化
+     */
+    public <T> boolean apply(BaseMapper<T> mapper, StatusTransition transition) {
+        if (transition.getFrom().isEmpty()) {
+            return false;
+        }
+        UpdateWrapper<T> wrapper = new UpdateWrapper<>();
+        wrapper.set("status", transition.getTo())
+               .set("updated_at", transition.getAt())
+               .setSql("version = version + 1");
+        for (Map.Entry<String, Object> column : transition.getColumns().entrySet()) {
+            wrapper.set(column.getKey(), column.getValue());
+        }
+        for (String sql : transition.getSqlSets()) {
+            wrapper.setSql(sql);
+        }
+        wrapper.eq("id", transition.getId())
+               .in("status", transition.getFrom());
+        if (transition.getExpectedVersion() != null) {
+            wrapper.eq("version", transition.getExpectedVersion());
+        }
+        for (String condition : transition.getConditions()) {
+            wrapper.apply(condition);
+        }
+
+        if (mapper.update(null, wrapper) != 1) {
+            log.debug("状态流转未生效: {}#{} {} -> {}", transition.getEntity(), transition.getId(),
+                    transition.getFrom(), transition.getTo());
+            return false;
+        }
+        eventPublisher.publishEvent(new StatusTransitionEvent(transition.getEntity(), transition.getId(),
+                transition.getFrom(), transition.getTo(), transition.getAt()));
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.erkang.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 状态流转事件，流转成功后在事务内发布
+ *
+ * @param entity 实体名称
+ * @param id     记录ID
+ * @param from   允许的前驱状态（条件更新不回读流转前的确切状态）
+ * @param to     目标状态
+ * @param at     流转时间
+ */
+public record StatusTransitionEvent(String entity, Long id, List<String> from, String to, LocalDateTime at) {
+}
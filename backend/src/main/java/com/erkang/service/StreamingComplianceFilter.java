@@ -0,0 +1,97 @@
+package com.erkang.service;
+
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 流式输出合规过滤器
+ * 逐段接收模型输出并增量过滤剂量信息；尾部可能构成剂量表达式前缀的字符先暂存，
+ * 待后续片段到达后再判定，保证最终输出与 {@link AIService#ensureCompliance} 一致
+ * _Requirements: 10.2, 10.3, 10.4_
+ */
+public class StreamingComplianceFilter {
+
+    // 可能是剂量表达式开头的尾部：每/每次/每日+数字、数字+m/毫
+    private static final Pattern PENDING_TAIL = Pattern.compile("(?:每[次日]?\\d*|\\d+)[m毫]?\\z");
+
+    private final String prefix;
+    private final UnaryOperator<String> dosageFilter;
+    private final String disclaimer;
+
+    private final StringBuilder pending = new StringBuilder();
+    private final StringBuilder raw = new StringBuilder();
+    private final StringBuilder output = new StringBuilder();
+    private boolean started;
+    private boolean finished;
+
+    public StreamingComplianceFilter(String prefix, UnaryOperator<String> dosageFilter, String disclaimer) {
+        this.prefix = prefix != null ? prefix : "";
+        this.dosageFilter = dosageFilter;
+        this.disclaimer = disclaimer;
+    }
+
+    /**
+     * 开始输出，返回急危重症提醒（如有）
+     */
+    public String begin() {
+        if (started) {
+            return "";
+        }
+        started = true;
+        output.append(prefix);
+        return prefix;
+    }
+
+    /**
+     * 接收一段模型输出，返回可以安全下发的过滤后文本（可能为空串）
+     */
+    public String accept(String chunk) {
+        String head = begin();
+        if (chunk == null || chunk.isEmpty()) {
+            return head;
+        }
+        raw.append(chunk);
+        pending.append(chunk);
+
+        int cut = pending.length();
+        Matcher matcher = PENDING_TAIL.matcher(pending);
+        if (matcher.find()) {
+            cut = matcher.start();
+        }
+        String ready = pending.substring(0, cut);
+        pending.delete(0, cut);
+
+        String filtered = ready.isEmpty() ? "" : dosageFilter.apply(ready);
+        output.append(filtered);
+        return head + filtered;
+    }
+
+    /**
+     * 结束输出，冲刷暂存内容并补充免责声明
+     */
+    public String finish() {
+        String head = begin();
+        if (finished) {
+            return head;
+        }
+        finished = true;
+        StringBuilder tail = new StringBuilder(head);
+        if (pending.length() > 0) {
+            tail.append(dosageFilter.apply(pending.toString()));
+            pending.setLength(0);
+        }
+        if (raw.indexOf("免责声明") < 0) {
+            tail.append(disclaimer);
+        }
+        output.append(tail, head.length(), tail.length());
+        return tail.toString();
+    }
+
+    /**
+     * 已下发的完整输出
+     */
+    public String getOutput() {
+        return output.toString();
+    }
+}
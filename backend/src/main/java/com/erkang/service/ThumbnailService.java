@@ -0,0 +1,296 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.MedicalAttachment;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.MedicalAttachmentMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 图片附件缩略图
+ * 附件登记后在有界线程池中按配置的规格生成 JPEG 缩略图，存放在原图旁（原对象名@规格.jpg），
+ * 生成完成后记录到附件；对象名固定，重复生成只会覆盖同名缩略图，同一附件同时只排队一次
+ */
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    static final String RENDITION_SEPARATOR = "@";
+    static final String RENDITION_CONTENT_TYPE = "image/jpeg";
+    private static final Pattern RENDITION_SUFFIX = Pattern.compile("[A-Za-z0-9_-]+\\.jpg");
+
+    private final MinioService minioService;
+    private final PresignedUrlCache presignedUrlCache;
+    private final MedicalAttachmentMapper attachmentMapper;
+    private final StorageProperties.Thumbnail properties;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter renditionCounter;
+    private final Counter rejectedCounter;
+
+    public ThumbnailService(MinioService minioService, PresignedUrlCache presignedUrlCache,
+                            MedicalAttachmentMapper attachmentMapper, StorageProperties storageProperties,
+                            MeterRegistry meterRegistry) {
+        this.minioService = minioService;
+        this.presignedUrlCache = presignedUrlCache;
+        this.attachmentMapper = attachmentMapper;
+        this.properties = storageProperties.getThumbnail();
+        int threads = Math.max(1, properties.getThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                new CustomizableThreadFactory("thumbnail-"), new ThreadPoolExecutor.AbortPolicy());
+        this.successTimer = meterRegistry.timer("erkang.storage.thumbnail", "result", "success");
+        this.failureTimer = meterRegistry.timer("erkang.storage.thumbnail", "result", "failure");
+        this.renditionCounter = meterRegistry.counter("erkang.storage.thumbnail.renditions");
+        this.rejectedCounter = meterRegistry.counter("erkang.storage.thumbnail.rejected");
+        Gauge.builder("erkang.storage.thumbnail.queue", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 附件是否需要生成缩略图
+     */
+    public boolean supports(MedicalAttachment attachment) {
+        return properties.isEnabled()
+                && attachment.getId() != null
+                && attachment.getFileUrl() != null
+                && attachment.getFileType() != null
+                && properties.getContentTypes().contains(attachment.getFileType())
+                && (attachment.getFileSize() == null || attachment.getFileSize() <= properties.getMaxSourceSize());
+    }
+
+    /**
+     * 附件登记后提交生成任务；在事务中调用时于提交后提交，避免任务读到未提交的附件
+     */
+    public void submitAfterCommit(MedicalAttachment attachment) {
+        if (!supports(attachment)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(attachment);
+                }
+            });
+        } else {
+            submit(attachment);
+        }
+    }
+
+    /**
+     * 提交生成任务
+     * @return 是否已在队列中；队列已满时返回 false
+     */
+    public boolean submit(MedicalAttachment attachment) {
+        if (!supports(attachment)) {
+            return false;
+        }
+        Long id = attachment.getId();
+        if (!pending.add(id)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(attachment);
+                } finally {
+                    pending.remove(id);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(id);
+            rejectedCounter.increment();
+            log.warn("缩略图队列已满，跳过: attachmentId={}", id);
+            return false;
+        }
+    }
+
+    /**
+     * 重新生成附件的缩略图
+     */
+    public void regenerate(Long attachmentId) {
+        MedicalAttachment attachment = attachmentMapper.selectById(attachmentId);
+        if (attachment == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "附件不存在");
+        }
+        if (!supports(attachment)) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "该附件不支持生成缩略图");
+        }
+        if (!submit(attachment)) {
+            throw new BusinessException(ErrorCode.SYSTEM_BUSY);
+        }
+    }
+
+    /**
+     * 填充附件的缩略图访问地址
+     */
+    public List<MedicalAttachment> fillRenditionUrls(List<MedicalAttachment> attachments) {
+        for (MedicalAttachment attachment : attachments) {
+            String renditions = attachment.getRenditions();
+            if (renditions == null || renditions.isBlank()) {
+                continue;
+            }
+            Map<String, String> urls = new LinkedHashMap<>();
+            for (String name : renditions.split(",")) {
+                urls.put(name, presignedUrlCache.get(renditionObjectName(attachment.getFileUrl(), name),
+                        properties.getUrlExpireMinutes()).url());
+            }
+            attachment.setRenditionUrls(urls);
+        }
+        return attachments;
+    }
+
+    /**
+     * 生成全部规格并记录到附件，失败时只记录指标与日志
+     */
+    void generate(MedicalAttachment attachment) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage source = read(attachment.getFileUrl());
+            List<String> names = new ArrayList<>();
+            for (Map.Entry<String, Integer> size : properties.getSizes().entrySet()) {
+                byte[] jpeg = encode(resize(source, size.getValue()), properties.getQuality());
+                minioService.putBytes(renditionObjectName(attachment.getFileUrl(), size.getKey()),
+                        jpeg, RENDITION_CONTENT_TYPE);
+                names.add(size.getKey());
+                renditionCounter.increment();
+            }
+            MedicalAttachment update = new MedicalAttachment();
+            update.setId(attachment.getId());
+            update.setRenditions(String.join(",", names));
+            attachmentMapper.updateById(update);
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("缩略图生成完成: attachmentId={}, renditions={}", attachment.getId(), names);
+        } catch (Exception e) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("缩略图生成失败: attachmentId={}, object={}, reason={}",
+                    attachment.getId(), attachment.getFileUrl(), e.getMessage());
+        }
+    }
+
+    /**
+     * 读取原图，解码前按图片头部的宽高检查像素数
+     */
+    private BufferedImage read(String objectName) throws IOException {
+        try (InputStream in = minioService.downloadFile(objectName);
+             ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IOException("无法识别的图片格式");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > properties.getMaxSourcePixels()) {
+                    throw new IOException("图片像素数超过上限: " + pixels);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 按长边等比缩放到不超过 maxEdge，不放大；透明背景填充为白色
+     */
+    static BufferedImage resize(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 缩略图对象名：原对象名@规格.jpg（上传的对象名经过清理，不含@，不会与原图冲突）
+     */
+    static String renditionObjectName(String objectName, String rendition) {
+        return objectName + RENDITION_SEPARATOR + rendition + ".jpg";
+    }
+
+    /**
+     * 缩略图对应的原图对象名，非缩略图返回自身
+     */
+    static String originalObjectName(String objectName) {
+        int separator = objectName.lastIndexOf(RENDITION_SEPARATOR);
+        return separator > 0 && RENDITION_SUFFIX.matcher(objectName.substring(separator + 1)).matches()
+                ? objectName.substring(0, separator) : objectName;
+    }
+}
@@ -0,0 +1,28 @@
+package com.erkang.service;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token计数器
+ * 基于 cl100k_base BPE 编码，词表加载一次后全局复用；消息的Token数在写入时计算并落库，不重复计算
+ * _Requirements: 10.5_
+ */
+@Component
+public class TokenCounter {
+
+    private static final Encoding ENCODING =
+            Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+    // 每条对话消息在提示词中的格式开销（角色标记等）
+    public static final int MESSAGE_OVERHEAD = 4;
+
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return ENCODING.countTokens(text);
+    }
+}
@@ -53,7 +53,7 @@ public class ErkangWebSocketHandler extends TextWebSocketHandler {
             String type = (String) msg.get("type");
             
             switch (type) {
-                case "PING" -> handlePing(session);
+                case "PING" -> handlePing(session, userId);
                 case "JOIN_CONSULTATION" -> handleJoinConsultation(session, userId, msg);
                 case "LEAVE_CONSULTATION" -> handleLeaveConsultation(session, userId, msg);
                 default -> log.warn("未知消息类型: {}", type);
@@ -78,9 +78,14 @@ public class ErkangWebSocketHandler extends TextWebSocketHandler {
         log.error("WebSocket传输错误: userId={}, error={}", userId, exception.getMessage());
     }
 
-    private void handlePing(WebSocketSession session) throws IOException {
+    private void handlePing(WebSocketSession session, Long userId) throws IOException {
         WSMessage pong = WSMessage.of(WSMessageType.PONG, null);
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(pong)));
+        // 经由已登记的装饰会话发送，避免与推送消息并发写同一连接
+        WebSocketSession target = userId != null ? sessionManager.getSession(userId) : null;
+        if (target == null || !target.getId().equals(session.getId())) {
+            target = session;
+        }
+        target.sendMessage(new TextMessage(objectMapper.writeValueAsString(pong)));
     }
 
     private void handleJoinConsultation(WebSocketSession session, Long userId, Map<String, Object> msg) {
@@ -1,10 +1,13 @@
 package com.erkang.websocket;
 
+import com.erkang.metrics.jfr.WebSocketSendEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 import java.io.IOException;
 import java.util.Map;
@@ -20,10 +23,13 @@ public class MessageDispatcher {
 
     private final WebSocketSessionManager sessionManager;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
-    public MessageDispatcher(WebSocketSessionManager sessionManager, ObjectMapper objectMapper) {
+    public MessageDispatcher(WebSocketSessionManager sessionManager, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
         this.sessionManager = sessionManager;
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -168,11 +174,29 @@ public class MessageDispatcher {
     }
 
     private void sendMessage(WebSocketSession session, WSMessage message) {
+        WebSocketSendEvent event = new WebSocketSendEvent();
+        event.begin();
+        String outcome = "success";
+        int bytes = 0;
         try {
             String json = objectMapper.writeValueAsString(message);
+            bytes = json.length();
             session.sendMessage(new TextMessage(json));
-        } catch (IOException e) {
+        } catch (IOException | SessionLimitExceededException e) {
+            // 发送缓冲超限时装饰器会关闭该慢连接
+            outcome = "failure";
             log.error("发送WebSocket消息失败: {}", e.getMessage());
+        } finally {
+            meterRegistry.counter("erkang.websocket.messages",
+                    "type", String.valueOf(message.getType()), "outcome", outcome).increment();
+            event.end();
+            if (event.shouldCommit()) {
+                event.type = String.valueOf(message.getType());
+                event.userId = session.getAttributes().get("userId") instanceof Long userId ? userId : 0;
+                event.bytes = bytes;
+                event.outcome = outcome;
+                event.commit();
+            }
         }
     }
 }
@@ -2,6 +2,7 @@ package com.erkang.websocket;
 
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
 import java.util.Map;
 import java.util.Set;
@@ -15,14 +16,23 @@ import java.util.stream.Collectors;
 @Component
 public class WebSocketSessionManager {
 
+    // 单个会话发送超时与发送缓冲上限，超出后关闭慢连接，避免阻塞推送线程
+    static final int SEND_TIME_LIMIT_MS = 10_000;
+    static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
     // userId -> session
     private final Map<Long, WebSocketSession> userSessions = new ConcurrentHashMap<>();
     
     // consultationId -> Set<userId>
     private final Map<Long, Set<Long>> consultationUsers = new ConcurrentHashMap<>();
 
+    /**
+     * 登记会话，发送统一经过并发安全的缓冲装饰器
+     */
     public void addSession(Long userId, WebSocketSession session) {
-        userSessions.put(userId, session);
+        userSessions.put(userId, session instanceof ConcurrentWebSocketSessionDecorator
+                ? session
+                : new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES));
     }
 
     public void removeSession(Long userId) {
@@ -63,6 +73,26 @@ public class WebSocketSessionManager {
                    .collect(Collectors.toSet());
     }
 
+    /**
+     * 问诊房间数
+     */
+    public int getConsultationCount() {
+        return consultationUsers.size();
+    }
+
+    /**
+     * 所有会话待发送缓冲的字节数
+     */
+    public long getPendingSendBytes() {
+        long total = 0;
+        for (WebSocketSession session : userSessions.values()) {
+            if (session instanceof ConcurrentWebSocketSessionDecorator decorator) {
+                total += decorator.getBufferSize();
+            }
+        }
+        return total;
+    }
+
     public int getOnlineCount() {
         return (int) userSessions.values().stream()
                                  .filter(WebSocketSession::isOpen)
@@ -0,0 +1,5 @@
+-- =============================================
+-- AI任务表添加缓存命中标记
+-- =============================================
+
+ALTER TABLE ai_task ADD COLUMN cache_hit TINYINT(1) DEFAULT 0 COMMENT '是否命中问答缓存' AFTER retry_count;
@@ -0,0 +1,7 @@
+-- =============================================
+-- AI对话会话滚动摘要
+-- =============================================
+
+ALTER TABLE ai_chat_session ADD COLUMN summary TEXT COMMENT '早期对话滚动摘要' AFTER status;
+ALTER TABLE ai_chat_session ADD COLUMN summary_until_id BIGINT COMMENT '已纳入摘要的最后一条消息ID' AFTER summary;
+ALTER TABLE ai_chat_session ADD COLUMN summary_tokens INT DEFAULT 0 COMMENT '摘要Token数' AFTER summary_until_id;
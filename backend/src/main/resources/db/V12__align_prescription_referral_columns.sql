@@ -0,0 +1,21 @@
+-- =============================================
+-- 处方、审方与转诊表补齐实体字段
+-- =============================================
+
+-- 处方审核与发药时间
+ALTER TABLE prescription ADD COLUMN reviewed_at DATETIME COMMENT '审核时间' AFTER approved_at;
+ALTER TABLE prescription ADD COLUMN dispensed_at DATETIME COMMENT '发药时间' AFTER reviewed_at;
+
+-- 处方明细药品编码、给药途径、用药天数与单价
+ALTER TABLE prescription_item ADD COLUMN drug_code VARCHAR(50) COMMENT '药品编码' AFTER drug_name;
+ALTER TABLE prescription_item ADD COLUMN route VARCHAR(50) COMMENT '给药途径' AFTER frequency;
+ALTER TABLE prescription_item ADD COLUMN days INT COMMENT '用药天数' AFTER duration;
+ALTER TABLE prescription_item ADD COLUMN price DECIMAL(10,2) COMMENT '单价' AFTER unit;
+
+-- 审方风险描述
+ALTER TABLE pharmacy_review ADD COLUMN risk_description TEXT COMMENT '风险描述' AFTER risk_level;
+
+-- 转诊检查资料、紧急程度与完成时间
+ALTER TABLE referral ADD COLUMN exam_results TEXT COMMENT '检查资料' AFTER clinical_summary;
+ALTER TABLE referral ADD COLUMN urgency_level VARCHAR(20) DEFAULT 'NORMAL' COMMENT '紧急程度: NORMAL/URGENT/EMERGENCY' AFTER exam_results;
+ALTER TABLE referral ADD COLUMN completed_at DATETIME COMMENT '完成时间' AFTER accepted_at;
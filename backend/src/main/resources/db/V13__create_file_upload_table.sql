@@ -0,0 +1,23 @@
+-- =============================================
+-- 大文件分片上传任务
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS file_upload (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    upload_id VARCHAR(255) NOT NULL COMMENT '对象存储分片上传ID',
+    object_name VARCHAR(500) NOT NULL COMMENT '对象名称',
+    file_name VARCHAR(255) COMMENT '原始文件名',
+    content_type VARCHAR(100) COMMENT '内容类型',
+    category VARCHAR(50) COMMENT '文件分类',
+    file_size BIGINT NOT NULL COMMENT '文件大小(字节)',
+    part_size INT NOT NULL COMMENT '分片大小(字节)',
+    part_count INT NOT NULL COMMENT '分片数',
+    uploader_id BIGINT NOT NULL COMMENT '上传用户ID',
+    status VARCHAR(20) DEFAULT 'UPLOADING' COMMENT '状态: UPLOADING/COMPLETED/ABORTED/EXPIRED',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    expires_at DATETIME NOT NULL COMMENT '过期时间',
+    completed_at DATETIME COMMENT '完成/取消时间',
+    UNIQUE KEY uk_upload_id (upload_id),
+    INDEX idx_uploader (uploader_id),
+    INDEX idx_status_expires (status, expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='分片上传任务表';
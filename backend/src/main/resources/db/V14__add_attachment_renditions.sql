@@ -0,0 +1,5 @@
+-- =============================================
+-- 病历附件缩略图
+-- =============================================
+
+ALTER TABLE medical_attachment ADD COLUMN renditions VARCHAR(100) COMMENT '已生成的缩略图规格，逗号分隔' AFTER uploader_id;
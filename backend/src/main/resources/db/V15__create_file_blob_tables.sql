@@ -0,0 +1,26 @@
+-- =============================================
+-- 内容寻址去重存储
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS file_blob (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    sha256 CHAR(64) NOT NULL COMMENT '文件内容SHA-256',
+    object_name VARCHAR(500) NOT NULL COMMENT '对象名称',
+    file_size BIGINT NOT NULL COMMENT '文件大小(字节)',
+    content_type VARCHAR(100) COMMENT '内容类型',
+    ref_count INT NOT NULL DEFAULT 0 COMMENT '引用数，-1表示正在删除',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_sha256 (sha256),
+    INDEX idx_object_name (object_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='去重文件内容表';
+
+CREATE TABLE IF NOT EXISTS file_blob_ref (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    sha256 CHAR(64) NOT NULL COMMENT '文件内容SHA-256',
+    uploader_id BIGINT NOT NULL COMMENT '上传用户ID',
+    file_name VARCHAR(255) COMMENT '原始文件名',
+    category VARCHAR(50) COMMENT '文件分类',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_sha256_uploader (sha256, uploader_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='去重文件引用表';
@@ -0,0 +1,10 @@
+-- =============================================
+-- 状态流转版本号：每次状态流转递增，配合条件更新防止并发重复流转
+-- =============================================
+
+ALTER TABLE consultation ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增' AFTER status_updated_at;
+ALTER TABLE prescription ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增' AFTER status_updated_at;
+ALTER TABLE referral ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增' AFTER status_updated_at;
+ALTER TABLE mdt_case ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增' AFTER status_updated_at;
+ALTER TABLE followup_plan ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增' AFTER status;
+ALTER TABLE followup_record ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增' AFTER status;
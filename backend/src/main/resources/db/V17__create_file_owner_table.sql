@@ -0,0 +1,14 @@
+-- =============================================
+-- 文件上传者记录：普通上传、浏览器直传与预签名上传的对象归属，用于按对象校验访问权限
+-- （分片上传以 file_upload 为准，去重内容以 file_blob_ref 为准）
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS file_owner (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    object_name VARCHAR(500) NOT NULL COMMENT '对象名称',
+    uploader_id BIGINT NOT NULL COMMENT '上传用户ID',
+    source VARCHAR(20) NOT NULL COMMENT '上传方式: UPLOAD/DIRECT/PRESIGNED',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_object_name (object_name),
+    INDEX idx_uploader (uploader_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件上传者表';
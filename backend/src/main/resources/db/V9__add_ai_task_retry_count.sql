@@ -0,0 +1,5 @@
+-- =============================================
+-- AI任务表添加重试次数字段
+-- =============================================
+
+ALTER TABLE ai_task ADD COLUMN retry_count INT DEFAULT 0 COMMENT '重试次数' AFTER latency_ms;
@@ -177,10 +177,13 @@ CREATE TABLE IF NOT EXISTS consultation (
     consultation_type VARCHAR(20) DEFAULT 'VIDEO' COMMENT '类型: VIDEO/TEXT/PHONE',
     status VARCHAR(20) DEFAULT 'WAITING' COMMENT '状态: WAITING/IN_PROGRESS/FINISHED/CANCELED',
     status_updated_at DATETIME COMMENT '状态更新时间',
+    version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增',
     start_time DATETIME COMMENT '开始时间',
     end_time DATETIME COMMENT '结束时间',
     duration INT COMMENT '时长(分钟)',
     rtc_room_id VARCHAR(64) COMMENT 'RTC房间ID',
+    symptoms TEXT COMMENT '症状描述',
+    scheduled_at DATETIME COMMENT '预约时间',
     is_recorded TINYINT DEFAULT 0 COMMENT '是否录制: 0否 1是',
     record_consent TINYINT DEFAULT 0 COMMENT '录制授权: 0未授权 1已授权',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
@@ -248,6 +251,7 @@ CREATE TABLE IF NOT EXISTS medical_attachment (
     category VARCHAR(50) COMMENT '分类: REPORT/IMAGE/OTHER',
     description VARCHAR(255) COMMENT '描述',
     uploader_id BIGINT NOT NULL COMMENT '上传者ID',
+    renditions VARCHAR(100) COMMENT '已生成的缩略图规格，逗号分隔',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_record (record_id),
     INDEX idx_consultation (consultation_id),
@@ -269,8 +273,11 @@ CREATE TABLE IF NOT EXISTS prescription (
     diagnosis TEXT COMMENT '诊断',
     status VARCHAR(20) DEFAULT 'DRAFT' COMMENT '状态: DRAFT/PENDING_REVIEW/APPROVED/REJECTED',
     status_updated_at DATETIME COMMENT '状态更新时间',
+    version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增',
     submitted_at DATETIME COMMENT '提交审核时间',
     approved_at DATETIME COMMENT '审核通过时间',
+    reviewed_at DATETIME COMMENT '审核时间',
+    dispensed_at DATETIME COMMENT '发药时间',
     notes TEXT COMMENT '医嘱/备注',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
@@ -287,12 +294,16 @@ CREATE TABLE IF NOT EXISTS prescription_item (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     prescription_id BIGINT NOT NULL COMMENT '处方ID',
     drug_name VARCHAR(100) NOT NULL COMMENT '药品名称',
+    drug_code VARCHAR(50) COMMENT '药品编码',
     drug_spec VARCHAR(100) COMMENT '规格',
     dosage VARCHAR(100) COMMENT '用法用量',
     frequency VARCHAR(50) COMMENT '频次',
+    route VARCHAR(50) COMMENT '给药途径',
     duration VARCHAR(50) COMMENT '疗程',
+    days INT COMMENT '用药天数',
     quantity INT COMMENT '数量',
     unit VARCHAR(20) COMMENT '单位',
+    price DECIMAL(10,2) COMMENT '单价',
     notes VARCHAR(255) COMMENT '备注',
     sort_order INT DEFAULT 0 COMMENT '排序',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
@@ -306,6 +317,7 @@ CREATE TABLE IF NOT EXISTS pharmacy_review (
     reviewer_id BIGINT NOT NULL COMMENT '审方药师ID',
     review_status VARCHAR(20) NOT NULL COMMENT '审核结果: APPROVED/REJECTED/NEED_INFO',
     risk_level VARCHAR(20) COMMENT '风险等级: HIGH/MEDIUM/LOW',
+    risk_description TEXT COMMENT '风险描述',
     high_risk_items TEXT COMMENT '高风险项',
     medium_risk_items TEXT COMMENT '中风险项',
     low_risk_items TEXT COMMENT '低风险项',
@@ -337,9 +349,13 @@ CREATE TABLE IF NOT EXISTS referral (
     referral_no VARCHAR(32) NOT NULL UNIQUE COMMENT '转诊编号',
     referral_reason TEXT NOT NULL COMMENT '转诊原因',
     clinical_summary TEXT NOT NULL COMMENT '病历摘要',
+    exam_results TEXT COMMENT '检查资料',
+    urgency_level VARCHAR(20) DEFAULT 'NORMAL' COMMENT '紧急程度: NORMAL/URGENT/EMERGENCY',
     status VARCHAR(20) DEFAULT 'PENDING' COMMENT '状态: PENDING/ACCEPTED/REJECTED/COMPLETED',
     status_updated_at DATETIME COMMENT '状态更新时间',
+    version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增',
     accepted_at DATETIME COMMENT '接受时间',
+    completed_at DATETIME COMMENT '完成时间',
     reject_reason VARCHAR(255) COMMENT '拒绝原因',
     new_consultation_id BIGINT COMMENT '新问诊ID',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
@@ -367,6 +383,7 @@ CREATE TABLE IF NOT EXISTS mdt_case (
     rtc_room_id VARCHAR(64) COMMENT 'RTC房间ID',
     status VARCHAR(20) DEFAULT 'PENDING' COMMENT '状态: PENDING/IN_PROGRESS/COMPLETED/CANCELED',
     status_updated_at DATETIME COMMENT '状态更新时间',
+    version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_consultation (consultation_id),
@@ -426,6 +443,7 @@ CREATE TABLE IF NOT EXISTS followup_plan (
     question_list TEXT COMMENT '随访问题清单(JSON)',
     red_flags TEXT COMMENT '红旗征象(JSON)',
     status VARCHAR(20) DEFAULT 'ACTIVE' COMMENT '状态: ACTIVE/COMPLETED/CANCELED',
+    version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_consultation (consultation_id),
@@ -449,6 +467,7 @@ CREATE TABLE IF NOT EXISTS followup_record (
     doctor_comment TEXT COMMENT '医生评语',
     next_action VARCHAR(255) COMMENT '下一步建议',
     status VARCHAR(20) DEFAULT 'PENDING' COMMENT '状态: PENDING/SUBMITTED/REVIEWED',
+    version INT NOT NULL DEFAULT 0 COMMENT '版本号，状态流转时递增',
     submitted_at DATETIME COMMENT '提交时间',
     reviewed_at DATETIME COMMENT '审阅时间',
     reviewer_id BIGINT COMMENT '审阅医生ID',
@@ -477,6 +496,8 @@ CREATE TABLE IF NOT EXISTS ai_task (
     error_message TEXT COMMENT '错误信息',
     tokens_used INT COMMENT '消耗Token数',
     latency_ms INT COMMENT '响应延迟(毫秒)',
+    retry_count INT DEFAULT 0 COMMENT '重试次数',
+    cache_hit TINYINT(1) DEFAULT 0 COMMENT '是否命中问答缓存',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     completed_at DATETIME COMMENT '完成时间',
     INDEX idx_type (task_type),
@@ -492,6 +513,9 @@ CREATE TABLE IF NOT EXISTS ai_chat_session (
     session_type VARCHAR(50) DEFAULT 'HEALTH_QA' COMMENT '会话类型',
     title VARCHAR(100) COMMENT '会话标题',
     status VARCHAR(20) DEFAULT 'ACTIVE' COMMENT '状态: ACTIVE/CLOSED',
+    summary TEXT COMMENT '早期对话滚动摘要',
+    summary_until_id BIGINT COMMENT '已纳入摘要的最后一条消息ID',
+    summary_tokens INT DEFAULT 0 COMMENT '摘要Token数',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_user (user_id),
@@ -537,7 +561,67 @@ CREATE TABLE IF NOT EXISTS audit_log (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='审计日志表';
 
 -- =============================================
--- 第八部分: 初始化数据
+-- 第八部分: 文件存储相关表 (V13, V15)
+-- =============================================
+
+-- 分片上传任务表
+CREATE TABLE IF NOT EXISTS file_upload (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    upload_id VARCHAR(255) NOT NULL COMMENT '对象存储分片上传ID',
+    object_name VARCHAR(500) NOT NULL COMMENT '对象名称',
+    file_name VARCHAR(255) COMMENT '原始文件名',
+    content_type VARCHAR(100) COMMENT '内容类型',
+    category VARCHAR(50) COMMENT '文件分类',
+    file_size BIGINT NOT NULL COMMENT '文件大小(字节)',
+    part_size INT NOT NULL COMMENT '分片大小(字节)',
+    part_count INT NOT NULL COMMENT '分片数',
+    uploader_id BIGINT NOT NULL COMMENT '上传用户ID',
+    status VARCHAR(20) DEFAULT 'UPLOADING' COMMENT '状态: UPLOADING/COMPLETED/ABORTED/EXPIRED',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    expires_at DATETIME NOT NULL COMMENT '过期时间',
+    completed_at DATETIME COMMENT '完成/取消时间',
+    UNIQUE KEY uk_upload_id (upload_id),
+    INDEX idx_uploader (uploader_id),
+    INDEX idx_status_expires (status, expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='分片上传任务表';
+
+-- 去重文件内容表
+CREATE TABLE IF NOT EXISTS file_blob (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    sha256 CHAR(64) NOT NULL COMMENT '文件内容SHA-256',
+    object_name VARCHAR(500) NOT NULL COMMENT '对象名称',
+    file_size BIGINT NOT NULL COMMENT '文件大小(字节)',
+    content_type VARCHAR(100) COMMENT '内容类型',
+    ref_count INT NOT NULL DEFAULT 0 COMMENT '引用数，-1表示正在删除',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_sha256 (sha256),
+    INDEX idx_object_name (object_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='去重文件内容表';
+
+-- 去重文件引用表
+CREATE TABLE IF NOT EXISTS file_blob_ref (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    sha256 CHAR(64) NOT NULL COMMENT '文件内容SHA-256',
+    uploader_id BIGINT NOT NULL COMMENT '上传用户ID',
+    file_name VARCHAR(255) COMMENT '原始文件名',
+    category VARCHAR(50) COMMENT '文件分类',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_sha256_uploader (sha256, uploader_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='去重文件引用表';
+
+CREATE TABLE IF NOT EXISTS file_owner (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    object_name VARCHAR(500) NOT NULL COMMENT '对象名称',
+    uploader_id BIGINT NOT NULL COMMENT '上传用户ID',
+    source VARCHAR(20) NOT NULL COMMENT '上传方式: UPLOAD/DIRECT/PRESIGNED',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_object_name (object_name),
+    INDEX idx_uploader (uploader_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件上传者表';
+
+-- =============================================
+-- 第九部分: 初始化数据
 -- =============================================
 
 -- 初始化角色数据
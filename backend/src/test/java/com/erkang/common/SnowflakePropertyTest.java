@@ -0,0 +1,120 @@
+package com.erkang.common;
+
+import com.erkang.common.utils.Snowflake;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 雪花ID属性测试
+ */
+class SnowflakePropertyTest {
+
+    private static final long NOW = 1735689600000L;
+
+    /**
+     * 多线程并发发号不重复，每个线程拿到的ID单调递增，ID中的节点号与配置一致
+     */
+    @Property(tries = 10)
+    void concurrentIdsUniqueAndIncreasing(@ForAll @IntRange(min = 0, max = 1023) int nodeId,
+                                          @ForAll @IntRange(min = 2, max = 8) int threads) throws Exception {
+        Snowflake snowflake = new Snowflake(nodeId, 5000, 0, System::currentTimeMillis);
+        int perThread = 5000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Throwable> errors = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long previous = -1;
+                    for (int i = 0; i < perThread; i++) {
+                        long id = snowflake.nextId();
+                        assertThat(id).isGreaterThan(previous);
+                        assertThat(Snowflake.nodeIdOf(id)).isEqualTo(nodeId);
+                        ids.add(id);
+                        previous = id;
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(errors).isEmpty();
+        assertThat(ids).hasSize(threads * perThread);
+    }
+
+    /**
+     * 同一毫秒内序列号用尽时借用下一毫秒，仍然递增
+     */
+    @Example
+    void sequenceOverflowBorrowsNextMillisecond() {
+        Snowflake snowflake = new Snowflake(1, 5, 0, () -> NOW);
+        long previous = -1;
+        for (int i = 0; i < 3 * 4096; i++) {
+            long id = snowflake.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(Snowflake.timestampOf(id)).isEqualTo(NOW + i / 4096);
+            previous = id;
+        }
+    }
+
+    /**
+     * 时钟回拨不超过容忍值时继续递增发号，超过时拒绝，时钟追上后恢复
+     */
+    @Property(tries = 50)
+    void clockBackwardGuarded(@ForAll @LongRange(min = 1, max = 10000) long backward,
+                              @ForAll @LongRange(min = 0, max = 5000) long tolerance) {
+        AtomicLong clock = new AtomicLong(NOW);
+        Snowflake snowflake = new Snowflake(3, tolerance, 0, clock::get);
+        long before = snowflake.nextId();
+
+        clock.addAndGet(-backward);
+        if (backward <= tolerance) {
+            assertThat(snowflake.nextId()).isGreaterThan(before);
+        } else {
+            assertThatThrownBy(snowflake::nextId).isInstanceOf(BusinessException.class);
+        }
+
+        clock.set(NOW + 1);
+        assertThat(snowflake.nextId()).isGreaterThan(before);
+    }
+
+    /**
+     * 接手节点号时从上一持有者已发出的时间之后继续
+     */
+    @Property(tries = 50)
+    void resumesAfterPreviousHolder(@ForAll @LongRange(min = 0, max = 3000) long previousLead) {
+        long issuedUntil = NOW + previousLead;
+        Snowflake snowflake = new Snowflake(7, 5000, issuedUntil, () -> NOW);
+
+        long id = snowflake.nextId();
+
+        assertThat(Snowflake.timestampOf(id)).isGreaterThan(issuedUntil);
+        assertThat(snowflake.issuedUntil()).isEqualTo(Snowflake.timestampOf(id));
+    }
+
+    @Example
+    void nodeIdOutOfRangeRejected() {
+        assertThatThrownBy(() -> new Snowflake(1024, 0, 0, () -> NOW)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Snowflake(-1, 0, 0, () -> NOW)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
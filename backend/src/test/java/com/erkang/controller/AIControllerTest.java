@@ -1,14 +1,19 @@
 package com.erkang.controller;
 
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
 import com.erkang.domain.entity.AIChatMessage;
 import com.erkang.domain.entity.AIChatSession;
 import com.erkang.service.AIService;
+import com.erkang.service.AIStreamService;
+import com.erkang.service.AITaskQueueService;
 import net.jqwik.api.*;
 import net.jqwik.api.constraints.*;
 import net.jqwik.api.lifecycle.BeforeProperty;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -21,12 +26,14 @@ import static org.mockito.Mockito.*;
 class AIControllerTest {
 
     private AIService aiService;
+    private AIStreamService aiStreamService;
     private AIController aiController;
 
     @BeforeProperty
     void setUp() {
         aiService = mock(AIService.class);
-        aiController = new AIController(aiService);
+        aiStreamService = mock(AIStreamService.class);
+        aiController = new AIController(aiService, aiStreamService, mock(AITaskQueueService.class));
     }
 
     /**
@@ -66,6 +73,22 @@ class AIControllerTest {
         assertThat(mockAnswer).isNotBlank();
     }
 
+    /**
+     * 他人的会话在构建上下文与推流前被拒绝
+     */
+    @Property(tries = 20)
+    void foreignSession_shouldBeRejectedBeforeAnswering(@ForAll @LongRange(min = 1, max = 10000) Long sessionId) {
+        when(aiService.getOwnedSession(eq(sessionId), any(), anyBoolean()))
+                .thenThrow(new BusinessException(ErrorCode.FORBIDDEN));
+
+        assertThatThrownBy(() -> aiController.healthQA(sessionId, Map.of("question", "耳鸣")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> aiController.healthQAStream(sessionId, Map.of("question", "耳鸣")))
+                .isInstanceOf(BusinessException.class);
+        verify(aiService, never()).healthQA(any(), any(), any());
+        verifyNoInteractions(aiStreamService);
+    }
+
     /**
      * Property 3: 关闭会话 - 应更新会话状态为已关闭
      * **Validates: Requirements 10.3**
@@ -3,11 +3,13 @@ package com.erkang.controller;
 import com.erkang.common.BusinessException;
 import com.erkang.common.ErrorCode;
 import com.erkang.common.Result;
+import com.erkang.config.AuthProperties;
 import com.erkang.mapper.ConsultationMapper;
 import com.erkang.mapper.PermissionMapper;
 import com.erkang.mapper.PrescriptionMapper;
 import com.erkang.mapper.RoleMapper;
 import com.erkang.mapper.UserMapper;
+import com.erkang.security.PermissionCache;
 import com.erkang.service.AuditService;
 import com.erkang.service.AuthService;
 import net.jqwik.api.*;
@@ -48,7 +50,8 @@ class AdminControllerTest {
         
         adminController = new AdminController(
             userMapper, consultationMapper, prescriptionMapper,
-            authService, roleMapper, permissionMapper, auditService
+            authService, roleMapper, permissionMapper, auditService,
+            new PermissionCache(userMapper, roleMapper, permissionMapper, new AuthProperties(), null)
         );
     }
 
@@ -2,11 +2,13 @@ package com.erkang.controller;
 
 import com.erkang.common.BusinessException;
 import com.erkang.common.Result;
+import com.erkang.config.AuthProperties;
 import com.erkang.mapper.ConsultationMapper;
 import com.erkang.mapper.PermissionMapper;
 import com.erkang.mapper.PrescriptionMapper;
 import com.erkang.mapper.RoleMapper;
 import com.erkang.mapper.UserMapper;
+import com.erkang.security.PermissionCache;
 import com.erkang.service.AuditService;
 import com.erkang.service.AuthService;
 import net.jqwik.api.*;
@@ -47,7 +49,8 @@ class AdminRolePermissionPropertyTest {
         
         adminController = new AdminController(
             userMapper, consultationMapper, prescriptionMapper,
-            authService, roleMapper, permissionMapper, auditService
+            authService, roleMapper, permissionMapper, auditService,
+            new PermissionCache(userMapper, roleMapper, permissionMapper, new AuthProperties(), null)
         );
     }
 
@@ -1,11 +1,24 @@
 package com.erkang.controller;
 
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.integration.storage.LocalObjectCache;
 import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.FileOwnerMapper;
+import com.erkang.security.LoginUser;
+import com.erkang.security.UserContext;
+import com.erkang.service.DedupStorageService;
+import com.erkang.service.DirectUploadService;
+import com.erkang.service.FileDownloadService;
+import com.erkang.service.FileUrlService;
+import com.erkang.service.MultipartUploadService;
 import net.jqwik.api.*;
 import net.jqwik.api.constraints.*;
 import net.jqwik.api.lifecycle.BeforeProperty;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -17,12 +30,18 @@ import static org.mockito.Mockito.*;
 class FileControllerTest {
 
     private MinioService minioService;
+    private FileUrlService fileUrlService;
+    private FileOwnerMapper fileOwnerMapper;
     private FileController fileController;
 
     @BeforeProperty
     void setUp() {
         minioService = mock(MinioService.class);
-        fileController = new FileController(minioService);
+        fileUrlService = mock(FileUrlService.class);
+        fileOwnerMapper = mock(FileOwnerMapper.class);
+        fileController = new FileController(minioService, mock(MultipartUploadService.class), mock(DirectUploadService.class),
+                mock(FileDownloadService.class), mock(DedupStorageService.class), fileUrlService,
+                mock(PresignedUrlCache.class), mock(LocalObjectCache.class), fileOwnerMapper);
     }
 
     /**
@@ -35,7 +54,7 @@ class FileControllerTest {
             @ForAll @IntRange(min = 1, max = 60) int expireMinutes) {
         
         String mockUrl = "http://minio.example.com/bucket/" + objectName + "?signature=xxx";
-        when(minioService.getPresignedUrl(objectName, expireMinutes)).thenReturn(mockUrl);
+        when(fileUrlService.presign(objectName, expireMinutes)).thenReturn(mockUrl);
         
         var result = fileController.getPresignedUrl(objectName, expireMinutes);
         
@@ -99,7 +118,7 @@ class FileControllerTest {
         
         doNothing().when(minioService).deleteFile(objectName);
         
-        var result = fileController.delete(objectName);
+        var result = fileController.delete(objectName, null);
         
         assertThat(result).isNotNull();
     }
@@ -155,7 +174,10 @@ class FileControllerTest {
     @Test
     void objectName_shouldContainDatePath() {
         minioService = mock(MinioService.class);
-        fileController = new FileController(minioService);
+        fileOwnerMapper = mock(FileOwnerMapper.class);
+        fileController = new FileController(minioService, mock(MultipartUploadService.class), mock(DirectUploadService.class),
+                mock(FileDownloadService.class), mock(DedupStorageService.class), mock(FileUrlService.class),
+                mock(PresignedUrlCache.class), mock(LocalObjectCache.class), fileOwnerMapper);
         
         String mockUrl = "http://minio.example.com/bucket/upload?signature=xxx";
         when(minioService.getPresignedUploadUrl(anyString(), anyInt())).thenReturn(mockUrl);
@@ -165,4 +187,22 @@ class FileControllerTest {
         String objectName = result.getData().get("objectName");
         assertThat(objectName).matches(".*\\d{4}/\\d{2}/\\d{2}.*");
     }
+
+    /**
+     * 预签名上传记录上传者，上传完成后本人可访问该对象
+     */
+    @Test
+    void presignedUpload_shouldRecordOwner() {
+        setUp();
+        when(minioService.getPresignedUploadUrl(anyString(), anyInt())).thenReturn("http://minio.example.com/u");
+        UserContext.setUser(LoginUser.builder().userId(7L).username("patient").roles(List.of("PATIENT")).build());
+        try {
+            String objectName = fileController.getPresignedUploadUrl("scan.png", "attachment", 10)
+                    .getData().get("objectName");
+
+            verify(fileOwnerMapper).record(objectName, 7L, FileOwner.SOURCE_PRESIGNED);
+        } finally {
+            UserContext.clear();
+        }
+    }
 }
@@ -6,7 +6,10 @@ import com.erkang.domain.entity.PrescriptionItem;
 import com.erkang.domain.enums.PrescriptionStatus;
 import com.erkang.mapper.PrescriptionItemMapper;
 import com.erkang.mapper.PrescriptionMapper;
+import com.erkang.service.BusinessNoGenerators;
 import com.erkang.service.PrescriptionService;
+import com.erkang.service.SingleRowTable;
+import com.erkang.service.StatusTransitionEngine;
 import net.jqwik.api.*;
 import net.jqwik.api.constraints.LongRange;
 import org.mockito.Mockito;
@@ -117,38 +120,38 @@ class PrescriptionStatusPropertyTest {
 
     /**
      * Property 4.6: 非法状态转换应被拒绝
-     * *For any* illegal status transition, service should throw exception
+     * *For any* illegal status transition, service should throw exception and leave the record unchanged
      */
     @Property(tries = 100)
     void illegalTransitionShouldBeRejected(
             @ForAll @LongRange(min = 1, max = 1000000) Long prescriptionId,
             @ForAll("illegalTransitions") StatusTransition transition) {
         
-        PrescriptionMapper prescriptionMapper = Mockito.mock(PrescriptionMapper.class);
-        PrescriptionItemMapper itemMapper = Mockito.mock(PrescriptionItemMapper.class);
-        PrescriptionService service = new PrescriptionService(prescriptionMapper, itemMapper);
+        SingleRowTable table = new SingleRowTable(prescriptionId, transition.from.getCode());
+        PrescriptionService service = service(table);
         
-        Prescription prescription = new Prescription();
-        prescription.setId(prescriptionId);
-        prescription.setStatus(transition.from.getCode());
-        prescription.setPrescriptionNo("RX20241230TEST");
+        assertThatThrownBy(() -> transitionTo(service, prescriptionId, transition.to))
+            .isInstanceOf(BusinessException.class)
+            .hasMessageContaining("状态流转不合法");
+        assertThat(table.row).containsEntry("status", transition.from.getCode()).containsEntry("version", 0);
+    }
+
+    /**
+     * Property 4.6b: 合法状态转换应生效
+     * *For any* legal status transition, service should update status and version once
+     */
+    @Property(tries = 100)
+    void legalTransitionShouldSucceed(
+            @ForAll @LongRange(min = 1, max = 1000000) Long prescriptionId,
+            @ForAll("legalTransitions") StatusTransition transition) {
         
-        when(prescriptionMapper.selectById(prescriptionId)).thenReturn(prescription);
+        SingleRowTable table = new SingleRowTable(prescriptionId, transition.from.getCode());
+        PrescriptionService service = service(table);
         
-        // 根据目标状态调用相应方法
-        if (transition.to == PrescriptionStatus.APPROVED) {
-            assertThatThrownBy(() -> service.approve(prescriptionId))
-                .isInstanceOf(BusinessException.class)
-                .hasMessageContaining("状态流转不合法");
-        } else if (transition.to == PrescriptionStatus.REJECTED) {
-            assertThatThrownBy(() -> service.reject(prescriptionId, "test"))
-                .isInstanceOf(BusinessException.class)
-                .hasMessageContaining("状态流转不合法");
-        } else if (transition.to == PrescriptionStatus.DISPENSED) {
-            assertThatThrownBy(() -> service.dispense(prescriptionId))
-                .isInstanceOf(BusinessException.class)
-                .hasMessageContaining("状态流转不合法");
-        }
+        Prescription result = transitionTo(service, prescriptionId, transition.to);
+        
+        assertThat(result.getStatus()).isEqualTo(transition.to.getCode());
+        assertThat(table.row).containsEntry("status", transition.to.getCode()).containsEntry("version", 1);
     }
 
     /**
@@ -173,7 +176,8 @@ class PrescriptionStatusPropertyTest {
         
         PrescriptionMapper prescriptionMapper = Mockito.mock(PrescriptionMapper.class);
         PrescriptionItemMapper itemMapper = Mockito.mock(PrescriptionItemMapper.class);
-        PrescriptionService service = new PrescriptionService(prescriptionMapper, itemMapper);
+        PrescriptionService service = new PrescriptionService(prescriptionMapper, itemMapper, BusinessNoGenerators.fixed(0),
+                new StatusTransitionEngine(event -> { }));
         
         Prescription prescription = new Prescription();
         prescription.setId(prescriptionId);
@@ -206,10 +210,44 @@ class PrescriptionStatusPropertyTest {
         );
     }
 
+    @Provide
+    Arbitrary<StatusTransition> legalTransitions() {
+        return Arbitraries.of(
+            new StatusTransition(PrescriptionStatus.PENDING_REVIEW, PrescriptionStatus.APPROVED),
+            new StatusTransition(PrescriptionStatus.PENDING_REVIEW, PrescriptionStatus.REJECTED),
+            new StatusTransition(PrescriptionStatus.APPROVED, PrescriptionStatus.DISPENSED)
+        );
+    }
+
     @Provide
     Arbitrary<PrescriptionStatus> allStatuses() {
         return Arbitraries.of(PrescriptionStatus.values());
     }
 
+    /**
+     * 条件更新落在单行内存表上的处方服务，按表中当前状态读取处方
+     */
+    private static PrescriptionService service(SingleRowTable table) {
+        PrescriptionMapper prescriptionMapper = table.mapper(PrescriptionMapper.class);
+        when(prescriptionMapper.selectById(any())).thenAnswer(inv -> table.snapshot(() -> {
+            Prescription prescription = new Prescription();
+            prescription.setId((Long) table.row.get("id"));
+            prescription.setStatus((String) table.row.get("status"));
+            prescription.setPrescriptionNo("RX20241230TEST");
+            return prescription;
+        }));
+        return new PrescriptionService(prescriptionMapper, Mockito.mock(PrescriptionItemMapper.class),
+                BusinessNoGenerators.fixed(0), new StatusTransitionEngine(event -> { }));
+    }
+
+    private static Prescription transitionTo(PrescriptionService service, Long prescriptionId, PrescriptionStatus to) {
+        return switch (to) {
+            case APPROVED -> service.approve(prescriptionId);
+            case REJECTED -> service.reject(prescriptionId, "test");
+            case DISPENSED -> service.dispense(prescriptionId);
+            default -> throw new IllegalArgumentException("不支持的目标状态: " + to);
+        };
+    }
+
     record StatusTransition(PrescriptionStatus from, PrescriptionStatus to) {}
 }
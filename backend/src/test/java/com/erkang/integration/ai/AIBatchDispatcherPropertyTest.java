@@ -0,0 +1,257 @@
+package com.erkang.integration.ai;
+
+import com.erkang.config.AIModelProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 模型推理微批调度属性测试
+ * _Requirements: 10.1, 10.5_
+ */
+class AIBatchDispatcherPropertyTest {
+
+    /**
+     * Property 1: 并发提交的请求各自拿到自己的结果，每批不超过上限，且每个请求只发送一次
+     */
+    @Property(tries = 20)
+    void concurrentRequests_shouldEachGetOwnResult(@ForAll @IntRange(min = 1, max = 40) int callers,
+                                                   @ForAll @IntRange(min = 1, max = 8) int maxBatchSize) throws Exception {
+        RecordingClient client = new RecordingClient();
+        AIBatchDispatcher dispatcher = new AIBatchDispatcher(client, batchConfig(maxBatchSize, 5),
+                new SimpleMeterRegistry(), () -> { });
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(dispatcher.submit(prompt("问题" + i), deadline(5000)));
+            }
+
+            for (int i = 0; i < callers; i++) {
+                assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("回答:问题" + i);
+            }
+            assertThat(client.batchSizes).allSatisfy(size -> assertThat(size).isBetween(1, maxBatchSize));
+            assertThat(client.batchSizes.stream().mapToInt(Integer::intValue).sum() + client.singles.get())
+                    .isEqualTo(callers);
+            assertThat(dispatcher.getStats()).containsEntry("requests", (long) callers);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Example
+    void burstOfCallers_shouldBeMergedIntoFewBatches() throws Exception {
+        RecordingClient client = new RecordingClient();
+        AIModelProperties properties = new AIModelProperties();
+        properties.setBatch(batchConfig(8, 20));
+        properties.getHedge().setEnabled(false);
+        AIModelGateway gateway = new AIModelGateway(client, properties, new SimpleMeterRegistry());
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<AIModelReply>> replies = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String question = "问题" + i;
+                replies.add(callers.submit(() -> {
+                    start.await();
+                    return gateway.complete(prompt(question));
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < 16; i++) {
+                AIModelReply reply = replies.get(i).get(5, TimeUnit.SECONDS);
+                assertThat(reply.fallback()).isFalse();
+                assertThat(reply.content()).isEqualTo("回答:问题" + i);
+            }
+            assertThat(client.batchSizes.size()).isLessThan(16);
+        } finally {
+            callers.shutdownNow();
+            gateway.shutdown();
+        }
+    }
+
+    @Example
+    void singleRequest_shouldNotWaitForBatch() throws Exception {
+        RecordingClient client = new RecordingClient();
+        AIBatchDispatcher dispatcher = new AIBatchDispatcher(client, batchConfig(8, 1000),
+                new SimpleMeterRegistry(), () -> { });
+        try {
+            long start = System.nanoTime();
+            String result = dispatcher.submit(prompt("问题"), deadline(5000)).get(5, TimeUnit.SECONDS);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(result).isEqualTo("回答:问题");
+            assertThat(elapsedMs).isLessThan(500);
+            assertThat(client.singles).hasValue(1);
+            assertThat(client.batchSizes).isEmpty();
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * 批内一个异常请求导致整批失败时：只记一次熔断失败，其余请求逐个重试后成功，只有异常请求失败
+     */
+    @Property(tries = 10)
+    void failedBatch_shouldRetryMembersIndividually(@ForAll @IntRange(min = 2, max = 8) int callers,
+                                                    @ForAll @IntRange(min = 0, max = 7) int badIndex) throws Exception {
+        int bad = badIndex % callers;
+        RecordingClient client = new RecordingClient() {
+            @Override
+            public String complete(List<Map<String, String>> messages, Duration timeout) throws IOException {
+                String content = messages.get(messages.size() - 1).get("content");
+                if (content.startsWith("坏")) {
+                    throw new IOException("请求格式错误");
+                }
+                return super.complete(messages, timeout);
+            }
+        };
+        AtomicInteger batchFailures = new AtomicInteger();
+        AIBatchDispatcher dispatcher = new AIBatchDispatcher(client, batchConfig(8, 200),
+                new SimpleMeterRegistry(), batchFailures::incrementAndGet);
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(dispatcher.submit(prompt((i == bad ? "坏" : "问题") + i), deadline(5000)));
+            }
+
+            for (int i = 0; i < callers; i++) {
+                if (i == bad) {
+                    assertThatThrownBy(futures.get(i)::join).hasRootCauseInstanceOf(IOException.class);
+                } else {
+                    assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("回答:问题" + i);
+                }
+            }
+            // 首个请求可能在其余请求到达前单独发出，因此最多一个失败批次
+            assertThat(batchFailures.get()).isBetween(0, 1);
+            assertThat(dispatcher.getStats()).containsEntry("failedBatches", (long) batchFailures.get());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * 对冲请求直接调用模型，不经过批量队列
+     */
+    @Example
+    void hedgedCall_shouldBypassBatcher() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        RecordingClient client = new RecordingClient() {
+            @Override
+            public String complete(List<Map<String, String>> messages, Duration timeout) throws Exception {
+                if (calls.incrementAndGet() == 1) {
+                    // 首个请求一直不返回，直到被取消
+                    Thread.sleep(timeout.toMillis());
+                }
+                return super.complete(messages, timeout);
+            }
+        };
+        AIModelProperties properties = new AIModelProperties();
+        properties.setDeadlineMs(3000);
+        properties.getHedge().setInitialDelayMs(50);
+        AIModelGateway gateway = new AIModelGateway(client, properties, new SimpleMeterRegistry());
+        try {
+            AIModelReply reply = gateway.complete(prompt("问题"));
+
+            assertThat(reply.fallback()).isFalse();
+            assertThat(gateway.getStats()).containsEntry("hedges", 1L).containsEntry("hedgeWins", 1L);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> batch = (Map<String, Object>) gateway.getStats().get("batch");
+            assertThat(batch).containsEntry("requests", 1L);
+        } finally {
+            gateway.shutdown();
+        }
+    }
+
+    @Example
+    void httpClient_shouldSendOneBatchedRequest() throws Exception {
+        try (StubModelServer server = new StubModelServer().answer("回答")) {
+            AIModelProperties.Http http = new AIModelProperties.Http();
+            http.setEndpoint(server.endpoint());
+            http.setBatchEndpoint(server.batchEndpoint());
+            HttpAIModelClient client = new HttpAIModelClient(http, new ObjectMapper());
+
+            List<String> results = client.completeBatch(
+                    List.of(prompt("问题0"), prompt("问题1"), prompt("问题2")), Duration.ofSeconds(5));
+
+            // 服务端逆序返回，客户端按 index 还原顺序
+            assertThat(results).containsExactly("回答:问题0", "回答:问题1", "回答:问题2");
+            assertThat(server.requestCount()).isEqualTo(1);
+            assertThat(client.supportsBatch()).isTrue();
+        }
+    }
+
+    private static AIModelProperties.Batch batchConfig(int maxBatchSize, long maxWaitMs) {
+        AIModelProperties.Batch batch = new AIModelProperties.Batch();
+        batch.setMaxBatchSize(maxBatchSize);
+        batch.setMaxWaitMs(maxWaitMs);
+        return batch;
+    }
+
+    private static List<Map<String, String>> prompt(String question) {
+        return List.of(Map.of("role", "user", "content", question));
+    }
+
+    private static long deadline(long ms) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    /**
+     * 记录每批大小的内存模型，回答为 "回答:" + 最后一条消息
+     */
+    private static class RecordingClient implements AIModelClient {
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final AtomicInteger singles = new AtomicInteger();
+
+        @Override
+        public String complete(List<Map<String, String>> messages, Duration timeout) throws Exception {
+            singles.incrementAndGet();
+            return answer(messages);
+        }
+
+        String answer(List<Map<String, String>> messages) {
+            return "回答:" + messages.get(messages.size() - 1).get("content");
+        }
+
+        @Override
+        public boolean supportsBatch() {
+            return true;
+        }
+
+        @Override
+        public List<String> completeBatch(List<List<Map<String, String>>> prompts, Duration timeout)
+                throws Exception {
+            batchSizes.add(prompts.size());
+            List<String> results = new ArrayList<>(prompts.size());
+            for (List<Map<String, String>> messages : prompts) {
+                if (messages.get(messages.size() - 1).get("content").startsWith("坏")) {
+                    throw new IOException("请求格式错误");
+                }
+                results.add(answer(messages));
+            }
+            return results;
+        }
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.erkang.integration.ai;
+
+import com.erkang.config.AIModelProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * AI模型调用网关属性测试
+ * _Requirements: 10.1, 10.5_
+ */
+class AIModelGatewayPropertyTest {
+
+    private static final List<Map<String, String>> PROMPT = List.of(Map.of("role", "user", "content", "耳鸣怎么办"));
+
+    @Example
+    void httpClient_shouldPostChatCompletionAndParseAnswer() throws Exception {
+        try (StubModelServer server = new StubModelServer().answer("多休息")) {
+            AIModelProperties properties = properties(server);
+            properties.getHttp().setApiKey("test-key");
+            AIModelGateway gateway = new AIModelGateway(new HttpAIModelClient(properties.getHttp(),
+                    new ObjectMapper()), properties, new SimpleMeterRegistry());
+
+            AIModelReply reply = gateway.complete(PROMPT);
+
+            assertThat(reply.fallback()).isFalse();
+            assertThat(reply.content()).isEqualTo("多休息");
+            assertThat(server.bodies().get(0)).contains("\"model\":\"erkang-health\"").contains("耳鸣怎么办");
+            assertThat(server.authorizations().get(0)).isEqualTo("Bearer test-key");
+            gateway.shutdown();
+        }
+    }
+
+    @Example
+    void slowBackend_shouldReturnSafeAnswerByDeadline() throws Exception {
+        try (StubModelServer server = new StubModelServer().delay(i -> 3000)) {
+            AIModelProperties properties = properties(server);
+            properties.setDeadlineMs(300);
+            properties.getHedge().setEnabled(false);
+            AIModelGateway gateway = new AIModelGateway(new HttpAIModelClient(properties.getHttp(),
+                    new ObjectMapper()), properties, new SimpleMeterRegistry());
+
+            long start = System.currentTimeMillis();
+            AIModelReply reply = gateway.complete(PROMPT);
+            long elapsed = System.currentTimeMillis() - start;
+
+            assertThat(reply.fallback()).isTrue();
+            assertThat(reply.content()).isEqualTo(properties.getSafeAnswer());
+            assertThat(elapsed).isLessThan(1500);
+            gateway.shutdown();
+        }
+    }
+
+    @Example
+    void slowFirstRequest_shouldBeHedged() throws Exception {
+        try (StubModelServer server = new StubModelServer().delay(i -> i == 0 ? 3000 : 20)) {
+            AIModelProperties properties = properties(server);
+            properties.setDeadlineMs(5000);
+            properties.getHedge().setInitialDelayMs(100);
+            AIModelGateway gateway = new AIModelGateway(new HttpAIModelClient(properties.getHttp(),
+                    new ObjectMapper()), properties, new SimpleMeterRegistry());
+
+            long start = System.currentTimeMillis();
+            AIModelReply reply = gateway.complete(PROMPT);
+            long elapsed = System.currentTimeMillis() - start;
+
+            assertThat(reply.fallback()).isFalse();
+            assertThat(elapsed).isLessThan(1500);
+            assertThat(server.requestCount()).isEqualTo(2);
+            assertThat(gateway.getStats()).containsEntry("hedges", 1L).containsEntry("hedgeWins", 1L);
+            gateway.shutdown();
+        }
+    }
+
+    @Example
+    void failingBackend_shouldOpenBreakerAndStopCalling() throws Exception {
+        try (StubModelServer server = new StubModelServer().status(503)) {
+            AIModelProperties properties = properties(server);
+            properties.getBreaker().setMinimumCalls(5);
+            AIModelGateway gateway = new AIModelGateway(new HttpAIModelClient(properties.getHttp(),
+                    new ObjectMapper()), properties, new SimpleMeterRegistry());
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(gateway.complete(PROMPT).fallback()).isTrue();
+            }
+            assertThat(gateway.breakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+            int before = server.requestCount();
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < 20; i++) {
+                assertThat(gateway.complete(PROMPT).content()).isEqualTo(properties.getSafeAnswer());
+            }
+            // 熔断期间不再请求模型服务，直接返回兜底回答
+            assertThat(server.requestCount()).isEqualTo(before);
+            assertThat(System.currentTimeMillis() - start).isLessThan(200);
+            assertThat(gateway.getStats()).containsEntry("rejected", 20L);
+            gateway.shutdown();
+        }
+    }
+
+    /**
+     * Property 1: 失败率达到阈值后熔断；熔断期满只放行一次探测，探测结果决定关闭或重新打开
+     */
+    @Property(tries = 50)
+    void breaker_shouldFollowStateMachine(@ForAll @IntRange(min = 1, max = 10) int minimumCalls,
+                                          @ForAll boolean probeSucceeds) {
+        AIModelProperties.Breaker config = new AIModelProperties.Breaker();
+        config.setWindowSize(10);
+        config.setMinimumCalls(minimumCalls);
+        config.setFailureRateThreshold(0.5);
+        config.setOpenMs(1000);
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(config, now::get);
+
+        for (int i = 0; i < minimumCalls - 1; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        now.addAndGet(999);
+        assertThat(breaker.tryAcquire()).isFalse();
+        now.addAndGet(1);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).as("半开状态只放行一次探测").isFalse();
+
+        if (probeSucceeds) {
+            breaker.onSuccess();
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+            assertThat(breaker.tryAcquire()).isTrue();
+        } else {
+            breaker.onFailure();
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+            assertThat(breaker.tryAcquire()).isFalse();
+        }
+    }
+
+    /**
+     * Property 2: 失败率低于阈值时熔断器保持关闭
+     */
+    @Property(tries = 50)
+    void breaker_shouldStayClosedBelowThreshold(@ForAll("outcomes") List<Boolean> failures) {
+        AIModelProperties.Breaker config = new AIModelProperties.Breaker();
+        config.setWindowSize(10);
+        config.setMinimumCalls(1);
+        config.setFailureRateThreshold(0.5);
+        CircuitBreaker breaker = new CircuitBreaker(config, () -> 0L);
+
+        List<Boolean> window = new ArrayList<>();
+        for (boolean failed : failures) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            if (failed) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            window.add(failed);
+            if (window.size() > 10) {
+                window.remove(0);
+            }
+            long failedCount = window.stream().filter(f -> f).count();
+            boolean shouldOpen = failedCount >= 0.5 * window.size();
+            if (shouldOpen) {
+                assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+                return;
+            }
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+    }
+
+    /**
+     * Property 4: 本地调用线程占满时直接返回兜底回答，不计入熔断，模型恢复空闲后正常调用
+     */
+    @Property(tries = 5)
+    void saturatedExecutor_shouldNotOpenBreaker(@ForAll @IntRange(min = 1, max = 30) int overflow) throws Exception {
+        CountDownLatch busy = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AIModelClient client = new AIModelClient() {
+            @Override
+            public String complete(List<Map<String, String>> messages, Duration timeout) throws Exception {
+                busy.countDown();
+                release.await();
+                return "多休息";
+            }
+
+            @Override
+            public String name() {
+                return "blocking";
+            }
+        };
+        AIModelProperties properties = new AIModelProperties();
+        // 最多两个调用线程
+        properties.getHttp().setMaxConnections(1);
+        properties.getHedge().setEnabled(false);
+        properties.getBreaker().setMinimumCalls(1);
+        properties.setDeadlineMs(5000);
+        AIModelGateway gateway = new AIModelGateway(client, properties, new SimpleMeterRegistry());
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<AIModelReply>> inFlight = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                inFlight.add(callers.submit(() -> gateway.complete(PROMPT)));
+            }
+            assertThat(busy.await(5, TimeUnit.SECONDS)).isTrue();
+
+            for (int i = 0; i < overflow; i++) {
+                assertThat(gateway.complete(PROMPT).fallback()).isTrue();
+            }
+            assertThat(gateway.breakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+            assertThat(gateway.getStats()).containsEntry("rejected", (long) overflow).containsEntry("failures", 0L);
+
+            release.countDown();
+            for (Future<AIModelReply> reply : inFlight) {
+                assertThat(reply.get(5, TimeUnit.SECONDS).fallback()).isFalse();
+            }
+            assertThat(gateway.breakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            gateway.shutdown();
+        }
+    }
+
+    /**
+     * 半开探测未发出即归还时，熔断器保持半开并可再次放行探测
+     */
+    @Example
+    void releasedProbe_shouldKeepHalfOpen() {
+        AIModelProperties.Breaker config = new AIModelProperties.Breaker();
+        config.setMinimumCalls(1);
+        config.setOpenMs(1000);
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(config, now::get);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        now.addAndGet(1000);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.release();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    /**
+     * Property 3: 分位数与排序后按秩取值一致，只统计最近的样本
+     */
+    @Property(tries = 100)
+    void latencyPercentile_shouldMatchNearestRank(@ForAll @Size(min = 1, max = 300) List<@IntRange(max = 10_000) Integer> samples,
+                                                  @ForAll @DoubleRange(min = 0.01, max = 1.0) double p) {
+        LatencyTracker tracker = new LatencyTracker(200);
+        samples.forEach(tracker::record);
+
+        List<Integer> recent = new ArrayList<>(samples.subList(Math.max(0, samples.size() - 200), samples.size()));
+        recent.sort(null);
+        int rank = Math.max(0, Math.min(recent.size() - 1, (int) Math.ceil(p * recent.size()) - 1));
+
+        assertThat(tracker.percentile(p)).isEqualTo(recent.get(rank).longValue());
+    }
+
+    @Provide
+    Arbitrary<List<Boolean>> outcomes() {
+        return Arbitraries.of(true, false).list().ofMaxSize(40);
+    }
+
+    private static AIModelProperties properties(StubModelServer server) {
+        AIModelProperties properties = new AIModelProperties();
+        properties.setProvider("http");
+        properties.getHttp().setEndpoint(server.endpoint());
+        properties.getHttp().setMaxConnections(4);
+        return properties;
+    }
+}
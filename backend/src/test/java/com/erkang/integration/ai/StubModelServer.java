@@ -0,0 +1,143 @@
+package com.erkang.integration.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+
+/**
+ * 本地模拟模型服务（OpenAI兼容接口），可按请求序号注入延迟与错误，用于测试HTTP客户端与网关
+ */
+class StubModelServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    private volatile IntToLongFunction delayMs = i -> 0;
+    private volatile int status = 200;
+    private volatile String answer = "模拟回答";
+
+    StubModelServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.createContext("/v1/batch/completions", this::handleBatch);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    String batchEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/batch/completions";
+    }
+
+    /**
+     * 按请求序号（从0开始）设置响应延迟
+     */
+    StubModelServer delay(IntToLongFunction delayMs) {
+        this.delayMs = delayMs;
+        return this;
+    }
+
+    StubModelServer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    StubModelServer answer(String answer) {
+        this.answer = answer;
+        return this;
+    }
+
+    int requestCount() {
+        return requests.get();
+    }
+
+    List<String> bodies() {
+        return bodies;
+    }
+
+    List<String> authorizations() {
+        return authorizations;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int index = requests.getAndIncrement();
+        bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String auth = exchange.getRequestHeaders().getFirst("Authorization");
+        authorizations.add(auth != null ? auth : "");
+        try {
+            long delay = delayMs.applyAsLong(index);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            byte[] body = status == 200
+                    ? ("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + answer + "\"}}]}")
+                            .getBytes(StandardCharsets.UTF_8)
+                    : "{\"error\":\"unavailable\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 客户端已放弃请求
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 批量接口：逆序返回各组对话的结果，回答内容为该组最后一条消息加前缀
+     */
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        bodies.add(request);
+        JsonNode batch = MAPPER.readTree(request).path("batch");
+        ArrayNode choices = MAPPER.createArrayNode();
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            JsonNode messages = batch.get(i).path("messages");
+            String last = messages.get(messages.size() - 1).path("content").asText();
+            ObjectNode choice = choices.addObject();
+            choice.put("index", i);
+            choice.putObject("message").put("role", "assistant").put("content", answer + ":" + last);
+        }
+        byte[] body = MAPPER.writeValueAsBytes(MAPPER.createObjectNode().set("choices", choices));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -1,5 +1,6 @@
 package com.erkang.integration.storage;
 
+import com.erkang.common.BusinessException;
 import io.minio.*;
 import io.minio.http.Method;
 import net.jqwik.api.*;
@@ -14,6 +15,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -131,6 +133,17 @@ class FileStoragePropertyTest {
         assertThat(objectName).doesNotContain("\\");
         assertThat(objectName).doesNotContain("<");
         assertThat(objectName).doesNotContain(">");
+        // @ 是缩略图对象名的分隔符
+        assertThat(objectName).doesNotContain("@");
+    }
+
+    /**
+     * 分类只允许字母、数字、下划线与中划线，不能借分类伪造路径或缩略图对象名
+     */
+    @Property(tries = 20)
+    void invalidCategoryRejected(@ForAll("invalidCategories") String category) {
+        assertThatThrownBy(() -> MinioService.generateObjectName("a.png", category))
+                .isInstanceOf(BusinessException.class);
     }
 
     /**
@@ -189,21 +202,18 @@ class FileStoragePropertyTest {
         );
     }
 
+    @Provide
+    Arbitrary<String> invalidCategories() {
+        return Arbitraries.of("", "a/b", "..", "x@small.jpg", "medical/2024", "附件");
+    }
+
     @Provide
     Arbitrary<String> emptyFilenames() {
         return Arbitraries.of("", null);
     }
 
     private MinioService createServiceWithMock(MinioClient minioClient) {
-        MinioService service = new MinioService(minioClient);
-        // 使用反射设置默认bucket
-        try {
-            java.lang.reflect.Field field = MinioService.class.getDeclaredField("defaultBucket");
-            field.setAccessible(true);
-            field.set(service, "erkang-files");
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        return service;
+        return new MinioService(new MinioStorageBackend(minioClient, (MinioStorageBackend.MultipartClient) null,
+                "erkang-files", "http://localhost:9000"));
     }
 }
@@ -0,0 +1,259 @@
+package com.erkang.integration.storage;
+
+import com.erkang.common.BusinessException;
+import com.erkang.config.StorageProperties;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 文件系统存储后端属性测试
+ */
+class FileSystemStorageBackendPropertyTest {
+
+    private static final String OBJECT = "medical/2024/01/01/abcd1234_report.pdf";
+
+    /**
+     * 写入后整体与任意区间读取的内容一致，元数据与写入一致
+     */
+    @Property(tries = 50)
+    void putThenGetAndRangeRoundTrip(@ForAll @Size(min = 1, max = 5000) byte[] content,
+                                     @ForAll @IntRange(min = 0, max = 4999) int a,
+                                     @ForAll @IntRange(min = 0, max = 4999) int b) throws Exception {
+        Assume.that(a < content.length);
+        int start = a;
+        int end = Math.min(Math.max(a, b), content.length - 1);
+        FileSystemStorageBackend backend = backend();
+
+        backend.put(OBJECT, new ByteArrayInputStream(content), content.length, "application/pdf");
+
+        try (InputStream in = backend.get(OBJECT)) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+        try (InputStream in = backend.getRange(OBJECT, start, end - start + 1)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, start, end + 1));
+        }
+        ObjectInfo info = backend.stat(OBJECT);
+        assertThat(info.size()).isEqualTo(content.length);
+        assertThat(info.contentType()).isEqualTo("application/pdf");
+        assertThat(info.etag()).isNotBlank();
+        assertThat(backend.localPath(OBJECT)).exists();
+    }
+
+    /**
+     * 区间读取逐字节与批量读取结果一致，不越过区间末尾；起点超出文件时为空，对象不存在时拒绝
+     */
+    @Example
+    void rangeStreamStopsAtEnd() throws Exception {
+        FileSystemStorageBackend backend = backend();
+        byte[] content = new byte[100];
+        new Random(1).nextBytes(content);
+        backend.put(OBJECT, new ByteArrayInputStream(content), content.length, null);
+
+        try (InputStream in = backend.getRange(OBJECT, 10, 20)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                out.write(b);
+            }
+            assertThat(out.toByteArray()).isEqualTo(Arrays.copyOfRange(content, 10, 30));
+        }
+        try (InputStream in = backend.getRange(OBJECT, 90, 50)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, 90, 100));
+        }
+        try (InputStream in = backend.getRange(OBJECT, 200, 10)) {
+            assertThat(in.readAllBytes()).isEmpty();
+        }
+        assertThatThrownBy(() -> backend.getRange(OBJECT + "x", 0, 10)).isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 覆盖写入后 ETag 改变；删除后不存在且可重复删除；大小与声明不一致时不写入
+     */
+    @Example
+    void overwriteDeleteAndSizeMismatch() throws Exception {
+        FileSystemStorageBackend backend = backend();
+        backend.put(OBJECT, new ByteArrayInputStream(new byte[10]), 10, "application/pdf");
+        String etag = backend.stat(OBJECT).etag();
+        backend.put(OBJECT, new ByteArrayInputStream(new byte[10]), 10, "application/pdf");
+        assertThat(backend.stat(OBJECT).etag()).isNotEqualTo(etag);
+
+        backend.delete(OBJECT);
+        backend.delete(OBJECT);
+        assertThat(backend.exists(OBJECT)).isFalse();
+        assertThat(backend.localPath(OBJECT)).isNull();
+        assertThatThrownBy(() -> backend.stat(OBJECT)).isInstanceOf(BusinessException.class);
+
+        assertThatThrownBy(() -> backend.put(OBJECT, new ByteArrayInputStream(new byte[5]), 10, "application/pdf"))
+                .isInstanceOf(BusinessException.class);
+        assertThat(backend.exists(OBJECT)).isFalse();
+    }
+
+    /**
+     * 越出存储目录的对象名被拒绝
+     */
+    @Example
+    void pathTraversalRejected() throws Exception {
+        FileSystemStorageBackend backend = backend();
+        for (String name : List.of("../outside", "a/../../outside", "/etc/passwd", "", "a/..")) {
+            assertThatThrownBy(() -> backend.put(name, new ByteArrayInputStream(new byte[1]), 1, null))
+                    .isInstanceOf(BusinessException.class);
+        }
+    }
+
+    /**
+     * 预签名链接只对签发时的方法与对象有效，过期或被篡改时拒绝
+     */
+    @Property(tries = 20)
+    void presignedUrlBoundToMethodAndObject(@ForAll @IntRange(min = 1, max = 10080) int expireMinutes) throws Exception {
+        FileSystemStorageBackend backend = backend();
+        Map<String, String> query = query(backend.presignGet(OBJECT, expireMinutes));
+        long expires = Long.parseLong(query.get("expires"));
+        String signature = query.get("signature");
+
+        assertThat(query.get("key")).isEqualTo(OBJECT);
+        assertThatCode(() -> backend.verify("GET", OBJECT, expires, signature)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> backend.verify("PUT", OBJECT, expires, signature)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> backend.verify("GET", OBJECT + "x", expires, signature)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> backend.verify("GET", OBJECT, expires + 60, signature)).isInstanceOf(BusinessException.class);
+
+        Map<String, String> form = backend.presignPostForm(OBJECT, "application/pdf", 100, expireMinutes);
+        long formExpires = Long.parseLong(form.get("expires"));
+        assertThatCode(() -> backend.verifyPost(OBJECT, "application/pdf", 100, formExpires, form.get("signature")))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> backend.verifyPost(OBJECT, "text/html", 100, formExpires, form.get("signature")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> backend.verifyPost(OBJECT, "application/pdf", 101, formExpires, form.get("signature")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 对象名与内容类型中的换行不能移动字段边界，换一种切分方式复用签名时被拒绝
+     */
+    @Example
+    void signatureFieldsCannotBeShifted() throws Exception {
+        FileSystemStorageBackend backend = backend();
+        Map<String, String> form = backend.presignPostForm(OBJECT, "text/plain\nx", 100, 10);
+        long expires = Long.parseLong(form.get("expires"));
+
+        assertThatCode(() -> backend.verifyPost(OBJECT, "text/plain\nx", 100, expires, form.get("signature")))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> backend.verifyPost(OBJECT + "\ntext/plain", "x", 100, expires, form.get("signature")))
+                .isInstanceOf(BusinessException.class);
+        Map<String, String> empty = backend.presignPostForm(OBJECT, "", 100, 10);
+        assertThatThrownBy(() -> backend.verifyPost(OBJECT, null, 100, Long.parseLong(empty.get("expires")),
+                empty.get("signature")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 签名正确但已过期的链接被拒绝
+     */
+    @Example
+    void expiredSignatureRejected() throws Exception {
+        FileSystemStorageBackend backend = backend();
+        Map<String, String> query = query(backend.presignGet(OBJECT, -1));
+
+        assertThatThrownBy(() -> backend.verify("GET", OBJECT, Long.parseLong(query.get("expires")),
+                query.get("signature"))).isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 分片以任意顺序上传，按分片号合并后与原内容一致，合并后任务目录被清理
+     */
+    @Property(tries = 30)
+    void multipartUploadRoundTrip(@ForAll @Size(min = 1, max = 8) List<@Size(min = 1, max = 500) byte[]> chunks,
+                                  @ForAll Random random) throws Exception {
+        FileSystemStorageBackend backend = backend();
+        String uploadId = backend.createMultipart(OBJECT, "application/pdf");
+        List<Integer> order = new ArrayList<>();
+        for (int i = 1; i <= chunks.size(); i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, random);
+        for (int partNumber : order) {
+            byte[] chunk = chunks.get(partNumber - 1);
+            // 只写入前 length 个字节
+            byte[] padded = Arrays.copyOf(chunk, chunk.length + 7);
+            backend.uploadPart(OBJECT, uploadId, partNumber, padded, chunk.length);
+        }
+
+        List<StorageBackend.UploadedPart> parts = backend.listParts(OBJECT, uploadId);
+        assertThat(parts).extracting(StorageBackend.UploadedPart::partNumber).isSorted().hasSize(chunks.size());
+        backend.completeMultipart(OBJECT, uploadId, parts);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            expected.write(chunk);
+        }
+        try (InputStream in = backend.get(OBJECT)) {
+            assertThat(in.readAllBytes()).isEqualTo(expected.toByteArray());
+        }
+        assertThat(backend.stat(OBJECT).contentType()).isEqualTo("application/pdf");
+        assertThat(backend.listMultipartUploadsInitiatedBefore(ZonedDateTime.now().plusDays(1), 10)).isEmpty();
+    }
+
+    /**
+     * 分片在列出后被重新上传时拒绝合并；取消后任务不存在，重复取消视为成功；任务不属于该对象时拒绝
+     */
+    @Example
+    void multipartChangedAbortAndOwnership() throws Exception {
+        FileSystemStorageBackend backend = backend();
+        String uploadId = backend.createMultipart(OBJECT, null);
+        backend.uploadPart(OBJECT, uploadId, 1, new byte[10], 10);
+        List<StorageBackend.UploadedPart> parts = backend.listParts(OBJECT, uploadId);
+        Thread.sleep(5);
+        backend.uploadPart(OBJECT, uploadId, 1, new byte[10], 10);
+
+        assertThatThrownBy(() -> backend.completeMultipart(OBJECT, uploadId, parts)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> backend.uploadPart("other", uploadId, 2, new byte[1], 1)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> backend.listParts(OBJECT, "../" + uploadId)).isInstanceOf(BusinessException.class);
+
+        assertThat(backend.listMultipartUploadsInitiatedBefore(ZonedDateTime.now().plusDays(1), 10))
+                .extracting(StorageBackend.PendingUpload::uploadId).containsExactly(uploadId);
+        assertThat(backend.listMultipartUploadsInitiatedBefore(ZonedDateTime.now().minusDays(1), 10)).isEmpty();
+
+        backend.abortMultipart(OBJECT, uploadId);
+        backend.abortMultipart(OBJECT, uploadId);
+        assertThatThrownBy(() -> backend.listParts(OBJECT, uploadId)).isInstanceOf(BusinessException.class);
+        assertThat(backend.exists(OBJECT)).isFalse();
+    }
+
+    private static FileSystemStorageBackend backend() throws IOException {
+        Path root = Files.createTempDirectory("storage");
+        StorageProperties.Filesystem properties = new StorageProperties.Filesystem();
+        properties.setRoot(root.toString());
+        properties.setSigningKey("test-signing-key");
+        FileSystemStorageBackend backend = new FileSystemStorageBackend(properties);
+        backend.initialize();
+        return backend;
+    }
+
+    private static Map<String, String> query(String url) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : URI.create(url).getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,250 @@
+package com.erkang.integration.storage;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 对象本地磁盘缓存属性测试
+ */
+class LocalObjectCachePropertyTest {
+
+    /**
+     * 转发内容与源一致；缓存后任意区间经本地文件读出的内容与源一致
+     */
+    @Property(tries = 50)
+    void storedObjectTransfersExactRange(@ForAll @Size(min = 1, max = 5000) byte[] content,
+                                         @ForAll @IntRange(min = 0, max = 4999) int a,
+                                         @ForAll @IntRange(min = 0, max = 4999) int b) throws Exception {
+        Assume.that(a < content.length);
+        int start = a;
+        int end = Math.min(Math.max(a, b), content.length - 1);
+        Fixture f = new Fixture();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long copied = f.cache.copyAndStore("a.png", f.info(content.length, "e1"),
+                new ByteArrayInputStream(content), out, 64);
+        LocalObjectCache.CachedObject cached = f.cache.lookup("a.png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        f.cache.transfer(cached, start, end - start + 1, new MockHttpServletRequest(), response);
+
+        assertThat(copied).isEqualTo(content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, start, end + 1));
+    }
+
+    /**
+     * 缓存总字节数不超过上限，超出时淘汰最久未访问的对象
+     */
+    @Property(tries = 50)
+    void totalBytesBoundedWithLruEviction(@ForAll @Size(min = 1, max = 30) List<@IntRange(min = 1, max = 400) Integer> sizes) throws Exception {
+        Fixture f = new Fixture();
+        f.properties.getLocalCache().setMaxBytes(1000);
+        f.store("keep", new byte[100]);
+        for (int i = 0; i < sizes.size(); i++) {
+            // 每次写入前访问一次，使其始终是最近使用的对象
+            assertThat(f.cache.lookup("keep")).isNotNull();
+            f.store("o" + i, new byte[sizes.get(i)]);
+            assertThat(f.cache.totalBytes()).isLessThanOrEqualTo(1000);
+        }
+        assertThat(f.cache.lookup("keep")).isNotNull();
+        assertThat(f.cache.lookup("o" + (sizes.size() - 1))).isNotNull();
+    }
+
+    /**
+     * 重新校验间隔内命中不访问对象存储；超过后 ETag 一致则继续使用，不一致或对象已删除则作废
+     */
+    @Example
+    void revalidatesByEtagAfterInterval() throws Exception {
+        Fixture f = new Fixture();
+        f.store("a.png", new byte[10]);
+
+        assertThat(f.cache.lookup("a.png")).isNotNull();
+        verify(f.minioService, never()).statObject(anyString());
+
+        f.clock.addAndGet(f.properties.getLocalCache().getRevalidateMs());
+        f.stat("a.png", 10, "e1");
+        assertThat(f.cache.lookup("a.png")).isNotNull();
+        assertThat(f.cache.lookup("a.png")).isNotNull();
+        verify(f.minioService, times(1)).statObject("a.png");
+
+        f.clock.addAndGet(f.properties.getLocalCache().getRevalidateMs());
+        f.stat("a.png", 10, "e2");
+        assertThat(f.cache.lookup("a.png")).isNull();
+        assertThat(f.cache.size()).isZero();
+
+        f.store("b.png", new byte[10]);
+        f.clock.addAndGet(f.properties.getLocalCache().getRevalidateMs());
+        when(f.minioService.statObject("b.png")).thenThrow(new BusinessException(ErrorCode.FILE_NOT_FOUND));
+        assertThatThrownBy(() -> f.cache.lookup("b.png")).isInstanceOf(BusinessException.class);
+        assertThat(f.cache.size()).isZero();
+    }
+
+    /**
+     * 超过单个大小上限、缺少 ETag、内容不完整或客户端中断时只转发不缓存
+     */
+    @Example
+    void incompleteOrOversizedNotCached() throws Exception {
+        Fixture f = new Fixture();
+        f.properties.getLocalCache().setMaxObjectSize(100);
+        f.cache.copyAndStore("big", f.info(101, "e1"), new ByteArrayInputStream(new byte[101]),
+                new ByteArrayOutputStream(), 64);
+        f.cache.copyAndStore("no-etag", f.info(10, null), new ByteArrayInputStream(new byte[10]),
+                new ByteArrayOutputStream(), 64);
+        f.cache.copyAndStore("short", f.info(50, "e1"), new ByteArrayInputStream(new byte[20]),
+                new ByteArrayOutputStream(), 64);
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        assertThatThrownBy(() -> f.cache.copyAndStore("aborted", f.info(10, "e1"),
+                new ByteArrayInputStream(new byte[10]), broken, 64)).isInstanceOf(IOException.class);
+
+        assertThat(f.cache.size()).isZero();
+        try (var files = Files.list(f.directory)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    /**
+     * 连接器支持 sendfile 时只登记文件与区间，不经过响应输出流
+     */
+    @Example
+    void sendfileDelegatedToConnector() throws Exception {
+        Fixture f = new Fixture();
+        f.store("a.png", new byte[100]);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(FileTransfer.SENDFILE_SUPPORT, Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        f.cache.transfer(f.cache.lookup("a.png"), 10, 50, request, response);
+
+        assertThat(Path.of((String) request.getAttribute(FileTransfer.SENDFILE_FILENAME))).exists();
+        assertThat(request.getAttribute(FileTransfer.SENDFILE_START)).isEqualTo(10L);
+        assertThat(request.getAttribute(FileTransfer.SENDFILE_END)).isEqualTo(60L);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    /**
+     * 作废后不再命中；被替换的文件在延迟删除时间后删除
+     */
+    @Example
+    void invalidatedFilesDeletedAfterGrace() throws Exception {
+        Fixture f = new Fixture();
+        f.store("a.png", new byte[10]);
+        Path file = f.cache.lookup("a.png").path();
+
+        f.cache.invalidate("a.png");
+        assertThat(f.cache.lookup("a.png")).isNull();
+        assertThat(file).exists();
+
+        f.clock.addAndGet(f.properties.getLocalCache().getRetireGraceMs());
+        f.cache.invalidate("other");
+        assertThat(file).doesNotExist();
+    }
+
+    /**
+     * 没有新的写入或作废时，淘汰文件也由定时任务在延迟时间后删除
+     */
+    @Example
+    void retiredFilesPurgedByTimer() throws Exception {
+        Fixture f = new Fixture(10);
+        try {
+            f.store("a.png", new byte[10]);
+            Path file = f.cache.lookup("a.png").path();
+            f.cache.invalidate("a.png");
+            Thread.sleep(50);
+            assertThat(file).exists();
+
+            f.clock.addAndGet(f.properties.getLocalCache().getRetireGraceMs());
+            long deadline = System.currentTimeMillis() + 2000;
+            while (Files.exists(file) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(file).doesNotExist();
+        } finally {
+            f.cache.shutdown();
+        }
+    }
+
+    /**
+     * 缓存文件被外部清理后发送失败时移出索引并释放占用的字节数
+     */
+    @Example
+    void missingFileForgotten() throws Exception {
+        Fixture f = new Fixture();
+        f.store("a.png", new byte[10]);
+        f.store("b.png", new byte[20]);
+        LocalObjectCache.CachedObject cached = f.cache.lookup("a.png");
+        Files.delete(cached.path());
+
+        assertThatThrownBy(() -> f.cache.transfer(cached, 0, 10, new MockHttpServletRequest(),
+                new MockHttpServletResponse())).isInstanceOf(NoSuchFileException.class);
+
+        assertThat(f.cache.lookup("a.png")).isNull();
+        assertThat(f.cache.size()).isEqualTo(1);
+        assertThat(f.cache.totalBytes()).isEqualTo(20);
+        f.clock.addAndGet(f.properties.getLocalCache().getRetireGraceMs());
+        assertThatCode(f.cache::purgeRetired).doesNotThrowAnyException();
+    }
+
+    /**
+     * 测试夹具：临时目录中的缓存
+     */
+    private static final class Fixture {
+        final MinioService minioService = mock(MinioService.class);
+        final StorageProperties properties = new StorageProperties();
+        final AtomicLong clock = new AtomicLong(1_000_000L);
+        final Path directory;
+        final LocalObjectCache cache;
+
+        Fixture() throws IOException {
+            this(0);
+        }
+
+        Fixture(long purgeIntervalMs) throws IOException {
+            directory = Files.createTempDirectory("object-cache");
+            properties.getLocalCache().setDirectory(directory.toString());
+            properties.getLocalCache().setPurgeIntervalMs(purgeIntervalMs);
+            cache = new LocalObjectCache(minioService, properties, new SimpleMeterRegistry(), clock::get);
+            cache.init();
+        }
+
+        ObjectInfo info(long size, String etag) {
+            return new ObjectInfo(size, etag, "image/png", null);
+        }
+
+        void store(String objectName, byte[] content) throws IOException {
+            try (InputStream in = new ByteArrayInputStream(content)) {
+                cache.copyAndStore(objectName, info(content.length, "e1"), in, new ByteArrayOutputStream(), 64);
+            }
+        }
+
+        void stat(String objectName, long size, String etag) {
+            when(minioService.statObject(objectName)).thenReturn(info(size, etag));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.erkang.integration.storage;
+
+import com.erkang.config.StorageProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 预签名URL缓存属性测试
+ */
+class PresignedUrlCachePropertyTest {
+
+    /**
+     * 签名在到期前安全余量之内复用，超过后重新签名
+     */
+    @Property(tries = 100)
+    void signedUrlReusedUntilSafetyMargin(@ForAll @IntRange(min = 6, max = 120) int expireMinutes,
+                                          @ForAll @LongRange(min = 0, max = 7_200_000) long elapsedMs) {
+        Fixture f = new Fixture();
+        PresignedUrlCache.Signed first = f.cache.get("a.png", expireMinutes);
+        f.clock.addAndGet(elapsedMs);
+        PresignedUrlCache.Signed second = f.cache.get("a.png", expireMinutes);
+
+        boolean reusable = elapsedMs < expireMinutes * 60_000L - f.properties.getPresign().getSafetyMarginMs();
+        assertThat(second == first).isEqualTo(reusable);
+        verify(f.minioService, times(reusable ? 1 : 2)).getPresignedUrl("a.png", expireMinutes);
+        assertThat(first.expiresAt()).isEqualTo(1_000_000L + expireMinutes * 60_000L);
+    }
+
+    /**
+     * 有效期不超过安全余量的签名不缓存；不同有效期分别缓存
+     */
+    @Example
+    void shortLivedAndDistinctExpiries() {
+        Fixture f = new Fixture();
+        f.cache.get("a.png", 5);
+        f.cache.get("a.png", 5);
+        f.cache.get("a.png", 30);
+        f.cache.get("a.png", 60);
+        f.cache.get("a.png", 30);
+
+        verify(f.minioService, times(2)).getPresignedUrl("a.png", 5);
+        verify(f.minioService, times(1)).getPresignedUrl("a.png", 30);
+        verify(f.minioService, times(1)).getPresignedUrl("a.png", 60);
+    }
+
+    /**
+     * 批量获取保持输入顺序、重复对象只签名一次；条目数不超过上限；作废后重新签名
+     */
+    @Property(tries = 50)
+    void batchOrderBoundAndInvalidate(@ForAll @Size(min = 1, max = 40) List<@IntRange(min = 0, max = 30) Integer> ids,
+                                      @ForAll @IntRange(min = 1, max = 20) int maxEntries) {
+        Fixture f = new Fixture();
+        f.properties.getPresign().setCacheMaxEntries(maxEntries);
+        List<String> names = ids.stream().map(i -> "obj/" + i).toList();
+
+        Map<String, PresignedUrlCache.Signed> result = f.cache.getAll(names, 30);
+
+        assertThat(result.keySet()).containsExactlyElementsOf(names.stream().distinct().toList());
+        result.forEach((name, signed) -> assertThat(signed.url()).startsWith("https://s/" + name + "?"));
+        assertThat(f.cache.size()).isLessThanOrEqualTo(maxEntries);
+        assertThat(f.signatures.get()).isEqualTo(names.stream().distinct().count());
+
+        String last = names.get(names.size() - 1);
+        f.cache.invalidate(last);
+        assertThat(f.cache.get(last, 30)).isNotEqualTo(result.get(last));
+    }
+
+    /**
+     * 测试夹具：可控时钟，每次签名生成不同的URL
+     */
+    private static final class Fixture {
+        final MinioService minioService = mock(MinioService.class);
+        final StorageProperties properties = new StorageProperties();
+        final AtomicLong clock = new AtomicLong(1_000_000L);
+        final AtomicInteger signatures = new AtomicInteger();
+        final PresignedUrlCache cache;
+
+        Fixture() {
+            when(minioService.getPresignedUrl(anyString(), anyInt()))
+                    .thenAnswer(inv -> "https://s/" + inv.getArgument(0) + "?sig=" + signatures.incrementAndGet());
+            cache = new PresignedUrlCache(minioService, properties, new SimpleMeterRegistry(), clock::get);
+        }
+    }
+}
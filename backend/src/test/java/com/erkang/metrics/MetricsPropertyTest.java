@@ -0,0 +1,121 @@
+package com.erkang.metrics;
+
+import com.erkang.service.TokenCounter;
+import com.erkang.websocket.WebSocketSessionManager;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 监控指标属性测试
+ */
+class MetricsPropertyTest {
+
+    /**
+     * Property 1: 每次语句执行恰好记录一次，按 Mapper 方法与命令类型打标签
+     */
+    @Property(tries = 20)
+    void mybatisInterceptor_shouldTimeEachStatement(@ForAll @IntRange(min = 1, max = 20) int executions) throws Throwable {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MybatisMetricsInterceptor interceptor = new MybatisMetricsInterceptor(registry);
+        Executor executor = mock(Executor.class);
+        when(executor.update(any(), any())).thenReturn(1);
+        MappedStatement statement = statement("com.erkang.mapper.UserMapper.updateById", SqlCommandType.UPDATE);
+
+        for (int i = 0; i < executions; i++) {
+            assertThat(interceptor.intercept(update(executor, statement))).isEqualTo(1);
+        }
+
+        Timer timer = registry.find(MybatisMetricsInterceptor.TIMER)
+                .tags("statement", "UserMapper.updateById", "command", "UPDATE", "exception", "none")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(executions);
+    }
+
+    @Example
+    void mybatisInterceptor_shouldTagFailures() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MybatisMetricsInterceptor interceptor = new MybatisMetricsInterceptor(registry);
+        Executor executor = mock(Executor.class);
+        when(executor.update(any(), any())).thenThrow(new SQLException("死锁"));
+        MappedStatement statement = statement("com.erkang.mapper.UserMapper.updateById", SqlCommandType.UPDATE);
+
+        assertThatThrownBy(() -> interceptor.intercept(update(executor, statement)));
+
+        assertThat(registry.find(MybatisMetricsInterceptor.TIMER).tag("exception", "SQLException")
+                .timer()).isNotNull();
+    }
+
+    @Property
+    void shortId_shouldKeepMapperAndMethod(@ForAll("identifiers") String mapper, @ForAll("identifiers") String method) {
+        assertThat(MybatisMetricsInterceptor.shortId("com.erkang.mapper." + mapper + "." + method))
+                .isEqualTo(mapper + "." + method);
+        assertThat(MybatisMetricsInterceptor.shortId(method)).isEqualTo(method);
+    }
+
+    @Example
+    void serviceAspect_shouldTimePublicServiceMethods() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TokenCounter());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new MethodMetricsAspect(registry));
+        TokenCounter proxy = factory.getProxy();
+
+        proxy.count("耳鸣怎么办");
+        proxy.count("头晕");
+
+        Timer timer = registry.find(MethodMetricsAspect.SERVICE_TIMER)
+                .tags("class", "TokenCounter", "method", "count", "exception", "none")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Example
+    void webSocketMetrics_shouldReportOpenSessions() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WebSocketSessionManager sessionManager = new WebSocketSessionManager();
+        new WebSocketMetrics(sessionManager).bindTo(registry);
+        WebSocketSession open = mock(WebSocketSession.class);
+        when(open.isOpen()).thenReturn(true);
+        WebSocketSession closed = mock(WebSocketSession.class);
+
+        sessionManager.addSession(1L, open);
+        sessionManager.addSession(2L, closed);
+        sessionManager.joinConsultation(10L, 1L);
+
+        assertThat(registry.get("erkang.websocket.sessions").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("erkang.websocket.consultations").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("erkang.websocket.send.buffer").gauge().value()).isEqualTo(0.0);
+    }
+
+    @Provide
+    Arbitrary<String> identifiers() {
+        return Arbitraries.strings().alpha().ofMinLength(1).ofMaxLength(20);
+    }
+
+    private static MappedStatement statement(String id, SqlCommandType type) {
+        return new MappedStatement.Builder(new Configuration(), id, mock(SqlSource.class), type).build();
+    }
+
+    private static Invocation update(Executor executor, MappedStatement statement) throws NoSuchMethodException {
+        return new Invocation(executor, Executor.class.getMethod("update", MappedStatement.class, Object.class),
+                new Object[]{statement, null});
+    }
+}
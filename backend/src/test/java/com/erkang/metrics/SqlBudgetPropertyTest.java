@@ -0,0 +1,163 @@
+package com.erkang.metrics;
+
+import com.erkang.config.SqlBudgetProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 单请求SQL预算属性测试
+ * _Requirements: 13.1, 13.2_
+ */
+class SqlBudgetPropertyTest {
+
+    private static final String SELECT_USER = "SELECT id, username FROM sys_user WHERE id = ?";
+
+    private final SqlBudgetInnerInterceptor interceptor = new SqlBudgetInnerInterceptor();
+
+    /**
+     * Property 1: 循环内逐条查询被计为同一形态，次数超过阈值即判定为疑似N+1
+     */
+    @Property(tries = 30)
+    void loopedQueries_shouldBeDetectedAsRepeatedShape(@ForAll @IntRange(min = 1, max = 30) int rows,
+                                                       @ForAll @IntRange(min = 1, max = 10) int maxRepeats)
+            throws Exception {
+        MappedStatement select = statement("com.erkang.mapper.UserMapper.selectById", SELECT_USER,
+                SqlCommandType.SELECT);
+
+        SqlBudget budget = SqlBudget.capture(() -> {
+            for (int i = 0; i < rows; i++) {
+                query(select, (long) i);
+            }
+            return null;
+        });
+
+        assertThat(budget.getStatementCount()).isEqualTo(rows);
+        if (rows > maxRepeats) {
+            assertThat(budget.getRepeatedShapes(maxRepeats)).singleElement()
+                    .satisfies(shape -> assertThat(shape.getCount()).isEqualTo(rows));
+            assertThatThrownBy(() -> budget.assertNoRepeatsOver(maxRepeats))
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("UserMapper.selectById x" + rows);
+        } else {
+            assertThat(budget.getRepeatedShapes(maxRepeats)).isEmpty();
+            budget.assertNoRepeatsOver(maxRepeats);
+        }
+    }
+
+    /**
+     * Property 2: 语句数超过上限时断言失败，否则通过
+     */
+    @Property(tries = 30)
+    void assertAtMost_shouldFailOnlyWhenOverBudget(@ForAll @IntRange(min = 0, max = 20) int statements,
+                                                   @ForAll @IntRange(min = 0, max = 20) int max) throws Exception {
+        MappedStatement update = statement("com.erkang.mapper.UserMapper.updateById",
+                "UPDATE sys_user SET last_login_at = ? WHERE id = ?", SqlCommandType.UPDATE);
+
+        SqlBudget budget = SqlBudget.capture(() -> {
+            for (int i = 0; i < statements; i++) {
+                interceptor.beforeUpdate(null, update, null);
+            }
+            return null;
+        });
+
+        if (statements > max) {
+            assertThatThrownBy(() -> budget.assertAtMost(max)).isInstanceOf(AssertionError.class);
+        } else {
+            assertThat(budget.assertAtMost(max)).isSameAs(budget);
+        }
+    }
+
+    @Property
+    void shapeOf_shouldIgnoreWhitespaceAndInListLength(@ForAll @IntRange(min = 1, max = 50) int size) {
+        String in = String.join(", ", Collections.nCopies(size, "?"));
+
+        assertThat(SqlBudget.shapeOf("SELECT *\n  FROM sys_user_role\n WHERE user_id IN (" + in + ")"))
+                .isEqualTo("SELECT * FROM sys_user_role WHERE user_id IN (?)");
+    }
+
+    @Example
+    void nestedCapture_shouldRestoreOuterBudget() throws Exception {
+        MappedStatement select = statement("com.erkang.mapper.UserMapper.selectById", SELECT_USER,
+                SqlCommandType.SELECT);
+
+        SqlBudget outer = SqlBudget.capture(() -> {
+            query(select, 1L);
+            SqlBudget inner = SqlBudget.capture(() -> {
+                query(select, 2L);
+                return null;
+            });
+            assertThat(inner.getStatementCount()).isEqualTo(1);
+            query(select, 3L);
+            return null;
+        });
+
+        assertThat(outer.getStatementCount()).isEqualTo(2);
+        assertThat(SqlBudget.current()).isNull();
+    }
+
+    @Example
+    void statementsOutsideBudget_shouldBeIgnored() {
+        query(statement("com.erkang.mapper.UserMapper.selectById", SELECT_USER, SqlCommandType.SELECT), 1L);
+
+        assertThat(SqlBudget.current()).isNull();
+    }
+
+    @Example
+    void filter_shouldFlagEndpointOverBudget() throws Exception {
+        SqlBudgetProperties properties = new SqlBudgetProperties();
+        properties.setMaxStatements(3);
+        properties.setMaxRepeats(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlBudgetFilter filter = new SqlBudgetFilter(properties, registry);
+        MappedStatement select = statement("com.erkang.mapper.UserMapper.selectById", SELECT_USER,
+                SqlCommandType.SELECT);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/users");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req,
+                                   HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/admin/users");
+                for (long id = 0; id < 5; id++) {
+                    query(select, id);
+                }
+            }
+        }));
+
+        assertThat(registry.get(SqlBudgetFilter.STATEMENTS).tag("endpoint", "GET /api/admin/users")
+                .summary().totalAmount()).isEqualTo(5.0);
+        assertThat(registry.get(SqlBudgetFilter.EXCEEDED).tag("reason", "statements").counter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get(SqlBudgetFilter.EXCEEDED).tag("reason", "repeated").counter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.find(SqlBudgetFilter.EXCEEDED).tag("reason", "time").counter()).isNull();
+        assertThat(SqlBudget.current()).isNull();
+    }
+
+    private void query(MappedStatement statement, Object parameter) {
+        BoundSql boundSql = statement.getBoundSql(parameter);
+        interceptor.beforeQuery(null, statement, parameter, null, null, boundSql);
+    }
+
+    private static MappedStatement statement(String id, String sql, SqlCommandType type) {
+        Configuration configuration = new Configuration();
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql), type).build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.erkang.metrics.jfr;
+
+import com.erkang.config.JfrProperties;
+import com.erkang.security.LoginUser;
+import com.erkang.security.UserContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.jqwik.api.*;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 飞行记录事件与慢请求转储属性测试
+ * _Requirements: 13.3_
+ */
+class FlightRecorderPropertyTest {
+
+    @Property
+    void fileSafe_shouldOnlyKeepPortableCharacters(@ForAll String reason) {
+        assertThat(FlightRecorderService.fileSafe(reason)).matches("[A-Za-z0-9._-]*").hasSizeLessThanOrEqualTo(80);
+    }
+
+    @Example
+    void slowRequest_shouldDumpRecordingWithRequestEvent() throws Exception {
+        Path dir = Files.createTempDirectory("jfr");
+        FlightRecorderService recorder = new FlightRecorderService(properties(dir, 50));
+        recorder.start();
+        try {
+            assertThat(recorder.isRecording()).isTrue();
+            JfrRequestFilter filter = new JfrRequestFilter(recorder);
+
+            filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                    req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/consultations/{id}");
+                    sleep(80);
+                }
+            }));
+
+            Path dump = awaitDump(dir);
+            assertThat(dump.getFileName().toString()).contains("slow-GET_api_consultations_id_");
+            RecordedEvent event = RecordingFile.readAllEvents(dump).stream()
+                    .filter(e -> e.getEventType().getName().equals("com.erkang.HttpRequest"))
+                    .findFirst().orElseThrow();
+            assertThat(event.getString("endpoint")).isEqualTo("/api/consultations/{id}");
+            assertThat(event.getString("uri")).isEqualTo("/api/consultations/7");
+            assertThat(event.getLong("userId")).isEqualTo(42L);
+            assertThat(event.getString("roles")).isEqualTo("DOCTOR_PRIMARY,DOCTOR_EXPERT");
+            assertThat(event.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(80));
+        } finally {
+            recorder.shutdown();
+            UserContext.clear();
+        }
+    }
+
+    @Example
+    void fastRequest_shouldNotDump() throws Exception {
+        Path dir = Files.createTempDirectory("jfr");
+        FlightRecorderService recorder = new FlightRecorderService(properties(dir, 5000));
+        recorder.start();
+        try {
+            new JfrRequestFilter(recorder).doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+            sleep(100);
+
+            assertThat(listDumps(dir)).isEmpty();
+        } finally {
+            recorder.shutdown();
+            UserContext.clear();
+        }
+    }
+
+    @Example
+    void repeatedSlowRequests_shouldDumpOncePerInterval() throws Exception {
+        Path dir = Files.createTempDirectory("jfr");
+        FlightRecorderService recorder = new FlightRecorderService(properties(dir, 10));
+        recorder.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                recorder.onRequestCompleted("GET /api/users", 100);
+            }
+            awaitDump(dir);
+            sleep(100);
+
+            assertThat(listDumps(dir)).hasSize(1);
+        } finally {
+            recorder.shutdown();
+        }
+    }
+
+    @Example
+    void disabled_shouldNotRecord() throws Exception {
+        JfrProperties properties = properties(Files.createTempDirectory("jfr"), 0);
+        properties.setEnabled(false);
+        FlightRecorderService recorder = new FlightRecorderService(properties);
+        recorder.start();
+
+        assertThat(recorder.isRecording()).isFalse();
+        assertThat(recorder.dump("manual")).isNull();
+    }
+
+    @Example
+    void redisConnection_shouldRecordEachCommand() throws Exception {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(keyCommands.exists(any(byte[].class))).thenReturn(true);
+        when(connection.ping()).thenThrow(new IllegalStateException("连接已断开"));
+        Path file = Files.createTempFile("redis", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(RedisCommandEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            RedisConnection wrapped = RedisCommandEvents.wrap(connection);
+            assertThat(wrapped.keyCommands().exists("token".getBytes())).isTrue();
+            assertThatThrownBy(wrapped::ping).isInstanceOf(IllegalStateException.class);
+            assertThat(RedisCommandEvents.wrap(wrapped)).isSameAs(wrapped);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.erkang.RedisCommand"))
+                .toList();
+        assertThat(events).extracting(e -> e.getString("command")).containsExactly("exists", "ping");
+        assertThat(events).extracting(e -> e.getString("exception"))
+                .containsExactly(null, "IllegalStateException");
+    }
+
+    private static JfrProperties properties(Path dir, long slowRequestMs) {
+        JfrProperties properties = new JfrProperties();
+        properties.setEnabled(true);
+        properties.setDumpDir(dir.toString());
+        properties.setSlowRequestMs(slowRequestMs);
+        return properties;
+    }
+
+    private static MockHttpServletRequest request() {
+        UserContext.setUser(LoginUser.builder().userId(42L).username("doctor")
+                .roles(List.of("DOCTOR_PRIMARY", "DOCTOR_EXPERT")).build());
+        return new MockHttpServletRequest("GET", "/api/consultations/7");
+    }
+
+    private static Path awaitDump(Path dir) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            List<Path> dumps = listDumps(dir);
+            if (!dumps.isEmpty()) {
+                // 等待写入完成
+                sleep(100);
+                return dumps.get(0);
+            }
+            sleep(20);
+        }
+        throw new AssertionError("未生成转储文件");
+    }
+
+    private static List<Path> listDumps(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".jfr")).toList();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
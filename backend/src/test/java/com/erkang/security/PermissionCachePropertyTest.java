@@ -0,0 +1,188 @@
+package com.erkang.security;
+
+import com.erkang.config.AuthProperties;
+import com.erkang.mapper.PermissionMapper;
+import com.erkang.mapper.RoleMapper;
+import com.erkang.mapper.UserMapper;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 角色权限缓存属性测试
+ */
+class PermissionCachePropertyTest {
+
+    /**
+     * 同一用户重复读取只查询一次，作废后重新加载
+     */
+    @Property(tries = 50)
+    void userRolesLoadedOnceUntilInvalidated(
+            @ForAll @LongRange(min = 1, max = 100000) Long userId,
+            @ForAll @IntRange(min = 2, max = 10) int reads) {
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectRoleCodesByUserId(userId))
+                .thenReturn(List.of("PATIENT"))
+                .thenReturn(List.of("DOCTOR_PRIMARY"));
+        PermissionCache cache = new PermissionCache(userMapper, mock(RoleMapper.class), mock(PermissionMapper.class),
+                new AuthProperties(), null);
+
+        for (int i = 0; i < reads; i++) {
+            assertThat(cache.getUserRoles(userId)).containsExactly("PATIENT");
+        }
+        cache.invalidateUser(userId);
+
+        assertThat(cache.getUserRoles(userId)).containsExactly("DOCTOR_PRIMARY");
+        verify(userMapper, times(2)).selectRoleCodesByUserId(userId);
+    }
+
+    /**
+     * 角色权限变更使版本递增，权限树与角色权限在新版本下重新加载
+     */
+    @Property(tries = 30)
+    void rolesInvalidationRebuildsSnapshot(@ForAll @LongRange(min = 1, max = 50) Long roleId) {
+        RoleMapper roleMapper = mock(RoleMapper.class);
+        PermissionMapper permissionMapper = mock(PermissionMapper.class);
+        when(roleMapper.selectPermissionIdsByRoleId(roleId)).thenReturn(List.of(1L)).thenReturn(List.of(1L, 2L));
+        when(permissionMapper.selectAllPermissions()).thenReturn(List.of(permission(1L, 0L)));
+        PermissionCache cache = new PermissionCache(mock(UserMapper.class), roleMapper, permissionMapper,
+                new AuthProperties(), null);
+
+        List<Map<String, Object>> tree = cache.getPermissionTree();
+        assertThat(cache.getPermissionTree()).isSameAs(tree);
+        assertThat(cache.getRolePermissionIds(roleId)).containsExactly(1L);
+        assertThat(cache.getRolePermissionIds(roleId)).containsExactly(1L);
+
+        long version = cache.getVersion();
+        cache.invalidateRoles();
+
+        assertThat(cache.getVersion()).isEqualTo(version + 1);
+        assertThat(cache.getRolePermissionIds(roleId)).containsExactly(1L, 2L);
+        assertThat(cache.getPermissionTree()).isNotSameAs(tree);
+        verify(permissionMapper, times(2)).selectAllPermissions();
+    }
+
+    /**
+     * 权限树与逐层过滤构建的结果一致：每个节点的子节点即 parentId 指向它的权限
+     */
+    @Property(tries = 50)
+    void permissionTreeMatchesParentLinks(@ForAll @IntRange(min = 1, max = 60) int size,
+                                          @ForAll long seed) {
+        java.util.Random random = new java.util.Random(seed);
+        List<Map<String, Object>> permissions = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            // 父节点只指向更小的ID，保证无环；parentId 混用 Long、Integer 与 null
+            long parent = random.nextInt((int) id);
+            Map<String, Object> p = permission(id, parent);
+            if (parent == 0 && random.nextBoolean()) {
+                p.put("parentId", null);
+            } else if (random.nextBoolean()) {
+                p.put("parentId", (int) parent);
+            }
+            permissions.add(p);
+        }
+
+        List<Map<String, Object>> tree = PermissionCache.buildPermissionTree(permissions);
+
+        List<Long> visited = new ArrayList<>();
+        assertChildren(tree, 0L, permissions, visited);
+        assertThat(visited).hasSize(size).doesNotHaveDuplicates();
+    }
+
+    /**
+     * 事务内的作废在提交后生效
+     */
+    @Example
+    void invalidationDeferredUntilCommit() {
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectRoleCodesByUserId(1L)).thenReturn(List.of("PATIENT"));
+        PermissionCache cache = new PermissionCache(userMapper, mock(RoleMapper.class), mock(PermissionMapper.class),
+                new AuthProperties(), null);
+        cache.getUserRoles(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateUser(1L);
+            cache.invalidateRoles();
+            assertThat(cache.getVersion()).isZero();
+            cache.getUserRoles(1L);
+            verify(userMapper, times(1)).selectRoleCodesByUserId(1L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.getVersion()).isEqualTo(1);
+        cache.getUserRoles(1L);
+        verify(userMapper, times(2)).selectRoleCodesByUserId(1L);
+    }
+
+    /**
+     * 作废通知广播给其他节点，本节点发出的通知被忽略
+     */
+    @Example
+    void broadcastAppliedOnOtherNodesOnly() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        AuthProperties properties = new AuthProperties();
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectRoleCodesByUserId(7L)).thenReturn(List.of("ADMIN"));
+        PermissionCache sender = new PermissionCache(userMapper, mock(RoleMapper.class),
+                mock(PermissionMapper.class), properties, redis);
+        PermissionCache receiver = new PermissionCache(userMapper, mock(RoleMapper.class),
+                mock(PermissionMapper.class), properties, redis);
+        receiver.getUserRoles(7L);
+
+        sender.invalidateRoles();
+        sender.invalidateUser(7L);
+
+        org.mockito.ArgumentCaptor<String> messages = org.mockito.ArgumentCaptor.forClass(String.class);
+        verify(redis, times(2)).convertAndSend(eq(properties.getCache().getChannel()), messages.capture());
+        messages.getAllValues().forEach(sender::onMessage);
+        assertThat(sender.getVersion()).isEqualTo(1);
+
+        messages.getAllValues().forEach(receiver::onMessage);
+        assertThat(receiver.getVersion()).isEqualTo(1);
+        receiver.getUserRoles(7L);
+        verify(userMapper, times(2)).selectRoleCodesByUserId(7L);
+    }
+
+    private static void assertChildren(List<Map<String, Object>> nodes, long parentId,
+                                       List<Map<String, Object>> permissions, List<Long> visited) {
+        List<Long> expected = permissions.stream()
+                .filter(p -> {
+                    Object pid = p.get("parentId");
+                    return pid == null ? parentId == 0L : ((Number) pid).longValue() == parentId;
+                })
+                .map(p -> ((Number) p.get("id")).longValue())
+                .toList();
+        assertThat(nodes).extracting(n -> ((Number) n.get("id")).longValue()).containsExactlyElementsOf(expected);
+        for (Map<String, Object> node : nodes) {
+            long id = ((Number) node.get("id")).longValue();
+            visited.add(id);
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> children = (List<Map<String, Object>>) node.getOrDefault("children", List.of());
+            assertChildren(children, id, permissions, visited);
+        }
+    }
+
+    private static Map<String, Object> permission(long id, long parentId) {
+        Map<String, Object> p = new HashMap<>();
+        p.put("id", id);
+        p.put("permCode", "perm:" + id);
+        p.put("permName", "权限" + id);
+        p.put("parentId", parentId);
+        return p;
+    }
+}
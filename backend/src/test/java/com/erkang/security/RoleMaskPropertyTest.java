@@ -0,0 +1,127 @@
+package com.erkang.security;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.domain.enums.RoleEnum;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.Size;
+import net.jqwik.api.constraints.UniqueElements;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 角色位掩码属性测试
+ * 按位与的鉴权结果与逐个比较角色编码一致
+ */
+class RoleMaskPropertyTest {
+
+    /**
+     * 任意用户角色与要求角色组合，掩码判断与列表判断结果相同
+     */
+    @Property(tries = 200)
+    void maskMatchesListSemantics(
+            @ForAll @Size(max = 5) @UniqueElements List<RoleEnum> userRoles,
+            @ForAll @Size(max = 5) @UniqueElements List<RoleEnum> required) {
+        List<String> codes = userRoles.stream().map(RoleEnum::getCode).toList();
+        LoginUser user = LoginUser.builder().userId(1L).username("u").roles(codes).build();
+
+        boolean expected = required.stream().anyMatch(r -> codes.contains(r.getCode()));
+        String[] requiredCodes = required.stream().map(RoleEnum::getCode).toArray(String[]::new);
+
+        assertThat(user.hasAnyRole(RoleEnum.maskOf(requiredCodes))).isEqualTo(expected);
+        assertThat(user.hasAnyRole(requiredCodes)).isEqualTo(expected);
+        for (RoleEnum role : RoleEnum.values()) {
+            assertThat(user.hasRole(role)).isEqualTo(codes.contains(role.getCode()));
+            assertThat(user.hasRole(role.getCode())).isEqualTo(codes.contains(role.getCode()));
+        }
+    }
+
+    /**
+     * 不在枚举中的角色编码不进入掩码，但仍可按编码判断
+     */
+    @Example
+    void unknownRoleCodesKeptOutOfMask() {
+        LoginUser user = LoginUser.builder().userId(1L).roles(List.of("AUDITOR", "PATIENT")).build();
+
+        assertThat(user.getRoleMask()).isEqualTo(RoleEnum.PATIENT.mask());
+        assertThat(user.hasRole("AUDITOR")).isTrue();
+        assertThat(user.hasAnyRole("NURSE", "AUDITOR")).isTrue();
+
+        user.setRoles(null);
+        assertThat(user.getRoleMask()).isZero();
+        assertThat(user.hasRole("AUDITOR")).isFalse();
+    }
+
+    /**
+     * 拦截器按方法注解（优先）或类注解放行，与注解上的角色一致
+     */
+    @Property(tries = 100)
+    void interceptorAllowsOnlyRequiredRoles(
+            @ForAll @Size(max = 5) @UniqueElements List<RoleEnum> userRoles,
+            @ForAll("handlers") String methodName) throws Exception {
+        RBACInterceptor interceptor = new RBACInterceptor();
+        HandlerMethod handler = new HandlerMethod(new SampleController(), SampleController.class.getMethod(methodName));
+        RequireRole annotation = handler.getMethodAnnotation(RequireRole.class);
+        if (annotation == null) {
+            annotation = SampleController.class.getAnnotation(RequireRole.class);
+        }
+        List<String> allowed = Arrays.asList(annotation.value());
+        List<String> codes = userRoles.stream().map(RoleEnum::getCode).toList();
+        UserContext.setUser(LoginUser.builder().userId(1L).username("u").roles(codes).build());
+        try {
+            if (codes.stream().anyMatch(allowed::contains)) {
+                assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler))
+                        .isTrue();
+            } else {
+                assertThatThrownBy(() -> interceptor.preHandle(
+                        new MockHttpServletRequest(), new MockHttpServletResponse(), handler))
+                        .isInstanceOf(BusinessException.class)
+                        .extracting(e -> ((BusinessException) e).getCode())
+                        .isEqualTo(ErrorCode.AUTH_ROLE_NOT_ALLOWED.getCode());
+            }
+        } finally {
+            UserContext.clear();
+        }
+    }
+
+    /**
+     * 同一处理方法的掩码只计算一次，请求时直接复用
+     */
+    @Example
+    void requiredMaskComputedOnce() throws Exception {
+        RBACInterceptor interceptor = new RBACInterceptor();
+        HandlerMethod handler = new HandlerMethod(new SampleController(), SampleController.class.getMethod("doctorsOrAdmin"));
+
+        int mask = interceptor.requiredMask(handler);
+        assertThat(mask).isEqualTo(RoleEnum.DOCTOR_MASK | RoleEnum.ADMIN.mask());
+        // 同一 Method 的新 HandlerMethod 实例（每次请求解析得到）命中同一缓存
+        assertThat(interceptor.requiredMask(new HandlerMethod(new SampleController(),
+                SampleController.class.getMethod("doctorsOrAdmin")))).isEqualTo(mask);
+    }
+
+    @Provide
+    Arbitrary<String> handlers() {
+        return Arbitraries.of("doctorsOrAdmin", "pharmacist", "classLevel");
+    }
+
+    @RequireRole({"PATIENT"})
+    public static class SampleController {
+
+        @RequireRole({"DOCTOR_PRIMARY", "DOCTOR_EXPERT", "ADMIN"})
+        public void doctorsOrAdmin() {
+        }
+
+        @RequireRole("PHARMACIST")
+        public void pharmacist() {
+        }
+
+        public void classLevel() {
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.erkang.service;
+
+import com.erkang.domain.entity.AIChatMessage;
+import com.erkang.domain.entity.AIChatSession;
+import com.erkang.mapper.AIChatMessageMapper;
+import com.erkang.mapper.AIChatSessionMapper;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AI对话上下文构建属性测试
+ * _Requirements: 10.1, 10.5_
+ */
+class AIContextPropertyTest {
+
+    private static final int MAX_TOKENS = 3000;
+    private static final TokenCounter TOKEN_COUNTER = new TokenCounter();
+
+    /**
+     * Property 1: 任意长度的会话，上下文加本次问题的Token数不超过预算，
+     * 且窗口内为最近的连续消息、按时间正序排列
+     */
+    @Property(tries = 50)
+    void context_shouldStayWithinBudget(@ForAll("histories") List<String> contents) {
+        Fixture fixture = new Fixture(contents);
+        String question = "耳鸣还没有好转怎么办";
+
+        AIContext context = fixture.service.buildContext(1L, question);
+
+        assertThat(context.getTokens() + TOKEN_COUNTER.count(question) + TokenCounter.MESSAGE_OVERHEAD)
+                .isLessThanOrEqualTo(MAX_TOKENS);
+        List<AIChatMessage> window = context.getMessages();
+        for (int i = 1; i < window.size(); i++) {
+            assertThat(window.get(i).getId()).isEqualTo(window.get(i - 1).getId() + 1);
+        }
+        if (!window.isEmpty()) {
+            assertThat(window.get(window.size() - 1).getId()).isEqualTo((long) contents.size());
+        }
+    }
+
+    /**
+     * Property 2: 窗口读取次数有上限，与会话长度无关；积压的消息按批折叠且只折叠一次
+     */
+    @Property(tries = 30)
+    void context_shouldReadBoundedPages(@ForAll("histories") List<String> contents) {
+        Fixture fixture = new Fixture(contents);
+
+        fixture.service.buildContext(1L, "问题");
+
+        // 窗口最多 40 条消息，每页 20 条；折叠每批 50 条
+        assertThat(fixture.pageReads.get()).isLessThanOrEqualTo(3);
+        assertThat(fixture.foldReads.get()).isLessThanOrEqualTo(contents.size() / 50 + 1);
+
+        fixture.pageReads.set(0);
+        fixture.foldReads.set(0);
+        fixture.service.buildContext(1L, "问题");
+
+        assertThat(fixture.pageReads.get()).isLessThanOrEqualTo(3);
+        assertThat(fixture.foldReads.get()).isZero();
+    }
+
+    /**
+     * Property 3: 单次构建后摘要进度即与窗口衔接，早期消息全部折叠进摘要，中间没有遗漏
+     */
+    @Property(tries = 30)
+    void summary_shouldCatchUpWithWindow(@ForAll("histories") List<String> contents) {
+        Fixture fixture = new Fixture(contents);
+
+        AIContext context = fixture.service.buildContext(1L, "问题");
+
+        Long until = fixture.session.getSummaryUntilId();
+        long firstInWindow = context.getMessages().isEmpty()
+                ? contents.size() + 1L : context.getMessages().get(0).getId();
+        assertThat(until == null ? 0L : until).isEqualTo(firstInWindow - 1);
+        if (until != null) {
+            assertThat(fixture.session.getSummaryTokens()).isLessThanOrEqualTo(500);
+            assertThat(TOKEN_COUNTER.count(fixture.session.getSummary()))
+                    .isEqualTo(fixture.session.getSummaryTokens());
+        }
+    }
+
+    @Example
+    void noSession_shouldReturnEmptyContext() {
+        AIContextService service = new AIContextService(mock(AIChatSessionMapper.class),
+                mock(AIChatMessageMapper.class), TOKEN_COUNTER);
+
+        assertThat(service.buildContext(null, "问题").hasHistory()).isFalse();
+        assertThat(service.buildContext(99L, "问题").hasHistory()).isFalse();
+    }
+
+    @Example
+    void toPrompt_shouldPlaceSummaryFirstAndQuestionLast() {
+        AIChatMessage message = new AIChatMessage();
+        message.setRole("ASSISTANT");
+        message.setContent("建议多休息");
+        AIContext context = new AIContext("患者：耳鸣三天", List.of(message), 20);
+
+        var prompt = context.toPrompt("现在好多了");
+
+        assertThat(prompt).hasSize(3);
+        assertThat(prompt.get(0).get("role")).isEqualTo("system");
+        assertThat(prompt.get(1).get("role")).isEqualTo("assistant");
+        assertThat(prompt.get(2).get("content")).isEqualTo("现在好多了");
+    }
+
+    @Provide
+    Arbitrary<List<String>> histories() {
+        Arbitrary<String> content = Arbitraries.strings()
+                .withCharRange('一', '俿').withChars(' ', '，', 'a', '1', '\n')
+                .ofMinLength(1).ofMaxLength(600);
+        return content.list().ofMaxSize(200);
+    }
+
+    /**
+     * 内存中的会话与消息表
+     */
+    private static class Fixture {
+        final AIChatSession session = new AIChatSession();
+        final List<AIChatMessage> messages = new ArrayList<>();
+        final AtomicInteger pageReads = new AtomicInteger();
+        final AtomicInteger foldReads = new AtomicInteger();
+        final AIContextService service;
+
+        Fixture(List<String> contents) {
+            session.setId(1L);
+            for (int i = 0; i < contents.size(); i++) {
+                AIChatMessage message = new AIChatMessage();
+                message.setId(i + 1L);
+                message.setSessionId(1L);
+                message.setRole(i % 2 == 0 ? "USER" : "ASSISTANT");
+                message.setContent(contents.get(i));
+                message.setTokens(TOKEN_COUNTER.count(contents.get(i)));
+                messages.add(message);
+            }
+
+            AIChatSessionMapper sessionMapper = mock(AIChatSessionMapper.class);
+            when(sessionMapper.selectById(1L)).thenReturn(session);
+            AIChatMessageMapper messageMapper = mock(AIChatMessageMapper.class);
+            when(messageMapper.selectLatestBefore(eq(1L), any(), any(), anyInt())).thenAnswer(inv -> {
+                pageReads.incrementAndGet();
+                Long after = inv.getArgument(1);
+                Long before = inv.getArgument(2);
+                int limit = inv.getArgument(3);
+                return messages.stream()
+                        .filter(m -> after == null || m.getId() > after)
+                        .filter(m -> before == null || m.getId() < before)
+                        .sorted(Comparator.comparing(AIChatMessage::getId).reversed())
+                        .limit(limit)
+                        .toList();
+            });
+            when(messageMapper.selectOldestAfter(eq(1L), any(), anyLong(), anyInt())).thenAnswer(inv -> {
+                foldReads.incrementAndGet();
+                Long after = inv.getArgument(1);
+                Long upTo = inv.getArgument(2);
+                int limit = inv.getArgument(3);
+                return messages.stream()
+                        .filter(m -> after == null || m.getId() > after)
+                        .filter(m -> m.getId() <= upTo)
+                        .limit(limit)
+                        .toList();
+            });
+            service = new AIContextService(sessionMapper, messageMapper, TOKEN_COUNTER);
+        }
+    }
+}
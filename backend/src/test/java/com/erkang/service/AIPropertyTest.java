@@ -1,8 +1,29 @@
 package com.erkang.service;
 
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.AIModelProperties;
+import com.erkang.domain.entity.AIChatSession;
+import com.erkang.domain.entity.AITask;
+import com.erkang.integration.ai.AIModelClient;
+import com.erkang.integration.ai.AIModelGateway;
+import com.erkang.integration.ai.StubAIModelClient;
+import com.erkang.mapper.AIChatSessionMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * AI模块属性测试
@@ -11,7 +32,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 class AIPropertyTest {
 
     // 直接创建实例（不依赖数据库操作的方法可以直接测试）
-    private final AIService aiService = new AIService(null, null, null);
+    private final AIService aiService = new AIService(null, null, null, new ScreeningService(),
+            new AIResponseCache(true, 1 << 20, 60_000), new AIContextService(null, null, new TokenCounter()),
+            stubGateway(), new SimpleMeterRegistry());
 
     // ==================== Property 11: AI输入脱敏 ====================
     // **Validates: Requirements 10.6**
@@ -144,8 +167,153 @@ class AIPropertyTest {
         assertThat(result).contains("免责声明");
     }
 
+    // ==================== 流式输出合规 ====================
+    // **Validates: Requirements 10.2, 10.3, 10.4**
+
+    @Property(tries = 200)
+    void streamingCompliance_shouldMatchBatchCompliance(
+            @ForAll("streamedResponses") String response,
+            @ForAll("questions") String question,
+            @ForAll @IntRange(min = 1, max = 6) int chunkSize) {
+        // Given: 同一响应按任意长度切片逐段输出
+        StreamingComplianceFilter filter = aiService.newComplianceFilter(question);
+        StringBuilder streamed = new StringBuilder(filter.begin());
+        for (int i = 0; i < response.length(); i += chunkSize) {
+            streamed.append(filter.accept(response.substring(i, Math.min(response.length(), i + chunkSize))));
+        }
+        streamed.append(filter.finish());
+
+        // Then: 流式结果应与整体合规校验结果一致
+        String expected = aiService.ensureCompliance(response, question);
+        assertThat(streamed.toString()).isEqualTo(expected);
+        assertThat(filter.getOutput()).isEqualTo(expected);
+    }
+
+    @Example
+    void streamAIModel_shouldEmitWholeResponseInChunks() {
+        StringBuilder collected = new StringBuilder();
+        List<String> chunks = new ArrayList<>();
+        aiService.streamAIModel(null, "耳鸣怎么办", chunk -> {
+            chunks.add(chunk);
+            collected.append(chunk);
+        });
+
+        assertThat(chunks.size()).isGreaterThan(1);
+        assertThat(collected.toString()).contains("及时就医");
+    }
+
+    // ==================== 问答缓存 ====================
+
+    @Example
+    void executeTask_shouldHitCacheForNormalizedRepeatQuestion() {
+        AIService service = new AIService(null, null, null, new ScreeningService(),
+                new AIResponseCache(true, 1 << 20, 60_000), new AIContextService(null, null, new TokenCounter()),
+                stubGateway(), new SimpleMeterRegistry());
+        AITask first = new AITask();
+        first.setRequestData("耳鸣怎么办？");
+        AITask second = new AITask();
+        second.setRequestData(" 耳鸣 怎么办呢 ");
+
+        String firstAnswer = service.executeTask(first);
+        String secondAnswer = service.executeTask(second);
+
+        assertThat(first.getCacheHit()).isFalse();
+        assertThat(second.getCacheHit()).isTrue();
+        assertThat(secondAnswer).isEqualTo(firstAnswer);
+    }
+
+    @Example
+    void executeTask_shouldBypassCacheForEmergencyQuestion() {
+        AIService service = new AIService(null, null, null, new ScreeningService(),
+                new AIResponseCache(true, 1 << 20, 60_000), new AIContextService(null, null, new TokenCounter()),
+                stubGateway(), new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            AITask task = new AITask();
+            task.setRequestData("突然胸痛怎么办");
+            String answer = service.executeTask(task);
+
+            assertThat(task.getCacheHit()).isFalse();
+            assertThat(answer).contains("紧急提醒");
+        }
+        assertThat(service.getCacheStats().get("entries")).isEqualTo(0);
+    }
+
+    @Example
+    void executeTask_shouldFailOnFallbackAnswer() {
+        AIModelGateway failing = new AIModelGateway(new AIModelClient() {
+            @Override
+            public String complete(List<Map<String, String>> messages, Duration timeout) throws Exception {
+                throw new IOException("模型服务不可用");
+            }
+
+            @Override
+            public String name() {
+                return "failing";
+            }
+        }, new AIModelProperties(), new SimpleMeterRegistry());
+        AIService service = new AIService(null, null, null, new ScreeningService(),
+                new AIResponseCache(true, 1 << 20, 60_000), new AIContextService(null, null, new TokenCounter()),
+                failing, new SimpleMeterRegistry());
+        AITask task = new AITask();
+        task.setRequestData("耳鸣怎么办");
+
+        // 异步任务不接受兜底回答，抛出后由队列重试
+        assertThatThrownBy(() -> service.executeTask(task)).isInstanceOf(BusinessException.class);
+        // 同步问答仍输出兜底回答；兜底回答不缓存
+        StringBuilder streamed = new StringBuilder();
+        service.streamAIModel(null, "耳鸣怎么办", streamed::append);
+        assertThat(streamed.toString()).isEqualTo(new AIModelProperties().getSafeAnswer());
+        assertThat(service.getCacheStats().get("entries")).isEqualTo(0);
+        failing.shutdown();
+    }
+
+    /**
+     * 会话只允许本人或管理员使用，不存在的会话按不存在处理
+     */
+    @Property(tries = 20)
+    void getOwnedSession_shouldRequireOwnerOrAdmin(@ForAll @LongRange(min = 1, max = 3) long owner,
+                                                   @ForAll @LongRange(min = 1, max = 3) long caller,
+                                                   @ForAll boolean admin) {
+        AIChatSessionMapper sessionMapper = mock(AIChatSessionMapper.class);
+        AIChatSession session = new AIChatSession();
+        session.setId(7L);
+        session.setUserId(owner);
+        when(sessionMapper.selectById(7L)).thenReturn(session);
+        AIService service = new AIService(null, sessionMapper, null, new ScreeningService(),
+                new AIResponseCache(true, 1 << 20, 60_000), new AIContextService(null, null, new TokenCounter()),
+                stubGateway(), new SimpleMeterRegistry());
+
+        if (admin || owner == caller) {
+            assertThat(service.getOwnedSession(7L, caller, admin)).isSameAs(session);
+        } else {
+            assertThatThrownBy(() -> service.getOwnedSession(7L, caller, false))
+                    .extracting(e -> ((BusinessException) e).getCode())
+                    .isEqualTo(ErrorCode.FORBIDDEN.getCode());
+        }
+        assertThatThrownBy(() -> service.getOwnedSession(8L, caller, admin))
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.NOT_FOUND.getCode());
+    }
+
+    private static AIModelGateway stubGateway() {
+        return new AIModelGateway(new StubAIModelClient(), new AIModelProperties(), new SimpleMeterRegistry());
+    }
+
     // ==================== 数据生成器 ====================
 
+    @Provide
+    Arbitrary<String> streamedResponses() {
+        return Arbitraries.of(
+                "建议服用药物", "每次2片", "每日3次", "500mg", "100毫克", "每次500mg",
+                "，", "每", "12", "m", "毫升", "【免责声明】仅供参考", "\n"
+        ).list().ofMinSize(1).ofMaxSize(8).map(parts -> String.join("", parts));
+    }
+
+    @Provide
+    Arbitrary<String> questions() {
+        return Arbitraries.of("普通问题", "我感觉胸痛怎么办", "耳鸣三天了", "呼吸困难");
+    }
+
     @Provide
     Arbitrary<String> phoneNumbers() {
         return Arbitraries.of("13", "14", "15", "16", "17", "18", "19")
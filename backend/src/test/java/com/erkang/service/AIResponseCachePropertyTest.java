@@ -0,0 +1,103 @@
+package com.erkang.service;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * AI问答缓存属性测试
+ * _Requirements: 10.1, 10.5_
+ */
+class AIResponseCachePropertyTest {
+
+    /**
+     * Property 1: 空白、标点、大小写、全半角与句末语气词不影响缓存键
+     */
+    @Property(tries = 100)
+    void keyOf_shouldIgnoreFormattingDifferences(
+            @ForAll("questions") String question,
+            @ForAll("noise") String noise,
+            @ForAll boolean upperCase) {
+        String variant = noise + (upperCase ? question.toUpperCase() : question) + noise + "？呢";
+
+        assertThat(AIResponseCache.keyOf(variant)).isEqualTo(AIResponseCache.keyOf(question));
+    }
+
+    @Example
+    void keyOf_shouldDistinguishDifferentQuestions() {
+        assertThat(AIResponseCache.keyOf("耳鸣怎么办")).isNotEqualTo(AIResponseCache.keyOf("鼻塞怎么办"));
+        assertThat(AIResponseCache.keyOf("ＡＢＣ１２３")).isEqualTo(AIResponseCache.keyOf("abc123"));
+    }
+
+    /**
+     * Property 2: 任意写入序列后缓存占用不超过字节上限，且最近写入的条目可读
+     */
+    @Property(tries = 100)
+    void put_shouldKeepSizeWithinBound(
+            @ForAll @IntRange(min = 512, max = 4096) int maxBytes,
+            @ForAll @Size(min = 1, max = 50) List<@StringLength(min = 1, max = 400) String> responses) {
+        AIResponseCache cache = new AIResponseCache(true, maxBytes, 60_000, () -> 0L);
+
+        for (int i = 0; i < responses.size(); i++) {
+            cache.put("问题" + i, responses.get(i));
+            assertThat(cache.currentBytes()).isLessThanOrEqualTo(maxBytes);
+        }
+
+        String last = responses.get(responses.size() - 1);
+        if (96 + 2L * (64 + last.length()) <= maxBytes) {
+            assertThat(cache.get("问题" + (responses.size() - 1))).isEqualTo(last);
+        }
+    }
+
+    @Example
+    void get_shouldExpireEntriesAfterTtl() {
+        AtomicLong now = new AtomicLong(1_000);
+        AIResponseCache cache = new AIResponseCache(true, 1 << 20, 500, now::get);
+        cache.put("耳鸣怎么办", "回答");
+
+        now.addAndGet(499);
+        assertThat(cache.get("耳鸣怎么办")).isEqualTo("回答");
+
+        now.addAndGet(1);
+        assertThat(cache.get("耳鸣怎么办")).isNull();
+        assertThat(cache.currentBytes()).isZero();
+    }
+
+    @Example
+    void put_shouldEvictLeastRecentlyUsedFirst() {
+        long entrySize = 96 + 2L * (64 + 10);
+        AIResponseCache cache = new AIResponseCache(true, entrySize * 2, 60_000, () -> 0L);
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        cache.get("a");
+
+        cache.put("c", "0123456789");
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getStats().get("evictions")).isEqualTo(1L);
+    }
+
+    @Example
+    void disabledCache_shouldNeverHit() {
+        AIResponseCache cache = new AIResponseCache(false, 1 << 20, 60_000, () -> 0L);
+        cache.put("耳鸣怎么办", "回答");
+        assertThat(cache.get("耳鸣怎么办")).isNull();
+    }
+
+    @Provide
+    Arbitrary<String> questions() {
+        return Arbitraries.of("耳鸣怎么办", "鼻塞流涕三天", "tinnitus what to do", "咽喉痛能吃什么");
+    }
+
+    @Provide
+    Arbitrary<String> noise() {
+        return Arbitraries.of("", " ", "  ", "\t", "，", "!", "…").list().ofMaxSize(3)
+                .map(parts -> String.join("", parts));
+    }
+}
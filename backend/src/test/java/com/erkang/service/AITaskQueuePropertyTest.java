@@ -0,0 +1,295 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.AITaskProperties;
+import com.erkang.domain.entity.AIChatSession;
+import com.erkang.domain.entity.AITask;
+import com.erkang.mapper.AITaskMapper;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import net.jqwik.api.lifecycle.AfterTry;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AI异步任务队列属性测试
+ * _Requirements: 10.1, 10.5_
+ */
+class AITaskQueuePropertyTest {
+
+    private AIService aiService;
+    private AITaskMapper aiTaskMapper;
+    private AITaskProperties properties;
+    private AITaskQueueService queueService;
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @BeforeTry
+    void setUp() {
+        aiService = mock(AIService.class);
+        aiTaskMapper = mock(AITaskMapper.class);
+        properties = new AITaskProperties();
+        properties.setBackoffMs(5);
+        properties.setMaxBackoffMs(20);
+        properties.setTimeoutMs(5000);
+
+        when(aiService.sanitizeInput(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        when(aiService.enqueueTask(anyString(), anyLong(), anyString(), any(), any())).thenAnswer(inv -> {
+            AITask task = new AITask();
+            task.setId(idSequence.incrementAndGet());
+            task.setTaskType(inv.getArgument(0));
+            task.setUserId(inv.getArgument(1));
+            task.setRequestData(inv.getArgument(2));
+            task.setStatus("PENDING");
+            return task;
+        });
+        doAnswer(inv -> {
+            inv.<AITask>getArgument(0).setStatus("COMPLETED");
+            return null;
+        }).when(aiService).completeQueuedTask(any(), any(), anyInt());
+        doAnswer(inv -> {
+            AITask task = inv.getArgument(0);
+            task.setStatus("FAILED");
+            task.setErrorMessage(inv.getArgument(1));
+            return null;
+        }).when(aiService).failQueuedTask(any(), any());
+    }
+
+    @AfterTry
+    void tearDown() {
+        if (queueService != null) {
+            queueService.shutdown();
+        }
+    }
+
+    /**
+     * Property 1: 失败次数小于最大执行次数时，任务最终成功且记录重试次数
+     */
+    @Property(tries = 10)
+    void failingTask_shouldRetryUntilSuccess(@ForAll @IntRange(min = 0, max = 2) int failures) throws Exception {
+        properties.setMaxAttempts(3);
+        AtomicInteger calls = new AtomicInteger();
+        when(aiService.executeTask(any())).thenAnswer(inv -> {
+            if (calls.incrementAndGet() <= failures) {
+                throw new IllegalStateException("模型调用失败");
+            }
+            return "回答";
+        });
+        startQueue();
+
+        AITask result = submitAndAwait(1L);
+
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getRetryCount()).isEqualTo(failures);
+        assertThat(calls.get()).isEqualTo(failures + 1);
+        verify(aiService).completeQueuedTask(any(), eq("回答"), anyInt());
+    }
+
+    /**
+     * Property 2: 连续失败达到最大执行次数后任务标记为失败
+     */
+    @Property(tries = 10)
+    void exhaustedRetries_shouldMarkFailed(@ForAll @IntRange(min = 1, max = 4) int maxAttempts) throws Exception {
+        properties.setMaxAttempts(maxAttempts);
+        AtomicInteger calls = new AtomicInteger();
+        when(aiService.executeTask(any())).thenAnswer(inv -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("模型调用失败");
+        });
+        startQueue();
+
+        AITask result = submitAndAwait(1L);
+
+        assertThat(result.getStatus()).isEqualTo("FAILED");
+        assertThat(result.getErrorMessage()).isEqualTo("模型调用失败");
+        assertThat(calls.get()).isEqualTo(maxAttempts);
+    }
+
+    @Example
+    void slowTask_shouldTimeOutAndInterruptWorker() throws Exception {
+        properties.setTimeoutMs(100);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(aiService.executeTask(any())).thenAnswer(inv -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "回答";
+        });
+        startQueue();
+
+        AITask result = submitAndAwait(1L);
+
+        assertThat(result.getStatus()).isEqualTo("FAILED");
+        assertThat(result.getErrorMessage()).isEqualTo("任务执行超时");
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        verify(aiService, never()).completeQueuedTask(any(), any(), anyInt());
+    }
+
+    /**
+     * Property 3: 单用户进行中的任务数不超过上限，任务结束后释放名额
+     */
+    @Property(tries = 5)
+    void perUserLimit_shouldRejectExcessTasks(@ForAll @IntRange(min = 1, max = 4) int limit) throws Exception {
+        properties.setMaxConcurrentPerUser(limit);
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiService.executeTask(any())).thenAnswer(inv -> {
+            release.await();
+            return "回答";
+        });
+        startQueue();
+
+        CountDownLatch done = new CountDownLatch(limit);
+        for (int i = 0; i < limit; i++) {
+            AITask task = queueService.submit(1L, "HEALTH_QA", "问题" + i, null, null);
+            queueService.subscribe(task.getId(), t -> done.countDown());
+        }
+
+        assertThatThrownBy(() -> queueService.submit(1L, "HEALTH_QA", "超出", null, null))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.AI_TASK_LIMIT_EXCEEDED.getCode());
+        // 其他用户不受影响
+        AITask other = queueService.submit(2L, "HEALTH_QA", "其他用户", null, null);
+        assertThat(other.getId()).isNotNull();
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        AITask again = submitAndAwait(1L);
+        assertThat(again.getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Example
+    void fullQueue_shouldRejectWithSystemBusy() throws Exception {
+        AITaskProperties.Pool pool = new AITaskProperties.Pool();
+        pool.setCorePoolSize(1);
+        pool.setMaxPoolSize(1);
+        pool.setQueueCapacity(1);
+        properties.getPools().put("RISK_CHECK", pool);
+        properties.setMaxConcurrentPerUser(10);
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiService.executeTask(any())).thenAnswer(inv -> {
+            release.await();
+            return "回答";
+        });
+        startQueue();
+
+        queueService.submit(1L, "RISK_CHECK", "任务1", null, null);
+        queueService.submit(1L, "RISK_CHECK", "任务2", null, null);
+
+        assertThatThrownBy(() -> queueService.submit(1L, "RISK_CHECK", "任务3", null, null))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.SYSTEM_BUSY.getCode());
+        // 其他类型的队列互不影响
+        assertThat(queueService.submit(1L, "HEALTH_QA", "任务4", null, null).getId()).isNotNull();
+        release.countDown();
+    }
+
+    @Example
+    void unknownTaskType_shouldBeRejected() {
+        startQueue();
+        assertThatThrownBy(() -> queueService.submit(1L, "UNKNOWN", "问题", null, null))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.AI_TASK_TYPE_INVALID.getCode());
+    }
+
+    /**
+     * 关联他人的会话时拒绝提交，不入队
+     */
+    @Property(tries = 10)
+    void foreignSession_shouldBeForbidden(@ForAll @LongRange(min = 1, max = 3) long owner,
+                                          @ForAll @LongRange(min = 1, max = 3) long caller) {
+        startQueue();
+        AIChatSession session = new AIChatSession();
+        session.setId(7L);
+        session.setUserId(owner);
+        when(aiService.getSessionById(7L)).thenReturn(session);
+
+        if (owner == caller) {
+            assertThat(queueService.submit(caller, "HEALTH_QA", "问题", 7L, "AI_SESSION").getId()).isNotNull();
+        } else {
+            assertThatThrownBy(() -> queueService.submit(caller, "HEALTH_QA", "问题", 7L, "AI_SESSION"))
+                    .isInstanceOf(BusinessException.class)
+                    .extracting(e -> ((BusinessException) e).getCode())
+                    .isEqualTo(ErrorCode.FORBIDDEN.getCode());
+            verify(aiService, never()).enqueueTask(anyString(), anyLong(), anyString(), any(), any());
+        }
+    }
+
+    /**
+     * 任务由其他实例执行时，订阅方只在数据库状态进入终态后收到一次结果；超时仍未结束则不推送并取消订阅
+     */
+    @Property(tries = 5)
+    void remoteTask_shouldDeliverOnlyTerminalStatus(@ForAll @IntRange(min = 0, max = 3) int pendingReads)
+            throws Exception {
+        properties.setSubscribePollMs(5);
+        startQueue();
+        AtomicInteger reads = new AtomicInteger();
+        when(aiTaskMapper.selectById(1000L)).thenAnswer(inv -> {
+            AITask snapshot = new AITask();
+            snapshot.setId(1000L);
+            int read = reads.incrementAndGet();
+            snapshot.setStatus(read <= pendingReads ? "PENDING" : read == pendingReads + 1 ? "PROCESSING" : "COMPLETED");
+            return snapshot;
+        });
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicReference<AITask> result = new AtomicReference<>();
+        queueService.subscribe(1000L, t -> {
+            delivered.incrementAndGet();
+            result.set(t);
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(result.get().getStatus()).isEqualTo("COMPLETED");
+        Thread.sleep(30);
+        assertThat(delivered.get()).isEqualTo(1);
+        assertThat(reads.get()).isEqualTo(pendingReads + 2);
+
+        // 一直未结束的任务：超时后停止轮询，不推送非终态结果
+        properties.setTimeoutMs(20);
+        AITask stuck = new AITask();
+        stuck.setId(1001L);
+        stuck.setStatus("PROCESSING");
+        when(aiTaskMapper.selectById(1001L)).thenReturn(stuck);
+        AtomicInteger stuckDelivered = new AtomicInteger();
+        queueService.subscribe(1001L, t -> stuckDelivered.incrementAndGet());
+        Thread.sleep(200);
+        assertThat(stuckDelivered.get()).isZero();
+        clearInvocations(aiTaskMapper);
+        Thread.sleep(50);
+        verify(aiTaskMapper, never()).selectById(1001L);
+    }
+
+    private void startQueue() {
+        queueService = new AITaskQueueService(aiService, aiTaskMapper, properties);
+        queueService.init();
+    }
+
+    private AITask submitAndAwait(Long userId) throws InterruptedException {
+        AITask task = queueService.submit(userId, "HEALTH_QA", "耳鸣怎么办", null, null);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<AITask> result = new AtomicReference<>();
+        when(aiTaskMapper.selectById(task.getId())).thenReturn(task);
+        queueService.subscribe(task.getId(), t -> {
+            result.set(t);
+            done.countDown();
+        });
+        assertThat(done.await(5, TimeUnit.SECONDS)).as("任务应在超时前结束").isTrue();
+        return result.get();
+    }
+}
@@ -0,0 +1,207 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.AuthProperties;
+import com.erkang.domain.dto.LoginRequest;
+import com.erkang.domain.dto.UserRolesDTO;
+import com.erkang.domain.entity.User;
+import com.erkang.domain.vo.LoginVO;
+import com.erkang.mapper.UserMapper;
+import com.erkang.security.JwtTokenProvider;
+import com.erkang.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 登录路径属性测试：单次查询、哈希升级、最后登录批量写回、哈希线程池拒绝
+ */
+class AuthLoginPropertyTest {
+
+    private static final String PASSWORD = "Erkang@123";
+    private static final String HASH_COST_4 = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+    /**
+     * Property 1: 登录只执行一次联表查询，不再逐个查询角色或同步更新用户
+     */
+    @Example
+    void login_shouldLoadUserAndRolesInOneQuery() {
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectWithRolesByUsername("doctor"))
+                .thenReturn(user(7L, HASH_COST_4, "DOCTOR_PRIMARY,DOCTOR_EXPERT"));
+        LastLoginWriter writer = new LastLoginWriter(userMapper, new AuthProperties());
+        AuthService authService = authService(userMapper, hasher(4, 1, 8), writer);
+
+        LoginVO vo = authService.login(request("doctor", PASSWORD), "10.0.0.1");
+
+        assertThat(vo.getRoles()).containsExactly("DOCTOR_PRIMARY", "DOCTOR_EXPERT");
+        verify(userMapper).selectWithRolesByUsername("doctor");
+        verify(userMapper, never()).selectRoleCodesByUserId(any());
+        verify(userMapper, never()).updateById(any(User.class));
+        verify(userMapper, never()).updatePasswordHash(any(), any(), any());
+        assertThat(writer.pendingCount()).isEqualTo(1);
+    }
+
+    @Example
+    void login_shouldRejectWrongPassword() {
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectWithRolesByUsername("patient")).thenReturn(user(1L, HASH_COST_4, "PATIENT"));
+        LastLoginWriter writer = new LastLoginWriter(userMapper, new AuthProperties());
+        AuthService authService = authService(userMapper, hasher(4, 1, 8), writer);
+
+        assertThatThrownBy(() -> authService.login(request("patient", "wrong"), "10.0.0.1"))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.AUTH_INVALID_CREDENTIALS.getCode());
+        assertThat(writer.pendingCount()).isZero();
+    }
+
+    /**
+     * Property 2: 成本低于配置的哈希在登录成功后按新成本替换，且以原哈希为条件
+     */
+    @Example
+    void login_shouldUpgradeWeakHash() {
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectWithRolesByUsername("patient")).thenReturn(user(3L, HASH_COST_4, "PATIENT"));
+        AuthService authService = authService(userMapper, hasher(5, 1, 8),
+                new LastLoginWriter(userMapper, new AuthProperties()));
+
+        authService.login(request("patient", PASSWORD), "10.0.0.1");
+
+        ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+        verify(userMapper).updatePasswordHash(eq(3L), eq(HASH_COST_4), newHash.capture());
+        assertThat(newHash.getValue()).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder().matches(PASSWORD, newHash.getValue())).isTrue();
+    }
+
+    /**
+     * Property 3: 同一用户多次登录只写回最后一次，按批大小拆分 UPDATE
+     */
+    @Property(tries = 30)
+    void lastLoginWriter_shouldCoalesceAndBatch(
+            @ForAll @IntRange(min = 1, max = 60) int users,
+            @ForAll @IntRange(min = 1, max = 4) int loginsPerUser,
+            @ForAll @IntRange(min = 1, max = 16) int maxBatchSize) {
+        UserMapper userMapper = mock(UserMapper.class);
+        List<List<User>> batches = new ArrayList<>();
+        when(userMapper.updateLastLogins(anyList())).thenAnswer(invocation -> {
+            List<User> batch = new ArrayList<>(invocation.getArgument(0));
+            batches.add(batch);
+            return batch.size();
+        });
+        AuthProperties properties = new AuthProperties();
+        properties.getLastLogin().setMaxBatchSize(maxBatchSize);
+        LastLoginWriter writer = new LastLoginWriter(userMapper, properties);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int round = 0; round < loginsPerUser; round++) {
+            for (long id = 1; id <= users; id++) {
+                writer.record(id, now.plusSeconds(round), "10.0.0." + round);
+            }
+        }
+
+        assertThat(writer.flush()).isEqualTo(users);
+        assertThat(batches).hasSize((users + maxBatchSize - 1) / maxBatchSize);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(maxBatchSize));
+        assertThat(batches.stream().flatMap(List::stream))
+                .hasSize(users)
+                .allSatisfy(u -> assertThat(u.getLastLoginIp()).isEqualTo("10.0.0." + (loginsPerUser - 1)));
+        assertThat(writer.flush()).isZero();
+    }
+
+    @Example
+    void lastLoginWriter_shouldKeepPendingWhenUpdateFails() {
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.updateLastLogins(anyList())).thenThrow(new IllegalStateException("数据库不可用"));
+        LastLoginWriter writer = new LastLoginWriter(userMapper, new AuthProperties());
+        writer.record(1L, LocalDateTime.now(), "10.0.0.1");
+
+        assertThatThrownBy(writer::flush).isInstanceOf(IllegalStateException.class);
+        assertThat(writer.pendingCount()).isEqualTo(1);
+    }
+
+    /**
+     * Property 4: 哈希线程池排队已满时立即返回系统繁忙
+     */
+    @Example
+    void passwordHasher_shouldRejectWhenQueueIsFull() throws Exception {
+        PasswordHasher hasher = hasher(4, 1, 1);
+        String slowHash = new BCryptPasswordEncoder(12).encode(PASSWORD);
+        int callers = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return hasher.matches(PASSWORD, slowHash);
+                }));
+            }
+            start.countDown();
+            int busy = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    assertThat(result.get()).isTrue();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BusinessException.class);
+                    assertThat(((BusinessException) e.getCause()).getCode())
+                            .isEqualTo(ErrorCode.SYSTEM_BUSY.getCode());
+                    busy++;
+                }
+            }
+            assertThat(busy).isGreaterThanOrEqualTo(callers - 2);
+        } finally {
+            pool.shutdownNow();
+            hasher.shutdown();
+        }
+    }
+
+    private static PasswordHasher hasher(int strength, int threads, int queueCapacity) {
+        AuthProperties properties = new AuthProperties();
+        properties.setBcryptStrength(strength);
+        properties.getHash().setThreads(threads);
+        properties.getHash().setQueueCapacity(queueCapacity);
+        return new PasswordHasher(properties, new SimpleMeterRegistry());
+    }
+
+    private static AuthService authService(UserMapper userMapper, PasswordHasher hasher, LastLoginWriter writer) {
+        JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+        when(jwtTokenProvider.generateToken(any(), any(), any())).thenReturn("access");
+        when(jwtTokenProvider.generateRefreshToken(any())).thenReturn("refresh");
+        return new AuthService(userMapper, jwtTokenProvider, null, hasher, writer, null);
+    }
+
+    private static UserRolesDTO user(Long id, String hash, String roleCodes) {
+        UserRolesDTO user = new UserRolesDTO();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setPassword(hash);
+        user.setStatus(1);
+        user.setRoleCodes(roleCodes);
+        return user;
+    }
+
+    private static LoginRequest request(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+}
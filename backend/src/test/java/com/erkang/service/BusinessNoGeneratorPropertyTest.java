@@ -0,0 +1,163 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.utils.Snowflake;
+import com.erkang.config.IdProperties;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 业务编号生成属性测试
+ */
+class BusinessNoGeneratorPropertyTest {
+
+    /**
+     * 编号由前缀、当天日期与19位ID组成，不超过编号列长度，按生成顺序字典序递增
+     */
+    @Property(tries = 20)
+    void numbersFormattedAndOrdered(@ForAll("prefixes") String prefix,
+                                    @ForAll @IntRange(min = 0, max = 1023) int nodeId) {
+        BusinessNoGenerator generator = BusinessNoGenerators.fixed(nodeId);
+        String today = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(generator.next(prefix));
+        }
+
+        assertThat(numbers).isSorted().doesNotHaveDuplicates();
+        for (String number : numbers) {
+            assertThat(number).hasSizeLessThanOrEqualTo(32).startsWith(prefix);
+            String id = number.substring(prefix.length() + 8);
+            assertThat(id).hasSize(BusinessNoGenerator.ID_DIGITS).containsOnlyDigits();
+            assertThat(Snowflake.nodeIdOf(Long.parseLong(id))).isEqualTo(nodeId);
+        }
+        // 生成跨零点时日期可能是次日
+        assertThat(numbers.get(0).substring(prefix.length(), prefix.length() + 8)).isGreaterThanOrEqualTo(today);
+    }
+
+    /**
+     * 日期取自ID中的时间，ID左补零到19位
+     */
+    @Example
+    void formatUsesIdTimestamp() {
+        BusinessNoGenerator generator = BusinessNoGenerators.fixed(0);
+        long id = (LocalDate.of(2025, 3, 9).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                - Snowflake.EPOCH) << 22 | 5;
+
+        assertThat(generator.format("RX", id)).isEqualTo("RX20250309" + String.format("%019d", id));
+        assertThat(generator.format("MDT", id + 1)).isEqualTo("MDT20250309" + String.format("%019d", id + 1));
+    }
+
+    /**
+     * 启动时跳过已被占用的节点号，取得空闲节点号的租约
+     */
+    @Property(tries = 20)
+    void acquiresFreeNodeId(@ForAll @Size(max = 1023) List<@IntRange(min = 0, max = 1023) Integer> taken) {
+        FakeRedis redis = new FakeRedis();
+        taken.forEach(node -> redis.values.put("erkang:id:node:" + node, "other"));
+        BusinessNoGenerator generator = redis.generator(new AtomicLong(System.currentTimeMillis()));
+
+        generator.init();
+        try {
+            assertThat(taken).doesNotContain(generator.nodeId());
+            assertThat(redis.values).containsKey("erkang:id:node:" + generator.nodeId());
+            assertThat(generator.next("C")).startsWith("C");
+        } finally {
+            generator.shutdown();
+        }
+        assertThat(redis.values).doesNotContainKey("erkang:id:node:" + generator.nodeId());
+    }
+
+    /**
+     * Redis 不可用时在本地有效期内继续发号，之后拒绝；租约被他人取得时改用新的节点号
+     */
+    @Example
+    void leaseExpiryAndLoss() {
+        FakeRedis redis = new FakeRedis();
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        BusinessNoGenerator generator = redis.generator(clock);
+        generator.init();
+        try {
+            int first = generator.nodeId();
+            String before = generator.next("MR");
+
+            redis.down = true;
+            clock.addAndGet(20000);
+            generator.renew();
+            assertThat(generator.next("MR")).isGreaterThan(before);
+            clock.addAndGet(10000);
+            assertThatThrownBy(() -> generator.next("MR")).isInstanceOf(BusinessException.class);
+
+            redis.down = false;
+            redis.values.put("erkang:id:node:" + first, "other");
+            generator.renew();
+            assertThat(generator.nodeId()).isNotEqualTo(first);
+            assertThat(generator.next("MR")).isGreaterThan(before);
+        } finally {
+            generator.shutdown();
+        }
+    }
+
+    @Provide
+    Arbitrary<String> prefixes() {
+        return Arbitraries.of("C", "RX", "MR", "MDT", "RF", "FP", "FR");
+    }
+
+    /**
+     * 内存中的 Redis：只实现租约用到的命令
+     */
+    @SuppressWarnings("unchecked")
+    private static final class FakeRedis {
+        final Map<String, String> values = new ConcurrentHashMap<>();
+        volatile boolean down;
+        final StringRedisTemplate template = mock(StringRedisTemplate.class);
+
+        FakeRedis() {
+            ValueOperations<String, String> ops = mock(ValueOperations.class);
+            when(template.opsForValue()).thenReturn(ops);
+            when(ops.setIfAbsent(anyString(), anyString(), anyLong(), any()))
+                    .thenAnswer(inv -> values.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null);
+            when(ops.get(anyString())).thenAnswer(inv -> values.get((String) inv.getArgument(0)));
+            when(template.delete(anyString())).thenAnswer(inv -> values.remove((String) inv.getArgument(0)) != null);
+            // 续期与释放脚本：KEYS[1] 为租约，KEYS[2] 为已发出的最大时间
+            when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(inv -> {
+                if (down) {
+                    throw new IllegalStateException("redis down");
+                }
+                List<String> keys = inv.getArgument(1);
+                Object[] args = Arrays.copyOfRange(inv.getArguments(), 2, inv.getArguments().length);
+                if (!args[0].equals(values.get(keys.get(0)))) {
+                    return 0L;
+                }
+                boolean release = args.length == 3;
+                values.put(keys.get(1), (String) args[release ? 1 : 2]);
+                if (release) {
+                    values.remove(keys.get(0));
+                }
+                return 1L;
+            });
+        }
+
+        BusinessNoGenerator generator(AtomicLong clock) {
+            return new BusinessNoGenerator(new IdProperties(), template, clock::get);
+        }
+    }
+}
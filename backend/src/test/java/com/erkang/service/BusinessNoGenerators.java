@@ -0,0 +1,20 @@
+package com.erkang.service;
+
+import com.erkang.config.IdProperties;
+
+/**
+ * 测试用业务编号生成器：固定节点号，不依赖 Redis 租约
+ */
+public final class BusinessNoGenerators {
+
+    private BusinessNoGenerators() {
+    }
+
+    public static BusinessNoGenerator fixed(int nodeId) {
+        IdProperties properties = new IdProperties();
+        properties.setNodeId(nodeId);
+        BusinessNoGenerator generator = new BusinessNoGenerator(properties, null, System::currentTimeMillis);
+        generator.init();
+        return generator;
+    }
+}
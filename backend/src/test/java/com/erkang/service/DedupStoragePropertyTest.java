@@ -0,0 +1,306 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.FileBlob;
+import com.erkang.domain.entity.FileBlobRef;
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.integration.storage.LocalObjectCache;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.FileBlobMapper;
+import com.erkang.mapper.FileBlobRefMapper;
+import com.erkang.mapper.FileOwnerMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 内容寻址去重存储属性测试
+ */
+class DedupStoragePropertyTest {
+
+    /**
+     * 流式计算的哈希与整体计算一致
+     */
+    @Property(tries = 100)
+    void streamingHashMatchesDigest(@ForAll @Size(max = 200_000) byte[] content) throws Exception {
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        assertThat(DedupStorageService.sha256(new ByteArrayInputStream(content))).isEqualTo(expected);
+    }
+
+    /**
+     * 相同内容多次上传只写入一次对象存储，对象名相同，引用数等于上传次数
+     */
+    @Property(tries = 50)
+    void repeatedUploadsStoredOnce(@ForAll @Size(min = 1, max = 2000) byte[] content,
+                                   @ForAll @IntRange(min = 1, max = 5) int uploads) {
+        Fixture f = new Fixture();
+        List<DedupStorageService.StoredFile> stored = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            stored.add(f.service.store((long) i + 1, f.file(content), "medical"));
+        }
+
+        String sha256 = stored.get(0).sha256();
+        assertThat(stored).extracting(DedupStorageService.StoredFile::objectName)
+                .containsOnly("cas/" + sha256.substring(0, 2) + "/" + sha256);
+        assertThat(stored).extracting(DedupStorageService.StoredFile::deduplicated)
+                .containsExactlyElementsOf(expectedDedupFlags(uploads));
+        verify(f.minioService, times(1)).putStream(anyString(), any(), eq((long) content.length), any());
+        assertThat(f.blobs.get(sha256).getRefCount()).isEqualTo(uploads);
+        assertThat(f.refs).hasSize(uploads);
+        assertThat(f.registry.counter("erkang.storage.dedup.saved.bytes").count())
+                .isEqualTo((double) content.length * (uploads - 1));
+    }
+
+    /**
+     * 释放全部引用后对象只删除一次并清除签名缓存与本地副本，之前的释放不删除对象
+     */
+    @Property(tries = 50)
+    void releaseDeletesOnLastReference(@ForAll @Size(min = 1, max = 500) byte[] content,
+                                       @ForAll @IntRange(min = 1, max = 5) int uploads) {
+        Fixture f = new Fixture();
+        String objectName = null;
+        for (int i = 0; i < uploads; i++) {
+            objectName = f.service.store(1L, f.file(content), "medical").objectName();
+        }
+
+        for (int i = 0; i < uploads - 1; i++) {
+            assertThat(f.service.release(objectName, 1L)).isTrue();
+            verify(f.minioService, never()).deleteFile(anyString());
+            verifyNoInteractions(f.presignedUrlCache, f.localObjectCache);
+        }
+        assertThat(f.service.release(objectName, 1L)).isTrue();
+
+        verify(f.minioService, times(1)).deleteFile(objectName);
+        verify(f.presignedUrlCache).invalidate(objectName);
+        verify(f.localObjectCache).invalidate(objectName);
+        assertThat(f.blobs).isEmpty();
+        assertThat(f.refs).isEmpty();
+        assertThat(f.service.release("medical/2024/01/01/abcd_a.pdf", 1L)).isFalse();
+    }
+
+    /**
+     * 释放只删除指定上传者的引用；未引用该内容的上传者不能释放他人的引用
+     */
+    @Property(tries = 30)
+    void releaseOnlyRemovesOwnReference(@ForAll @Size(min = 1, max = 500) byte[] content) {
+        Fixture f = new Fixture();
+        String objectName = f.service.store(1L, f.file(content), "medical").objectName();
+        String sha256 = f.service.store(2L, f.file(content), "medical").sha256();
+
+        assertThatThrownBy(() -> f.service.release(objectName, 3L)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> f.service.release(objectName, null)).isInstanceOf(BusinessException.class);
+        assertThat(f.blobs.get(sha256).getRefCount()).isEqualTo(2);
+
+        f.service.release(objectName, 2L);
+
+        assertThat(f.refs).extracting(FileBlobRef::getUploaderId).containsExactly(1L);
+        assertThat(f.blobs.get(sha256).getRefCount()).isEqualTo(1);
+        assertThat(f.service.claim(1L, sha256, (long) content.length, "a.pdf", "medical")).isNotNull();
+        assertThat(f.service.claim(2L, sha256, (long) content.length, "a.pdf", "medical")).isNull();
+    }
+
+    /**
+     * 写入对象期间其他上传者引用并释放同一内容，对象不会被删除，内容记录始终指向存在的对象
+     */
+    @Example
+    void releaseDuringPutKeepsObject() {
+        Fixture f = new Fixture();
+        byte[] content = {4, 5, 6};
+        boolean[] racing = {false};
+        doAnswer(inv -> {
+            String objectName = inv.getArgument(0);
+            if (!racing[0]) {
+                racing[0] = true;
+                // 首个上传者写入对象前，另一上传者上传相同内容并随即释放
+                f.service.store(2L, f.file(content), "medical");
+                f.service.release(objectName, 2L);
+            }
+            f.objects.add(objectName);
+            return null;
+        }).when(f.minioService).putStream(anyString(), any(), anyLong(), any());
+
+        DedupStorageService.StoredFile stored = f.service.store(1L, f.file(content), "medical");
+
+        verify(f.minioService, never()).deleteFile(anyString());
+        assertThat(f.objects).contains(stored.objectName());
+        assertThat(f.blobs.get(stored.sha256()).getRefCount()).isEqualTo(1);
+        assertThat(f.refs).extracting(FileBlobRef::getUploaderId).containsExactly(1L);
+    }
+
+    /**
+     * 写入对象失败时撤销占用的内容记录，不留下指向缺失对象的记录
+     */
+    @Example
+    void failedPutRollsBackBlob() {
+        Fixture f = new Fixture();
+        doThrow(new BusinessException(ErrorCode.FILE_UPLOAD_FAILED))
+                .when(f.minioService).putStream(anyString(), any(), anyLong(), any());
+
+        assertThatThrownBy(() -> f.service.store(1L, f.file(new byte[]{1}), "medical"))
+                .isInstanceOf(BusinessException.class);
+
+        assertThat(f.blobs).isEmpty();
+        assertThat(f.refs).isEmpty();
+    }
+
+    /**
+     * 按哈希秒传只对上传过该内容的用户生效，且大小须一致
+     */
+    @Property(tries = 50)
+    void claimRequiresPriorOwnership(@ForAll @Size(min = 1, max = 500) byte[] content) {
+        Fixture f = new Fixture();
+        DedupStorageService.StoredFile first = f.service.store(1L, f.file(content), "medical");
+        long size = content.length;
+
+        assertThat(f.service.claim(2L, first.sha256(), size, "a.pdf", "medical")).isNull();
+        assertThat(f.service.claim(1L, first.sha256(), size + 1, "a.pdf", "medical")).isNull();
+        DedupStorageService.StoredFile claimed = f.service.claim(1L, first.sha256().toUpperCase(), size, "a.pdf", "medical");
+
+        assertThat(claimed).isNotNull();
+        assertThat(claimed.objectName()).isEqualTo(first.objectName());
+        assertThat(claimed.deduplicated()).isTrue();
+        assertThat(f.blobs.get(first.sha256()).getRefCount()).isEqualTo(2);
+        verify(f.minioService, times(1)).putStream(anyString(), any(), anyLong(), any());
+    }
+
+    /**
+     * 哈希格式错误时拒绝；内容正在删除时重复上传返回系统繁忙
+     */
+    @Example
+    void malformedHashAndDeletingBlobRejected() {
+        Fixture f = new Fixture();
+        assertThatThrownBy(() -> f.service.claim(1L, "abc", 1L, "a.pdf", "medical"))
+                .isInstanceOf(BusinessException.class);
+
+        byte[] content = {1, 2, 3};
+        String sha256 = f.service.store(1L, f.file(content), "medical").sha256();
+        f.blobs.get(sha256).setRefCount(-1);
+        assertThatThrownBy(() -> f.service.store(2L, f.file(content), "medical"))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 关闭去重时按普通对象上传，并记录上传者供访问校验使用
+     */
+    @Example
+    void disabledDedupRecordsOwner() {
+        Fixture f = new Fixture();
+        f.properties.getDedup().setEnabled(false);
+        when(f.minioService.uploadFile(any(), eq("medical"))).thenReturn("medical/2024/01/01/abcd1234_report.pdf");
+
+        DedupStorageService.StoredFile stored = f.service.store(1L, f.file(new byte[]{1}), "medical");
+
+        assertThat(stored.objectName()).isEqualTo("medical/2024/01/01/abcd1234_report.pdf");
+        verify(f.ownerMapper).record(stored.objectName(), 1L, FileOwner.SOURCE_UPLOAD);
+        assertThat(f.blobs).isEmpty();
+        assertThat(f.refs).isEmpty();
+    }
+
+    private static List<Boolean> expectedDedupFlags(int uploads) {
+        List<Boolean> flags = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            flags.add(i > 0);
+        }
+        return flags;
+    }
+
+    /**
+     * 测试夹具：内存中的内容表与引用表
+     */
+    private static final class Fixture {
+        final MinioService minioService = mock(MinioService.class);
+        final FileBlobMapper blobMapper = mock(FileBlobMapper.class);
+        final FileBlobRefMapper refMapper = mock(FileBlobRefMapper.class);
+        final FileOwnerMapper ownerMapper = mock(FileOwnerMapper.class);
+        final PresignedUrlCache presignedUrlCache = mock(PresignedUrlCache.class);
+        final LocalObjectCache localObjectCache = mock(LocalObjectCache.class);
+        final StorageProperties properties = new StorageProperties();
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final Map<String, FileBlob> blobs = new ConcurrentHashMap<>();
+        final List<FileBlobRef> refs = new ArrayList<>();
+        final Set<String> objects = ConcurrentHashMap.newKeySet();
+        final DedupStorageService service;
+
+        Fixture() {
+            doAnswer(inv -> objects.add(inv.getArgument(0))).when(minioService)
+                    .putStream(anyString(), any(), anyLong(), any());
+            doAnswer(inv -> objects.remove((String) inv.getArgument(0))).when(minioService).deleteFile(anyString());
+            when(minioService.exists(anyString())).thenAnswer(inv -> objects.contains((String) inv.getArgument(0)));
+            when(blobMapper.selectBySha256(anyString())).thenAnswer(inv -> blobs.get((String) inv.getArgument(0)));
+            when(blobMapper.selectByObjectName(anyString())).thenAnswer(inv -> blobs.values().stream()
+                    .filter(b -> b.getObjectName().equals(inv.getArgument(0))).findFirst().orElse(null));
+            when(blobMapper.insert(any(FileBlob.class))).thenAnswer(inv -> {
+                FileBlob blob = inv.getArgument(0);
+                if (blobs.putIfAbsent(blob.getSha256(), blob) != null) {
+                    throw new DuplicateKeyException("uk_sha256");
+                }
+                return 1;
+            });
+            when(blobMapper.incrementRef(anyString())).thenAnswer(inv -> update(inv.getArgument(0), 0, 1));
+            when(blobMapper.decrementRef(anyString())).thenAnswer(inv -> update(inv.getArgument(0), 1, -1));
+            when(blobMapper.markDeleting(anyString())).thenAnswer(inv -> {
+                FileBlob blob = blobs.get((String) inv.getArgument(0));
+                if (blob == null || blob.getRefCount() != 0) {
+                    return 0;
+                }
+                blob.setRefCount(-1);
+                return 1;
+            });
+            when(blobMapper.deleteMarked(anyString())).thenAnswer(inv -> blobs.remove((String) inv.getArgument(0)) != null ? 1 : 0);
+            when(refMapper.insert(any(FileBlobRef.class))).thenAnswer(inv -> {
+                refs.add(inv.getArgument(0));
+                return 1;
+            });
+            when(refMapper.countByUploader(anyString(), anyLong())).thenAnswer(inv -> refs.stream()
+                    .filter(r -> r.getSha256().equals(inv.getArgument(0)) && r.getUploaderId().equals(inv.getArgument(1)))
+                    .count());
+            when(refMapper.deleteOneByUploader(anyString(), anyLong())).thenAnswer(inv -> {
+                for (int i = refs.size() - 1; i >= 0; i--) {
+                    if (refs.get(i).getSha256().equals(inv.getArgument(0))
+                            && refs.get(i).getUploaderId().equals(inv.getArgument(1))) {
+                        refs.remove(i);
+                        return 1;
+                    }
+                }
+                return 0;
+            });
+            service = new DedupStorageService(minioService, blobMapper, refMapper, ownerMapper, presignedUrlCache,
+                    localObjectCache, properties, registry);
+        }
+
+        /**
+         * 引用数不小于 min 时加上 delta
+         */
+        private int update(String sha256, int min, int delta) {
+            FileBlob blob = blobs.get(sha256);
+            if (blob == null || blob.getRefCount() < min) {
+                return 0;
+            }
+            blob.setRefCount(blob.getRefCount() + delta);
+            return 1;
+        }
+
+        MockMultipartFile file(byte[] content) {
+            return new MockMultipartFile("file", "report.pdf", "application/pdf", content);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.dto.CompleteDirectUploadRequest;
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.domain.entity.MedicalAttachment;
+import com.erkang.domain.entity.MedicalRecord;
+import com.erkang.domain.vo.DirectUploadVO;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.ObjectInfo;
+import com.erkang.mapper.FileOwnerMapper;
+import com.erkang.mapper.MedicalRecordMapper;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 浏览器直传属性测试
+ */
+class DirectUploadPropertyTest {
+
+    /**
+     * 签发表单的大小与类型约束：超限或不允许的类型被拒绝，合法申请生成限定对象名的表单
+     */
+    @Property(tries = 100)
+    void presignEnforcesSizeAndContentType(
+            @ForAll @LongRange(min = -10, max = 2000) long fileSize,
+            @ForAll("contentTypes") String contentType) {
+        Fixture f = new Fixture();
+        boolean valid = fileSize > 0 && fileSize <= f.properties.getDirect().getMaxFileSize()
+                && f.properties.getDirect().getAllowedContentTypes().contains(contentType);
+
+        if (!valid) {
+            assertThatThrownBy(() -> f.service.presign(1L, "a.pdf", fileSize, contentType, "medical"))
+                    .isInstanceOf(BusinessException.class);
+            assertThat(f.tickets).isEmpty();
+            return;
+        }
+        DirectUploadVO vo = f.service.presign(1L, "a.pdf", fileSize, contentType, "medical");
+
+        assertThat(vo.getObjectName()).startsWith("medical/").endsWith("a.pdf");
+        assertThat(vo.getFormData()).containsEntry("key", vo.getObjectName());
+        verify(f.minioService).getPresignedPostFormData(vo.getObjectName(), contentType, fileSize,
+                f.properties.getDirect().getExpireMinutes());
+        assertThat(f.tickets).containsKey("file:direct-upload:" + vo.getObjectName());
+        verify(f.ownerMapper).record(vo.getObjectName(), 1L, FileOwner.SOURCE_DIRECT);
+    }
+
+    /**
+     * 对象与申请一致时登记一次附件，患者与问诊取自病历；重复提交不会重复登记
+     */
+    @Property(tries = 50)
+    void completeRegistersAttachmentOnce(@ForAll @LongRange(min = 1, max = 1000) long fileSize,
+                                         @ForAll @LongRange(min = 1, max = 1000) Long patientId) {
+        Fixture f = new Fixture();
+        f.record(10L, patientId);
+        DirectUploadVO vo = f.service.presign(5L, "ct|scan.pdf", fileSize, "application/pdf", "medical");
+        f.stat(vo.getObjectName(), fileSize, "application/pdf");
+
+        MedicalAttachment attachment = f.service.complete(5L, f.request(vo.getObjectName(), 10L));
+
+        assertThat(attachment.getPatientId()).isEqualTo(patientId);
+        assertThat(attachment.getConsultationId()).isEqualTo(100L);
+        assertThat(attachment.getFileName()).isEqualTo("ct|scan.pdf");
+        assertThat(attachment.getFileSize()).isEqualTo(fileSize);
+        assertThat(attachment.getFileUrl()).isEqualTo(vo.getObjectName());
+        assertThat(attachment.getUploaderId()).isEqualTo(5L);
+        assertThatThrownBy(() -> f.service.complete(5L, f.request(vo.getObjectName(), 10L)))
+                .isInstanceOf(BusinessException.class);
+        verify(f.recordService, times(1)).addAttachment(any());
+    }
+
+    /**
+     * 对象大小或类型与申请不一致时删除对象，不登记附件
+     */
+    @Property(tries = 50)
+    void mismatchedObjectDeleted(@ForAll @LongRange(min = 1, max = 1000) long fileSize,
+                                 @ForAll @IntRange(min = 1, max = 100) int delta,
+                                 @ForAll boolean wrongType) {
+        Fixture f = new Fixture();
+        f.record(10L, 1L);
+        DirectUploadVO vo = f.service.presign(5L, "a.png", fileSize, "image/png", "medical");
+        if (wrongType) {
+            f.stat(vo.getObjectName(), fileSize, "text/html");
+        } else {
+            f.stat(vo.getObjectName(), fileSize + delta, "image/png");
+        }
+
+        assertThatThrownBy(() -> f.service.complete(5L, f.request(vo.getObjectName(), 10L)))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.FILE_UPLOAD_FAILED.getCode());
+        verify(f.minioService).deleteFile(vo.getObjectName());
+        verify(f.recordService, never()).addAttachment(any());
+        assertThat(f.tickets).isEmpty();
+    }
+
+    /**
+     * 他人的上传凭证、过期凭证与未上传的对象均不能登记
+     */
+    @Example
+    void foreignOrMissingUploadsRejected() {
+        Fixture f = new Fixture();
+        f.record(10L, 1L);
+        DirectUploadVO vo = f.service.presign(5L, "a.png", 10L, "image/png", "medical");
+
+        assertThatThrownBy(() -> f.service.complete(6L, f.request(vo.getObjectName(), 10L)))
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.FILE_ACCESS_DENIED.getCode());
+        assertThatThrownBy(() -> f.service.complete(5L, f.request("medical/unknown.png", 10L)))
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.FILE_NOT_FOUND.getCode());
+        assertThatThrownBy(() -> f.service.complete(5L, f.request(vo.getObjectName(), 10L)))
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.FILE_NOT_FOUND.getCode());
+        // 对象未上传时凭证保留，上传完成后可再次登记
+        assertThat(f.tickets).containsKey("file:direct-upload:" + vo.getObjectName());
+        verify(f.recordService, never()).addAttachment(any());
+    }
+
+    /**
+     * 既不是病历所属患者也不是接诊医生时不能登记，凭证保留
+     */
+    @Property(tries = 20)
+    void foreignRecordRejected(@ForAll @LongRange(min = 1, max = 20) long uploaderId,
+                               @ForAll @LongRange(min = 1, max = 20) long patientId) {
+        Fixture f = new Fixture();
+        MedicalRecord record = new MedicalRecord();
+        record.setId(11L);
+        record.setPatientId(patientId);
+        record.setDoctorId(99L);
+        when(f.recordMapper.selectById(11L)).thenReturn(record);
+        DirectUploadVO vo = f.service.presign(uploaderId, "a.png", 10L, "image/png", "medical");
+        f.stat(vo.getObjectName(), 10L, "image/png");
+
+        if (uploaderId == patientId) {
+            assertThat(f.service.complete(uploaderId, f.request(vo.getObjectName(), 11L)).getPatientId())
+                    .isEqualTo(patientId);
+        } else {
+            assertThatThrownBy(() -> f.service.complete(uploaderId, f.request(vo.getObjectName(), 11L)))
+                    .extracting(e -> ((BusinessException) e).getCode())
+                    .isEqualTo(ErrorCode.AUTH_DATA_SCOPE_DENIED.getCode());
+            assertThat(f.tickets).containsKey("file:direct-upload:" + vo.getObjectName());
+            verify(f.recordService, never()).addAttachment(any());
+        }
+    }
+
+    /**
+     * 凭证编码后可原样解码，字段中的任意字符（含分隔符与冒号）不会移动字段边界；格式错误的凭证被拒绝
+     */
+    @Property(tries = 200)
+    void ticketRoundTrip(@ForAll @LongRange(min = 1) long uploaderId,
+                         @ForAll @LongRange(min = 1) long fileSize,
+                         @ForAll String contentType,
+                         @ForAll String fileName) {
+        DirectUploadService.Ticket ticket = new DirectUploadService.Ticket(uploaderId, fileSize, contentType, fileName);
+
+        assertThat(DirectUploadService.Ticket.decode(ticket.encode())).isEqualTo(ticket);
+        for (String malformed : new String[]{"", "1|2|image/png|a.pdf", ticket.encode() + "x", "9:1"}) {
+            assertThatThrownBy(() -> DirectUploadService.Ticket.decode(malformed))
+                    .isInstanceOf(BusinessException.class);
+        }
+    }
+
+    /**
+     * 未配置允许的内容类型时按默认列表校验，不会放开任意类型
+     */
+    @Example
+    void emptyAllowListFallsBackToDefault() {
+        Fixture f = new Fixture();
+        f.properties.getDirect().setAllowedContentTypes(List.of());
+
+        assertThatThrownBy(() -> f.service.presign(1L, "a.html", 10L, "text/html", "medical"))
+                .isInstanceOf(BusinessException.class);
+        assertThat(f.service.presign(1L, "a.pdf", 10L, "application/pdf", "medical").getObjectName())
+                .endsWith("a.pdf");
+    }
+
+    @Provide
+    Arbitrary<String> contentTypes() {
+        return Arbitraries.of("image/png", "application/pdf", "text/html", "application/x-msdownload", "");
+    }
+
+    /**
+     * 测试夹具：内存中的上传凭证
+     */
+    @SuppressWarnings("unchecked")
+    private static final class Fixture {
+        final MinioService minioService = mock(MinioService.class);
+        final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        final MedicalRecordMapper recordMapper = mock(MedicalRecordMapper.class);
+        final MedicalRecordService recordService = mock(MedicalRecordService.class);
+        final FileOwnerMapper ownerMapper = mock(FileOwnerMapper.class);
+        final StorageProperties properties = new StorageProperties();
+        final Map<String, String> tickets = new ConcurrentHashMap<>();
+        final DirectUploadService service;
+
+        Fixture() {
+            properties.getDirect().setMaxFileSize(1000);
+            ValueOperations<String, String> ops = mock(ValueOperations.class);
+            when(redisTemplate.opsForValue()).thenReturn(ops);
+            doAnswer(inv -> tickets.put(inv.getArgument(0), inv.getArgument(1)))
+                    .when(ops).set(anyString(), anyString(), anyLong(), any());
+            when(ops.get(anyString())).thenAnswer(inv -> tickets.get((String) inv.getArgument(0)));
+            when(redisTemplate.delete(anyString())).thenAnswer(inv -> tickets.remove((String) inv.getArgument(0)) != null);
+            when(minioService.getPresignedPostFormData(anyString(), anyString(), anyLong(), anyInt()))
+                    .thenAnswer(inv -> Map.of("key", inv.getArgument(0), "policy", "p"));
+            when(minioService.statObject(anyString()))
+                    .thenThrow(new BusinessException(ErrorCode.FILE_NOT_FOUND));
+            when(recordService.addAttachment(any())).thenAnswer(inv -> inv.getArgument(0));
+            service = new DirectUploadService(minioService, redisTemplate, properties, recordMapper, recordService,
+                    ownerMapper);
+        }
+
+        /**
+         * 病历由上传者（ID 5）接诊
+         */
+        void record(Long id, Long patientId) {
+            MedicalRecord record = new MedicalRecord();
+            record.setId(id);
+            record.setPatientId(patientId);
+            record.setDoctorId(5L);
+            record.setConsultationId(100L);
+            when(recordMapper.selectById(id)).thenReturn(record);
+        }
+
+        void stat(String objectName, long size, String contentType) {
+            doReturn(new ObjectInfo(size, "etag", contentType, null)).when(minioService).statObject(objectName);
+        }
+
+        CompleteDirectUploadRequest request(String objectName, Long recordId) {
+            CompleteDirectUploadRequest request = new CompleteDirectUploadRequest();
+            request.setObjectName(objectName);
+            request.setRecordId(recordId);
+            request.setCategory("REPORT");
+            return request;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.integration.storage.LocalObjectCache;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.ObjectInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 流式下载属性测试
+ */
+class FileDownloadPropertyTest {
+
+    private static final String OBJECT = "medical/2024/01/01/abcd1234_audiogram.mp4";
+
+    /**
+     * 合法区间返回206，内容与 Content-Length/Content-Range 均与请求区间一致，且只向对象存储请求该区间
+     */
+    @Property(tries = 100)
+    void rangeRequestReturnsExactSlice(@ForAll @Size(min = 1, max = 5000) byte[] content,
+                                       @ForAll @IntRange(min = 0, max = 4999) int a,
+                                       @ForAll @IntRange(min = 0, max = 4999) int b) throws Exception {
+        Assume.that(a < content.length);
+        int start = a;
+        int end = Math.min(Math.max(a, b), content.length - 1);
+        Fixture f = new Fixture(content);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=" + start + "-" + Math.max(a, b));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        f.service.download(OBJECT, request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, start, end + 1));
+        assertThat(response.getContentLengthLong()).isEqualTo(end - start + 1);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes " + start + "-" + end + "/" + content.length);
+        verify(f.minioService).downloadRange(OBJECT, start, end - start + 1);
+        verify(f.minioService, never()).downloadFile(anyString());
+    }
+
+    /**
+     * 后缀区间 bytes=-N 返回最后 N 个字节
+     */
+    @Property(tries = 50)
+    void suffixRangeReturnsTail(@ForAll @Size(min = 1, max = 2000) byte[] content,
+                                @ForAll @IntRange(min = 1, max = 3000) int suffix) throws Exception {
+        Fixture f = new Fixture(content);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=-" + suffix);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        f.service.download(OBJECT, request, response);
+
+        int from = Math.max(0, content.length - suffix);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, from, content.length));
+    }
+
+    /**
+     * 无 Range 时完整返回，内容与长度一致
+     */
+    @Property(tries = 50)
+    void fullDownloadStreamsWholeObject(@ForAll @Size(max = 5000) byte[] content) throws Exception {
+        Fixture f = new Fixture(content);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        f.service.download(OBJECT, new MockHttpServletRequest(), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+        assertThat(response.getContentLengthLong()).isEqualTo(content.length);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"etag-1\"");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+    }
+
+    /**
+     * 转发时每次读取不超过缓冲区大小，内存占用与文件大小无关
+     */
+    @Property(tries = 50)
+    void copyUsesFixedBuffer(@ForAll @Size(max = 20000) byte[] content,
+                             @ForAll @IntRange(min = 1, max = 1024) int bufferSize) throws Exception {
+        AtomicInteger maxRead = new AtomicInteger();
+        InputStream in = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                maxRead.accumulateAndGet(len, Math::max);
+                return super.read(b, off, len);
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long copied = FileDownloadService.copy(in, out, bufferSize);
+
+        assertThat(copied).isEqualTo(content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+        assertThat(maxRead.get()).isLessThanOrEqualTo(bufferSize);
+    }
+
+    /**
+     * If-None-Match 命中时返回304且不读取对象内容
+     */
+    @Example
+    void matchingEtagReturnsNotModified() throws Exception {
+        Fixture f = new Fixture(new byte[100]);
+        for (String header : new String[]{"\"etag-1\"", "W/\"etag-1\"", "\"other\", \"etag-1\"", "*"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("If-None-Match", header);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            f.service.download(OBJECT, request, response);
+
+            assertThat(response.getStatus()).isEqualTo(304);
+            assertThat(response.getContentAsByteArray()).isEmpty();
+        }
+        verify(f.minioService, never()).downloadFile(anyString());
+        verify(f.minioService, never()).downloadRange(anyString(), anyLong(), anyLong());
+    }
+
+    /**
+     * 起点超出文件大小返回416；多区间、格式错误或 If-Range 不匹配时返回完整内容
+     */
+    @Example
+    void unsatisfiableAndIgnoredRanges() throws Exception {
+        Fixture f = new Fixture(new byte[100]);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=100-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        f.service.download(OBJECT, request, response);
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */100");
+
+        for (String range : new String[]{"bytes=0-1,5-6", "bytes=abc", "items=0-1", "bytes=5-1"}) {
+            request = new MockHttpServletRequest();
+            request.addHeader("Range", range);
+            response = new MockHttpServletResponse();
+            f.service.download(OBJECT, request, response);
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getContentLengthLong()).isEqualTo(100);
+        }
+
+        request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"stale\"");
+        response = new MockHttpServletResponse();
+        f.service.download(OBJECT, request, response);
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    /**
+     * 对象不存在时抛出业务异常
+     */
+    @Example
+    void missingObjectRejected() {
+        Fixture f = new Fixture(new byte[0]);
+        when(f.minioService.statObject("missing")).thenThrow(new BusinessException(ErrorCode.FILE_NOT_FOUND));
+
+        assertThatThrownBy(() -> f.service.download("missing", new MockHttpServletRequest(),
+                new MockHttpServletResponse())).isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 启用本地缓存后，完整下载过的对象再次读取（含区间）不再向对象存储请求内容
+     */
+    @Property(tries = 20)
+    void cachedObjectServedLocally(@ForAll @Size(min = 1, max = 5000) byte[] content,
+                                   @ForAll @IntRange(min = 0, max = 4999) int start) throws Exception {
+        Assume.that(start < content.length);
+        Fixture f = new Fixture(content);
+        f.properties.getLocalCache().setDirectory(Files.createTempDirectory("object-cache").toString());
+        f.cache.init();
+
+        f.service.download(OBJECT, new MockHttpServletRequest(), new MockHttpServletResponse());
+        MockHttpServletResponse full = new MockHttpServletResponse();
+        f.service.download(OBJECT, new MockHttpServletRequest(), full);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=" + start + "-");
+        MockHttpServletResponse partial = new MockHttpServletResponse();
+        f.service.download(OBJECT, request, partial);
+
+        assertThat(full.getContentAsByteArray()).isEqualTo(content);
+        assertThat(full.getHeader("ETag")).isEqualTo("\"etag-1\"");
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, start, content.length));
+        verify(f.minioService, times(1)).downloadFile(OBJECT);
+        verify(f.minioService, times(1)).statObject(OBJECT);
+        verify(f.minioService, never()).downloadRange(anyString(), anyLong(), anyLong());
+    }
+
+    /**
+     * 测试夹具：内存中的对象
+     */
+    private static final class Fixture {
+        final MinioService minioService = mock(MinioService.class);
+        final StorageProperties properties = new StorageProperties();
+        final LocalObjectCache cache = new LocalObjectCache(minioService, properties, new SimpleMeterRegistry());
+        final FileDownloadService service;
+
+        Fixture(byte[] content) {
+            properties.getDownload().setBufferSize(64);
+            when(minioService.statObject(OBJECT)).thenReturn(new ObjectInfo(content.length, "etag-1", "video/mp4", null));
+            when(minioService.downloadFile(OBJECT)).thenAnswer(inv -> new ByteArrayInputStream(content));
+            when(minioService.downloadRange(eq(OBJECT), anyLong(), anyLong())).thenAnswer(inv -> {
+                long offset = inv.getArgument(1);
+                long length = inv.getArgument(2);
+                return new ByteArrayInputStream(content, (int) offset, (int) length);
+            });
+            service = new FileDownloadService(minioService, cache, properties);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.FileBlobRef;
+import com.erkang.domain.entity.FileOwner;
+import com.erkang.domain.entity.FileUpload;
+import com.erkang.domain.entity.MedicalAttachment;
+import com.erkang.domain.enums.FileUploadStatus;
+import com.erkang.domain.vo.PresignedUrlVO;
+import com.erkang.integration.storage.LocalObjectCache;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.FileBlobMapper;
+import com.erkang.mapper.FileBlobRefMapper;
+import com.erkang.mapper.FileOwnerMapper;
+import com.erkang.mapper.FileUploadMapper;
+import com.erkang.mapper.MedicalAttachmentMapper;
+import com.erkang.security.LoginUser;
+import com.erkang.security.UserContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量预签名URL属性测试
+ */
+class FileUrlServicePropertyTest {
+
+    private static final String OWN_SHA = "a".repeat(64);
+    private static final String OTHER_SHA = "b".repeat(64);
+
+    /**
+     * 患者只拿到自己附件（含缩略图）与自己上传过的去重内容的链接，每类关联数据只查询一次
+     */
+    @Property(tries = 50)
+    void patientGetsUrlsOnlyForOwnObjects(@ForAll @Size(min = 1, max = 30) List<@IntRange(min = 0, max = 5) Integer> picks) {
+        Fixture f = new Fixture();
+        List<String> names = new ArrayList<>();
+        for (int pick : picks) {
+            names.add(Fixture.OBJECTS[pick]);
+        }
+        UserContext.setUser(LoginUser.builder().userId(7L).username("patient").roles(List.of("PATIENT")).build());
+        try {
+            List<PresignedUrlVO> result = f.service.presignBatch(names, 30);
+
+            assertThat(result).extracting(PresignedUrlVO::getObjectName).containsExactlyElementsOf(names);
+            for (PresignedUrlVO vo : result) {
+                boolean own = Fixture.OWNED.contains(vo.getObjectName());
+                assertThat(vo.getUrl() != null).isEqualTo(own);
+                assertThat(vo.getExpiresAt() != null).isEqualTo(own);
+            }
+            verify(f.attachmentMapper, times(1)).selectList(any());
+            verify(f.refMapper, atMost(1)).selectList(any());
+            verify(f.minioService, times((int) names.stream().filter(Fixture.OWNED::contains).distinct().count()))
+                    .getPresignedUrl(anyString(), eq(30));
+        } finally {
+            UserContext.clear();
+        }
+    }
+
+    /**
+     * 单个对象的访问校验（下载接口）与批量签名规则一致：患者只能访问自己的对象
+     */
+    @Property(tries = 30)
+    void checkAccessMatchesBatchRule(@ForAll @IntRange(min = 0, max = 5) int pick) {
+        Fixture f = new Fixture();
+        String objectName = Fixture.OBJECTS[pick];
+        UserContext.setUser(LoginUser.builder().userId(7L).username("patient").roles(List.of("PATIENT")).build());
+        try {
+            if (Fixture.OWNED.contains(objectName)) {
+                assertThatCode(() -> f.service.checkAccess(objectName)).doesNotThrowAnyException();
+            } else {
+                assertThatThrownBy(() -> f.service.checkAccess(objectName))
+                        .isInstanceOf(BusinessException.class)
+                        .extracting(e -> ((BusinessException) e).getCode())
+                        .isEqualTo(ErrorCode.FILE_ACCESS_DENIED.getCode());
+            }
+        } finally {
+            UserContext.clear();
+        }
+    }
+
+    /**
+     * 单个对象签名与批量签名规则一致：患者只能拿到自己对象的链接，有效期内复用签名
+     */
+    @Property(tries = 30)
+    void singlePresignChecksAccess(@ForAll @IntRange(min = 0, max = 5) int pick) {
+        Fixture f = new Fixture();
+        String objectName = Fixture.OBJECTS[pick];
+        UserContext.setUser(LoginUser.builder().userId(7L).username("patient").roles(List.of("PATIENT")).build());
+        try {
+            if (Fixture.OWNED.contains(objectName)) {
+                assertThat(f.service.presign(objectName, 30)).isEqualTo("https://s/" + objectName);
+                assertThat(f.service.presign(objectName, 30)).isEqualTo("https://s/" + objectName);
+                verify(f.minioService, times(1)).getPresignedUrl(objectName, 30);
+            } else {
+                assertThatThrownBy(() -> f.service.presign(objectName, 30))
+                        .extracting(e -> ((BusinessException) e).getCode())
+                        .isEqualTo(ErrorCode.FILE_ACCESS_DENIED.getCode());
+                verify(f.minioService, never()).getPresignedUrl(anyString(), anyInt());
+            }
+            assertThatThrownBy(() -> f.service.presign(objectName, 7 * 24 * 60 + 1))
+                    .isInstanceOf(BusinessException.class);
+        } finally {
+            UserContext.clear();
+        }
+    }
+
+    /**
+     * 尚未登记为附件的上传也对上传者可见：分片上传按已完成的上传任务，普通上传、直传与预签名上传按上传者记录；
+     * 没有任何记录的对象仍被拒绝
+     */
+    @Property(tries = 30)
+    void patientSeesOwnUnattachedUploads(@ForAll @IntRange(min = 0, max = 4) int pick) {
+        Fixture f = new Fixture();
+        String[] uploads = {
+                "medical/2024/01/01/dddd_multipart.pdf",
+                "attachment/2024/01/01/eeee_plain.png",
+                "medical/2024/01/01/ffff_direct.png",
+                "attachment/2024/01/01/gggg_presigned.png",
+                "attachment/2024/01/01/hhhh_unrecorded.png"
+        };
+        FileUpload multipart = new FileUpload();
+        multipart.setObjectName(uploads[0]);
+        multipart.setUploaderId(7L);
+        multipart.setStatus(FileUploadStatus.COMPLETED.getCode());
+        when(f.fileUploadMapper.selectList(any())).thenReturn(List.of(multipart));
+        when(f.fileOwnerMapper.selectList(any())).thenReturn(List.of(
+                Fixture.owner(uploads[1], FileOwner.SOURCE_UPLOAD),
+                Fixture.owner(uploads[2], FileOwner.SOURCE_DIRECT),
+                Fixture.owner(uploads[3], FileOwner.SOURCE_PRESIGNED)));
+        String objectName = uploads[pick];
+        UserContext.setUser(LoginUser.builder().userId(7L).username("patient").roles(List.of("PATIENT")).build());
+        try {
+            if (pick < 4) {
+                assertThatCode(() -> f.service.checkAccess(objectName)).doesNotThrowAnyException();
+                assertThatCode(() -> f.service.checkAccess(objectName + "@small.jpg")).doesNotThrowAnyException();
+            } else {
+                assertThatThrownBy(() -> f.service.checkAccess(objectName))
+                        .extracting(e -> ((BusinessException) e).getCode())
+                        .isEqualTo(ErrorCode.FILE_ACCESS_DENIED.getCode());
+            }
+            // 已由附件确认归属的对象不再查询上传记录
+            clearInvocations(f.fileUploadMapper, f.fileOwnerMapper);
+            f.service.checkAccess(Fixture.OBJECTS[0]);
+            verify(f.fileUploadMapper, never()).selectList(any());
+            verify(f.fileOwnerMapper, never()).selectList(any());
+        } finally {
+            UserContext.clear();
+        }
+    }
+
+    /**
+     * 医生与管理员不受对象归属限制，也不查询归属
+     */
+    @Example
+    void staffNotRestricted() {
+        Fixture f = new Fixture();
+        for (String role : new String[]{"DOCTOR_PRIMARY", "ADMIN", "PHARMACIST"}) {
+            UserContext.setUser(LoginUser.builder().userId(1L).username("staff").roles(List.of(role)).build());
+            try {
+                assertThat(f.service.presignBatch(List.of(Fixture.OBJECTS), 30))
+                        .allSatisfy(vo -> assertThat(vo.getUrl()).isNotNull());
+            } finally {
+                UserContext.clear();
+            }
+        }
+        verify(f.attachmentMapper, never()).selectList(any());
+    }
+
+    /**
+     * 超过批量上限、有效期无效或未登录时拒绝
+     */
+    @Example
+    void invalidRequestsRejected() {
+        Fixture f = new Fixture();
+        assertThatThrownBy(() -> f.service.presignBatch(List.of("a"), 30)).isInstanceOf(BusinessException.class);
+        UserContext.setUser(LoginUser.builder().userId(1L).username("doctor").roles(List.of("DOCTOR_EXPERT")).build());
+        try {
+            f.properties.getPresign().setMaxBatchSize(2);
+            assertThatThrownBy(() -> f.service.presignBatch(List.of("a", "b", "c"), 30))
+                    .isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> f.service.presignBatch(List.of("a"), 0)).isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> f.service.presignBatch(List.of("a"), 7 * 24 * 60 + 1))
+                    .isInstanceOf(BusinessException.class);
+            assertThat(f.service.presignBatch(List.of(), 30)).isEmpty();
+        } finally {
+            UserContext.clear();
+        }
+    }
+
+    /**
+     * 测试夹具：患者7的附件、他人的附件与去重内容
+     */
+    private static final class Fixture {
+        static final String[] OBJECTS = {
+                "medical/2024/01/01/aaaa_own.png",
+                "medical/2024/01/01/aaaa_own.png@small.jpg",
+                "medical/2024/01/01/bbbb_other.png",
+                "cas/aa/" + OWN_SHA,
+                "cas/bb/" + OTHER_SHA,
+                "medical/2024/01/01/cccc_unknown.png"
+        };
+        static final List<String> OWNED = List.of(OBJECTS[0], OBJECTS[1], OBJECTS[3]);
+
+        final MinioService minioService = mock(MinioService.class);
+        final MedicalAttachmentMapper attachmentMapper = mock(MedicalAttachmentMapper.class);
+        final FileBlobRefMapper refMapper = mock(FileBlobRefMapper.class);
+        final FileUploadMapper fileUploadMapper = mock(FileUploadMapper.class);
+        final FileOwnerMapper fileOwnerMapper = mock(FileOwnerMapper.class);
+        final StorageProperties properties = new StorageProperties();
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final FileUrlService service;
+
+        Fixture() {
+            when(minioService.getPresignedUrl(anyString(), anyInt())).thenAnswer(inv -> "https://s/" + inv.getArgument(0));
+            when(attachmentMapper.selectList(any())).thenReturn(List.of(
+                    attachment(OBJECTS[0], 7L, 3L), attachment(OBJECTS[2], 8L, 8L)));
+            FileBlobRef ref = new FileBlobRef();
+            ref.setSha256(OWN_SHA);
+            when(refMapper.selectList(any())).thenReturn(List.of(ref));
+            PresignedUrlCache presignedUrlCache = new PresignedUrlCache(minioService, properties, registry);
+            DedupStorageService dedup = new DedupStorageService(minioService, mock(FileBlobMapper.class), refMapper,
+                    fileOwnerMapper, presignedUrlCache, mock(LocalObjectCache.class), properties, registry);
+            service = new FileUrlService(presignedUrlCache,
+                    attachmentMapper, refMapper, fileUploadMapper, fileOwnerMapper, dedup, properties);
+        }
+
+        private static MedicalAttachment attachment(String fileUrl, Long patientId, Long uploaderId) {
+            MedicalAttachment attachment = new MedicalAttachment();
+            attachment.setFileUrl(fileUrl);
+            attachment.setPatientId(patientId);
+            attachment.setUploaderId(uploaderId);
+            return attachment;
+        }
+
+        private static FileOwner owner(String objectName, String source) {
+            FileOwner owner = new FileOwner();
+            owner.setObjectName(objectName);
+            owner.setUploaderId(7L);
+            owner.setSource(source);
+            return owner;
+        }
+    }
+}
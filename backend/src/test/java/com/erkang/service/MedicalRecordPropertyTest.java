@@ -32,7 +32,8 @@ class MedicalRecordPropertyTest {
         
         MedicalRecordMapper recordMapper = Mockito.mock(MedicalRecordMapper.class);
         MedicalAttachmentMapper attachmentMapper = Mockito.mock(MedicalAttachmentMapper.class);
-        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper);
+        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper,
+                Mockito.mock(ThumbnailService.class), BusinessNoGenerators.fixed(0));
         
         // 模拟已提交的病历
         MedicalRecord submittedRecord = new MedicalRecord();
@@ -59,7 +60,8 @@ class MedicalRecordPropertyTest {
         
         MedicalRecordMapper recordMapper = Mockito.mock(MedicalRecordMapper.class);
         MedicalAttachmentMapper attachmentMapper = Mockito.mock(MedicalAttachmentMapper.class);
-        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper);
+        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper,
+                Mockito.mock(ThumbnailService.class), BusinessNoGenerators.fixed(0));
         
         // 删除操作应该始终被拒绝
         assertThatThrownBy(() -> service.deleteRecord(recordId))
@@ -78,7 +80,8 @@ class MedicalRecordPropertyTest {
         
         MedicalRecordMapper recordMapper = Mockito.mock(MedicalRecordMapper.class);
         MedicalAttachmentMapper attachmentMapper = Mockito.mock(MedicalAttachmentMapper.class);
-        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper);
+        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper,
+                Mockito.mock(ThumbnailService.class), BusinessNoGenerators.fixed(0));
         
         // 模拟草稿状态的病历
         MedicalRecord draftRecord = new MedicalRecord();
@@ -110,7 +113,8 @@ class MedicalRecordPropertyTest {
         
         MedicalRecordMapper recordMapper = Mockito.mock(MedicalRecordMapper.class);
         MedicalAttachmentMapper attachmentMapper = Mockito.mock(MedicalAttachmentMapper.class);
-        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper);
+        MedicalRecordService service = new MedicalRecordService(recordMapper, attachmentMapper,
+                Mockito.mock(ThumbnailService.class), BusinessNoGenerators.fixed(0));
         
         incompleteRecord.setId(recordId);
         incompleteRecord.setStatus("DRAFT");
@@ -0,0 +1,284 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.ErrorCode;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.FileUpload;
+import com.erkang.domain.enums.FileUploadStatus;
+import com.erkang.domain.vo.FileUploadVO;
+import com.erkang.integration.storage.MinioMultipartService;
+import com.erkang.integration.storage.StorageBackend.UploadedPart;
+import com.erkang.mapper.FileUploadMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 分片上传属性测试
+ */
+class MultipartUploadPropertyTest {
+
+    private static final int PART_SIZE = 1024;
+
+    /**
+     * 分片按任意顺序上传后合并，结果与原文件一致；分片按分片号顺序提交合并
+     */
+    @Property(tries = 50)
+    void partsUploadedInAnyOrderReassembleToOriginal(
+            @ForAll @IntRange(min = 1, max = 20 * PART_SIZE) int size,
+            @ForAll long seed) {
+        Fixture f = new Fixture(16, 4);
+        byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+
+        FileUploadVO upload = f.service.initiate(1L, "video.mp4", (long) size, "video/mp4", "medical");
+        assertThat(upload.getPartCount()).isEqualTo((size + PART_SIZE - 1) / PART_SIZE);
+
+        List<Integer> order = new ArrayList<>();
+        for (int n = 1; n <= upload.getPartCount(); n++) {
+            order.add(n);
+        }
+        Collections.shuffle(order, new Random(seed));
+        for (int n : order) {
+            f.uploadPart(upload, n, content);
+        }
+
+        FileUploadVO done = f.service.complete(1L, upload.getUploadId());
+
+        assertThat(done.getStatus()).isEqualTo(FileUploadStatus.COMPLETED.getCode());
+        assertThat(f.assembled()).isEqualTo(content);
+    }
+
+    /**
+     * 断点续传：进度只包含已上传分片，补传缺少的分片后可完成；缺分片时拒绝合并
+     */
+    @Property(tries = 50)
+    void resumeUploadsOnlyMissingParts(@ForAll @IntRange(min = 2, max = 12) int partCount,
+                                       @ForAll long seed) {
+        Fixture f = new Fixture(16, 4);
+        int size = (partCount - 1) * PART_SIZE + 100;
+        byte[] content = new byte[size];
+        Random random = new Random(seed);
+        random.nextBytes(content);
+        FileUploadVO upload = f.service.initiate(1L, "scan.dcm", (long) size, null, "medical");
+
+        List<Integer> firstPass = new ArrayList<>();
+        for (int n = 1; n <= partCount; n++) {
+            if (random.nextBoolean()) {
+                f.uploadPart(upload, n, content);
+                firstPass.add(n);
+            }
+        }
+        if (firstPass.size() < partCount) {
+            assertThatThrownBy(() -> f.service.complete(1L, upload.getUploadId()))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("分片不完整");
+        }
+
+        FileUploadVO progress = f.service.getProgress(1L, upload.getUploadId());
+        assertThat(progress.getUploadedParts()).extracting(FileUploadVO.Part::getPartNumber)
+                .containsExactlyElementsOf(firstPass);
+        for (int n = 1; n <= partCount; n++) {
+            if (!firstPass.contains(n)) {
+                f.uploadPart(upload, n, content);
+            }
+        }
+
+        f.service.complete(1L, upload.getUploadId());
+        assertThat(f.assembled()).isEqualTo(content);
+    }
+
+    /**
+     * 分片大小与预期不符、分片号越界、非本人上传均被拒绝
+     */
+    @Property(tries = 50)
+    void invalidPartsRejected(@ForAll @IntRange(min = 1, max = 5 * PART_SIZE) int size,
+                              @ForAll @IntRange(min = 1, max = 100) int delta) {
+        Fixture f = new Fixture(16, 4);
+        FileUploadVO upload = f.service.initiate(1L, "a.bin", (long) size, null, "attachment");
+        int expected = Math.min(PART_SIZE, size);
+
+        assertThatThrownBy(() -> f.service.uploadPart(1L, upload.getUploadId(), 1,
+                new ByteArrayInputStream(new byte[expected + delta]), -1))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> f.service.uploadPart(1L, upload.getUploadId(), 1,
+                new ByteArrayInputStream(new byte[expected]), expected + delta))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> f.service.uploadPart(1L, upload.getUploadId(), upload.getPartCount() + 1,
+                new ByteArrayInputStream(new byte[1]), 1))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> f.service.uploadPart(2L, upload.getUploadId(), 1,
+                new ByteArrayInputStream(new byte[expected]), expected))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ErrorCode.FILE_ACCESS_DENIED.getCode());
+        verify(f.storage, never()).uploadPart(any(), any(), anyInt(), any(), anyInt());
+        assertThat(f.service.buffersInUse()).isZero();
+    }
+
+    /**
+     * 并行上传时同时占用的缓冲区不超过上限，全部完成后归还
+     */
+    @Property(tries = 10)
+    void concurrentPartsBoundedByBufferPool(@ForAll @IntRange(min = 1, max = 4) int maxBuffers,
+                                            @ForAll @IntRange(min = 4, max = 24) int partCount) throws Exception {
+        Fixture f = new Fixture(maxBuffers, partCount);
+        byte[] content = new byte[partCount * PART_SIZE];
+        FileUploadVO upload = f.service.initiate(1L, "big.bin", (long) content.length, null, "attachment");
+
+        AtomicInteger maxInUse = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        doAnswer(inv -> {
+            maxInUse.accumulateAndGet(f.service.buffersInUse(), Math::max);
+            Thread.sleep(2);
+            return "etag-" + inv.getArgument(2);
+        }).when(f.storage).uploadPart(any(), any(), anyInt(), any(), anyInt());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int n = 1; n <= partCount; n++) {
+                int part = n;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    // 缓冲区等待超时返回系统繁忙，客户端重试
+                    while (true) {
+                        try {
+                            f.uploadPart(upload, part, content);
+                            return null;
+                        } catch (BusinessException e) {
+                            assertThat(e.getCode()).isEqualTo(ErrorCode.SYSTEM_BUSY.getCode());
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInUse.get()).isBetween(1, maxBuffers);
+        assertThat(f.service.buffersInUse()).isZero();
+    }
+
+    /**
+     * 过期任务标记为过期并取消对象存储中的上传，已完成的任务不受影响
+     */
+    @Example
+    void expiredUploadsCleanedUp() {
+        Fixture f = new Fixture(4, 4);
+        FileUploadVO active = f.service.initiate(1L, "a.bin", 10L, null, "attachment");
+        FileUploadVO expired = f.service.initiate(1L, "b.bin", 10L, null, "attachment");
+        f.rows.get(expired.getUploadId()).setExpiresAt(LocalDateTime.now().minusMinutes(1));
+
+        assertThat(f.service.cleanupExpired()).isEqualTo(1);
+
+        assertThat(f.rows.get(expired.getUploadId()).getStatus()).isEqualTo(FileUploadStatus.EXPIRED.getCode());
+        assertThat(f.rows.get(active.getUploadId()).getStatus()).isEqualTo(FileUploadStatus.UPLOADING.getCode());
+        verify(f.storage).abortUpload(expired.getObjectName(), expired.getUploadId());
+        assertThatThrownBy(() -> f.service.uploadPart(1L, expired.getUploadId(), 1,
+                new ByteArrayInputStream(new byte[10]), 10))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 测试夹具：内存中的任务表与对象存储分片
+     */
+    private static final class Fixture {
+        final FileUploadMapper mapper = mock(FileUploadMapper.class);
+        final MinioMultipartService storage = mock(MinioMultipartService.class);
+        final Map<String, FileUpload> rows = new ConcurrentHashMap<>();
+        final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        final MultipartUploadService service;
+
+        Fixture(int maxBuffers, int maxConcurrentParts) {
+            StorageProperties properties = new StorageProperties();
+            properties.getMultipart().setPartSize(PART_SIZE);
+            properties.getMultipart().setMaxBuffers(maxBuffers);
+            properties.getMultipart().setMaxConcurrentPartsPerUpload(maxConcurrentParts);
+            properties.getMultipart().setBufferWaitMs(20);
+            service = new MultipartUploadService(mapper, storage, properties, new SimpleMeterRegistry());
+
+            AtomicLong ids = new AtomicLong();
+            when(storage.createUpload(any(), any(), any())).thenAnswer(inv -> {
+                long id = ids.incrementAndGet();
+                return new MinioMultipartService.CreatedUpload("obj/" + id, "upload-" + id);
+            });
+            when(mapper.insert(any(FileUpload.class))).thenAnswer(inv -> {
+                FileUpload row = inv.getArgument(0);
+                row.setId(ids.get());
+                rows.put(row.getUploadId(), row);
+                return 1;
+            });
+            when(mapper.selectByUploadId(any())).thenAnswer(inv -> rows.get((String) inv.getArgument(0)));
+            when(mapper.updateStatus(any(), any(), any(), any())).thenAnswer(inv -> {
+                for (FileUpload row : rows.values()) {
+                    if (row.getId().equals(inv.getArgument(0)) && row.getStatus().equals(inv.getArgument(1))) {
+                        row.setStatus(inv.getArgument(2));
+                        return 1;
+                    }
+                }
+                return 0;
+            });
+            when(mapper.selectExpired(any(), anyInt())).thenAnswer(inv -> rows.values().stream()
+                    .filter(r -> r.getStatus().equals(FileUploadStatus.UPLOADING.getCode()))
+                    .filter(r -> r.getExpiresAt().isBefore(inv.getArgument(0)))
+                    .toList());
+            when(storage.uploadPart(any(), any(), anyInt(), any(), anyInt())).thenAnswer(inv -> {
+                byte[] data = inv.getArgument(3);
+                int length = inv.getArgument(4);
+                byte[] copy = new byte[length];
+                System.arraycopy(data, 0, copy, 0, length);
+                parts.put(inv.getArgument(2), copy);
+                return "etag-" + inv.getArgument(2);
+            });
+            when(storage.listParts(any(), any())).thenAnswer(inv -> parts.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .map(e -> new UploadedPart(e.getKey(), "etag-" + e.getKey(), e.getValue().length))
+                    .toList());
+        }
+
+        void uploadPart(FileUploadVO upload, int partNumber, byte[] content) {
+            int offset = (partNumber - 1) * upload.getPartSize();
+            int length = Math.min(upload.getPartSize(), content.length - offset);
+            FileUploadVO.Part part = service.uploadPart(1L, upload.getUploadId(), partNumber,
+                    new ByteArrayInputStream(content, offset, length), length);
+            assertThat(part.getSize()).isEqualTo(length);
+        }
+
+        byte[] assembled() {
+            @SuppressWarnings("unchecked")
+            org.mockito.ArgumentCaptor<List<UploadedPart>> captor = org.mockito.ArgumentCaptor.forClass(List.class);
+            verify(storage).completeUpload(any(), any(), captor.capture());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int expected = 1;
+            for (UploadedPart part : captor.getValue()) {
+                assertThat(part.partNumber()).isEqualTo(expected++);
+                out.writeBytes(parts.get(part.partNumber()));
+            }
+            return out.toByteArray();
+        }
+    }
+}
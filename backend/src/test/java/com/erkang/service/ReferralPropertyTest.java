@@ -33,7 +33,8 @@ class ReferralPropertyTest {
             @ForAll("emptyOrNullStrings") String medicalSummary) {
         
         ReferralMapper referralMapper = Mockito.mock(ReferralMapper.class);
-        ReferralService service = new ReferralService(referralMapper);
+        ReferralService service = new ReferralService(referralMapper, BusinessNoGenerators.fixed(0),
+                new StatusTransitionEngine(event -> { }));
         
         Referral referral = new Referral();
         referral.setPatientId(patientId);
@@ -62,7 +63,8 @@ class ReferralPropertyTest {
             @ForAll("emptyOrNullStrings") String examResults) {
         
         ReferralMapper referralMapper = Mockito.mock(ReferralMapper.class);
-        ReferralService service = new ReferralService(referralMapper);
+        ReferralService service = new ReferralService(referralMapper, BusinessNoGenerators.fixed(0),
+                new StatusTransitionEngine(event -> { }));
         
         Referral referral = new Referral();
         referral.setPatientId(patientId);
@@ -91,7 +93,8 @@ class ReferralPropertyTest {
             @ForAll("emptyOrNullStrings") String reason) {
         
         ReferralMapper referralMapper = Mockito.mock(ReferralMapper.class);
-        ReferralService service = new ReferralService(referralMapper);
+        ReferralService service = new ReferralService(referralMapper, BusinessNoGenerators.fixed(0),
+                new StatusTransitionEngine(event -> { }));
         
         Referral referral = new Referral();
         referral.setPatientId(patientId);
@@ -120,7 +123,8 @@ class ReferralPropertyTest {
             @ForAll("validStrings") String examResults) {
         
         ReferralMapper referralMapper = Mockito.mock(ReferralMapper.class);
-        ReferralService service = new ReferralService(referralMapper);
+        ReferralService service = new ReferralService(referralMapper, BusinessNoGenerators.fixed(0),
+                new StatusTransitionEngine(event -> { }));
         
         when(referralMapper.insert(any())).thenReturn(1);
         
@@ -148,7 +152,8 @@ class ReferralPropertyTest {
             @ForAll @LongRange(min = 1, max = 1000000) Long referralId) {
         
         ReferralMapper referralMapper = Mockito.mock(ReferralMapper.class);
-        ReferralService service = new ReferralService(referralMapper);
+        ReferralService service = new ReferralService(referralMapper, BusinessNoGenerators.fixed(0),
+                new StatusTransitionEngine(event -> { }));
         
         assertThatThrownBy(() -> service.deleteReferral(referralId))
             .isInstanceOf(BusinessException.class)
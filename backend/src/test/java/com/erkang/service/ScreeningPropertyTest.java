@@ -0,0 +1,165 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.common.utils.AhoCorasick;
+import com.erkang.domain.enums.ScreeningCategory;
+import com.erkang.domain.vo.ScreeningHitVO;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 文本筛查引擎属性测试
+ * 验证单次扫描的匹配结果与逐条匹配的原实现一致
+ * _Requirements: 8.5, 10.3, 10.4, 10.6_
+ */
+class ScreeningPropertyTest {
+
+    private final ScreeningService screeningService = new ScreeningService();
+
+    /**
+     * Property 1: 自动机命中与逐个 indexOf 查找结果一致
+     */
+    @Property(tries = 200)
+    @Label("自动机命中与逐个查找一致")
+    void automatonHits_shouldMatchNaiveSearch(
+            @ForAll @Size(min = 1, max = 6) List<@StringLength(min = 1, max = 3) @CharRange(from = 'a', to = 'd') String> keywords,
+            @ForAll @StringLength(max = 40) @CharRange(from = 'a', to = 'e') String text) {
+        AhoCorasick automaton = AhoCorasick.build(keywords, false);
+
+        List<String> actual = new ArrayList<>();
+        automaton.scan(text, (k, start, end) -> {
+            actual.add(k + "@" + start + "-" + end);
+            return true;
+        });
+
+        List<String> expected = new ArrayList<>();
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            for (int i = text.indexOf(keyword); i >= 0; i = text.indexOf(keyword, i + 1)) {
+                expected.add(k + "@" + i + "-" + (i + keyword.length()));
+            }
+        }
+        assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    /**
+     * Property 2: 脱敏结果与原逐条正则替换一致
+     */
+    @Property(tries = 200)
+    @Label("敏感信息脱敏与原实现一致")
+    void sanitize_shouldMatchLegacy(@ForAll("textsWithPii") String text) {
+        assertThat(screeningService.sanitize(text)).isEqualTo(legacySanitize(text));
+    }
+
+    /**
+     * Property 3: 剂量过滤结果与原逐条正则替换一致
+     */
+    @Property(tries = 200)
+    @Label("剂量过滤与原实现一致")
+    void filterDosage_shouldMatchLegacy(@ForAll("textsWithDosage") String text) {
+        assertThat(screeningService.filterDosage(text)).isEqualTo(legacyFilterDosage(text));
+    }
+
+    /**
+     * Property 4: 红旗征象检测与原实现一致（忽略大小写）
+     */
+    @Property(tries = 200)
+    @Label("红旗征象检测与原实现一致")
+    void redFlagDetection_shouldMatchLegacy(@ForAll("symptoms") String symptoms) {
+        String lower = symptoms.toLowerCase();
+        boolean expected = screeningService.getDictionaries().get(ScreeningCategory.RED_FLAG).stream()
+                .anyMatch(k -> lower.contains(k.toLowerCase()));
+        assertThat(screeningService.containsKeyword(ScreeningCategory.RED_FLAG, symptoms)).isEqualTo(expected);
+    }
+
+    @Example
+    @Label("词典热更新后立即生效")
+    void reloadDictionary_shouldTakeEffectImmediately() {
+        ScreeningService service = new ScreeningService();
+        assertThat(service.containsKeyword(ScreeningCategory.RED_FLAG, "鼻塞流涕")).isFalse();
+
+        long version = service.reloadDictionary(ScreeningCategory.RED_FLAG, List.of("鼻塞"));
+
+        assertThat(version).isEqualTo(2L);
+        assertThat(service.findFirstKeyword(ScreeningCategory.RED_FLAG, "鼻塞流涕")).isEqualTo("鼻塞");
+        assertThat(service.containsKeyword(ScreeningCategory.RED_FLAG, "高烧")).isFalse();
+        assertThat(service.containsKeyword(ScreeningCategory.EMERGENCY, "胸痛")).isTrue();
+    }
+
+    @Example
+    @Label("非词典类别不允许热更新")
+    void reloadDictionary_shouldRejectPatternCategory() {
+        assertThatThrownBy(() -> new ScreeningService().reloadDictionary(ScreeningCategory.PHONE, List.of("1")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Example
+    @Label("全量筛查一次返回全部类别")
+    void scan_shouldReportAllCategories() {
+        List<ScreeningHitVO> hits = screeningService.scan("患者张三，胸痛伴呼吸困难，电话13812345678，每次2片");
+
+        assertThat(hits).extracting(ScreeningHitVO::getCategory).contains(
+                ScreeningCategory.NAME, ScreeningCategory.EMERGENCY, ScreeningCategory.RED_FLAG,
+                ScreeningCategory.PHONE, ScreeningCategory.DOSAGE);
+        assertThat(hits).filteredOn(h -> h.getCategory() == ScreeningCategory.NAME)
+                .extracting(ScreeningHitVO::getMatched).containsExactly("张三");
+    }
+
+    @Provide
+    Arbitrary<String> textsWithPii() {
+        Arbitrary<String> phone = Arbitraries.strings().numeric().ofLength(9)
+                .map(s -> "13" + s);
+        Arbitrary<String> idCard = Arbitraries.strings().numeric().ofLength(17)
+                .flatMap(s -> Arbitraries.of("0", "5", "X", "x").map(c -> s + c));
+        Arbitrary<String> name = Arbitraries.of("姓名：", "患者", "病人:")
+                .flatMap(p -> Arbitraries.of("张三", "李四光", "王小明", "欧阳娜娜").map(n -> p + n + "，"));
+        Arbitrary<String> filler = Arbitraries.of("我", "头痛", "，", "2", "1", " ", "张三", "已经三天");
+        return Arbitraries.oneOf(phone, idCard, name, filler).list().ofMaxSize(8)
+                .map(parts -> String.join("", parts));
+    }
+
+    @Provide
+    Arbitrary<String> textsWithDosage() {
+        Arbitrary<String> part = Arbitraries.of(
+                "每次", "每日", "每", "2", "10", "片", "粒", "次", "mg", "m", "毫克", "毫", "升", "ml", "，", "建议");
+        return part.list().ofMaxSize(12).map(parts -> String.join("", parts));
+    }
+
+    @Provide
+    Arbitrary<String> symptoms() {
+        Arbitrary<String> part = Arbitraries.of(
+                "耳鸣", "高烧", "剧烈", "疼痛", "Severe Pain", "bleeding", "BLEED", "眩晕", "恶心", "呕吐", "，");
+        return part.list().ofMaxSize(6).map(parts -> String.join("", parts));
+    }
+
+    private static final Pattern PHONE_PATTERN = Pattern.compile("1[3-9]\\d{9}");
+    private static final Pattern ID_CARD_PATTERN = Pattern.compile("\\d{17}[\\dXx]");
+    private static final Pattern NAME_PATTERN = Pattern.compile("(?:姓名|患者|病人)[：:]*([\\u4e00-\\u9fa5]{2,4})");
+
+    private static String legacySanitize(String input) {
+        String result = ID_CARD_PATTERN.matcher(input).replaceAll("[身份证号已隐藏]");
+        result = PHONE_PATTERN.matcher(result).replaceAll("[手机号已隐藏]");
+        Matcher nameMatcher = NAME_PATTERN.matcher(result);
+        while (nameMatcher.find()) {
+            String name = nameMatcher.group(1);
+            result = result.replace(name, name.charAt(0) + "*".repeat(name.length() - 1));
+        }
+        return result;
+    }
+
+    private static String legacyFilterDosage(String response) {
+        String result = response;
+        result = result.replaceAll("每次\\d+[片粒支ml毫升]", "每次[剂量请遵医嘱]");
+        result = result.replaceAll("每日\\d+次", "每日[次数请遵医嘱]");
+        result = result.replaceAll("\\d+mg", "[剂量请遵医嘱]");
+        result = result.replaceAll("\\d+毫克", "[剂量请遵医嘱]");
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+package com.erkang.service;
+
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 单行内存表：按条件更新生成的 SET 与 WHERE 片段原子地执行，相当于数据库的行锁
+ */
+public final class SingleRowTable {
+
+    private static final Pattern PARAM = Pattern.compile("#\\{ew\\.paramNameValuePairs\\.(\\w+)}");
+    private static final Pattern ASSIGN = Pattern.compile("(\\w+)\\s*=\\s*" + PARAM.pattern());
+    private static final Pattern INCREMENT = Pattern.compile("(\\w+) = \\1 \\+ 1");
+    private static final Pattern EQ = Pattern.compile("(\\w+) = " + PARAM.pattern());
+    private static final Pattern IN = Pattern.compile("(\\w+) IN \\(([^)]*)\\)");
+
+    public final Map<String, Object> row = new HashMap<>();
+
+    public SingleRowTable(Long id, String status) {
+        row.put("id", id);
+        row.put("status", status);
+        row.put("version", 0);
+    }
+
+    /**
+     * 条件更新落在本表上的 Mapper 模拟
+     */
+    public <E, M extends BaseMapper<E>> M mapper(Class<M> type) {
+        M mapper = mock(type);
+        when(mapper.update(isNull(), any())).thenAnswer(inv -> update(inv.getArgument(1)));
+        return mapper;
+    }
+
+    public synchronized <T> T snapshot(Supplier<T> reader) {
+        return reader.get();
+    }
+
+    synchronized int update(UpdateWrapper<?> wrapper) {
+        Map<String, Object> params = wrapper.getParamNameValuePairs();
+        String where = wrapper.getSqlSegment();
+        String remaining = where;
+        Matcher eq = EQ.matcher(where);
+        while (eq.find()) {
+            if (!params.get(eq.group(2)).equals(row.get(eq.group(1)))) {
+                return 0;
+            }
+            remaining = remaining.replace(eq.group(), "");
+        }
+        Matcher in = IN.matcher(where);
+        while (in.find()) {
+            List<Object> values = new ArrayList<>();
+            Matcher param = PARAM.matcher(in.group(2));
+            while (param.find()) {
+                values.add(params.get(param.group(1)));
+            }
+            if (!values.contains(row.get(in.group(1)))) {
+                return 0;
+            }
+            remaining = remaining.replace(in.group(), "");
+        }
+        assertThat(remaining.replace("AND", "")).as("未识别的条件: " + where).matches("[()\\s]*");
+
+        for (String set : wrapper.getSqlSet().split(",")) {
+            Matcher assign = ASSIGN.matcher(set);
+            Matcher increment = INCREMENT.matcher(set.trim());
+            if (assign.matches()) {
+                row.put(assign.group(1), params.get(assign.group(2)));
+            } else if (increment.matches()) {
+                row.put(increment.group(1), (Integer) row.get(increment.group(1)) + 1);
+            } else {
+                fail("未识别的赋值: " + set);
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,167 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.domain.entity.Referral;
+import com.erkang.domain.enums.ConsultationStatus;
+import com.erkang.mapper.ConsultationMapper;
+import com.erkang.mapper.ReferralMapper;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 状态流转引擎属性测试
+ */
+class StatusTransitionEnginePropertyTest {
+
+    private static final long ID = 1L;
+
+    /**
+     * 同一记录的并发流转（含互斥的目标状态）只有一个生效，只发布一次事件，版本号只递增一次
+     */
+    @Property(tries = 30)
+    void concurrentTransitionsApplyOnce(@ForAll @IntRange(min = 2, max = 16) int threads) throws Exception {
+        SingleRowTable table = new SingleRowTable(ID, "WAITING");
+        List<StatusTransitionEvent> events = new CopyOnWriteArrayList<>();
+        StatusTransitionEngine engine = new StatusTransitionEngine(events::add);
+        ConsultationMapper mapper = table.mapper(ConsultationMapper.class);
+
+        List<String> winners = race(threads, i -> {
+            ConsultationStatus target = i % 2 == 0 ? ConsultationStatus.IN_PROGRESS : ConsultationStatus.CANCELED;
+            StatusTransition transition = StatusTransition.of("Consultation", ID)
+                    .from(ConsultationStatus.predecessorCodesOf(target))
+                    .to(target.getCode())
+                    .stamp("status_updated_at");
+            return engine.apply(mapper, transition) ? target.getCode() : null;
+        });
+
+        assertThat(winners).hasSize(1);
+        assertThat(events).hasSize(1).first().extracting(StatusTransitionEvent::to).isEqualTo(winners.get(0));
+        assertThat(table.row).containsEntry("status", winners.get(0)).containsEntry("version", 1);
+    }
+
+    /**
+     * 当前状态在前驱状态中时生效：状态、版本号与流转时间在同一语句写入；否则记录不变且不发布事件
+     */
+    @Property(tries = 100)
+    void appliedIffCurrentStatusAllowed(@ForAll ConsultationStatus current, @ForAll ConsultationStatus target) {
+        SingleRowTable table = new SingleRowTable(ID, current.getCode());
+        List<StatusTransitionEvent> events = new ArrayList<>();
+        StatusTransitionEngine engine = new StatusTransitionEngine(events::add);
+        StatusTransition transition = StatusTransition.of("Consultation", ID)
+                .from(ConsultationStatus.predecessorCodesOf(target))
+                .to(target.getCode())
+                .stamp("status_updated_at");
+
+        boolean applied = engine.apply(table.mapper(ConsultationMapper.class), transition);
+
+        assertThat(applied).isEqualTo(current.canTransitionTo(target));
+        if (applied) {
+            assertThat(table.row).containsEntry("status", target.getCode())
+                    .containsEntry("version", 1)
+                    .containsEntry("status_updated_at", transition.getAt())
+                    .containsEntry("updated_at", transition.getAt());
+            assertThat(events).containsExactly(new StatusTransitionEvent("Consultation", ID,
+                    transition.getFrom(), target.getCode(), transition.getAt()));
+        } else {
+            assertThat(table.row).containsOnlyKeys("id", "status", "version").containsEntry("version", 0);
+            assertThat(events).isEmpty();
+        }
+    }
+
+    /**
+     * 要求的版本号已变化时不生效
+     */
+    @Property(tries = 20)
+    void staleVersionRejected(@ForAll @IntRange(min = 0, max = 5) int expected) {
+        SingleRowTable table = new SingleRowTable(ID, "IN_PROGRESS");
+        table.row.put("version", 3);
+        StatusTransitionEngine engine = new StatusTransitionEngine(event -> { });
+
+        boolean applied = engine.apply(table.mapper(ConsultationMapper.class), StatusTransition.of("Consultation", ID)
+                .from("IN_PROGRESS").to("FINISHED").expectVersion(expected));
+
+        assertThat(applied).isEqualTo(expected == 3);
+        assertThat(table.row.get("status")).isEqualTo(expected == 3 ? "FINISHED" : "IN_PROGRESS");
+    }
+
+    /**
+     * 并发接受与拒绝同一转诊：只有一个成功，其余收到状态错误，结果与成功者一致
+     */
+    @Property(tries = 30)
+    void concurrentReferralDecisionsApplyOnce(@ForAll @IntRange(min = 2, max = 16) int threads) throws Exception {
+        SingleRowTable table = new SingleRowTable(ID, "PENDING");
+        ReferralMapper mapper = table.mapper(ReferralMapper.class);
+        when(mapper.selectById(any())).thenAnswer(inv -> table.snapshot(() -> {
+            Referral referral = new Referral();
+            referral.setId(ID);
+            referral.setReferralNo("RF1");
+            referral.setStatus((String) table.row.get("status"));
+            referral.setRejectReason((String) table.row.get("reject_reason"));
+            return referral;
+        }));
+        ReferralService service = new ReferralService(mapper, BusinessNoGenerators.fixed(0),
+                new StatusTransitionEngine(event -> { }));
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<String> winners = race(threads, i -> {
+            try {
+                Referral referral = i % 2 == 0 ? service.accept(ID) : service.reject(ID, "床位已满");
+                return referral.getStatus();
+            } catch (BusinessException e) {
+                rejected.incrementAndGet();
+                return null;
+            }
+        });
+
+        assertThat(winners).hasSize(1);
+        assertThat(rejected).hasValue(threads - 1);
+        assertThat(table.row).containsEntry("status", winners.get(0)).containsEntry("version", 1);
+        assertThat(table.row.containsKey("reject_reason")).isEqualTo("REJECTED".equals(winners.get(0)));
+    }
+
+    /**
+     * 并发执行，返回非空结果
+     */
+    private static List<String> race(int threads, Attempt attempt) throws InterruptedException {
+        List<String> results = new CopyOnWriteArrayList<>();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    String result = attempt.run(index);
+                    if (result != null) {
+                        results.add(result);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertThat(errors).isEmpty();
+        return results;
+    }
+
+    private interface Attempt {
+        String run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,205 @@
+package com.erkang.service;
+
+import com.erkang.common.BusinessException;
+import com.erkang.config.StorageProperties;
+import com.erkang.domain.entity.MedicalAttachment;
+import com.erkang.integration.storage.MinioService;
+import com.erkang.integration.storage.PresignedUrlCache;
+import com.erkang.mapper.MedicalAttachmentMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+import org.mockito.ArgumentCaptor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 附件缩略图属性测试
+ */
+class ThumbnailPropertyTest {
+
+    private static final String OBJECT = "medical/2024/01/01/abcd1234_eardrum.png";
+
+    /**
+     * 缩略图与原图互相映射；上传生成的对象名无论文件名含什么字符都不会被当成缩略图
+     */
+    @Property(tries = 100)
+    void uploadedNamesNeverParseAsRenditions(@ForAll @StringLength(max = 40) String fileName,
+                                             @ForAll("renditionNames") String rendition) {
+        String objectName = MinioService.generateObjectName(fileName + "@" + rendition + ".jpg", "medical");
+
+        assertThat(ThumbnailService.originalObjectName(objectName)).isEqualTo(objectName);
+        assertThat(ThumbnailService.originalObjectName(ThumbnailService.renditionObjectName(objectName, rendition)))
+                .isEqualTo(objectName);
+        assertThat(ThumbnailService.originalObjectName("medical/x@y/z.jpg")).isEqualTo("medical/x@y/z.jpg");
+    }
+
+    @Provide
+    Arbitrary<String> renditionNames() {
+        return Arbitraries.of("small", "medium", "large_2x");
+    }
+
+    /**
+     * 缩放后长边不超过规格、宽高比基本不变，小图不放大
+     */
+    @Property(tries = 100)
+    void resizeFitsWithinMaxEdge(@ForAll @IntRange(min = 1, max = 1200) int width,
+                                 @ForAll @IntRange(min = 1, max = 1200) int height,
+                                 @ForAll @IntRange(min = 16, max = 640) int maxEdge) {
+        BufferedImage resized = ThumbnailService.resize(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), maxEdge);
+
+        assertThat(Math.max(resized.getWidth(), resized.getHeight()))
+                .isEqualTo(Math.min(maxEdge, Math.max(width, height)));
+        assertThat(resized.getWidth()).isLessThanOrEqualTo(width);
+        assertThat(resized.getHeight()).isLessThanOrEqualTo(height);
+        if (resized.getWidth() > 1 && resized.getHeight() > 1) {
+            double ratio = (double) width / height;
+            double resizedRatio = (double) resized.getWidth() / resized.getHeight();
+            assertThat(Math.abs(Math.log(resizedRatio / ratio))).isLessThan(Math.log(2));
+        }
+    }
+
+    /**
+     * 每个规格生成一张存放在原图旁的 JPEG，完成后记录到附件；重复生成写入相同的对象名
+     */
+    @Property(tries = 20)
+    void generateStoresRenditionsNextToOriginal(@ForAll @IntRange(min = 50, max = 900) int width,
+                                                @ForAll @IntRange(min = 50, max = 900) int height) throws Exception {
+        Fixture f = new Fixture();
+        f.source(width, height);
+        MedicalAttachment attachment = f.attachment(1L, "image/png");
+
+        f.service.generate(attachment);
+        f.service.generate(attachment);
+
+        ArgumentCaptor<byte[]> data = ArgumentCaptor.forClass(byte[].class);
+        verify(f.minioService, times(2)).putBytes(eq(OBJECT + "@small.jpg"), data.capture(), eq("image/jpeg"));
+        verify(f.minioService, times(2)).putBytes(eq(OBJECT + "@medium.jpg"), any(), eq("image/jpeg"));
+        BufferedImage small = ImageIO.read(new ByteArrayInputStream(data.getValue()));
+        assertThat(Math.max(small.getWidth(), small.getHeight())).isEqualTo(Math.min(160, Math.max(width, height)));
+
+        ArgumentCaptor<MedicalAttachment> update = ArgumentCaptor.forClass(MedicalAttachment.class);
+        verify(f.attachmentMapper, times(2)).updateById(update.capture());
+        assertThat(update.getValue().getId()).isEqualTo(1L);
+        assertThat(update.getValue().getRenditions()).isEqualTo("small,medium");
+        assertThat(f.registry.timer("erkang.storage.thumbnail", "result", "success").count()).isEqualTo(2);
+    }
+
+    /**
+     * 无法解码或像素超限的图片不写入缩略图，也不更新附件
+     */
+    @Example
+    void failedGenerationLeavesAttachmentUntouched() throws Exception {
+        Fixture f = new Fixture();
+        when(f.minioService.downloadFile(OBJECT)).thenAnswer(inv -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        f.service.generate(f.attachment(1L, "image/png"));
+
+        f.properties.getThumbnail().setMaxSourcePixels(100);
+        f.source(20, 20);
+        f.service.generate(f.attachment(2L, "image/png"));
+
+        verify(f.minioService, never()).putBytes(anyString(), any(), anyString());
+        verify(f.attachmentMapper, never()).updateById(any(MedicalAttachment.class));
+        assertThat(f.registry.timer("erkang.storage.thumbnail", "result", "failure").count()).isEqualTo(2);
+    }
+
+    /**
+     * 同一附件在生成完成前重复提交只执行一次；非图片附件不提交
+     */
+    @Example
+    void duplicateSubmissionsCoalesce() throws Exception {
+        Fixture f = new Fixture();
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] png = png(40, 30);
+        when(f.minioService.downloadFile(OBJECT)).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new ByteArrayInputStream(png);
+        });
+        MedicalAttachment attachment = f.attachment(1L, "image/png");
+
+        assertThat(f.service.submit(attachment)).isTrue();
+        assertThat(f.service.submit(attachment)).isTrue();
+        assertThat(f.service.submit(f.attachment(2L, "application/pdf"))).isFalse();
+        release.countDown();
+
+        verify(f.attachmentMapper, timeout(5000)).updateById(any(MedicalAttachment.class));
+        verify(f.minioService, times(1)).downloadFile(OBJECT);
+        f.service.shutdown();
+    }
+
+    /**
+     * 重新生成：附件不存在或类型不支持时拒绝
+     */
+    @Example
+    void regenerateRejectsMissingOrUnsupported() {
+        Fixture f = new Fixture();
+        when(f.attachmentMapper.selectById(2L)).thenReturn(f.attachment(2L, "application/pdf"));
+
+        assertThatThrownBy(() -> f.service.regenerate(1L)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> f.service.regenerate(2L)).isInstanceOf(BusinessException.class);
+        f.service.shutdown();
+    }
+
+    /**
+     * 查询附件时按已生成的规格填充访问地址
+     */
+    @Example
+    void fillRenditionUrlsForGeneratedOnly() {
+        Fixture f = new Fixture();
+        when(f.minioService.getPresignedUrl(anyString(), anyInt())).thenAnswer(inv -> "https://s/" + inv.getArgument(0));
+        MedicalAttachment generated = f.attachment(1L, "image/png");
+        generated.setRenditions("small,medium");
+        MedicalAttachment plain = f.attachment(2L, "application/pdf");
+
+        f.service.fillRenditionUrls(List.of(generated, plain));
+
+        assertThat(generated.getRenditionUrls()).isEqualTo(Map.of(
+                "small", "https://s/" + OBJECT + "@small.jpg",
+                "medium", "https://s/" + OBJECT + "@medium.jpg"));
+        assertThat(plain.getRenditionUrls()).isNull();
+        f.service.shutdown();
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 测试夹具
+     */
+    private static final class Fixture {
+        final MinioService minioService = mock(MinioService.class);
+        final MedicalAttachmentMapper attachmentMapper = mock(MedicalAttachmentMapper.class);
+        final StorageProperties properties = new StorageProperties();
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final ThumbnailService service = new ThumbnailService(minioService,
+                new PresignedUrlCache(minioService, properties, registry), attachmentMapper, properties, registry);
+
+        void source(int width, int height) throws Exception {
+            byte[] png = png(width, height);
+            when(minioService.downloadFile(OBJECT)).thenAnswer(inv -> new ByteArrayInputStream(png));
+        }
+
+        MedicalAttachment attachment(Long id, String fileType) {
+            MedicalAttachment attachment = new MedicalAttachment();
+            attachment.setId(id);
+            attachment.setFileUrl(OBJECT);
+            attachment.setFileType(fileType);
+            attachment.setFileSize(1024L);
+            return attachment;
+        }
+    }
+}